@@ -418,6 +418,8 @@ public final class Maestro implements MaestroRequester {
         final LogRequest maestroNote = new LogRequest();
 
         maestroNote.setLocationType(locationType);
+        // The log responses are received by the collector, which decompresses them
+        maestroNote.setAcceptedCompressions(LogCompression.DEFLATE);
         if (typeName != null) {
             maestroNote.setTypeName(typeName);
         }
@@ -28,6 +28,7 @@ import org.maestro.common.ConfigurationWrapper;
 import org.maestro.common.client.MaestroReceiver;
 import org.maestro.common.client.notes.ErrorCode;
 import org.maestro.common.client.notes.LocationTypeInfo;
+import org.maestro.common.client.notes.LogCompression;
 import org.maestro.common.client.notes.MaestroNote;
 import org.maestro.common.client.notes.Test;
 import org.maestro.common.duration.EpochClocks;
@@ -37,6 +38,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
 
 /**
  * A maestro client that receives data
@@ -250,8 +252,31 @@ public class MaestroReceiverClient extends MaestroMqttClient implements MaestroR
         }
     }
 
+    /*
+     * Uses the compression configured for the worker, as long as the requester is able to decompress it
+     */
+    private static LogCompression negotiateCompression(final LogRequest note) {
+        final String name = ConfigurationWrapper.getConfig().getString("worker.logs.compression", "deflate");
+
+        final LogCompression compression;
+        try {
+            compression = LogCompression.valueOf(name.trim().toUpperCase());
+        }
+        catch (IllegalArgumentException e) {
+            logger.warn("Sending the log files uncompressed because the compression {} is not valid", name);
+            return LogCompression.NONE;
+        }
+
+        if (note.getAcceptedCompressions().contains(compression)) {
+            return compression;
+        }
+
+        return LogCompression.NONE;
+    }
+
     /**
-     * Sends log files via Maestro broker
+     * Sends log files via Maestro broker. The file is sent asynchronously, through the bulk lane. If the
+     * request is for some of the chunks of the file, only those are sent
      * @param logFile the log file to send
      * @param note the requesting note
      * @param hash the hash for the file being sent
@@ -268,16 +293,33 @@ public class MaestroReceiverClient extends MaestroMqttClient implements MaestroR
         logResponse.setPeerInfo(peerInfo);
         logResponse.setId(id);
 
+        // The response is sent asynchronously, so it cannot share the location info with the caller
+        final LocationTypeInfo responseLocationTypeInfo = new LocationTypeInfo(locationTypeInfo.getFileCount());
+        responseLocationTypeInfo.setIndex(locationTypeInfo.getIndex());
+
         logResponse.setLocationType(note.getLocationType());
-        logResponse.setLocationTypeInfo(locationTypeInfo);
+        logResponse.setLocationTypeInfo(responseLocationTypeInfo);
         logResponse.setFile(logFile);
         logResponse.setFileHash(hash);
+        if (note.getChunks() != null) {
+            logResponse.setChunks(note.getChunks());
+        }
+        logResponse.setCompression(negotiateCompression(note),
+                ConfigurationWrapper.getConfig().getInt("worker.logs.compression.level", Deflater.DEFAULT_COMPRESSION));
         logResponse.correlate(note);
 
         ThrottleCallback throttleCallback = new ThrottleCallback();
 
         client.publish(MaestroTopics.MAESTRO_LOGS_TOPIC, logResponse, MqttServiceLevel.EXACTLY_ONCE, false,
-                throttleCallback);
+                throttleCallback)
+                .whenComplete((v, t) -> {
+                    if (t != null) {
+                        logger.error("Unable to send the log file {}: {}", logFile.getName(), t.getMessage(), t);
+                    }
+                    else {
+                        logger.debug("Sent the log file {}", logFile.getName());
+                    }
+                });
     }
 
 
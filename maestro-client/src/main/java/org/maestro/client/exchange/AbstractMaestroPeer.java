@@ -21,6 +21,7 @@ import org.maestro.client.exchange.mqtt.MqttClientInstance;
 import org.maestro.client.exchange.support.PeerInfo;
 import org.maestro.common.client.exceptions.MalformedNoteException;
 import org.maestro.common.client.notes.MaestroNote;
+import org.maestro.common.client.notes.MaestroNoteType;
 import org.maestro.common.exceptions.MaestroConnectionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,7 +52,12 @@ public abstract class AbstractMaestroPeer<T extends MaestroNote> implements Mqtt
     private final MaestroNoteDeserializer<? extends T> deserializer;
     private final PeerInfo peerInfo;
 
+    /*
+     The data notes (ie.: log files) are handled separately from the control notes (requests,
+     responses and notifications), so that the control notes are not delayed by large data transfers
+     */
     private final ExecutorService messageHandlerService = Executors.newSingleThreadExecutor();
+    private final ExecutorService dataHandlerService = Executors.newSingleThreadExecutor();
 
     protected AbstractMaestroPeer(final String url, final PeerInfo peerInfo, MaestroNoteDeserializer<? extends T> deserializer) throws MaestroConnectionException {
         this(MqttClientInstance.getInstance(url).getClient(), peerInfo, deserializer);
@@ -114,17 +120,23 @@ public abstract class AbstractMaestroPeer<T extends MaestroNote> implements Mqtt
         }
     }
 
+    private static void stop(final ExecutorService executorService) throws InterruptedException {
+        executorService.shutdown();
+
+        if (!executorService.awaitTermination(1, TimeUnit.SECONDS)) {
+            executorService.shutdownNow();
+            if (!executorService.awaitTermination(1, TimeUnit.SECONDS)) {
+                logger.warn("Message handler service did not stop cleanly");
+            }
+        }
+    }
+
     public void disconnect() throws MaestroConnectionException {
         logger.info("Disconnecting from Maestro Broker");
-        messageHandlerService.shutdown();
 
         try {
-            if (!messageHandlerService.awaitTermination(1, TimeUnit.SECONDS)) {
-                messageHandlerService.shutdownNow();
-                if (!messageHandlerService.awaitTermination(1, TimeUnit.SECONDS)) {
-                    logger.warn("Message handler service did not stop cleanly");
-                }
-            }
+            stop(messageHandlerService);
+            stop(dataHandlerService);
         }
         catch (InterruptedException e) {
            logger.trace("Interrupted while waiting for the message handler service to shutdown");
@@ -166,7 +178,12 @@ public abstract class AbstractMaestroPeer<T extends MaestroNote> implements Mqtt
 
 
     public void messageArrived(final String s, final MqttMessage mqttMessage) {
-        messageHandlerService.submit(() -> handleMessage(s, mqttMessage));
+        if (MaestroDeserializer.peekNoteType(mqttMessage.getPayload()) == MaestroNoteType.MAESTRO_TYPE_DATA) {
+            dataHandlerService.submit(() -> handleMessage(s, mqttMessage));
+        }
+        else {
+            messageHandlerService.submit(() -> handleMessage(s, mqttMessage));
+        }
     }
 
     private void handleMessage(String s, MqttMessage mqttMessage) {
@@ -178,9 +195,8 @@ public abstract class AbstractMaestroPeer<T extends MaestroNote> implements Mqtt
             final T note = deserializer.deserialize(payload);
             logger.trace("Message type: {}", note.getClass());
 
-            if (!note.hasNext()) {
-                noteArrived(note);
-            }
+            // Every chunk of a multi-part note (ie.: a log response) is delivered as it arrives
+            noteArrived(note);
         } catch (MalformedNoteException e) {
             logger.error("Invalid message type: {}", e.getMessage(), e);
         } catch (IOException e) {
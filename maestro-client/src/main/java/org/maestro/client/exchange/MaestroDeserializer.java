@@ -23,7 +23,9 @@ import org.maestro.common.client.notes.MaestroCommand;
 import org.maestro.common.client.notes.MaestroNote;
 import org.maestro.common.client.notes.MaestroNoteType;
 import org.msgpack.core.MessagePack;
+import org.msgpack.core.MessagePackException;
 import org.msgpack.core.MessageUnpacker;
+import org.msgpack.core.buffer.ArrayBufferInput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,6 +35,29 @@ import java.util.Objects;
 public class MaestroDeserializer {
     private static final Logger logger = LoggerFactory.getLogger(MaestroDeserializer.class);
 
+    /*
+     * The unpackers (and their input buffers) are reused by each thread instead of being created for
+     * every note. The input buffer wraps the serialized note without copying it, so the payloads read
+     * by reference (ie.: the log data) remain valid after the unpacker is reused
+     */
+    private static final class ReusableUnpacker {
+        private final ArrayBufferInput input = new ArrayBufferInput(new byte[0]);
+        private final MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(input);
+
+        MessageUnpacker reset(byte[] bytes) throws IOException {
+            input.reset(bytes);
+            unpacker.reset(input);
+
+            return unpacker;
+        }
+    }
+
+    private static final ThreadLocal<ReusableUnpacker> unpackers = ThreadLocal.withInitial(ReusableUnpacker::new);
+
+    private static MessageUnpacker unpacker(byte[] bytes) throws IOException {
+        return unpackers.get().reset(bytes);
+    }
+
     private static MaestroNotification deserializeNotification(final MessageUnpacker unpacker)
             throws IOException, MalformedNoteException
     {
@@ -67,9 +92,7 @@ public class MaestroDeserializer {
 
         switch (Objects.requireNonNull(command)) {
             case MAESTRO_NOTE_LOG: {
-                LogResponseJoiner instance = LogResponseJoiner.getInstance();
-
-                return instance.join(new LogResponse(unpacker));
+                return new LogResponse(unpacker);
             }
             default: {
                 logger.error("Type unknown: {}", command.getClass());
@@ -200,40 +223,52 @@ public class MaestroDeserializer {
     }
 
     public static MaestroEvent deserializeEvent(byte[] bytes) throws IOException, MalformedNoteException {
-        try (MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(bytes)){
-            final short tmpType = unpacker.unpackShort();
-            final MaestroNoteType type = MaestroNoteType.from(tmpType);
-
-            switch (Objects.requireNonNull(type)) {
-                case MAESTRO_TYPE_REQUEST:
-                    return deserializeRequest(unpacker);
-                case MAESTRO_TYPE_NOTIFICATION:
-                    return deserializeNotification(unpacker);
-                case MAESTRO_TYPE_DATA:
-                    return deserializeData(unpacker);
-                default:
-                    throw new MalformedNoteException("Invalid event type: " + tmpType);
-            }
+        final MessageUnpacker unpacker = unpacker(bytes);
+        final short tmpType = unpacker.unpackShort();
+        final MaestroNoteType type = MaestroNoteType.from(tmpType);
+
+        switch (Objects.requireNonNull(type)) {
+            case MAESTRO_TYPE_REQUEST:
+                return deserializeRequest(unpacker);
+            case MAESTRO_TYPE_NOTIFICATION:
+                return deserializeNotification(unpacker);
+            case MAESTRO_TYPE_DATA:
+                return deserializeData(unpacker);
+            default:
+                throw new MalformedNoteException("Invalid event type: " + tmpType);
         }
     }
 
     public static MaestroNote deserialize(byte[] bytes) throws IOException, MalformedNoteException {
-        try (MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(bytes)){
-            final short tmpType = unpacker.unpackShort();
-            final MaestroNoteType type = MaestroNoteType.from(tmpType);
-
-            switch (Objects.requireNonNull(type)) {
-                case MAESTRO_TYPE_REQUEST:
-                    return deserializeRequest(unpacker);
-                case MAESTRO_TYPE_RESPONSE:
-                    return deserializeResponse(unpacker);
-                case MAESTRO_TYPE_NOTIFICATION:
-                    return deserializeNotification(unpacker);
-                case MAESTRO_TYPE_DATA:
-                    return deserializeData(unpacker);
-                default:
-                    throw new MalformedNoteException("Invalid note type: " + tmpType);
-            }
+        final MessageUnpacker unpacker = unpacker(bytes);
+        final short tmpType = unpacker.unpackShort();
+        final MaestroNoteType type = MaestroNoteType.from(tmpType);
+
+        switch (Objects.requireNonNull(type)) {
+            case MAESTRO_TYPE_REQUEST:
+                return deserializeRequest(unpacker);
+            case MAESTRO_TYPE_RESPONSE:
+                return deserializeResponse(unpacker);
+            case MAESTRO_TYPE_NOTIFICATION:
+                return deserializeNotification(unpacker);
+            case MAESTRO_TYPE_DATA:
+                return deserializeData(unpacker);
+            default:
+                throw new MalformedNoteException("Invalid note type: " + tmpType);
+        }
+    }
+
+    /**
+     * Gets the type of a serialized note without deserializing it (ie.: to decide how to handle it)
+     * @param bytes the serialized note
+     * @return the note type or null if the note is malformed
+     */
+    public static MaestroNoteType peekNoteType(byte[] bytes) {
+        try {
+            return MaestroNoteType.from(unpacker(bytes).unpackShort());
+        }
+        catch (IOException | MessagePackException e) {
+            return null;
         }
     }
 }
@@ -19,9 +19,9 @@ package org.maestro.client.exchange;
 import org.eclipse.paho.client.mqttv3.MqttClient;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
 import org.eclipse.paho.client.mqttv3.MqttException;
-import org.eclipse.paho.client.mqttv3.MqttTopic;
 import org.maestro.client.callback.MaestroNoteCallback;
 import org.maestro.client.exchange.mqtt.MqttClientInstance;
+import org.maestro.client.exchange.mqtt.MqttPublisher;
 import org.maestro.common.client.MaestroClient;
 import org.maestro.common.client.exceptions.MalformedNoteException;
 import org.maestro.common.client.notes.MaestroNote;
@@ -30,11 +30,13 @@ import org.maestro.common.exceptions.MaestroException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 public class MaestroMqttClient implements MaestroClient {
     private static final Logger logger = LoggerFactory.getLogger(MaestroClient.class);
     private final MqttClient mqttClient;
+    private final MqttPublisher publisher;
 
     /**
      * Constructor
@@ -42,16 +44,21 @@ public class MaestroMqttClient implements MaestroClient {
      * @throws MaestroException if unable to create the client
      */
     public MaestroMqttClient(final String url) throws MaestroException {
-        mqttClient = MqttClientInstance.getInstance(url).getClient();
+        final MqttClientInstance instance = MqttClientInstance.getInstance(url);
+
+        mqttClient = instance.getClient();
+        publisher = instance.getPublisher();
     }
 
     /**
      * Constructor (for testing)
-     * @param mqttClient Maestro broker URL
+     * @param mqttClient the MQTT client
+     * @param publisher the publisher used to send the notes through the client
      * @throws MaestroException if unable to create the client
      */
-    protected MaestroMqttClient(final MqttClient mqttClient) throws MaestroException {
+    protected MaestroMqttClient(final MqttClient mqttClient, final MqttPublisher publisher) throws MaestroException {
         this.mqttClient = mqttClient;
+        this.publisher = publisher;
     }
 
     /**
@@ -90,7 +97,8 @@ public class MaestroMqttClient implements MaestroClient {
 
     /**
      * Publishes a message in the broker. This is normally used for publishing notifications,
-     * because some of them are set as retained in the broker
+     * because some of them are set as retained in the broker. The message is published through the
+     * control lane, so it does not queue behind bulk transfers, and this method waits for its delivery
      *
      * @param topic the topic to publish the message
      * @param note  the maestro note to publish
@@ -102,76 +110,40 @@ public class MaestroMqttClient implements MaestroClient {
     protected void publish(final String topic, final MaestroNote note, int qos, boolean retained) throws
             MalformedNoteException, MaestroConnectionException
     {
-        do {
-            final byte[] bytes;
-            try {
-                bytes = note.serialize();
-            } catch (IOException e) {
-                throw new MalformedNoteException(e.getMessage());
-            }
-
-            try {
-                if (!mqttClient.isConnected()) {
-                    logger.warn("The client is disconnected");
-                }
-
-                synchronized (mqttClient) {
-                    MqttTopic mqttTopic = mqttClient.getTopic(topic);
-
-                    mqttTopic.publish(bytes, qos, retained);
-                }
+        final CompletableFuture<Void> delivery = publisher.publish(MqttPublisher.Lane.CONTROL, topic, note, qos,
+                retained, null);
 
-                note.next();
-            } catch (MqttException e) {
-                throw new MaestroConnectionException("Unable to publish message: " + e.getMessage(), e);
+        try {
+            delivery.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MaestroConnectionException("Interrupted while publishing message: " + e.getMessage(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MaestroException) {
+                throw (MaestroException) e.getCause();
             }
-        } while (note.hasNext());
+
+            throw new MaestroConnectionException("Unable to publish message: " + e.getCause().getMessage(),
+                    e.getCause());
+        }
     }
 
     /**
-     * Publishes a message in the broker. This is normally used for publishing notifications,
-     * because some of them are set as retained in the broker
+     * Publishes a bulk message (ie.: a note that is sent in multiple chunks) in the broker. The message
+     * is published asynchronously through the bulk lane
      *
      * @param topic the topic to publish the message
      * @param note  the maestro note to publish
      * @param qos MQTT QoS
      * @param retained MQTT retained flag
-     * @param postProcessCallback A call back action to be executed after the message was sent
-     * @throws MaestroConnectionException if failed to publish the message
-     * @throws MalformedNoteException     in case of other I/O errors
+     * @param postProcessCallback A call back action to be executed after each chunk of the message was sent
+     * @return a future that completes once the message is delivered (or exceptionally with a
+     * MaestroConnectionException or MalformedNoteException if the message could not be published)
      */
-    protected void publish(final String topic, final MaestroNote note, int qos, boolean retained,
-                           final MaestroNoteCallback postProcessCallback) throws
-            MalformedNoteException, MaestroConnectionException
+    protected CompletableFuture<Void> publish(final String topic, final MaestroNote note, int qos, boolean retained,
+                                              final MaestroNoteCallback postProcessCallback)
     {
-        do {
-            final byte[] bytes;
-            try {
-                bytes = note.serialize();
-            } catch (IOException e) {
-                throw new MalformedNoteException(e.getMessage());
-            }
-
-            try {
-                if (!mqttClient.isConnected()) {
-                    logger.warn("The client is disconnected");
-                }
-
-                synchronized (mqttClient) {
-                    MqttTopic mqttTopic = mqttClient.getTopic(topic);
-
-                    mqttTopic.publish(bytes, qos, retained);
-                }
-
-                if (postProcessCallback != null) {
-                    postProcessCallback.call(note);
-                }
-
-                note.next();
-            } catch (MqttException e) {
-                throw new MaestroConnectionException("Unable to publish message: " + e.getMessage(), e);
-            }
-        } while (note.hasNext());
+        return publisher.publish(MqttPublisher.Lane.BULK, topic, note, qos, retained, postProcessCallback);
     }
 
     /**
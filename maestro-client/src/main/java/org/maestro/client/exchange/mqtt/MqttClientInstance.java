@@ -16,19 +16,30 @@
 
 package org.maestro.client.exchange.mqtt;
 
+import org.apache.commons.configuration.AbstractConfiguration;
 import org.eclipse.paho.client.mqttv3.MqttClient;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
 import org.maestro.client.exchange.MqttUtil;
+import org.maestro.common.ConfigurationWrapper;
 import org.maestro.common.URLUtils;
 import org.maestro.common.exceptions.MaestroConnectionException;
 
 import java.util.UUID;
 
 public class MqttClientInstance {
+    private static final AbstractConfiguration config = ConfigurationWrapper.getConfig();
+
+    /*
+     Paho uses 10 as the default max inflight exchanges. This may be a bit too small
+     when sending log files, handling stats messages, ping requests ... all at the same.
+     */
+    private static final int MAX_INFLIGHT = 20;
+
     private static MqttClientInstance instance = null;
-    private MqttClient client;
+    private MqttSharedClient client;
+    private MqttPublisher publisher;
     private final String id;
 
     private MqttClientInstance(final String url) {
@@ -40,7 +51,7 @@ public class MqttClientInstance {
 
         this.id = clientId;
         try {
-            client = new MqttClient(adjustedUrl, "maestro.exchange." + clientId, memoryPersistence);
+            client = new MqttSharedClient(adjustedUrl, "maestro.exchange." + clientId, memoryPersistence);
 
             Runtime.getRuntime().addShutdownHook(new Thread(this::terminate));
         }
@@ -71,12 +82,7 @@ public class MqttClientInstance {
 
         connOpts.setCleanSession(true);
         connOpts.setAutomaticReconnect(true);
-
-        /*
-         Paho uses 10 as the default max inflight exchanges. This may be a bit too small
-         when sending log files, handling stats messages, ping requests ... all at the same.
-         */
-        connOpts.setMaxInflight(20);
+        connOpts.setMaxInflight(MAX_INFLIGHT);
 
         return connOpts;
     }
@@ -85,11 +91,36 @@ public class MqttClientInstance {
         return client;
     }
 
+    /**
+     * Gets the asynchronous publisher for this client. The publishing windows of the lanes are
+     * bounded by the client's in-flight limit
+     * @return the publisher
+     */
+    public synchronized MqttPublisher getPublisher() {
+        if (publisher == null) {
+            final int controlWindow = config.getInt("maestro.mqtt.publish.window.control", 16);
+            final int bulkWindow = config.getInt("maestro.mqtt.publish.window.bulk", 2);
+
+            if (controlWindow + bulkWindow > MAX_INFLIGHT) {
+                throw new MaestroConnectionException("The publishing windows (%d control and %d bulk) exceed the " +
+                        "maximum number of messages in flight (%d)", controlWindow, bulkWindow, MAX_INFLIGHT);
+            }
+
+            publisher = new MqttPublisher(client.getAsyncClient(), controlWindow, bulkWindow);
+        }
+
+        return publisher;
+    }
+
     public String getId() {
         return id;
     }
 
     private synchronized void terminate() {
+        if (publisher != null) {
+            publisher.stop();
+        }
+
         MqttUtil.terminate(client);
     }
 }
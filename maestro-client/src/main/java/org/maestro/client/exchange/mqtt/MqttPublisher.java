@@ -0,0 +1,272 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.client.exchange.mqtt;
+
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.maestro.client.callback.MaestroNoteCallback;
+import org.maestro.common.client.exceptions.MalformedNoteException;
+import org.maestro.common.client.notes.MaestroNote;
+import org.maestro.common.exceptions.MaestroConnectionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An asynchronous publishing pipeline for the Maestro notes. The notes are serialized on a dedicated
+ * stage (a single thread, which keeps the notes and their chunks in order) and handed over to the
+ * asynchronous MQTT client without waiting for their delivery. The number of messages in flight is
+ * limited by a window, so that the serialized messages do not pile up in memory and the in-flight
+ * limit of the client is not exceeded.
+ *
+ * Bulk transfers (ie.: log files) go through a separate lane, with its own stage and window, so that
+ * the control traffic (replies, stats, pings and notifications) does not queue behind them.
+ */
+public class MqttPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(MqttPublisher.class);
+
+    /**
+     * The publishing lanes
+     */
+    public enum Lane {
+        /**
+         * Requests, replies and notifications
+         */
+        CONTROL,
+        /**
+         * Bulk data transfers
+         */
+        BULK
+    }
+
+    private static class Stage {
+        private final ExecutorService executor;
+        private final Semaphore window;
+
+        Stage(final String name, int window) {
+            if (window < 1) {
+                throw new IllegalArgumentException("The publishing window must be greater than zero");
+            }
+
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, name);
+
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            this.window = new Semaphore(window);
+        }
+    }
+
+    private final IMqttAsyncClient client;
+    private final Stage control;
+    private final Stage bulk;
+
+    /**
+     * Constructor
+     * @param client the asynchronous MQTT client
+     * @param controlWindow the maximum number of control messages in flight
+     * @param bulkWindow the maximum number of bulk messages in flight
+     */
+    public MqttPublisher(final IMqttAsyncClient client, int controlWindow, int bulkWindow) {
+        this.client = client;
+        this.control = new Stage("maestro-publisher-control", controlWindow);
+        this.bulk = new Stage("maestro-publisher-bulk", bulkWindow);
+    }
+
+    /*
+     * Tracks the delivery of the chunks of a note. The note is delivered once all the chunks are
+     * delivered and no more chunks are pending serialization (which accounts for one extra count)
+     */
+    private static class Delivery implements IMqttActionListener {
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final Semaphore window;
+        private final String topic;
+
+        Delivery(final Semaphore window, final String topic) {
+            this.window = window;
+            this.topic = topic;
+        }
+
+        void sent() {
+            pending.incrementAndGet();
+        }
+
+        void done() {
+            if (pending.decrementAndGet() == 0) {
+                future.complete(null);
+            }
+        }
+
+        void fail(final Throwable t) {
+            future.completeExceptionally(t);
+        }
+
+        @Override
+        public void onSuccess(final IMqttToken token) {
+            window.release();
+            done();
+        }
+
+        @Override
+        public void onFailure(final IMqttToken token, final Throwable t) {
+            window.release();
+            fail(new MaestroConnectionException("Unable to publish message to " + topic + ": " + t.getMessage(), t));
+        }
+    }
+
+    private void publish(final Stage stage, final Delivery delivery, final String topic, final MaestroNote note,
+                         int qos, boolean retained, final MaestroNoteCallback postProcessCallback) {
+        try {
+            do {
+                final byte[] bytes;
+                try {
+                    bytes = note.serialize();
+                } catch (IOException e) {
+                    throw new MalformedNoteException(e.getMessage());
+                }
+
+                if (!client.isConnected()) {
+                    logger.warn("The client is disconnected");
+                }
+
+                final MqttMessage message = new MqttMessage(bytes);
+                message.setQos(qos);
+                message.setRetained(retained);
+
+                stage.window.acquire();
+                delivery.sent();
+                try {
+                    client.publish(topic, message, null, delivery);
+                }
+                catch (MqttException e) {
+                    stage.window.release();
+                    throw new MaestroConnectionException("Unable to publish message: " + e.getMessage(), e);
+                }
+
+                if (postProcessCallback != null) {
+                    postProcessCallback.call(note);
+                }
+
+                note.next();
+            } while (note.hasNext() && !delivery.future.isDone());
+
+            delivery.done();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            delivery.fail(new MaestroConnectionException("Interrupted while publishing a message to " + topic, e));
+        }
+        catch (Throwable t) {
+            delivery.fail(t);
+        }
+        finally {
+            note.close();
+        }
+    }
+
+    /*
+     * A note waiting on the stage to be published
+     */
+    private class PublishTask implements Runnable {
+        private final Stage stage;
+        private final Delivery delivery;
+        private final String topic;
+        private final MaestroNote note;
+        private final int qos;
+        private final boolean retained;
+        private final MaestroNoteCallback postProcessCallback;
+
+        PublishTask(final Stage stage, final Delivery delivery, final String topic, final MaestroNote note,
+                    int qos, boolean retained, final MaestroNoteCallback postProcessCallback) {
+            this.stage = stage;
+            this.delivery = delivery;
+            this.topic = topic;
+            this.note = note;
+            this.qos = qos;
+            this.retained = retained;
+            this.postProcessCallback = postProcessCallback;
+        }
+
+        @Override
+        public void run() {
+            publish(stage, delivery, topic, note, qos, retained, postProcessCallback);
+        }
+
+        void discard() {
+            try {
+                delivery.fail(new MaestroConnectionException("The publisher was stopped before publishing to "
+                        + topic));
+            }
+            finally {
+                note.close();
+            }
+        }
+    }
+
+    /**
+     * Publishes a note. The note is serialized and sent asynchronously
+     * @param lane the lane to use
+     * @param topic the topic to publish the note
+     * @param note the maestro note to publish
+     * @param qos MQTT QoS
+     * @param retained MQTT retained flag
+     * @param postProcessCallback an optional callback executed after each chunk of the note is handed
+     *                            over to the client (may be null)
+     * @return a future that completes when all the chunks of the note are delivered (or exceptionally with
+     * a MalformedNoteException or MaestroConnectionException if the note could not be published)
+     */
+    public CompletableFuture<Void> publish(final Lane lane, final String topic, final MaestroNote note, int qos,
+                                           boolean retained, final MaestroNoteCallback postProcessCallback) {
+        final Stage stage = lane == Lane.BULK ? bulk : control;
+        final Delivery delivery = new Delivery(stage.window, topic);
+
+        try {
+            stage.executor.execute(new PublishTask(stage, delivery, topic, note, qos, retained, postProcessCallback));
+        }
+        catch (RejectedExecutionException e) {
+            note.close();
+            delivery.fail(new MaestroConnectionException("The publisher is already stopped", e));
+        }
+
+        return delivery.future;
+    }
+
+    private static void stop(final Stage stage) {
+        for (Runnable runnable : stage.executor.shutdownNow()) {
+            ((PublishTask) runnable).discard();
+        }
+    }
+
+    /**
+     * Stops the publisher. Notes not yet handed over to the client are discarded and their
+     * publishing fails with a MaestroConnectionException
+     */
+    public void stop() {
+        stop(control);
+        stop(bulk);
+    }
+}
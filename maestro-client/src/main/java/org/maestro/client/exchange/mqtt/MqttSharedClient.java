@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.client.exchange.mqtt;
+
+import org.eclipse.paho.client.mqttv3.IMqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.eclipse.paho.client.mqttv3.MqttClientPersistence;
+import org.eclipse.paho.client.mqttv3.MqttException;
+
+/**
+ * A (blocking) MQTT client that also exposes the asynchronous client it is built upon, so that
+ * the subscriptions and the asynchronous publishing can share the same connection
+ */
+public class MqttSharedClient extends MqttClient {
+
+    public MqttSharedClient(final String serverURI, final String clientId,
+                            final MqttClientPersistence persistence) throws MqttException {
+        super(serverURI, clientId, persistence);
+    }
+
+    /**
+     * Gets the asynchronous client that backs this client
+     * @return the asynchronous client
+     */
+    public IMqttAsyncClient getAsyncClient() {
+        return aClient;
+    }
+}
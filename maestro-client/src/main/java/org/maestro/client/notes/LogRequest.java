@@ -17,16 +17,23 @@
 package org.maestro.client.notes;
 
 import org.maestro.common.client.notes.LocationType;
+import org.maestro.common.client.notes.LogCompression;
 import org.maestro.common.client.notes.MaestroCommand;
 import org.msgpack.core.MessageBufferPacker;
 import org.msgpack.core.MessageUnpacker;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 
 public class LogRequest extends MaestroRequest<MaestroEventListener> {
     private LocationType locationType;
     private String typeName;
+    private final List<LogCompression> acceptedCompressions = new ArrayList<>();
+    private String fileName;
+    private int[] chunks;
 
     public LogRequest() {
         super(MaestroCommand.MAESTRO_NOTE_LOG);
@@ -39,6 +46,28 @@ public class LogRequest extends MaestroRequest<MaestroEventListener> {
         if (locationType == LocationType.ANY) {
             this.typeName = unpacker.unpackString();
         }
+
+        if (unpacker.hasNext()) {
+            final int count = unpacker.unpackArrayHeader();
+
+            for (int i = 0; i < count; i++) {
+                final LogCompression compression = LogCompression.byCode(unpacker.unpackInt());
+
+                // Compressions unknown to this peer are not accepted
+                if (compression != null) {
+                    acceptedCompressions.add(compression);
+                }
+            }
+        }
+
+        if (unpacker.hasNext()) {
+            this.fileName = unpacker.unpackString();
+
+            this.chunks = new int[unpacker.unpackArrayHeader()];
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = unpacker.unpackInt();
+            }
+        }
     }
 
     public LocationType getLocationType() {
@@ -57,6 +86,38 @@ public class LogRequest extends MaestroRequest<MaestroEventListener> {
         this.typeName = typeName;
     }
 
+    /**
+     * Gets the compressions the requester is able to decompress
+     * @return the accepted compressions (empty if the files should not be compressed)
+     */
+    public List<LogCompression> getAcceptedCompressions() {
+        return acceptedCompressions;
+    }
+
+    public void setAcceptedCompressions(final LogCompression... compressions) {
+        acceptedCompressions.clear();
+        acceptedCompressions.addAll(Arrays.asList(compressions));
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public int[] getChunks() {
+        return chunks;
+    }
+
+    /**
+     * Restricts the request to some of the chunks of a single file (ie.: to request the chunks that
+     * were not received)
+     * @param fileName the name of the file
+     * @param chunks the indexes of the chunks, in ascending order
+     */
+    public void setChunks(final String fileName, final int[] chunks) {
+        this.fileName = fileName;
+        this.chunks = chunks;
+    }
+
     @Override
     public void notify(MaestroEventListener visitor) {
         visitor.handle(this);
@@ -72,6 +133,20 @@ public class LogRequest extends MaestroRequest<MaestroEventListener> {
             packer.packString(this.typeName);
         }
 
+        packer.packArrayHeader(acceptedCompressions.size());
+        for (LogCompression compression : acceptedCompressions) {
+            packer.packInt(compression.getCode());
+        }
+
+        if (fileName != null) {
+            packer.packString(fileName);
+
+            packer.packArrayHeader(chunks.length);
+            for (int chunk : chunks) {
+                packer.packInt(chunk);
+            }
+        }
+
         return packer;
     }
 
@@ -81,6 +156,9 @@ public class LogRequest extends MaestroRequest<MaestroEventListener> {
         return "LogRequest{" +
                 "locationType=" + locationType +
                 ", typeName='" + typeName + '\'' +
+                ", acceptedCompressions=" + acceptedCompressions +
+                ", fileName='" + fileName + '\'' +
+                ", chunks=" + Arrays.toString(chunks) +
                 "} " + super.toString();
     }
 }
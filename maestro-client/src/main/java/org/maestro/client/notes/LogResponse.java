@@ -17,16 +17,20 @@
 package org.maestro.client.notes;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.maestro.common.client.notes.LocationType;
 import org.maestro.common.client.notes.LocationTypeInfo;
+import org.maestro.common.client.notes.LogCompression;
 import org.maestro.common.client.notes.MaestroCommand;
-import org.maestro.common.exceptions.MaestroException;
 import org.msgpack.core.MessageBufferPacker;
 import org.msgpack.core.MessageUnpacker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.zip.Deflater;
+import java.util.zip.InflaterInputStream;
 
 public class LogResponse extends MaestroData<MaestroLogCollectorListener> {
     private static final Logger logger = LoggerFactory.getLogger(LogResponse.class);
@@ -45,13 +49,21 @@ public class LogResponse extends MaestroData<MaestroLogCollectorListener> {
     private long fileSize;
     // Can be empty default (let the caller decide)
     private String fileHash = "";
+    private long chunkOffset;
+    // The compression to use when sending or, when received, the compression of the chunk
+    private LogCompression compression = LogCompression.NONE;
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private Deflater deflater;
+
+    // The chunks to send (or null to send all of them)
+    private int[] chunks;
+    private int chunkCursor = 0;
 
     private File file;
 
     private long pos = 0;
     private InputStream fi;
-    private ByteArrayOutputStream bo;
-    private byte[] data;
+    private ByteBuffer data;
 
     public LogResponse() {
         super(MaestroCommand.MAESTRO_NOTE_LOG);
@@ -68,10 +80,19 @@ public class LogResponse extends MaestroData<MaestroLogCollectorListener> {
         setFileSize(unpacker.unpackLong());
         setFileHash(unpacker.unpackString());
 
-
+        // The chunk is not copied: it is a slice of the serialized note
         int chunkSize = unpacker.unpackBinaryHeader();
-        data = new byte[chunkSize];
-        unpacker.readPayload(data);
+        data = unpacker.readPayloadAsReference(chunkSize).sliceAsByteBuffer();
+
+        // Older peers do not send the offset and the compression of the chunk
+        if (unpacker.hasNext()) {
+            this.chunkOffset = unpacker.unpackLong();
+            this.compression = LogCompression.byCode(unpacker.unpackInt());
+        }
+        else {
+            this.chunkOffset = (long) index * LOG_RESPONSE_MAX_PAYLOAD_SIZE;
+            this.compression = LogCompression.NONE;
+        }
     }
 
     public LocationType getLocationType() {
@@ -98,6 +119,10 @@ public class LogResponse extends MaestroData<MaestroLogCollectorListener> {
         this.fileName = fileName;
     }
 
+    public long getFileSize() {
+        return fileSize;
+    }
+
     protected void setFileSize(long fileSize) {
         this.fileSize = fileSize;
     }
@@ -118,14 +143,64 @@ public class LogResponse extends MaestroData<MaestroLogCollectorListener> {
         this.fileHash = fileHash;
     }
 
-    private int getIndex() {
+    /**
+     * Gets the index of the chunk
+     * @return the index of the chunk (starting from 0)
+     */
+    public int getIndex() {
         return index;
     }
 
-    private int getTotal() {
+    /**
+     * Gets the number of chunks the file was split into
+     * @return the number of chunks
+     */
+    public int getTotal() {
         return total;
     }
 
+    /**
+     * Gets the position of the chunk data on the file
+     * @return the offset of the chunk (in bytes)
+     */
+    public long getChunkOffset() {
+        return chunkOffset;
+    }
+
+    public LogCompression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Sets the compression to use when sending the file. Each chunk is compressed independently and is
+     * sent uncompressed if the compression would not reduce its size
+     * @param compression the compression
+     * @param compressionLevel the compression level (see Deflater)
+     */
+    public void setCompression(final LogCompression compression, int compressionLevel) {
+        this.compression = compression;
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Restricts the response to some of the chunks of the file (ie.: to resend the chunks that were
+     * not received)
+     * @param chunks the indexes of the chunks to send, in ascending order
+     */
+    public void setChunks(final int[] chunks) {
+        if (chunks == null || chunks.length == 0) {
+            throw new IllegalArgumentException("At least one chunk must be sent");
+        }
+
+        this.chunks = chunks.clone();
+        this.chunkCursor = 0;
+        setIndex(this.chunks[0]);
+    }
+
+    protected int getMaxChunkSize() {
+        return LOG_RESPONSE_MAX_PAYLOAD_SIZE;
+    }
+
     protected int getChunkSize(int maxChunkSize) {
         int ret;
 
@@ -153,7 +228,7 @@ public class LogResponse extends MaestroData<MaestroLogCollectorListener> {
         this.file = file;
 
         setFileSize(FileUtils.sizeOf(file));
-        setTotal(calculateBlockCount(LOG_RESPONSE_MAX_PAYLOAD_SIZE));
+        setTotal(calculateBlockCount(getMaxChunkSize()));
         setFileName(file.getName());
     }
 
@@ -205,71 +280,157 @@ public class LogResponse extends MaestroData<MaestroLogCollectorListener> {
 
 
     private void packData(final MessageBufferPacker packer, final InputStream inputStream) throws IOException {
-        logger.debug("Skipping {} bytes", pos);
+        final long offset = (long) index * getMaxChunkSize();
+
+        // Chunks are only skipped when resending some of them, which is done in ascending order
+        if (offset > pos) {
+            logger.debug("Skipping {} bytes", offset - pos);
+            IOUtils.skipFully(inputStream, offset - pos);
+            pos = offset;
+        }
 
-        int chunkSize = getChunkSize(LOG_RESPONSE_MAX_PAYLOAD_SIZE);
+        int chunkSize = getChunkSize(getMaxChunkSize());
         byte[] data = new byte[chunkSize];
-        final int read = inputStream.read(data, 0, chunkSize);
-        if (read == -1) {
+        final int read = IOUtils.read(inputStream, data, 0, chunkSize);
+        if (read < chunkSize) {
             logger.error("End of buffer has been reached");
 
             // TODO: check if needs to throw an exception
         }
 
-        packer.packBinaryHeader(chunkSize);
-        packer.writePayload(data, 0, chunkSize);
+        final byte[] compressed = compress(data, chunkSize);
+        if (compressed != null) {
+            packer.packBinaryHeader(compressed.length);
+            packer.writePayload(compressed, 0, compressed.length);
+        }
+        else {
+            packer.packBinaryHeader(chunkSize);
+            packer.writePayload(data, 0, chunkSize);
+        }
+
+        // These are trailing fields, so that older peers are still able to read the note
+        packer.packLong(offset);
+        packer.packInt(compressed != null ? compression.getCode() : LogCompression.NONE.getCode());
 
         pos = pos + chunkSize;
 
-        if (!hasNext()) {
+        if (isLastToSend()) {
             logger.trace("Completed sending the file chunks. Closing the input stream");
-            inputStream.close();
+            close();
         }
     }
 
-    public void join(final LogResponse logResponse) {
-        if (logger.isTraceEnabled()) {
-            logger.trace("Checking if the log response has chunks to be joined: {}", logResponse);
+    /**
+     * Closes the file being sent and releases the compression resources. It is safe to call this
+     * more than once
+     */
+    @Override
+    public void close() {
+        if (fi != null) {
+            IOUtils.closeQuietly(fi);
+            fi = null;
         }
 
-        if (logResponse.index == (this.index + 1)) {
-            try {
-                if (bo == null) {
-                    bo = new ByteArrayOutputStream();
+        if (deflater != null) {
+            deflater.end();
+            deflater = null;
+        }
+    }
 
-                    bo.write(this.data);
-                }
+    /*
+     * Compresses a chunk, returning null if the compression is disabled or if it would not reduce
+     * the size of the chunk (ie.: for data that is already compressed)
+     */
+    private byte[] compress(final byte[] data, int length) {
+        if (compression != LogCompression.DEFLATE || length == 0) {
+            return null;
+        }
 
-                logger.debug("Appending new log response chunk for file {} with index {}/{} to the current one {}",
-                        this.getFileName(), logResponse.index, logResponse.total, this.index);
+        if (deflater == null) {
+            deflater = new Deflater(compressionLevel);
+        }
 
-                bo.write(logResponse.data);
+        deflater.reset();
+        deflater.setInput(data, 0, length);
+        deflater.finish();
 
-                this.pos = logResponse.pos;
-                this.data = bo.toByteArray();
-            } catch (IOException e) {
-                throw new MaestroException("I/O error while trying to join log responses", e);
+        final byte[] buffer = new byte[length];
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == buffer.length) {
+                logger.trace("Sending the chunk {} of file {} uncompressed", index, fileName);
+                return null;
             }
+
+            compressedLength += deflater.deflate(buffer, compressedLength, buffer.length - compressedLength);
+        }
+
+        final byte[] ret = new byte[compressedLength];
+        System.arraycopy(buffer, 0, ret, 0, compressedLength);
+
+        return ret;
+    }
+
+    /**
+     * Gets the data of the chunk, as sent (see getCompression)
+     * @return a read-only buffer with the data of the chunk
+     */
+    public ByteBuffer getData() {
+        return data.asReadOnlyBuffer();
+    }
+
+    /**
+     * Gets the data of the chunk, decompressing it as it is read if needed
+     * @return an input stream for the uncompressed data of the chunk
+     */
+    public InputStream getLogData() {
+        final InputStream inputStream;
+
+        if (data.hasArray()) {
+            inputStream = new ByteArrayInputStream(data.array(), data.arrayOffset() + data.position(),
+                    data.remaining());
         }
         else {
-            logger.error("The file {}/{}/{} is not a sequence to the cached one {}/{}/{}",
-                    logResponse.getFileName(), logResponse.getIndex(), logResponse.getTotal(),
-                    this.getFileName(), this.getIndex(), this.getTotal());
-            throw new MaestroException("Out of order log response");
+            final byte[] bytes = new byte[data.remaining()];
+            data.duplicate().get(bytes);
+
+            inputStream = new ByteArrayInputStream(bytes);
+        }
+
+        if (compression == LogCompression.DEFLATE) {
+            return new InflaterInputStream(inputStream);
         }
+
+        return inputStream;
     }
 
-    public InputStream getLogData() {
-        return new ByteArrayInputStream(data);
+    private boolean isLastToSend() {
+        if (chunks != null) {
+            return chunkCursor >= (chunks.length - 1);
+        }
+
+        return index >= (total - 1);
     }
 
     @Override
     public void next() {
-        index++;
+        if (chunks == null) {
+            index++;
+        }
+        else {
+            chunkCursor++;
+            if (chunkCursor < chunks.length) {
+                index = chunks[chunkCursor];
+            }
+        }
     }
 
     @Override
     public boolean hasNext() {
+        if (chunks != null) {
+            return chunkCursor < chunks.length;
+        }
+
         return (index < total && total > 1);
     }
 
@@ -291,6 +452,8 @@ public class LogResponse extends MaestroData<MaestroLogCollectorListener> {
                 ", total=" + total +
                 ", file=" + file +
                 ", fileSize=" + fileSize +
+                ", chunkOffset=" + chunkOffset +
+                ", compression=" + compression +
                 ", pos=" + pos +
                 "} " + super.toString();
     }
@@ -21,6 +21,7 @@ import org.msgpack.core.MessageBufferPacker;
 import org.msgpack.core.MessageUnpacker;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 public class StatsResponse extends MaestroResponse {
     private int childCount;
@@ -31,6 +32,7 @@ public class StatsResponse extends MaestroResponse {
     private long count;
     private double rate;
     private double latency;
+    private double[] workerRates = new double[0];
 
     public StatsResponse() {
         super(MaestroCommand.MAESTRO_NOTE_STATS);
@@ -47,6 +49,16 @@ public class StatsResponse extends MaestroResponse {
         count = unpacker.unpackLong();
         rate = unpacker.unpackDouble();
         latency = unpacker.unpackDouble();
+
+        // The worker rates were added later and may not be sent by older peers
+        if (unpacker.hasNext()) {
+            final int workerCount = unpacker.unpackArrayHeader();
+
+            workerRates = new double[workerCount];
+            for (int i = 0; i < workerCount; i++) {
+                workerRates[i] = unpacker.unpackDouble();
+            }
+        }
     }
 
     @Override
@@ -61,6 +73,11 @@ public class StatsResponse extends MaestroResponse {
         packer.packDouble(this.rate);
         packer.packDouble(this.latency);
 
+        packer.packArrayHeader(this.workerRates.length);
+        for (double workerRate : this.workerRates) {
+            packer.packDouble(workerRate);
+        }
+
         return packer;
     }
 
@@ -121,6 +138,18 @@ public class StatsResponse extends MaestroResponse {
         this.latency = latency;
     }
 
+    /**
+     * Gets the rate of each of the workers
+     * @return the rate of each of the workers (empty if unknown)
+     */
+    public double[] getWorkerRates() {
+        return workerRates;
+    }
+
+    public void setWorkerRates(final double[] workerRates) {
+        this.workerRates = workerRates;
+    }
+
     @Override
     public String toString() {
         return "StatsResponse{" +
@@ -131,6 +160,7 @@ public class StatsResponse extends MaestroResponse {
                 ", count=" + count +
                 ", rate=" + rate +
                 ", latency=" + latency +
+                ", workerRates=" + Arrays.toString(workerRates) +
                 "} " + super.toString();
     }
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.client.exchange.mqtt;
+
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.junit.Test;
+import org.maestro.client.exchange.MqttServiceLevel;
+import org.maestro.client.exchange.support.DefaultGroupInfo;
+import org.maestro.client.exchange.support.PeerInfo;
+import org.maestro.client.exchange.support.WorkerPeer;
+import org.maestro.client.notes.OkResponse;
+import org.maestro.common.Role;
+import org.maestro.common.exceptions.MaestroConnectionException;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class MqttPublisherTest {
+    private static final PeerInfo peerInfo = new WorkerPeer(Role.RECEIVER, "unittest", "localhost",
+            new DefaultGroupInfo("test", "all"));
+
+    private static final String CONTROL_TOPIC = "/mt/control";
+    private static final String BULK_TOPIC = "/mt/bulk";
+
+    /*
+     * A note sent in multiple chunks
+     */
+    private static class ChunkedNote extends OkResponse {
+        private int remaining;
+        private volatile boolean closed;
+
+        ChunkedNote(int chunks) {
+            this.remaining = chunks;
+
+            setPeerInfo(peerInfo);
+            setId("unittest");
+        }
+
+        @Override
+        public void next() {
+            remaining--;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    /*
+     * Delivers the control messages immediately and holds the bulk ones until released
+     */
+    private static IMqttAsyncClient newClient(final List<IMqttActionListener> pendingBulk, boolean fail) {
+        return (IMqttAsyncClient) Proxy.newProxyInstance(IMqttAsyncClient.class.getClassLoader(),
+                new Class<?>[]{IMqttAsyncClient.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isConnected": {
+                            return true;
+                        }
+                        case "publish": {
+                            if (fail) {
+                                throw new MqttException(MqttException.REASON_CODE_CLIENT_NOT_CONNECTED);
+                            }
+
+                            final IMqttActionListener listener = (IMqttActionListener) args[3];
+                            if (BULK_TOPIC.equals(args[0])) {
+                                pendingBulk.add(listener);
+                            }
+                            else {
+                                listener.onSuccess(null);
+                            }
+
+                            return null;
+                        }
+                        default: {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                    }
+                });
+    }
+
+    @Test(timeout = 10000)
+    public void testControlDoesNotQueueBehindBulk() throws Exception {
+        final List<IMqttActionListener> pendingBulk = new CopyOnWriteArrayList<>();
+        final MqttPublisher publisher = new MqttPublisher(newClient(pendingBulk, false), 4, 1);
+
+        try {
+            final CompletableFuture<Void> bulk = publisher.publish(MqttPublisher.Lane.BULK, BULK_TOPIC,
+                    new ChunkedNote(3), MqttServiceLevel.EXACTLY_ONCE, false, null);
+
+            final CompletableFuture<Void> control = publisher.publish(MqttPublisher.Lane.CONTROL, CONTROL_TOPIC,
+                    new ChunkedNote(1), MqttServiceLevel.AT_MOST_ONCE, false, null);
+
+            control.get(5, TimeUnit.SECONDS);
+            assertFalse("The bulk transfer should still be in progress", bulk.isDone());
+
+            // The bulk window only allows one chunk in flight at a time
+            for (int i = 0; i < 3; i++) {
+                while (pendingBulk.size() <= i) {
+                    Thread.sleep(10);
+                }
+
+                assertEquals(i + 1, pendingBulk.size());
+                pendingBulk.get(i).onSuccess(null);
+            }
+
+            bulk.get(5, TimeUnit.SECONDS);
+            assertEquals(3, pendingBulk.size());
+        }
+        finally {
+            publisher.stop();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testPublishFailure() throws Exception {
+        final MqttPublisher publisher = new MqttPublisher(newClient(new CopyOnWriteArrayList<>(), true), 4, 1);
+
+        try {
+            final ChunkedNote note = new ChunkedNote(3);
+            final CompletableFuture<Void> control = publisher.publish(MqttPublisher.Lane.CONTROL, CONTROL_TOPIC,
+                    note, MqttServiceLevel.AT_LEAST_ONCE, false, null);
+
+            try {
+                control.get(5, TimeUnit.SECONDS);
+                fail("The publishing should have failed");
+            }
+            catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof MaestroConnectionException);
+            }
+
+            while (!note.closed) {
+                Thread.sleep(10);
+            }
+            assertEquals("The remaining chunks should not be sent", 3, note.remaining);
+        }
+        finally {
+            publisher.stop();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testStopClosesPendingNotes() throws Exception {
+        final List<IMqttActionListener> pendingBulk = new CopyOnWriteArrayList<>();
+        final MqttPublisher publisher = new MqttPublisher(newClient(pendingBulk, false), 4, 1);
+
+        final ChunkedNote inProgress = new ChunkedNote(3);
+        final ChunkedNote queued = new ChunkedNote(1);
+
+        final CompletableFuture<Void> inProgressFuture = publisher.publish(MqttPublisher.Lane.BULK, BULK_TOPIC,
+                inProgress, MqttServiceLevel.EXACTLY_ONCE, false, null);
+        final CompletableFuture<Void> queuedFuture = publisher.publish(MqttPublisher.Lane.BULK, BULK_TOPIC,
+                queued, MqttServiceLevel.EXACTLY_ONCE, false, null);
+
+        // The first chunk is never delivered, so the bulk lane is kept busy with the first note
+        while (pendingBulk.isEmpty()) {
+            Thread.sleep(10);
+        }
+
+        publisher.stop();
+
+        for (CompletableFuture<Void> future : Arrays.asList(inProgressFuture, queuedFuture)) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("The publishing should have failed");
+            }
+            catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof MaestroConnectionException);
+            }
+        }
+
+        while (!inProgress.closed) {
+            Thread.sleep(10);
+        }
+        assertTrue("The discarded note should be closed", queued.closed);
+        assertEquals(1, pendingBulk.size());
+    }
+}
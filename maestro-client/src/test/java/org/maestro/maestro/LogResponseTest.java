@@ -26,8 +26,14 @@ import org.maestro.client.notes.LogResponse;
 import org.maestro.common.Role;
 import org.maestro.contrib.utils.digest.Sha1Digest;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.Deflater;
 
 import static org.junit.Assert.*;
 
@@ -57,14 +63,22 @@ public class LogResponseTest {
             this.testChunkSize = testChunkSize;
         }
 
+        private boolean inputStreamClosed;
+
         @Override
         protected InputStream initializeInputStream() {
-            return this.getClass().getResourceAsStream("/logresponse/" + getFileName());
+            return new FilterInputStream(this.getClass().getResourceAsStream("/logresponse/" + getFileName())) {
+                @Override
+                public void close() throws IOException {
+                    inputStreamClosed = true;
+                    super.close();
+                }
+            };
         }
 
         @Override
-        public int getChunkSize(int maxChunkSize) {
-            return super.getChunkSize(testChunkSize);
+        protected int getMaxChunkSize() {
+            return testChunkSize;
         }
 
         private String calculateHash() throws IOException {
@@ -135,21 +149,168 @@ public class LogResponseTest {
         assertTrue("The log response should have subsequent data", logResponse.hasNext());
         byte[] secondChunk = doSerialize(logResponse);
 
-        @SuppressWarnings("UnusedAssignment") MaestroNote note = MaestroDeserializer.deserialize(firstChunk);
-        note = MaestroDeserializer.deserialize(secondChunk);
+        MaestroNote first = MaestroDeserializer.deserialize(firstChunk);
+        MaestroNote second = MaestroDeserializer.deserialize(secondChunk);
+
+        assertTrue(first instanceof LogResponse);
+        assertTrue(second instanceof LogResponse);
+
+        assertSame("Chunk1 object is not a log response", second.getNoteType(), MaestroNoteType.MAESTRO_TYPE_DATA);
+        assertSame(second.getMaestroCommand(), MaestroCommand.MAESTRO_NOTE_LOG);
 
-        assertTrue(note instanceof LogResponse);
+        LogResponse firstResponse = (LogResponse) first;
+        LogResponse secondResponse = (LogResponse) second;
 
-        assertSame("Chunk1 object is not a log response", note.getNoteType(), MaestroNoteType.MAESTRO_TYPE_DATA);
-        assertSame(note.getMaestroCommand(), MaestroCommand.MAESTRO_NOTE_LOG);
+        assertEquals(0, firstResponse.getIndex());
+        assertFalse(firstResponse.isLast());
+        assertEquals(1, secondResponse.getIndex());
+        assertEquals(10, secondResponse.getChunkOffset());
+        assertTrue(secondResponse.isLast());
+        assertEquals(2, secondResponse.getTotal());
+
+        // The chunks are not joined: each one carries only its own data
+        ByteArrayOutputStream fullData = new ByteArrayOutputStream();
+        for (LogResponse response : new LogResponse[] { firstResponse, secondResponse }) {
+            ByteBuffer data = response.getData();
+            assertEquals(10, data.remaining());
+
+            byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            fullData.write(bytes);
+        }
 
         final String expectedHash = "f1b27e5c5ede29e941e3d5fb10c3ef275a0f63a8";
 
-        LogResponse fullResponse = (LogResponse) note;
+        Sha1Digest digest = new Sha1Digest();
+        final String logHash = digest.calculate(new ByteArrayInputStream(fullData.toByteArray()));
+
+        assertEquals("The file hashes do not mach", expectedHash, logHash);
+    }
+
+    @Test
+    public void serializeLogRequestMissingChunks() throws Exception {
+        TestLogResponse logResponse = new TestLogResponse();
+
+        logResponse.setId("testid");
+        logResponse.setPeerInfo(peerInfo);
+
+        logResponse.setFileName("sample.txt");
+        logResponse.setFileSize(20);
+        logResponse.setTotal(2);
+        logResponse.setTestChunkSize(10);
+        logResponse.setLocationType(LocationType.ANY);
+        LocationTypeInfo locationTypeInfo = new LocationTypeInfo(1);
+        locationTypeInfo.setIndex(0);
+        logResponse.setLocationTypeInfo(locationTypeInfo);
+        logResponse.setChunks(new int[] { 1 });
+
+        byte[] chunk = doSerialize(logResponse);
+        logResponse.next();
+        assertFalse("Only the requested chunk should be sent", logResponse.hasNext());
+
+        LogResponse parsed = (LogResponse) MaestroDeserializer.deserialize(chunk);
+
+        assertEquals(1, parsed.getIndex());
+        assertEquals(10, parsed.getChunkOffset());
+        assertEquals(20, parsed.getFileSize());
+
+        ByteBuffer data = parsed.getData();
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+
+        byte[] expected = new byte[10];
+        try (InputStream inputStream = this.getClass().getResourceAsStream("/logresponse/sample.txt")) {
+            assertEquals(10, inputStream.skip(10));
+            assertEquals(10, inputStream.read(expected));
+        }
+
+        assertArrayEquals(expected, bytes);
+    }
+
+    @Test
+    public void serializeLogRequestCompressed() throws Exception {
+        TestLogResponse logResponse = new TestLogResponse();
+
+        logResponse.setId("testid");
+        logResponse.setPeerInfo(peerInfo);
+
+        logResponse.setFileName("test.properties");
+        logResponse.setFileSize(903);
+        logResponse.setTotal(1);
+        logResponse.setLocationType(LocationType.ANY);
+
+        LocationTypeInfo locationTypeInfo = new LocationTypeInfo(1);
+        locationTypeInfo.setIndex(0);
+        logResponse.setLocationTypeInfo(locationTypeInfo);
+        logResponse.setFileHash(logResponse.calculateHash());
+        logResponse.setCompression(LogCompression.DEFLATE, Deflater.DEFAULT_COMPRESSION);
+
+        LogResponse parsed = (LogResponse) MaestroDeserializer.deserialize(doSerialize(logResponse));
+
+        assertSame(LogCompression.DEFLATE, parsed.getCompression());
+        assertTrue("The chunk should have been compressed", parsed.getData().remaining() < 903);
+
+        final String expectedHash = "06dbd6b9a75417b7ab5aef1ad58b03c30a43dd83";
 
         Sha1Digest digest = new Sha1Digest();
-        final String logHash = digest.calculate(fullResponse.getLogData());
+        final String logHash = digest.calculate(parsed.getLogData());
 
         assertEquals("The file hashes do not mach", expectedHash, logHash);
     }
+
+    @Test
+    public void closeAbandonedLogResponse() throws Exception {
+        TestLogResponse logResponse = new TestLogResponse();
+
+        logResponse.setId("testid");
+        logResponse.setPeerInfo(peerInfo);
+
+        logResponse.setFileName("sample.txt");
+        logResponse.setFileSize(20);
+        logResponse.setTotal(2);
+        logResponse.setTestChunkSize(10);
+        logResponse.setLocationType(LocationType.ANY);
+        LocationTypeInfo locationTypeInfo = new LocationTypeInfo(1);
+        locationTypeInfo.setIndex(0);
+        logResponse.setLocationTypeInfo(locationTypeInfo);
+        logResponse.setCompression(LogCompression.DEFLATE, Deflater.DEFAULT_COMPRESSION);
+
+        doSerialize(logResponse);
+        assertFalse("The file should be kept open for the next chunk", logResponse.inputStreamClosed);
+
+        // The transfer is abandoned before the last chunk is sent
+        logResponse.close();
+        assertTrue("The file should be closed", logResponse.inputStreamClosed);
+
+        // Closing again should be harmless
+        logResponse.close();
+    }
+
+    @Test
+    public void deserializeLogResponseWithoutTrailingFields() throws Exception {
+        TestLogResponse logResponse = new TestLogResponse();
+
+        logResponse.setId("testid");
+        logResponse.setPeerInfo(peerInfo);
+
+        logResponse.setFileName("test.properties");
+        logResponse.setFileSize(903);
+        logResponse.setTotal(1);
+        logResponse.setLocationType(LocationType.ANY);
+
+        LocationTypeInfo locationTypeInfo = new LocationTypeInfo(1);
+        locationTypeInfo.setIndex(0);
+        logResponse.setLocationTypeInfo(locationTypeInfo);
+
+        // The offset (0) and the compression (0) are packed as a single byte each: drop them to get a
+        // note as sent by older peers
+        final byte[] bytes = doSerialize(logResponse);
+        final byte[] olderBytes = Arrays.copyOf(bytes, bytes.length - 2);
+
+        LogResponse parsed = (LogResponse) MaestroDeserializer.deserialize(olderBytes);
+
+        assertEquals(0, parsed.getChunkOffset());
+        assertSame(LogCompression.NONE, parsed.getCompression());
+        assertEquals(903, parsed.getData().remaining());
+    }
 }
@@ -26,6 +26,8 @@ import org.maestro.client.notes.InternalError;
 import org.maestro.common.Role;
 import org.maestro.common.client.notes.*;
 
+import java.util.Collections;
+
 import static org.junit.Assert.*;
 
 public class MaestroProtocolTest {
@@ -161,6 +163,7 @@ public class MaestroProtocolTest {
         statsResponse.setRate(1122);
         statsResponse.setRoleInfo("");
         statsResponse.setTimestamp("1521027548");
+        statsResponse.setWorkerRates(new double[] { 500.0, 622.0 });
 
         MaestroNote parsed = MaestroDeserializer.deserialize(doSerialize(statsResponse));
 
@@ -170,6 +173,7 @@ public class MaestroProtocolTest {
         assertEquals("unittest", ((StatsResponse) parsed).getPeerInfo().peerName());
         assertEquals(1.123, ((StatsResponse) parsed).getLatency(), 0.0);
         assertEquals("1521027548", ((StatsResponse) parsed).getTimestamp());
+        assertArrayEquals(new double[] { 500.0, 622.0 }, ((StatsResponse) parsed).getWorkerRates(), 0.0);
     }
 
 
@@ -250,4 +254,41 @@ public class MaestroProtocolTest {
         assertSame(parsed.getMaestroCommand(), MaestroCommand.MAESTRO_NOTE_STOP_INSPECTOR);
     }
 
+
+    @Test
+    public void peekNoteType() throws Exception {
+        OkResponse okResponse = new OkResponse();
+
+        okResponse.setId("testid");
+        okResponse.setPeerInfo(peerInfo);
+
+        assertSame(MaestroNoteType.MAESTRO_TYPE_REQUEST, MaestroDeserializer.peekNoteType(doSerialize(new PingRequest())));
+        assertSame(MaestroNoteType.MAESTRO_TYPE_RESPONSE, MaestroDeserializer.peekNoteType(doSerialize(okResponse)));
+        assertNull(MaestroDeserializer.peekNoteType(new byte[0]));
+    }
+
+    @Test
+    public void serializeLogRequestForMissingChunks() throws Exception {
+        LogRequest logRequest = new LogRequest();
+
+        logRequest.setLocationType(LocationType.LAST_FAILED);
+        logRequest.setChunks("receiverd-latency.hdr", new int[] { 2, 5 });
+        logRequest.setAcceptedCompressions(LogCompression.DEFLATE);
+
+        MaestroNote parsed = MaestroDeserializer.deserialize(doSerialize(logRequest));
+
+        assertTrue(parsed instanceof LogRequest);
+        assertSame(LocationType.LAST_FAILED, ((LogRequest) parsed).getLocationType());
+        assertEquals("receiverd-latency.hdr", ((LogRequest) parsed).getFileName());
+        assertArrayEquals(new int[] { 2, 5 }, ((LogRequest) parsed).getChunks());
+        assertEquals(Collections.singletonList(LogCompression.DEFLATE), ((LogRequest) parsed).getAcceptedCompressions());
+
+        logRequest = new LogRequest();
+        logRequest.setLocationType(LocationType.LAST);
+
+        parsed = MaestroDeserializer.deserialize(doSerialize(logRequest));
+        assertNull(((LogRequest) parsed).getFileName());
+        assertNull(((LogRequest) parsed).getChunks());
+        assertTrue(((LogRequest) parsed).getAcceptedCompressions().isEmpty());
+    }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.arrival;
+
+import org.maestro.common.exceptions.MaestroException;
+
+/**
+ * Creates the appropriate {@link ArrivalProcess} based on an arrival specification. The following
+ * specifications are supported:
+ * <ul>
+ *     <li>fixed: messages are sent at a regular pace (the default)</li>
+ *     <li>poisson: messages are sent with exponentially distributed intervals</li>
+ *     <li>burst:&lt;on ms&gt;:&lt;off ms&gt;: messages are sent in bursts lasting "on" milliseconds every
+ *     "on + off" milliseconds</li>
+ *     <li>sinusoidal:&lt;period ms&gt;:&lt;amplitude&gt;: the rate follows a sine wave with the given
+ *     period and amplitude (as a fraction of the rate, within [0, 1))</li>
+ * </ul>
+ * In all cases the average rate matches the given rate.
+ */
+public class ArrivalProcessFactory {
+    public static final String DEFAULT_ARRIVAL_SPEC = "fixed";
+
+    private ArrivalProcessFactory() {}
+
+    private static long parseLong(final String arrivalSpec, final String value) {
+        try {
+            final long ret = Long.parseLong(value);
+
+            if (ret <= 0) {
+                throw new MaestroException("Invalid arrival specification %s: %s must be positive",
+                        arrivalSpec, value);
+            }
+
+            return ret;
+        }
+        catch (NumberFormatException e) {
+            throw new MaestroException("Invalid arrival specification %s: %s is not a number", arrivalSpec, value);
+        }
+    }
+
+    private static double parseAmplitude(final String arrivalSpec, final String value) {
+        try {
+            final double ret = Double.parseDouble(value);
+
+            if (ret < 0.0 || ret >= 1.0) {
+                throw new MaestroException("Invalid arrival specification %s: the amplitude must be within [0, 1)",
+                        arrivalSpec);
+            }
+
+            return ret;
+        }
+        catch (NumberFormatException e) {
+            throw new MaestroException("Invalid arrival specification %s: %s is not a number", arrivalSpec, value);
+        }
+    }
+
+    /**
+     * Parse an arrival specification string and creates the respective ArrivalProcess.
+     * @param arrivalSpec The arrival specification string (null for the default)
+     * @param rate the average rate (must be bounded)
+     * @return An ArrivalProcess instance for the arrival spec string
+     */
+    public static ArrivalProcess parse(final String arrivalSpec, long rate) {
+        if (rate <= 0) {
+            throw new MaestroException("Arrival processes can only be used with a bounded rate");
+        }
+
+        if (arrivalSpec == null) {
+            return new FixedArrival(rate);
+        }
+
+        final String[] parts = arrivalSpec.split(":");
+
+        switch (parts[0]) {
+            case "fixed": {
+                return new FixedArrival(rate);
+            }
+            case "poisson": {
+                return new PoissonArrival(rate);
+            }
+            case "burst": {
+                if (parts.length != 3) {
+                    throw new MaestroException("Invalid arrival specification %s: expected burst:<on ms>:<off ms>",
+                            arrivalSpec);
+                }
+
+                return new BurstArrival(rate, parseLong(arrivalSpec, parts[1]), parseLong(arrivalSpec, parts[2]));
+            }
+            case "sinusoidal": {
+                if (parts.length != 3) {
+                    throw new MaestroException("Invalid arrival specification %s: expected " +
+                            "sinusoidal:<period ms>:<amplitude>", arrivalSpec);
+                }
+
+                return new SinusoidalArrival(rate, parseLong(arrivalSpec, parts[1]),
+                        parseAmplitude(arrivalSpec, parts[2]));
+            }
+            default: {
+                throw new MaestroException("Invalid arrival specification %s", arrivalSpec);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.arrival;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the messages in bursts: messages are sent at a higher pace during the on period and none
+ * are sent during the off period, so that the average rate still matches the given rate
+ */
+final class BurstArrival implements ArrivalProcess {
+    private final long burstInterval;
+    private final long messagesPerBurst;
+    private final long lastInterval;
+    private long sent = 0;
+
+    BurstArrival(long rate, long onMillis, long offMillis) {
+        final long cycleNanos = TimeUnit.MILLISECONDS.toNanos(onMillis + offMillis);
+        final long onNanos = TimeUnit.MILLISECONDS.toNanos(onMillis);
+
+        this.messagesPerBurst = Math.max(1, (rate * (onMillis + offMillis)) / 1000);
+        this.burstInterval = onNanos / messagesPerBurst;
+
+        // The interval between the last message of a burst and the first message of the next one
+        this.lastInterval = cycleNanos - ((messagesPerBurst - 1) * burstInterval);
+    }
+
+    long getMessagesPerBurst() {
+        return messagesPerBurst;
+    }
+
+    /*
+     * @see ArrivalProcess#nextInterval()
+     */
+    @Override
+    public long nextInterval() {
+        sent++;
+
+        if (sent == messagesPerBurst) {
+            sent = 0;
+
+            return lastInterval;
+        }
+
+        return burstInterval;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.arrival;
+
+import java.util.SplittableRandom;
+
+/**
+ * Sends the messages following a Poisson process (ie.: exponentially distributed intervals) with
+ * the given average rate
+ */
+final class PoissonArrival implements ArrivalProcess {
+    private final double meanInterval;
+    private final SplittableRandom random;
+
+    PoissonArrival(long rate) {
+        this(rate, new SplittableRandom());
+    }
+
+    PoissonArrival(long rate, final SplittableRandom random) {
+        this.meanInterval = 1_000_000_000.0 / rate;
+        this.random = random;
+    }
+
+    /*
+     * @see ArrivalProcess#nextInterval()
+     */
+    @Override
+    public long nextInterval() {
+        // 1.0 - u is within (0, 1], so the logarithm is always finite
+        return (long) (-Math.log(1.0 - random.nextDouble()) * meanInterval);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.arrival;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the messages at a rate that ramps up and down following a sine wave around the given rate
+ */
+final class SinusoidalArrival implements ArrivalProcess {
+    private final double rate;
+    private final double amplitude;
+    private final double angularFrequency;
+    private long elapsed = 0;
+
+    /**
+     * Constructor
+     * @param rate the average rate
+     * @param periodMillis the period of the wave in milliseconds
+     * @param amplitude the amplitude of the wave as a fraction of the rate (within [0, 1))
+     */
+    SinusoidalArrival(long rate, long periodMillis, double amplitude) {
+        this.rate = rate;
+        this.amplitude = amplitude;
+        this.angularFrequency = (2 * Math.PI) / TimeUnit.MILLISECONDS.toNanos(periodMillis);
+    }
+
+    /*
+     * @see ArrivalProcess#nextInterval()
+     */
+    @Override
+    public long nextInterval() {
+        final double currentRate = rate * (1.0 + amplitude * Math.sin(angularFrequency * elapsed));
+        final long interval = (long) (1_000_000_000.0 / currentRate);
+
+        elapsed += interval;
+        return interval;
+    }
+}
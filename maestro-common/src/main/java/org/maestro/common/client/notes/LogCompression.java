@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.client.notes;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The compression used for the log files transferred by the peers
+ */
+public enum LogCompression {
+    /**
+     * Not compressed
+     */
+    NONE(0),
+
+    /**
+     * Compressed with DEFLATE (zlib format)
+     */
+    DEFLATE(1);
+
+    final int code;
+
+    /**
+     * Constructor
+     * @param code compression code integer as represent by this enum (ie: 0 to 1)
+     */
+    LogCompression(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Gets a compression by code
+     * @param code compression code integer as represent by this enum (ie: 0 to 1)
+     * @return A compression object
+     */
+    public static LogCompression byCode(int code) {
+        switch (code) {
+            case 0: return NONE;
+            case 1: return DEFLATE;
+            default: {
+                Logger logger = LoggerFactory.getLogger(LogCompression.class);
+
+                logger.error("The value {} is not a recognizable log compression", code);
+                return null;
+            }
+        }
+    }
+}
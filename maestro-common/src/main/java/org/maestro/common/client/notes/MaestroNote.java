@@ -73,4 +73,11 @@ public interface MaestroNote {
     default boolean hasNext() {
         return false;
     }
+
+    /**
+     * Releases the resources held by the note for sending its subsequent content. This is called
+     * once the note is no longer going to be sent (either because it was fully sent or because its
+     * sending was abandoned)
+     */
+    default void close() {}
 }
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.common.io.data.common;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+
+/**
+ * A compact sidecar file that caches the accumulated histogram of a latency (HDR log) file, so that
+ * the readers don't need to decode every interval histogram in the log. The sidecar records the size
+ * and the modification time of the latency file and is only used if they match.
+ *
+ * A second sidecar caches the accumulated histogram for the steady state of the test. It is keyed
+ * the same way and additionally records the time window it was accumulated for.
+ */
+public final class AccumulatedHistogramCache {
+    private static final Logger logger = LoggerFactory.getLogger(AccumulatedHistogramCache.class);
+
+    /**
+     * The suffix appended to the name of the latency file to name the sidecar file
+     */
+    public static final String CACHE_FILE_SUFFIX = ".acc";
+
+    /**
+     * The suffix appended to the name of the latency file to name the steady state sidecar file
+     */
+    public static final String STEADY_STATE_CACHE_FILE_SUFFIX = ".steady.acc";
+
+    private static final int CACHE_FILE_MAGIC = 0x6d616363;
+    private static final int STEADY_STATE_CACHE_FILE_MAGIC = 0x6d737363;
+    private static final int CACHE_FILE_VERSION = 1;
+
+    private AccumulatedHistogramCache() {}
+
+    /**
+     * Gets the sidecar file for a latency file
+     * @param latencyFile the latency file
+     * @return the sidecar file (which may not exist)
+     */
+    public static File cacheFile(final File latencyFile) {
+        return new File(latencyFile.getParentFile(), latencyFile.getName() + CACHE_FILE_SUFFIX);
+    }
+
+    /**
+     * Gets the steady state sidecar file for a latency file
+     * @param latencyFile the latency file
+     * @return the sidecar file (which may not exist)
+     */
+    public static File steadyStateCacheFile(final File latencyFile) {
+        return new File(latencyFile.getParentFile(), latencyFile.getName() + STEADY_STATE_CACHE_FILE_SUFFIX);
+    }
+
+    private static void writeHistogram(final DataOutputStream out, final Histogram histogram) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        final int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+
+        out.writeLong(histogram.getStartTimeStamp());
+        out.writeLong(histogram.getEndTimeStamp());
+        out.writeInt(length);
+        out.write(buffer.array(), 0, length);
+    }
+
+    private static Histogram readHistogram(final DataInputStream in) throws IOException, DataFormatException {
+        final long startTimeStamp = in.readLong();
+        final long endTimeStamp = in.readLong();
+
+        final byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+
+        final Histogram histogram = Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(data), 0);
+        histogram.setStartTimeStamp(startTimeStamp);
+        histogram.setEndTimeStamp(endTimeStamp);
+        histogram.setAutoResize(true);
+
+        return histogram;
+    }
+
+    /**
+     * Writes the sidecar file for a latency file. It must be called after the latency file is closed
+     * @param latencyFile the latency file
+     * @param accumulated the accumulated histogram for all the intervals on the latency file
+     * @throws IOException if unable to write the sidecar file
+     */
+    public static void write(final File latencyFile, final Histogram accumulated) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(cacheFile(latencyFile))))) {
+            out.writeInt(CACHE_FILE_MAGIC);
+            out.writeInt(CACHE_FILE_VERSION);
+            SidecarFreshness.write(out, latencyFile);
+            writeHistogram(out, accumulated);
+        }
+    }
+
+    /**
+     * Writes the steady state sidecar file for a latency file
+     * @param latencyFile the latency file
+     * @param windowStart the start of the steady state window (in milliseconds since the epoch, inclusive)
+     * @param windowEnd the end of the steady state window (in milliseconds since the epoch, exclusive)
+     * @param steadyState the accumulated histogram for the intervals starting within the window
+     * @throws IOException if unable to write the sidecar file
+     */
+    public static void writeSteadyState(final File latencyFile, long windowStart, long windowEnd,
+                                        final Histogram steadyState) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(steadyStateCacheFile(latencyFile))))) {
+            out.writeInt(STEADY_STATE_CACHE_FILE_MAGIC);
+            out.writeInt(CACHE_FILE_VERSION);
+            SidecarFreshness.write(out, latencyFile);
+            out.writeLong(windowStart);
+            out.writeLong(windowEnd);
+            writeHistogram(out, steadyState);
+        }
+    }
+
+    /**
+     * Reads the accumulated histogram from the sidecar file of a latency file
+     * @param latencyFile the latency file
+     * @return the accumulated histogram or null if the sidecar does not exist or is not valid
+     */
+    public static Histogram read(final File latencyFile) {
+        final File cacheFile = cacheFile(latencyFile);
+
+        if (!cacheFile.exists()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != CACHE_FILE_MAGIC || in.readInt() != CACHE_FILE_VERSION) {
+                logger.warn("Ignoring the accumulated histogram cache {} because its format is not supported",
+                        cacheFile);
+                return null;
+            }
+
+            if (!SidecarFreshness.isFresh(in, latencyFile, cacheFile)) {
+                logger.debug("Ignoring the accumulated histogram cache {} because it is stale", cacheFile);
+                return null;
+            }
+
+            return readHistogram(in);
+        }
+        catch (IOException | DataFormatException e) {
+            logger.warn("Unable to read the accumulated histogram cache {}: {}", cacheFile, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads the steady state histogram from the steady state sidecar file of a latency file
+     * @param latencyFile the latency file
+     * @param windowStart the start of the steady state window (in milliseconds since the epoch, inclusive)
+     * @param windowEnd the end of the steady state window (in milliseconds since the epoch, exclusive)
+     * @return the steady state histogram or null if the sidecar does not exist, is not valid or was
+     * accumulated for a different window
+     */
+    public static Histogram readSteadyState(final File latencyFile, long windowStart, long windowEnd) {
+        final File cacheFile = steadyStateCacheFile(latencyFile);
+
+        if (!cacheFile.exists()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != STEADY_STATE_CACHE_FILE_MAGIC || in.readInt() != CACHE_FILE_VERSION) {
+                logger.warn("Ignoring the steady state histogram cache {} because its format is not supported",
+                        cacheFile);
+                return null;
+            }
+
+            if (!SidecarFreshness.isFresh(in, latencyFile, cacheFile)) {
+                logger.debug("Ignoring the steady state histogram cache {} because it is stale", cacheFile);
+                return null;
+            }
+
+            if (in.readLong() != windowStart || in.readLong() != windowEnd) {
+                logger.debug("Ignoring the steady state histogram cache {} because the window changed", cacheFile);
+                return null;
+            }
+
+            return readHistogram(in);
+        }
+        catch (IOException | DataFormatException e) {
+            logger.warn("Unable to read the steady state histogram cache {}: {}", cacheFile, e.getMessage());
+            return null;
+        }
+    }
+}
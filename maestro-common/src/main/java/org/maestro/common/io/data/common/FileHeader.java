@@ -22,7 +22,10 @@ import org.maestro.common.Role;
 import org.maestro.common.io.data.common.exceptions.InvalidHeaderValueException;
 
 /**
- * Maestro data file header
+ * Maestro data file header. Version 1 files contain only the format name, the file version, the
+ * Maestro version and the role and their records are always sampled once per second. Starting with
+ * version 2, the header is followed by an extension block that records the sampling resolution. The
+ * extension block has the same size as a rate entry, so that the records remain aligned.
  */
 public class FileHeader {
     public static final int FORMAT_NAME_SIZE = 8;
@@ -31,17 +34,47 @@ public class FileHeader {
     private final int fileVersion;
     private final int maestroVersion;
     private final Role role;
+    private final int samplingResolution;
 
     public static final String MAESTRO_FORMAT_NAME = "maestro";
+
+    /**
+     * The file version written by default. It is only bumped to the extended version when the
+     * sampling resolution is not the default one, so that older readers can still read the files
+     */
     public static final int CURRENT_FILE_VERSION = 1;
 
+    /**
+     * The first file version to contain the header extension block
+     */
+    public static final int EXTENDED_FILE_VERSION = 2;
+
+    /**
+     * The default sampling resolution (in milliseconds) and the only one supported by version 1 files
+     */
+    public static final int DEFAULT_SAMPLING_RESOLUTION = 1000;
+
     public static final FileHeader WRITER_DEFAULT_SENDER;
     public static final FileHeader WRITER_DEFAULT_RECEIVER;
     public static final FileHeader WRITER_DEFAULT_INSPECTOR;
     public static final FileHeader WRITER_DEFAULT_AGENT;
     public static final FileHeader WRITER_DEFAULT_EXPORTER;
+
+    /**
+     * The size of the base header, common to all file versions
+     */
     public static final int BYTES;
 
+    /**
+     * The size of the extension block (sampling resolution + reserved space)
+     */
+    public static final int EXTENSION_BYTES = 20;
+
+    /**
+     * The size of the reserved space at the end of the extension block
+     */
+    public static final int EXTENSION_RESERVED_BYTES = EXTENSION_BYTES - Integer.BYTES;
+
     static {
         WRITER_DEFAULT_SENDER = new FileHeader(MAESTRO_FORMAT_NAME, CURRENT_FILE_VERSION,
                 Constants.VERSION_NUMERIC, Role.SENDER);
@@ -63,6 +96,19 @@ public class FileHeader {
     }
 
     public FileHeader(final String formatName, int fileVersion, int maestroVersion, Role role) {
+        this(formatName, fileVersion, maestroVersion, role, DEFAULT_SAMPLING_RESOLUTION);
+    }
+
+    /**
+     * Constructor
+     * @param formatName the format name
+     * @param fileVersion the file version
+     * @param maestroVersion the Maestro version
+     * @param role the role of the peer writing the file
+     * @param samplingResolution the sampling resolution, in milliseconds (either 10, 100 or 1000)
+     */
+    public FileHeader(final String formatName, int fileVersion, int maestroVersion, Role role,
+                      int samplingResolution) {
         if (formatName == null || formatName.isEmpty() || formatName.length() > FORMAT_NAME_SIZE) {
             throw new InvalidHeaderValueException("The format name '" +
                     (formatName == null ? "null" : formatName) + "' is not valid");
@@ -78,6 +124,44 @@ public class FileHeader {
         this.fileVersion = fileVersion;
         this.maestroVersion = maestroVersion;
         this.role = role;
+
+        if (!isValidSamplingResolution(samplingResolution)) {
+            throw new InvalidHeaderValueException("The sampling resolution '" + samplingResolution
+                    + "' is not valid");
+        }
+
+        if (fileVersion < EXTENDED_FILE_VERSION && samplingResolution != DEFAULT_SAMPLING_RESOLUTION) {
+            throw new InvalidHeaderValueException("The file version " + fileVersion
+                    + " does not support a sampling resolution other than " + DEFAULT_SAMPLING_RESOLUTION + " ms");
+        }
+
+        this.samplingResolution = samplingResolution;
+    }
+
+    /**
+     * Checks whether the given sampling resolution is supported
+     * @param samplingResolution the sampling resolution, in milliseconds
+     * @return true if supported (10, 100 or 1000 ms) or false otherwise
+     */
+    public static boolean isValidSamplingResolution(int samplingResolution) {
+        return samplingResolution == 10 || samplingResolution == 100 || samplingResolution == 1000;
+    }
+
+    /**
+     * Creates a copy of this header with a different sampling resolution. The file version is bumped
+     * to the extended version if the sampling resolution is not the default one
+     * @param samplingResolution the sampling resolution, in milliseconds
+     * @return a new header instance
+     */
+    public FileHeader withSamplingResolution(int samplingResolution) {
+        if (samplingResolution == this.samplingResolution) {
+            return this;
+        }
+
+        final int version = samplingResolution == DEFAULT_SAMPLING_RESOLUTION ? fileVersion
+                : Math.max(fileVersion, EXTENDED_FILE_VERSION);
+
+        return new FileHeader(formatName, version, maestroVersion, role, samplingResolution);
     }
 
     public String getFormatName() {
@@ -95,4 +179,28 @@ public class FileHeader {
     public Role getRole() {
         return role;
     }
+
+    /**
+     * Gets the sampling resolution
+     * @return the sampling resolution, in milliseconds
+     */
+    public int getSamplingResolution() {
+        return samplingResolution;
+    }
+
+    /**
+     * Whether the header contains the extension block
+     * @return true if it contains the extension block or false otherwise
+     */
+    public boolean isExtended() {
+        return fileVersion >= EXTENDED_FILE_VERSION;
+    }
+
+    /**
+     * Gets the size of this header on disk
+     * @return the size of the header, in bytes
+     */
+    public int getSize() {
+        return isExtended() ? BYTES + EXTENSION_BYTES : BYTES;
+    }
 }
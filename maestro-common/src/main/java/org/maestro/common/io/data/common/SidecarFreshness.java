@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.io.data.common;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Records and checks the freshness of a sidecar file derived from a data file. The sidecar stores
+ * the size and the modification time of the data file, right after its own magic and version, and
+ * is only used if they match.
+ */
+public final class SidecarFreshness {
+    private SidecarFreshness() {}
+
+    /**
+     * Writes the size and the modification time of the data file to the sidecar
+     * @param out the sidecar output stream
+     * @param dataFile the data file the sidecar is derived from
+     * @throws IOException if unable to write to the sidecar
+     */
+    public static void write(final DataOutputStream out, final File dataFile) throws IOException {
+        out.writeLong(dataFile.length());
+        out.writeLong(dataFile.lastModified());
+    }
+
+    /**
+     * Reads the size and the modification time recorded on the sidecar and checks them against the
+     * data file
+     * @param in the sidecar input stream
+     * @param dataFile the data file the sidecar is derived from
+     * @param sidecarFile the sidecar file
+     * @return true if the sidecar is still valid for the data file or false otherwise
+     * @throws IOException if unable to read from the sidecar
+     */
+    public static boolean isFresh(final DataInputStream in, final File dataFile, final File sidecarFile)
+            throws IOException {
+        final long size = in.readLong();
+        final long lastModified = in.readLong();
+
+        if (dataFile.length() != size) {
+            return false;
+        }
+
+        // The modification time may not be preserved when the reports are copied around, in which case
+        // the sidecar is still valid as long as the data file was not modified after it
+        return dataFile.lastModified() == lastModified || dataFile.lastModified() <= sidecarFile.lastModified();
+    }
+}
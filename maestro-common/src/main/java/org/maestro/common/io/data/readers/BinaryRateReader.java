@@ -39,6 +39,8 @@ public class BinaryRateReader implements AutoCloseable {
     static {
         assert ((FileHeader.BYTES % RateEntry.BYTES) == 0):
                 "File header and the rate entries must be aligned on a 20 bytes boundary";
+        assert ((FileHeader.EXTENSION_BYTES % RateEntry.BYTES) == 0):
+                "File header extension and the rate entries must be aligned on a 20 bytes boundary";
     }
 
 
@@ -71,6 +73,16 @@ public class BinaryRateReader implements AutoCloseable {
         logger.trace("Read {} bytes from the file channel", bytesRead);
         byteBuffer.flip();
 
+        return readHeader(byteBuffer);
+    }
+
+    /**
+     * Reads the file header from a buffer, leaving it positioned at the first record
+     * @param byteBuffer the buffer containing the header
+     * @return the file header
+     * @throws InvalidHeaderValueException if the buffer does not contain the whole header
+     */
+    public static FileHeader readHeader(final ByteBuffer byteBuffer) {
         byte[] name = new byte[FileHeader.FORMAT_NAME_SIZE];
         byteBuffer.get(name, 0, FileHeader.FORMAT_NAME_SIZE);
         logger.trace("File format name: '{}'", new String(name));
@@ -84,7 +96,22 @@ public class BinaryRateReader implements AutoCloseable {
         Role role = Role.from(byteBuffer.getInt());
         logger.trace("Role: '{}'", role.getCode());
 
-        return new FileHeader(new String(name), fileVersion, maestroVersion, role);
+        if (fileVersion < FileHeader.EXTENDED_FILE_VERSION) {
+            return new FileHeader(new String(name), fileVersion, maestroVersion, role);
+        }
+
+        if (byteBuffer.remaining() < FileHeader.EXTENSION_BYTES) {
+            throw new InvalidHeaderValueException("The file header is truncated: the extension of the version "
+                    + fileVersion + " header requires " + FileHeader.EXTENSION_BYTES + " bytes, but only "
+                    + byteBuffer.remaining() + " are available");
+        }
+
+        int samplingResolution = byteBuffer.getInt();
+        logger.trace("Sampling resolution: '{}'", samplingResolution);
+
+        byteBuffer.position(byteBuffer.position() + FileHeader.EXTENSION_RESERVED_BYTES);
+
+        return new FileHeader(new String(name), fileVersion, maestroVersion, role, samplingResolution);
     }
 
     /**
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.common.io.data.readers;
+
+import org.maestro.common.io.data.common.FileHeader;
+import org.maestro.common.io.data.common.RateEntry;
+import org.maestro.common.io.data.common.exceptions.InvalidHeaderValueException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A rate reader that maps the whole file in memory. The records have a fixed size, so they can be
+ * accessed by index without reading the file sequentially and without allocating objects. Because
+ * the records are written in chronological order, they can also be looked up by timestamp.
+ */
+public class MappedRateReader implements AutoCloseable {
+    private static final int METADATA_OFFSET = 0;
+    private static final int COUNT_OFFSET = METADATA_OFFSET + Integer.BYTES;
+    private static final int TIMESTAMP_OFFSET = COUNT_OFFSET + Long.BYTES;
+
+    private final FileHeader fileHeader;
+    private final int headerSize;
+    private final int size;
+    private MappedByteBuffer buffer;
+
+    /**
+     * Constructor
+     * @param fileName the report file name
+     * @throws IOException in case of I/O errors or if the file is too large to be mapped
+     */
+    public MappedRateReader(final File fileName) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(fileName.toPath(), StandardOpenOption.READ)) {
+            final long fileSize = fileChannel.size();
+
+            if (fileSize < FileHeader.BYTES) {
+                throw new InvalidHeaderValueException("The file does not contain a valid header");
+            }
+
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("The file " + fileName + " is too large to be mapped in memory");
+            }
+
+            buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        }
+
+        fileHeader = BinaryRateReader.readHeader(buffer);
+        headerSize = fileHeader.getSize();
+
+        if (buffer.capacity() < headerSize) {
+            throw new InvalidHeaderValueException("The file is shorter (" + buffer.capacity() + " bytes) than its "
+                    + "header (" + headerSize + " bytes)");
+        }
+
+        // Ignores any partially written record at the end of the file
+        size = (buffer.capacity() - headerSize) / RateEntry.BYTES;
+    }
+
+    /**
+     * Gets the file header
+     * @return the file header
+     */
+    public FileHeader getHeader() {
+        return fileHeader;
+    }
+
+    /**
+     * Gets the number of records in the file
+     * @return the number of records
+     */
+    public int size() {
+        return size;
+    }
+
+    private int position(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        return headerSize + (index * RateEntry.BYTES);
+    }
+
+    /**
+     * Gets the metadata of a record
+     * @param index the record index
+     * @return the record metadata
+     */
+    public int metadata(int index) {
+        return buffer.getInt(position(index) + METADATA_OFFSET);
+    }
+
+    /**
+     * Gets the count of a record
+     * @param index the record index
+     * @return the record count
+     */
+    public long count(int index) {
+        return buffer.getLong(position(index) + COUNT_OFFSET);
+    }
+
+    /**
+     * Gets the timestamp of a record
+     * @param index the record index
+     * @return the record timestamp (in microseconds since the epoch)
+     */
+    public long timestamp(int index) {
+        return buffer.getLong(position(index) + TIMESTAMP_OFFSET);
+    }
+
+    /**
+     * Gets a record
+     * @param index the record index
+     * @return A new rate entry for the record
+     */
+    public RateEntry get(int index) {
+        final int position = position(index);
+
+        return new RateEntry(buffer.getInt(position + METADATA_OFFSET), buffer.getLong(position + COUNT_OFFSET),
+                buffer.getLong(position + TIMESTAMP_OFFSET));
+    }
+
+    /**
+     * Searches for the record with the given timestamp. Follows the same contract as
+     * {@link java.util.Arrays#binarySearch(long[], long)}
+     * @param timestamp the timestamp (in microseconds since the epoch)
+     * @return the index of the record, if found. Otherwise (-(insertion point) - 1)
+     */
+    public int search(long timestamp) {
+        int low = 0;
+        int high = size - 1;
+
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final long midTimestamp = timestamp(mid);
+
+            if (midTimestamp < timestamp) {
+                low = mid + 1;
+            }
+            else if (midTimestamp > timestamp) {
+                high = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+
+        return -(low + 1);
+    }
+
+    /**
+     * Gets the index of the first record whose timestamp is equal or greater than the given one
+     * @param timestamp the timestamp (in microseconds since the epoch)
+     * @return the index of the record or the number of records if there's none
+     */
+    public int ceilingIndex(long timestamp) {
+        final int index = search(timestamp);
+
+        return index >= 0 ? index : -(index + 1);
+    }
+
+    /**
+     * Loads the contents of the file in physical memory, so that subsequent accesses do not cause
+     * page faults. This can be used to read multiple files in parallel before processing them
+     */
+    public void load() {
+        buffer.load();
+    }
+
+    /**
+     * Releases the mapped file. The mapping itself is released once the buffer is garbage collected
+     */
+    @Override
+    public void close() {
+        buffer = null;
+    }
+}
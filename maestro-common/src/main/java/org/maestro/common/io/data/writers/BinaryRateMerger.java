@@ -0,0 +1,295 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.common.io.data.writers;
+
+import org.apache.commons.io.FileUtils;
+import org.maestro.common.Constants;
+import org.maestro.common.Role;
+import org.maestro.common.io.data.common.FileHeader;
+import org.maestro.common.io.data.common.exceptions.InvalidHeaderValueException;
+import org.maestro.common.io.data.readers.MappedRateReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Merges multiple rate files into a single one. Contrary to the {@link BinaryRateUpdater}, the
+ * records are aligned by their timestamp slot (and not by their position on the file). The input
+ * files are mapped, then loaded in parallel and then merged (k-way) into the output file, which is
+ * written sequentially in a single pass. The sampling resolution and the record metadata are carried
+ * over from the input files.
+ *
+ * The slots are aligned on a grid that starts at the earliest record of all files. To compensate for
+ * clock skew between the peers, records that are within the skew tolerance of the next slot are
+ * moved to it. Optionally, the slots without any record can be filled with zeroed records.
+ */
+public class BinaryRateMerger {
+    private static final Logger logger = LoggerFactory.getLogger(BinaryRateMerger.class);
+
+    private static final class Cursor implements Comparable<Cursor> {
+        private final MappedRateReader reader;
+        private final long origin;
+        private final long slotDuration;
+        private final long skewTolerance;
+        private int index;
+        private long slot;
+
+        Cursor(final MappedRateReader reader, long origin, long slotDuration, long skewTolerance) {
+            this.reader = reader;
+            this.origin = origin;
+            this.slotDuration = slotDuration;
+            this.skewTolerance = skewTolerance;
+            this.slot = slotOf(0);
+        }
+
+        private long slotOf(int index) {
+            final long relative = reader.timestamp(index) - origin;
+            final long slot = relative / slotDuration;
+
+            if (slotDuration - (relative % slotDuration) <= skewTolerance) {
+                return slot + 1;
+            }
+
+            return slot;
+        }
+
+        boolean hasRecord() {
+            return index < reader.size();
+        }
+
+        long count() {
+            return reader.count(index);
+        }
+
+        int metadata() {
+            return reader.metadata(index);
+        }
+
+        void next() {
+            index++;
+            if (hasRecord()) {
+                // Jitter on the peer may cause consecutive records to fall in the same slot
+                slot = Math.max(slotOf(index), slot + 1);
+            }
+        }
+
+        @Override
+        public int compareTo(final Cursor other) {
+            return Long.compare(slot, other.slot);
+        }
+    }
+
+    private final File outputFile;
+    private final Role role;
+    private long skewTolerance = 0;
+    private boolean fillGaps = false;
+
+    /**
+     * Constructor
+     * @param outputFile the output (merged) rate file
+     * @param role the role of the peers that generated the input files
+     */
+    public BinaryRateMerger(final File outputFile, final Role role) {
+        this.outputFile = outputFile;
+        this.role = role;
+    }
+
+    /**
+     * Sets the tolerance for clock skew between the peers. It is limited to half of the sampling
+     * resolution of the files
+     * @param skewTolerance the tolerance, in milliseconds
+     */
+    public void setSkewTolerance(long skewTolerance) {
+        this.skewTolerance = TimeUnit.MILLISECONDS.toMicros(skewTolerance);
+    }
+
+    /**
+     * Sets whether to fill the slots without records with zeroed records
+     * @param fillGaps true to fill the gaps or false otherwise
+     */
+    public void setFillGaps(boolean fillGaps) {
+        this.fillGaps = fillGaps;
+    }
+
+    /**
+     * Gets the output file
+     * @return the output file
+     */
+    public File getOutputFile() {
+        return outputFile;
+    }
+
+    /*
+     * Maps the files. If any of them cannot be mapped, the ones already mapped are released
+     */
+    private static List<MappedRateReader> open(final List<File> inputFiles) throws IOException {
+        final List<MappedRateReader> readers = new ArrayList<>(inputFiles.size());
+
+        try {
+            for (File file : inputFiles) {
+                readers.add(new MappedRateReader(file));
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            readers.forEach(MappedRateReader::close);
+            throw e;
+        }
+
+        return readers;
+    }
+
+    /*
+     * Loads the file, checking that the records are in chronological order. Files that are not valid
+     * are ignored for the merge (as done by the updater)
+     */
+    private static boolean load(final MappedRateReader reader, final File file) {
+        reader.load();
+
+        final long slotDuration = TimeUnit.MILLISECONDS.toMicros(reader.getHeader().getSamplingResolution());
+        long last = Long.MIN_VALUE;
+
+        for (int i = 0; i < reader.size(); i++) {
+            final long slot = reader.timestamp(i) / slotDuration;
+
+            if (slot <= last) {
+                logger.warn("File {} contains invalid records and will be ignored", file);
+
+                return false;
+            }
+
+            last = slot;
+        }
+
+        return true;
+    }
+
+    private static int samplingResolution(final List<MappedRateReader> readers) {
+        int samplingResolution = FileHeader.DEFAULT_SAMPLING_RESOLUTION;
+
+        for (int i = 0; i < readers.size(); i++) {
+            final int current = readers.get(i).getHeader().getSamplingResolution();
+
+            if (i == 0) {
+                samplingResolution = current;
+            }
+            else {
+                if (current != samplingResolution) {
+                    throw new InvalidHeaderValueException("Cannot merge files with different sampling resolutions: "
+                            + samplingResolution + " ms != " + current + " ms");
+                }
+            }
+        }
+
+        return samplingResolution;
+    }
+
+    /**
+     * Merges the input files into the output file
+     * @param inputFiles the input files
+     * @throws IOException if unable to read the input files or write the output file
+     */
+    public void merge(final List<File> inputFiles) throws IOException {
+        final List<MappedRateReader> mapped = open(inputFiles);
+
+        try {
+            final List<MappedRateReader> readers = IntStream.range(0, mapped.size())
+                    .parallel()
+                    .filter(i -> load(mapped.get(i), inputFiles.get(i)))
+                    .mapToObj(mapped::get)
+                    .collect(Collectors.toList());
+
+            // The merged file keeps the sampling resolution of the input files
+            final int samplingResolution = samplingResolution(readers);
+            final FileHeader header = new FileHeader(FileHeader.MAESTRO_FORMAT_NAME, FileHeader.CURRENT_FILE_VERSION,
+                    Constants.VERSION_NUMERIC, role).withSamplingResolution(samplingResolution);
+
+            final long slotDuration = TimeUnit.MILLISECONDS.toMicros(samplingResolution);
+            final long tolerance = Math.min(skewTolerance, slotDuration / 2);
+            final long origin = readers.stream()
+                    .filter(reader -> reader.size() > 0)
+                    .mapToLong(reader -> reader.timestamp(0))
+                    .min()
+                    .orElse(0);
+
+            final PriorityQueue<Cursor> cursors = new PriorityQueue<>(Math.max(1, readers.size()));
+            for (MappedRateReader reader : readers) {
+                if (reader.size() > 0) {
+                    cursors.add(new Cursor(reader, origin, slotDuration, tolerance));
+                }
+            }
+
+            FileUtils.forceMkdirParent(outputFile);
+            try (BinaryRateWriter writer = new BinaryRateWriter(outputFile, header)) {
+                merge(cursors, writer, origin, slotDuration);
+            }
+        }
+        finally {
+            mapped.forEach(MappedRateReader::close);
+        }
+    }
+
+    private void merge(final PriorityQueue<Cursor> cursors, final BinaryRateWriter writer, long origin,
+                       long slotDuration) throws IOException {
+        final List<Cursor> current = new ArrayList<>(cursors.size());
+        long lastSlot = -1;
+
+        while (!cursors.isEmpty()) {
+            final long slot = cursors.peek().slot;
+            long count = 0;
+            int metadata = 0;
+
+            while (!cursors.isEmpty() && cursors.peek().slot == slot) {
+                final Cursor cursor = cursors.poll();
+
+                // As done by the updater, the metadata of the first record in the slot is kept
+                if (current.isEmpty()) {
+                    metadata = cursor.metadata();
+                }
+
+                count += cursor.count();
+                current.add(cursor);
+            }
+
+            if (fillGaps && lastSlot >= 0) {
+                for (long missing = lastSlot + 1; missing < slot; missing++) {
+                    writer.write(0, 0, origin + (missing * slotDuration));
+                }
+            }
+
+            writer.write(metadata, count, origin + (slot * slotDuration));
+            lastSlot = slot;
+
+            for (Cursor cursor : current) {
+                cursor.next();
+
+                if (cursor.hasRecord()) {
+                    cursors.add(cursor);
+                }
+            }
+            current.clear();
+        }
+    }
+}
@@ -45,7 +45,7 @@ public class BinaryRateUpdater implements AutoCloseable {
     private final FileChannel fileChannel;
     private FileHeader fileHeader;
 
-    private final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(FileHeader.BYTES + 2);
+    private final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(FileHeader.BYTES + FileHeader.EXTENSION_BYTES + 2);
     private final boolean overlay;
 
     /**
@@ -105,20 +105,7 @@ public class BinaryRateUpdater implements AutoCloseable {
         logger.trace("Read {} bytes from the file channel", bytesRead);
         byteBuffer.flip();
 
-        byte[] name = new byte[FileHeader.FORMAT_NAME_SIZE];
-        byteBuffer.get(name, 0, FileHeader.FORMAT_NAME_SIZE);
-        logger.trace("File format name: '{}'", new String(name));
-
-        int fileVersion = byteBuffer.getInt();
-        logger.trace("File version: '{}'", fileVersion);
-
-        int maestroVersion = byteBuffer.getInt();
-        logger.trace("Maestro version: '{}'", maestroVersion);
-
-        Role role = Role.from(byteBuffer.getInt());
-        logger.trace("Role: '{}'", role.getCode());
-
-        return new FileHeader(new String(name), fileVersion, maestroVersion, role);
+        return BinaryRateReader.readHeader(byteBuffer);
     }
 
     private void write() throws IOException {
@@ -146,6 +133,11 @@ public class BinaryRateUpdater implements AutoCloseable {
         byteBuffer.putInt(Constants.VERSION_NUMERIC);
         byteBuffer.putInt(header.getRole().getCode());
 
+        if (header.isExtended()) {
+            byteBuffer.putInt(header.getSamplingResolution());
+            byteBuffer.put(new byte[FileHeader.EXTENSION_RESERVED_BYTES]);
+        }
+
         fileChannel.position(0);
         write();
 
@@ -170,12 +162,13 @@ public class BinaryRateUpdater implements AutoCloseable {
             write();
         }
 
-        long olderTs = TimeUnit.MICROSECONDS.toSeconds(older.getTimestamp());
-        long newerTs = TimeUnit.MICROSECONDS.toSeconds(newer.getTimestamp());
+        final long slotDuration = TimeUnit.MILLISECONDS.toMicros(samplingResolution());
+        long olderTs = older.getTimestamp() / slotDuration;
+        long newerTs = newer.getTimestamp() / slotDuration;
 
         if (olderTs != newerTs) {
-            logger.error("Cannot update records that are not within the same second slot: {} == {}", olderTs, newerTs);
-            throw new InvalidRecordException(olderTs, newerTs, "Cannot save multiple records for within the same second slot");
+            logger.error("Cannot update records that are not within the same sampling slot: {} == {}", olderTs, newerTs);
+            throw new InvalidRecordException(olderTs, newerTs, "Cannot save multiple records for within the same sampling slot");
         }
 
         byteBuffer.putInt(older.getMetadata());
@@ -204,8 +197,16 @@ public class BinaryRateUpdater implements AutoCloseable {
         byteBuffer.putLong(entry.getTimestamp());
     }
 
+    private int samplingResolution() {
+        return fileHeader == null ? FileHeader.DEFAULT_SAMPLING_RESOLUTION : fileHeader.getSamplingResolution();
+    }
+
+    private int headerSize() {
+        return fileHeader == null ? FileHeader.BYTES : fileHeader.getSize();
+    }
+
     public void update(RateEntry newer, long index) throws IOException {
-        long pos = FileHeader.BYTES + (RateEntry.BYTES * index);
+        long pos = headerSize() + (RateEntry.BYTES * index);
 
         fileChannel.position(pos);
         RateEntry older = readRecord(fileChannel, byteBuffer);
@@ -274,7 +275,9 @@ public class BinaryRateUpdater implements AutoCloseable {
 
 
     /**
-     * Join a file another file on an previously opened updater
+     * Join a file another file on an previously opened updater. The records are joined by their
+     * position on the file, so the files must have been written in lockstep. Use the
+     * {@link BinaryRateMerger} to join files by their timestamps
      * @param binaryRateUpdater the updater instance to join the file to
      * @param reportFile1 the file to be joined
      * @throws IOException for multiple I/O related errors
@@ -288,6 +291,12 @@ public class BinaryRateUpdater implements AutoCloseable {
                 }
             }
 
+            final FileHeader header = binaryRateUpdater.getFileHeader();
+            if (header != null && header.getSamplingResolution() != reader.getHeader().getSamplingResolution()) {
+                throw new InvalidHeaderValueException("Cannot join files with different sampling resolutions: "
+                        + header.getSamplingResolution() + " ms != " + reader.getHeader().getSamplingResolution() + " ms");
+            }
+
             RateEntry entry = reader.readRecord();
             long index = 0;
             while (entry != null) {
@@ -39,6 +39,7 @@ public class BinaryRateWriter implements RateWriter {
 
     private final File reportFile;
     private final FileChannel fileChannel;
+    private final long slotDuration;
     private long last = 0;
 
     // TODO: size needs to be adjusted accordingly
@@ -47,11 +48,13 @@ public class BinaryRateWriter implements RateWriter {
     /**
      * Constructor
      * @param reportFile the rate report file name
-     * @param fileHeader the file header
+     * @param fileHeader the file header. Only one record is accepted per sampling slot, as defined by
+     *                   the sampling resolution of the header
      * @throws IOException in case of I/O errors
      */
     public BinaryRateWriter(final File reportFile, final FileHeader fileHeader) throws IOException {
         this.reportFile = reportFile;
+        this.slotDuration = TimeUnit.MILLISECONDS.toMicros(fileHeader.getSamplingResolution());
 
         fileChannel = new FileOutputStream(reportFile).getChannel();
 
@@ -78,6 +81,11 @@ public class BinaryRateWriter implements RateWriter {
         byteBuffer.putInt(Constants.VERSION_NUMERIC);
         byteBuffer.putInt(header.getRole().getCode());
 
+        if (header.isExtended()) {
+            byteBuffer.putInt(header.getSamplingResolution());
+            byteBuffer.put(new byte[FileHeader.EXTENSION_RESERVED_BYTES]);
+        }
+
         write();
     }
 
@@ -97,7 +105,7 @@ public class BinaryRateWriter implements RateWriter {
     public void write(int metadata, long count, long timestamp) throws IOException {
         checkBufferCapacity();
 
-        long now = TimeUnit.MICROSECONDS.toSeconds(timestamp);
+        long now = timestamp / slotDuration;
 
         checkRecordTimeSlot(now);
 
@@ -125,12 +133,15 @@ public class BinaryRateWriter implements RateWriter {
                 throw new InvalidRecordException(now, last, "Sequential record with a timestamp in the in the past");
             }
 
-            throw new RecordOverwriteException(now, last, "Multiple records for within the same second slot");
+            throw new RecordOverwriteException(now, last, "Multiple records for within the same sampling slot");
         }
         else {
-            long next = last + 1;
-            if (now != next && last != 0) {
-                logger.warn("Trying to save a non-sequential record: now {} / expected {}", now, next);
+            // Gaps are expected (ie.: the writers skip the slots where the workers are not running)
+            if (logger.isDebugEnabled()) {
+                long next = last + 1;
+                if (now != next && last != 0) {
+                    logger.debug("Saving a non-sequential record: now {} / expected {}", now, next);
+                }
             }
         }
     }
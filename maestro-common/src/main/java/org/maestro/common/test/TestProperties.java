@@ -49,6 +49,8 @@ public class TestProperties {
     private long messageSize;
     private boolean variableSize;
     private int rate;
+    private boolean openModel;
+    private String arrivalProcess;
 
     public TestProperties() {
     }
@@ -237,6 +239,40 @@ public class TestProperties {
         return rate;
     }
 
+    public void setOpenModel(boolean openModel) {
+        this.openModel = openModel;
+    }
+
+    @PropertyConsumer(name="openModel", join = false)
+    public void setOpenModel(final String openModel) {
+        setOpenModel(Boolean.parseBoolean(openModel));
+    }
+
+    /**
+     * Whether the messages were stamped with their intended (scheduled) send time instead of the
+     * actual send time. In this case, the recorded latencies are already free of coordinated omission
+     * @return true if the test used the open model scheduling or false otherwise
+     */
+    @PropertyProvider(name="openModel", join = false)
+    public boolean isOpenModel() {
+        return openModel;
+    }
+
+    @PropertyConsumer(name="arrivalProcess", join = false)
+    public void setArrivalProcess(final String arrivalProcess) {
+        this.arrivalProcess = arrivalProcess;
+    }
+
+    /**
+     * The arrival process used to schedule the messages (see
+     * {@link org.maestro.common.arrival.ArrivalProcessFactory})
+     * @return the arrival process specification
+     */
+    @PropertyProvider(name="arrivalProcess", join = false)
+    public String getArrivalProcess() {
+        return arrivalProcess;
+    }
+
     @Override
     public String toString() {
         return "TestProperties{" +
@@ -252,6 +288,8 @@ public class TestProperties {
                 ", variableSize=" + variableSize +
                 ", rate=" + rate +
                 ", limitDestinations=" + limitDestinations +
+                ", openModel=" + openModel +
+                ", arrivalProcess='" + arrivalProcess + '\'' +
                 '}';
     }
 }
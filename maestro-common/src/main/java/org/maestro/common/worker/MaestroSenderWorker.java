@@ -18,4 +18,11 @@ package org.maestro.common.worker;
 
 public interface MaestroSenderWorker extends MaestroWorker {
 
+    /**
+     * Sets the recorder for the realized send schedule
+     * @param scheduleRecorder the schedule recorder
+     */
+    default void setScheduleRecorder(ScheduleRecorder scheduleRecorder) {
+
+    }
 }
@@ -93,6 +93,31 @@ public interface MaestroWorker extends Runnable, TestDuration.TestProgress {
     }
 
 
+    /**
+     * Whether the worker publishes its message count and running state to the counter slot set by
+     * {@link #setMessageCounter(WorkerCounters.Counter)}. The workers that do not are polled through
+     * {@link #isRunning()} and {@link #messageCount()} instead (see {@link WorkerCounters#register(int, MaestroWorker)})
+     *
+     * @return true if the worker uses the message counter or false otherwise
+     */
+    default boolean usesMessageCounter() {
+        return false;
+    }
+
+
+    /**
+     * Sets the counter slot where the worker publishes its message count and running state, so
+     * that it can be read along with the ones of the other workers. It is only called for the workers
+     * that use the message counter (see {@link #usesMessageCounter()}). The default implementation
+     * ignores the counter
+     *
+     * @param counter the counter owned by this worker
+     */
+    default void setMessageCounter(WorkerCounters.Counter counter) {
+
+    }
+
+
     /**
      * When multiple workers are involved, set the number of the worker
      *
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.worker;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records the realized send schedule (ie.: the number of messages that were scheduled to be sent on
+ * each second) of the sender workers. The senders publish their counts once for every second of the
+ * schedule, and they are later taken by a writer once that second is no longer expected to be updated.
+ * Counts published after the second was taken are accounted as late.
+ */
+public final class ScheduleRecorder {
+    private static final int SLOTS = 64;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SLOTS);
+    private final AtomicLong late = new AtomicLong(0);
+    private volatile long lastTakenSecond;
+
+    /**
+     * Constructor
+     * @param startSecond the (epoch) second when recording starts
+     */
+    public ScheduleRecorder(long startSecond) {
+        this.lastTakenSecond = startSecond - 1;
+    }
+
+    private static int slot(long second) {
+        return (int) (second & (SLOTS - 1));
+    }
+
+    /**
+     * Publishes the number of messages scheduled for a given second
+     * @param second the (epoch) second
+     * @param count the number of messages scheduled on that second
+     */
+    public void record(long second, long count) {
+        final long lastTaken = lastTakenSecond;
+
+        if (second <= lastTaken || (second - lastTaken) > SLOTS) {
+            late.addAndGet(count);
+        }
+        else {
+            counts.addAndGet(slot(second), count);
+        }
+    }
+
+    /**
+     * Gets the last second taken by the writer
+     * @return the last second taken by the writer
+     */
+    public long lastTakenSecond() {
+        return lastTakenSecond;
+    }
+
+    /**
+     * Takes the number of messages scheduled for the next second. Must be called by a single thread
+     * @return the number of messages scheduled for the second following {@link #lastTakenSecond()}
+     */
+    public long takeNextSecond() {
+        final long second = lastTakenSecond + 1;
+
+        lastTakenSecond = second;
+        return counts.getAndSet(slot(second), 0);
+    }
+
+    /**
+     * Gets the number of messages published after their second was taken
+     * @return the number of late messages
+     */
+    public long lateCount() {
+        return late.get();
+    }
+}
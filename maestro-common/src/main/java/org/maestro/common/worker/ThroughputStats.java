@@ -27,6 +27,7 @@ import java.time.Duration;
 public class ThroughputStats implements PerfStats {
     private Duration duration;
     private long count;
+    private long[] workerCounts;
 
     public Duration getDuration() {
         return duration;
@@ -52,6 +53,35 @@ public class ThroughputStats implements PerfStats {
         return (double) count / (double) duration.getSeconds();
     }
 
+    public long[] getWorkerCounts() {
+        return workerCounts;
+    }
+
+    public void setWorkerCounts(long[] workerCounts) {
+        this.workerCounts = workerCounts;
+    }
+
+    /**
+     * Gets the rate of each worker
+     * @return the rate of each worker or an empty array if unknown
+     */
+    public double[] getWorkerRates() {
+        if (workerCounts == null) {
+            return new double[0];
+        }
+
+        final double[] rates = new double[workerCounts.length];
+        final long seconds = duration.getSeconds();
+
+        if (seconds != 0) {
+            for (int i = 0; i < workerCounts.length; i++) {
+                rates[i] = (double) workerCounts[i] / (double) seconds;
+            }
+        }
+
+        return rates;
+    }
+
     @Override
     public String toString() {
         return "ThroughputStats{" +
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.worker;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Holds the message counters and running states of a set of workers. Each worker writes only to
+ * its own slot, which is padded so that it never shares a cache line with the slots of the other
+ * workers, and readers can go through the whole set in a single pass.
+ */
+public final class WorkerCounters {
+    /*
+     * 16 longs (128 bytes) per slot: enough to avoid false sharing even with adjacent cache line
+     * prefetching. The first slot is left unused, so that the first worker is also padded from
+     * the array header
+     */
+    private static final int SLOT_SIZE = 16;
+    private static final int COUNT_OFFSET = 0;
+    private static final int RUNNING_OFFSET = 1;
+
+    /**
+     * The view of the counter slot owned by a single worker
+     */
+    public static final class Counter {
+        private final AtomicLongArray counters;
+        private final int index;
+
+        private Counter(final AtomicLongArray counters, int index) {
+            this.counters = counters;
+            this.index = index;
+        }
+
+        /**
+         * Gets the message count
+         * @return the message count
+         */
+        public long get() {
+            return counters.get(index + COUNT_OFFSET);
+        }
+
+        /**
+         * Sets the message count (with ordered/lazy semantics)
+         * @param count the message count
+         */
+        public void lazySet(long count) {
+            counters.lazySet(index + COUNT_OFFSET, count);
+        }
+
+        /**
+         * Increments the message count
+         * @return the updated message count
+         */
+        public long incrementAndGet() {
+            return counters.incrementAndGet(index + COUNT_OFFSET);
+        }
+
+        /**
+         * Sets the running state of the worker
+         * @param running true if the worker is running or false otherwise
+         */
+        public void setRunning(boolean running) {
+            counters.set(index + RUNNING_OFFSET, running ? 1 : 0);
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(get());
+        }
+    }
+
+    private final AtomicLongArray counters;
+    private final int size;
+    // The workers that do not publish to their slots, whose state is polled instead (null for the others)
+    private final MaestroWorker[] polledWorkers;
+
+    /**
+     * Constructor
+     * @param size the number of workers
+     */
+    public WorkerCounters(int size) {
+        this.size = size;
+        this.counters = new AtomicLongArray((size + 2) * SLOT_SIZE);
+        this.polledWorkers = new MaestroWorker[size];
+    }
+
+    /**
+     * Creates a counter that is not shared with any other worker
+     * @return a new counter
+     */
+    public static Counter newCounter() {
+        return new WorkerCounters(1).counter(0);
+    }
+
+    private static int index(int worker) {
+        return (worker + 1) * SLOT_SIZE;
+    }
+
+    /**
+     * Gets the number of workers
+     * @return the number of workers
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the counter slot owned by a worker
+     * @param worker the worker number
+     * @return the counter for the worker
+     */
+    public Counter counter(int worker) {
+        return new Counter(counters, index(worker));
+    }
+
+    /**
+     * Registers a worker, handing it its counter slot. The workers that do not use the message counter
+     * (see {@link MaestroWorker#usesMessageCounter()}, ie.: workers written before the counters existed)
+     * do not publish to their slots, so their message count and running state are polled from them instead
+     * @param worker the worker number
+     * @param maestroWorker the worker
+     */
+    public void register(int worker, final MaestroWorker maestroWorker) {
+        if (maestroWorker.usesMessageCounter()) {
+            maestroWorker.setMessageCounter(counter(worker));
+        }
+        else {
+            polledWorkers[worker] = maestroWorker;
+        }
+    }
+
+    /**
+     * Gets the message count of a worker
+     * @param worker the worker number
+     * @return the message count
+     */
+    public long count(int worker) {
+        final MaestroWorker polledWorker = polledWorkers[worker];
+        if (polledWorker != null) {
+            return polledWorker.messageCount();
+        }
+
+        return counters.get(index(worker) + COUNT_OFFSET);
+    }
+
+    /**
+     * Checks whether a worker is running
+     * @param worker the worker number
+     * @return true if the worker is running or false otherwise
+     */
+    public boolean isRunning(int worker) {
+        final MaestroWorker polledWorker = polledWorkers[worker];
+        if (polledWorker != null) {
+            return polledWorker.isRunning();
+        }
+
+        return counters.get(index(worker) + RUNNING_OFFSET) != 0;
+    }
+
+    /**
+     * Checks whether all the workers are running
+     * @return true if all the workers are running or false otherwise (or if there are no workers)
+     */
+    public boolean allRunning() {
+        if (size == 0) {
+            return false;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (!isRunning(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Copies the message counts of all the workers
+     * @param counts the array to copy the counts to (must be at least {@link #size()} long)
+     * @return the sum of the message counts
+     */
+    public long snapshot(final long[] counts) {
+        long sum = 0;
+
+        for (int i = 0; i < size; i++) {
+            final long count = count(i);
+
+            counts[i] = count;
+            sum += count;
+        }
+
+        return sum;
+    }
+}
@@ -16,10 +16,14 @@
 
 package org.maestro.common.worker;
 
+import org.maestro.common.URLQuery;
+import org.maestro.common.arrival.ArrivalProcessFactory;
 import org.maestro.common.exceptions.MaestroException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.URISyntaxException;
+
 
 /**
  * Represents the options set on the worker by the front-end
@@ -151,6 +155,27 @@ public class WorkerOptions {
     }
 
 
+    /**
+     * Gets the arrival process specification, as given by the arrivalProcess option of the broker URL
+     * @return the arrival process specification (see {@link ArrivalProcessFactory})
+     */
+    public String getArrivalProcess() {
+        if (brokerURL == null) {
+            return ArrivalProcessFactory.DEFAULT_ARRIVAL_SPEC;
+        }
+
+        try {
+            final URLQuery urlQuery = new URLQuery(brokerURL);
+
+            return urlQuery.getString("arrivalProcess", ArrivalProcessFactory.DEFAULT_ARRIVAL_SPEC);
+        }
+        catch (URISyntaxException e) {
+            logger.warn("Unable to parse the arrival process from the broker URL {}", brokerURL);
+            return ArrivalProcessFactory.DEFAULT_ARRIVAL_SPEC;
+        }
+    }
+
+
     /**
      * Gets the FCL value
      * @return the FCL value
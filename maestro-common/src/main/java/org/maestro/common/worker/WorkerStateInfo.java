@@ -44,6 +44,17 @@ public final class WorkerStateInfo {
     private volatile boolean running = false;
     private volatile WorkerExitStatus exitStatus = WorkerExitStatus.WORKER_EXIT_STOPPED;
     private volatile Exception exception = null;
+    private WorkerCounters.Counter counter;
+
+    /**
+     * Sets the counter slot where the running state is also published
+     * @param counter the counter slot owned by the worker
+     */
+    public synchronized void setCounter(final WorkerCounters.Counter counter) {
+        this.counter = counter;
+
+        counter.setRunning(running);
+    }
 
     /**
      * Whether the worker is running
@@ -66,6 +77,10 @@ public final class WorkerStateInfo {
         this.exception = exception;
         //uses the this.running store to write release this.exitStatus and this.exception
         this.running = running;
+
+        if (counter != null) {
+            counter.setRunning(running);
+        }
     }
 
 
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.maestro.common.arrival;
+
+import org.junit.Test;
+import org.maestro.common.exceptions.MaestroException;
+
+import static org.junit.Assert.*;
+
+public class ArrivalProcessFactoryTest {
+
+    @Test
+    public void testParse() {
+        assertTrue(ArrivalProcessFactory.parse(null, 100) instanceof FixedArrival);
+        assertTrue(ArrivalProcessFactory.parse("fixed", 100) instanceof FixedArrival);
+        assertTrue(ArrivalProcessFactory.parse("poisson", 100) instanceof PoissonArrival);
+        assertTrue(ArrivalProcessFactory.parse("burst:1000:4000", 100) instanceof BurstArrival);
+        assertTrue(ArrivalProcessFactory.parse("sinusoidal:60000:0.5", 100) instanceof SinusoidalArrival);
+    }
+
+    @Test(expected = MaestroException.class)
+    public void testUnknownArrival() {
+        ArrivalProcessFactory.parse("unknown", 100);
+    }
+
+    @Test(expected = MaestroException.class)
+    public void testInvalidBurst() {
+        ArrivalProcessFactory.parse("burst:1000", 100);
+    }
+
+    @Test(expected = MaestroException.class)
+    public void testInvalidAmplitude() {
+        ArrivalProcessFactory.parse("sinusoidal:60000:1.5", 100);
+    }
+
+    @Test(expected = MaestroException.class)
+    public void testUnboundedRate() {
+        ArrivalProcessFactory.parse("poisson", 0);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.maestro.common.arrival;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BurstArrivalTest {
+
+    @Test
+    public void testBurstCycle() {
+        final BurstArrival arrival = new BurstArrival(100, 1000, 4000);
+
+        // 100 msg/sec over a 5 seconds cycle
+        assertEquals(500, arrival.getMessagesPerBurst());
+
+        long total = 0;
+        for (int i = 0; i < arrival.getMessagesPerBurst() - 1; i++) {
+            final long interval = arrival.nextInterval();
+
+            assertEquals("Messages within a burst should be sent at the burst pace", 2_000_000, interval);
+            total += interval;
+        }
+
+        final long lastInterval = arrival.nextInterval();
+        assertTrue("The last interval should include the off period",
+                lastInterval > TimeUnit.SECONDS.toNanos(4));
+        total += lastInterval;
+
+        assertEquals("The cycle duration does not match", TimeUnit.SECONDS.toNanos(5), total);
+        assertEquals("A new burst should start", 2_000_000, arrival.nextInterval());
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.maestro.common.arrival;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class PoissonArrivalTest {
+
+    @Test
+    public void testAverageRate() {
+        final long rate = 1000;
+        final int samples = 100_000;
+        final PoissonArrival arrival = new PoissonArrival(rate, new SplittableRandom(42));
+
+        long total = 0;
+        for (int i = 0; i < samples; i++) {
+            final long interval = arrival.nextInterval();
+
+            assertTrue("The interval cannot be negative", interval >= 0);
+            total += interval;
+        }
+
+        final double mean = (double) total / samples;
+        assertEquals("The mean interval does not match the rate", 1_000_000.0, mean, 20_000.0);
+    }
+}
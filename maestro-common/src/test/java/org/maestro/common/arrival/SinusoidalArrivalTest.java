@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.maestro.common.arrival;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SinusoidalArrivalTest {
+
+    @Test
+    public void testRamp() {
+        final long rate = 1000;
+        final SinusoidalArrival arrival = new SinusoidalArrival(rate, 10_000, 0.5);
+        final long period = TimeUnit.SECONDS.toNanos(10);
+
+        long elapsed = 0;
+        long count = 0;
+        long minInterval = Long.MAX_VALUE;
+        long maxInterval = Long.MIN_VALUE;
+
+        while (elapsed < period) {
+            final long interval = arrival.nextInterval();
+
+            minInterval = Math.min(minInterval, interval);
+            maxInterval = Math.max(maxInterval, interval);
+            elapsed += interval;
+            count++;
+        }
+
+        // The rate ranges from 500 to 1500 msg/sec
+        assertEquals(1_000_000_000L / 1500, minInterval, 1000);
+        assertEquals(1_000_000_000L / 500, maxInterval, 1000);
+
+        // Over a full period, the average rate should match the given one
+        assertEquals(rate * 10, count, rate / 10);
+    }
+}
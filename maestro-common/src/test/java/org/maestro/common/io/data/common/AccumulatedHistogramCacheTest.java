@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.common.io.data.common;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.maestro.common.io.data.writers.LatencyWriter;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class AccumulatedHistogramCacheTest {
+    @Rule
+    public final TemporaryFolder tempTestFolder = new TemporaryFolder();
+
+    private static Histogram writeLatencies(final File latencyFile) throws IOException {
+        final Histogram accumulated = new Histogram(3);
+
+        try (LatencyWriter latencyWriter = new LatencyWriter(latencyFile)) {
+            latencyWriter.outputLegend(System.currentTimeMillis());
+
+            for (int i = 1; i <= 10; i++) {
+                final Histogram histogram = new Histogram(3);
+                histogram.recordValueWithCount(i * 100, i);
+                histogram.setStartTimeStamp(i * 1000);
+                histogram.setEndTimeStamp((i + 1) * 1000);
+
+                latencyWriter.outputIntervalHistogram(histogram);
+                accumulated.add(histogram);
+            }
+        }
+
+        accumulated.setStartTimeStamp(1000);
+        accumulated.setEndTimeStamp(11000);
+        return accumulated;
+    }
+
+    @Test
+    public void testReadWrite() throws IOException {
+        final File latencyFile = new File(tempTestFolder.getRoot(), "receiverd-latency.hdr");
+        final Histogram accumulated = writeLatencies(latencyFile);
+
+        assertNull("There should be no cache yet", AccumulatedHistogramCache.read(latencyFile));
+
+        AccumulatedHistogramCache.write(latencyFile, accumulated);
+
+        final Histogram cached = AccumulatedHistogramCache.read(latencyFile);
+        assertNotNull("The cache should be valid", cached);
+        assertEquals(accumulated, cached);
+        assertEquals(55, cached.getTotalCount());
+        assertEquals(1000, cached.getStartTimeStamp());
+        assertEquals(11000, cached.getEndTimeStamp());
+    }
+
+    @Test
+    public void testStale() throws IOException {
+        final File latencyFile = new File(tempTestFolder.getRoot(), "receiverd-latency.hdr");
+        final Histogram accumulated = writeLatencies(latencyFile);
+
+        AccumulatedHistogramCache.write(latencyFile, accumulated);
+
+        try (FileOutputStream out = new FileOutputStream(latencyFile, true)) {
+            out.write('\n');
+        }
+
+        assertNull("The cache should be stale", AccumulatedHistogramCache.read(latencyFile));
+    }
+}
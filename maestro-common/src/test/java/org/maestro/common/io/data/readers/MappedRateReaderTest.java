@@ -0,0 +1,157 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.common.io.data.readers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.maestro.common.Constants;
+import org.maestro.common.Role;
+import org.maestro.common.io.data.common.FileHeader;
+import org.maestro.common.io.data.common.RateEntry;
+import org.maestro.common.io.data.common.exceptions.InvalidHeaderValueException;
+import org.maestro.common.io.data.writers.BinaryRateWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+public class MappedRateReaderTest {
+    private static final long START = TimeUnit.SECONDS.toMicros(1_500_000_000L);
+    private static final int TOTAL = 3600;
+
+    private File reportFile;
+
+    @Before
+    public void setUp() {
+        String path = this.getClass().getResource(".").getPath();
+        reportFile = new File(path, "mapped-" + System.nanoTime() + ".dat");
+    }
+
+    @After
+    public void tearDown() {
+        if (reportFile != null && reportFile.exists()) {
+            reportFile.delete();
+        }
+    }
+
+    private void generate(final FileHeader header) throws IOException {
+        final long step = TimeUnit.MILLISECONDS.toMicros(header.getSamplingResolution());
+
+        try (BinaryRateWriter writer = new BinaryRateWriter(reportFile, header)) {
+            for (int i = 0; i < TOTAL; i++) {
+                writer.write(0, i + 1, START + (i * step));
+            }
+        }
+    }
+
+    @Test
+    public void testIndexAccess() throws IOException {
+        generate(FileHeader.WRITER_DEFAULT_SENDER);
+
+        try (MappedRateReader mappedReader = new MappedRateReader(reportFile);
+             BinaryRateReader reader = new BinaryRateReader(reportFile)) {
+            assertEquals("The number of records don't match", TOTAL, mappedReader.size());
+            assertEquals(FileHeader.CURRENT_FILE_VERSION, mappedReader.getHeader().getFileVersion());
+
+            for (int i = 0; i < TOTAL; i++) {
+                RateEntry entry = reader.readRecord();
+                assertNotNull(entry);
+
+                assertEquals(entry.getMetadata(), mappedReader.metadata(i));
+                assertEquals(entry.getCount(), mappedReader.count(i));
+                assertEquals(entry.getTimestamp(), mappedReader.timestamp(i));
+            }
+        }
+    }
+
+    @Test
+    public void testIndexAccessVersion1() throws IOException {
+        generate(new FileHeader(FileHeader.MAESTRO_FORMAT_NAME, 1, Constants.VERSION_NUMERIC, Role.SENDER));
+
+        try (MappedRateReader mappedReader = new MappedRateReader(reportFile)) {
+            assertEquals("The number of records don't match", TOTAL, mappedReader.size());
+            assertEquals(1, mappedReader.getHeader().getFileVersion());
+
+            assertEquals(1, mappedReader.count(0));
+            assertEquals(START, mappedReader.timestamp(0));
+            assertEquals(TOTAL, mappedReader.count(TOTAL - 1));
+        }
+    }
+
+    @Test
+    public void testSearch() throws IOException {
+        generate(FileHeader.WRITER_DEFAULT_SENDER.withSamplingResolution(100));
+
+        final long step = TimeUnit.MILLISECONDS.toMicros(100);
+        try (MappedRateReader mappedReader = new MappedRateReader(reportFile)) {
+            assertEquals(0, mappedReader.search(START));
+            assertEquals(1234, mappedReader.search(START + (1234 * step)));
+            assertEquals(TOTAL - 1, mappedReader.search(START + ((TOTAL - 1) * step)));
+
+            assertEquals(-1, mappedReader.search(START - 1));
+            assertEquals(-11, mappedReader.search(START + (10 * step) - 1));
+            assertEquals(-(TOTAL + 1), mappedReader.search(START + (TOTAL * step)));
+
+            assertEquals(10, mappedReader.ceilingIndex(START + (10 * step) - 1));
+            assertEquals(10, mappedReader.ceilingIndex(START + (10 * step)));
+            assertEquals(TOTAL, mappedReader.ceilingIndex(Long.MAX_VALUE));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOutOfBounds() throws IOException {
+        generate(FileHeader.WRITER_DEFAULT_SENDER);
+
+        try (MappedRateReader mappedReader = new MappedRateReader(reportFile)) {
+            mappedReader.count(TOTAL);
+        }
+    }
+
+    private void truncate(long size) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(reportFile, "rw")) {
+            file.setLength(size);
+        }
+    }
+
+    @Test(expected = InvalidHeaderValueException.class)
+    public void testTruncatedHeaderExtension() throws IOException {
+        generate(FileHeader.WRITER_DEFAULT_SENDER.withSamplingResolution(100));
+        truncate(FileHeader.BYTES + (FileHeader.EXTENSION_BYTES / 2));
+
+        try (MappedRateReader ignored = new MappedRateReader(reportFile)) {
+            fail("A file truncated within the header extension should not be read");
+        }
+    }
+
+    @Test
+    public void testHeaderOnly() throws IOException {
+        generate(FileHeader.WRITER_DEFAULT_SENDER.withSamplingResolution(100));
+        truncate(FileHeader.BYTES + FileHeader.EXTENSION_BYTES);
+
+        try (MappedRateReader mappedReader = new MappedRateReader(reportFile)) {
+            assertEquals(0, mappedReader.size());
+            assertEquals(FileHeader.EXTENDED_FILE_VERSION, mappedReader.getHeader().getFileVersion());
+        }
+    }
+}
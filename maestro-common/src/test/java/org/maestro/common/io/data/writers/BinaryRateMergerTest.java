@@ -0,0 +1,231 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.common.io.data.writers;
+
+import org.junit.Test;
+import org.maestro.common.Role;
+import org.maestro.common.io.data.common.FileHeader;
+import org.maestro.common.io.data.readers.MappedRateReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class BinaryRateMergerTest {
+    private static final long START = TimeUnit.SECONDS.toMicros(1_500_000_000L);
+
+    private static void clean(final File... reportFiles) {
+        for (File reportFile : reportFiles) {
+            if (reportFile != null && reportFile.exists()) {
+                reportFile.delete();
+            }
+        }
+    }
+
+    private static void generate(final File reportFile, long start, int total) throws IOException {
+        try (BinaryRateWriter writer = new BinaryRateWriter(reportFile, FileHeader.WRITER_DEFAULT_SENDER)) {
+            for (int i = 0; i < total; i++) {
+                writer.write(0, 1, start + TimeUnit.SECONDS.toMicros(i));
+            }
+        }
+    }
+
+    @Test
+    public void testMerge() throws IOException {
+        String path = this.getClass().getResource(".").getPath();
+        File reportFile = new File(path, "merged-sender.dat");
+
+        try {
+            BinaryRateMerger merger = new BinaryRateMerger(reportFile, Role.SENDER);
+            merger.merge(Arrays.asList(new File(path, "sender-0.dat"), new File(path, "sender-1.dat"),
+                    new File(path, "sender-2.dat")));
+
+            try (MappedRateReader reader = new MappedRateReader(reportFile)) {
+                FileHeader fileHeader = reader.getHeader();
+                assertEquals(FileHeader.CURRENT_FILE_VERSION, fileHeader.getFileVersion());
+                assertEquals(Role.SENDER, fileHeader.getRole());
+
+                assertEquals("The number of records don't match", 86400, reader.size());
+                for (int i = 0; i < reader.size(); i++) {
+                    assertEquals("Unexpected value", (i + 1) * 3, reader.count(i));
+                }
+            }
+        }
+        finally {
+            clean(reportFile);
+        }
+    }
+
+    @Test
+    public void testMergeByTimestamp() throws IOException {
+        String path = this.getClass().getResource(".").getPath();
+        File first = new File(path, "merge-first.dat");
+        File second = new File(path, "merge-second.dat");
+        File reportFile = new File(path, "merged-timestamp.dat");
+
+        try {
+            // The second peer started 2 seconds later
+            generate(first, START, 10);
+            generate(second, START + TimeUnit.SECONDS.toMicros(2), 10);
+
+            new BinaryRateMerger(reportFile, Role.SENDER).merge(Arrays.asList(first, second));
+
+            try (MappedRateReader reader = new MappedRateReader(reportFile)) {
+                assertEquals("The number of records don't match", 12, reader.size());
+
+                assertEquals(START, reader.timestamp(0));
+                assertEquals(1, reader.count(0));
+                assertEquals(1, reader.count(1));
+                for (int i = 2; i < 10; i++) {
+                    assertEquals("Unexpected value at " + i, 2, reader.count(i));
+                }
+                assertEquals(1, reader.count(10));
+                assertEquals(1, reader.count(11));
+            }
+        }
+        finally {
+            clean(first, second, reportFile);
+        }
+    }
+
+    @Test
+    public void testMergeWithSkew() throws IOException {
+        String path = this.getClass().getResource(".").getPath();
+        File first = new File(path, "skew-first.dat");
+        File second = new File(path, "skew-second.dat");
+        File third = new File(path, "skew-third.dat");
+        File reportFile = new File(path, "merged-skew.dat");
+
+        try {
+            // The third peer started 1 second earlier and the clock of the second one is 50ms behind
+            generate(first, START, 10);
+            generate(second, START - TimeUnit.MILLISECONDS.toMicros(50), 10);
+            generate(third, START - TimeUnit.SECONDS.toMicros(1), 1);
+
+            BinaryRateMerger merger = new BinaryRateMerger(reportFile, Role.SENDER);
+            merger.setSkewTolerance(100);
+            merger.merge(Arrays.asList(first, second, third));
+
+            try (MappedRateReader reader = new MappedRateReader(reportFile)) {
+                assertEquals("The number of records don't match", 11, reader.size());
+
+                assertEquals(1, reader.count(0));
+                for (int i = 1; i < reader.size(); i++) {
+                    assertEquals("Unexpected timestamp at " + i, START + TimeUnit.SECONDS.toMicros(i - 1),
+                            reader.timestamp(i));
+                    assertEquals("Unexpected value at " + i, 2, reader.count(i));
+                }
+            }
+        }
+        finally {
+            clean(first, second, third, reportFile);
+        }
+    }
+
+    @Test
+    public void testMergeKeepsResolutionAndMetadata() throws IOException {
+        String path = this.getClass().getResource(".").getPath();
+        File first = new File(path, "metadata-first.dat");
+        File second = new File(path, "metadata-second.dat");
+        File reportFile = new File(path, "merged-metadata.dat");
+
+        final FileHeader header = FileHeader.WRITER_DEFAULT_SENDER.withSamplingResolution(100);
+        final long slot = TimeUnit.MILLISECONDS.toMicros(100);
+
+        try {
+            try (BinaryRateWriter writer = new BinaryRateWriter(first, header)) {
+                for (int i = 0; i < 10; i++) {
+                    writer.write(7, 1, START + (i * slot));
+                }
+            }
+
+            try (BinaryRateWriter writer = new BinaryRateWriter(second, header)) {
+                for (int i = 0; i < 10; i++) {
+                    writer.write(7, 2, START + ((i + 5) * slot));
+                }
+            }
+
+            new BinaryRateMerger(reportFile, Role.SENDER).merge(Arrays.asList(first, second));
+
+            try (MappedRateReader reader = new MappedRateReader(reportFile)) {
+                assertEquals(FileHeader.EXTENDED_FILE_VERSION, reader.getHeader().getFileVersion());
+                assertEquals(100, reader.getHeader().getSamplingResolution());
+                assertEquals("The number of records don't match", 15, reader.size());
+
+                for (int i = 0; i < reader.size(); i++) {
+                    assertEquals("Unexpected timestamp at " + i, START + (i * slot), reader.timestamp(i));
+                    assertEquals("Unexpected metadata at " + i, 7, reader.metadata(i));
+                    assertEquals("Unexpected value at " + i, (i < 5 ? 0 : 2) + (i < 10 ? 1 : 0), reader.count(i));
+                }
+            }
+        }
+        finally {
+            clean(first, second, reportFile);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testMergeMissingFile() throws IOException {
+        String path = this.getClass().getResource(".").getPath();
+        File first = new File(path, "missing-first.dat");
+        File reportFile = new File(path, "merged-missing.dat");
+
+        try {
+            generate(first, START, 5);
+
+            new BinaryRateMerger(reportFile, Role.SENDER).merge(Arrays.asList(first,
+                    new File(path, "does-not-exist.dat")));
+        }
+        finally {
+            clean(first, reportFile);
+        }
+    }
+
+    @Test
+    public void testMergeFillGaps() throws IOException {
+        String path = this.getClass().getResource(".").getPath();
+        File first = new File(path, "gaps-first.dat");
+        File second = new File(path, "gaps-second.dat");
+        File reportFile = new File(path, "merged-gaps.dat");
+
+        try {
+            generate(first, START, 5);
+            generate(second, START + TimeUnit.SECONDS.toMicros(8), 5);
+
+            BinaryRateMerger merger = new BinaryRateMerger(reportFile, Role.SENDER);
+            merger.setFillGaps(true);
+            merger.merge(Arrays.asList(first, second));
+
+            try (MappedRateReader reader = new MappedRateReader(reportFile)) {
+                assertEquals("The number of records don't match", 13, reader.size());
+
+                for (int i = 0; i < reader.size(); i++) {
+                    assertEquals("Unexpected timestamp at " + i, START + TimeUnit.SECONDS.toMicros(i),
+                            reader.timestamp(i));
+                    assertEquals("Unexpected value at " + i, (i >= 5 && i < 8) ? 0 : 1, reader.count(i));
+                }
+            }
+        }
+        finally {
+            clean(first, second, reportFile);
+        }
+    }
+}
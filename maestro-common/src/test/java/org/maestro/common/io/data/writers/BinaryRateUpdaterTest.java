@@ -22,12 +22,16 @@ import org.maestro.common.Constants;
 import org.maestro.common.Role;
 import org.maestro.common.io.data.common.FileHeader;
 import org.maestro.common.io.data.common.RateEntry;
+import org.maestro.common.io.data.common.exceptions.InvalidHeaderValueException;
 import org.maestro.common.io.data.readers.BinaryRateReader;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 public class BinaryRateUpdaterTest {
     private static void clean(final File reportFile) {
@@ -129,4 +133,33 @@ public class BinaryRateUpdaterTest {
             clean(reportFile);
         }
     }
+
+
+    /**
+     * Tests opening a file truncated within the header extension
+     * @throws IOException for multiple types of I/O errors
+     */
+    @Test(expected = InvalidHeaderValueException.class)
+    public void testTruncatedHeaderExtension() throws IOException {
+        String path = this.getClass().getResource(".").getPath();
+        File reportFile = new File(path, "truncated-header.dat");
+
+        try {
+            final FileHeader header = FileHeader.WRITER_DEFAULT_SENDER.withSamplingResolution(100);
+            try (BinaryRateWriter writer = new BinaryRateWriter(reportFile, header)) {
+                writer.write(0, 1, TimeUnit.SECONDS.toMicros(1));
+            }
+
+            try (RandomAccessFile file = new RandomAccessFile(reportFile, "rw")) {
+                file.setLength(FileHeader.BYTES + (FileHeader.EXTENSION_BYTES / 2));
+            }
+
+            try (BinaryRateUpdater ignored = new BinaryRateUpdater(reportFile)) {
+                fail("A file truncated within the header extension should not be updated");
+            }
+        }
+        finally {
+            clean(reportFile);
+        }
+    }
 }
@@ -26,6 +26,7 @@ import org.maestro.common.duration.EpochMicroClock;
 import org.maestro.common.io.data.common.FileHeader;
 import org.maestro.common.io.data.common.RateEntry;
 import org.maestro.common.io.data.common.exceptions.InvalidRecordException;
+import org.maestro.common.io.data.common.exceptions.RecordOverwriteException;
 import org.maestro.common.io.data.readers.BinaryRateReader;
 
 import java.io.File;
@@ -173,6 +174,133 @@ public class BinaryRateWriterTest {
             clean(reportFile);
         }
     }
-}
 
+    private long readRecords(final File reportFile, int samplingResolution, int fileVersion) throws IOException {
+        try (BinaryRateReader reader = new BinaryRateReader(reportFile)) {
+            FileHeader fileHeader = reader.getHeader();
+            assertEquals(FileHeader.MAESTRO_FORMAT_NAME, fileHeader.getFormatName().trim());
+            assertEquals(fileVersion, fileHeader.getFileVersion());
+            assertEquals(Role.SENDER, fileHeader.getRole());
+            assertEquals(samplingResolution, fileHeader.getSamplingResolution());
+
+            long count = 0;
+            RateEntry entry = reader.readRecord();
+            while (entry != null) {
+                count++;
+                assertEquals("The record count does not match", count, entry.getCount());
+                entry = reader.readRecord();
+            }
+
+            return count;
+        }
+    }
+
+    @Test
+    public void testWriteRecordsSubSecond() throws IOException {
+        String path = this.getClass().getResource(".").getPath();
+        File reportFile = new File(path, "testWriteRecordsSubSecond.dat");
+
+        try {
+            final FileHeader header = FileHeader.WRITER_DEFAULT_SENDER.withSamplingResolution(100);
+            long total = TimeUnit.HOURS.toSeconds(1) * 10;
+
+            try (BinaryRateWriter binaryRateWriter = new BinaryRateWriter(reportFile, header)) {
+                long now = EpochClocks.exclusiveMicro().microTime();
+
+                for (int i = 0; i < total; i++) {
+                    binaryRateWriter.write(0, i + 1, now);
+
+                    now += TimeUnit.MILLISECONDS.toMicros(100);
+                }
+            }
+
+            assertEquals("The file size does not match",
+                    FileHeader.BYTES + FileHeader.EXTENSION_BYTES + (RateEntry.BYTES * total), reportFile.length());
+            assertEquals("The number of records don't match", total,
+                    readRecords(reportFile, 100, FileHeader.EXTENDED_FILE_VERSION));
+        }
+        finally {
+            clean(reportFile);
+        }
+    }
+
+    @Test(expected = RecordOverwriteException.class)
+    public void testWriteRecordsSameSlot() throws IOException {
+        String path = this.getClass().getResource(".").getPath();
+        File reportFile = new File(path, "testWriteRecordsSameSlot.dat");
+
+        final FileHeader header = FileHeader.WRITER_DEFAULT_SENDER.withSamplingResolution(10);
+        try (BinaryRateWriter binaryRateWriter = new BinaryRateWriter(reportFile, header)) {
+            long now = TimeUnit.SECONDS.toMicros(TimeUnit.MICROSECONDS.toSeconds(
+                    EpochClocks.exclusiveMicro().microTime()));
+
+            binaryRateWriter.write(0, 1, now);
+            binaryRateWriter.write(0, 2, now + TimeUnit.MILLISECONDS.toMicros(10));
+            binaryRateWriter.write(0, 3, now + TimeUnit.MILLISECONDS.toMicros(15));
+        }
+        finally {
+            clean(reportFile);
+        }
+    }
+
+    @Test
+    public void testDefaultResolutionWritesVersion1() throws IOException {
+        String path = this.getClass().getResource(".").getPath();
+        File reportFile = new File(path, "testDefaultResolutionWritesVersion1.dat");
+
+        try {
+            final FileHeader header = FileHeader.WRITER_DEFAULT_SENDER
+                    .withSamplingResolution(FileHeader.DEFAULT_SAMPLING_RESOLUTION);
+            long total = TimeUnit.HOURS.toSeconds(1);
+
+            try (BinaryRateWriter binaryRateWriter = new BinaryRateWriter(reportFile, header)) {
+                long now = EpochClocks.exclusiveMicro().microTime();
+
+                for (int i = 0; i < total; i++) {
+                    binaryRateWriter.write(0, i + 1, now);
+
+                    now += TimeUnit.SECONDS.toMicros(1);
+                }
+            }
+
+            // No header extension: older readers would take it for a record
+            assertEquals("The file size does not match", FileHeader.BYTES + (RateEntry.BYTES * total),
+                    reportFile.length());
+            assertEquals("The number of records don't match", total,
+                    readRecords(reportFile, FileHeader.DEFAULT_SAMPLING_RESOLUTION, 1));
+        }
+        finally {
+            clean(reportFile);
+        }
+    }
 
+    @Test
+    public void testReadVersion1Records() throws IOException {
+        String path = this.getClass().getResource(".").getPath();
+        File reportFile = new File(path, "testReadVersion1Records.dat");
+
+        try {
+            final FileHeader header = new FileHeader(FileHeader.MAESTRO_FORMAT_NAME, 1, Constants.VERSION_NUMERIC,
+                    Role.SENDER);
+            long total = TimeUnit.HOURS.toSeconds(1);
+
+            try (BinaryRateWriter binaryRateWriter = new BinaryRateWriter(reportFile, header)) {
+                long now = EpochClocks.exclusiveMicro().microTime();
+
+                for (int i = 0; i < total; i++) {
+                    binaryRateWriter.write(0, i + 1, now);
+
+                    now += TimeUnit.SECONDS.toMicros(1);
+                }
+            }
+
+            assertEquals("The file size does not match", FileHeader.BYTES + (RateEntry.BYTES * total),
+                    reportFile.length());
+            assertEquals("The number of records don't match", total,
+                    readRecords(reportFile, FileHeader.DEFAULT_SAMPLING_RESOLUTION, 1));
+        }
+        finally {
+            clean(reportFile);
+        }
+    }
+}
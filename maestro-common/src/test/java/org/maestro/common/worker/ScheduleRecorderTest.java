@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.maestro.common.worker;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ScheduleRecorderTest {
+
+    @Test
+    public void testRecordAndTake() {
+        final ScheduleRecorder recorder = new ScheduleRecorder(100);
+
+        recorder.record(100, 10);
+        recorder.record(100, 5);
+        recorder.record(102, 7);
+
+        assertEquals(15, recorder.takeNextSecond());
+        assertEquals(100, recorder.lastTakenSecond());
+        assertEquals(0, recorder.takeNextSecond());
+        assertEquals(7, recorder.takeNextSecond());
+        assertEquals(0, recorder.lateCount());
+    }
+
+    @Test
+    public void testLateRecords() {
+        final ScheduleRecorder recorder = new ScheduleRecorder(100);
+
+        assertEquals(0, recorder.takeNextSecond());
+        recorder.record(100, 10);
+        recorder.record(1000, 3);
+
+        assertEquals(13, recorder.lateCount());
+        assertEquals(0, recorder.takeNextSecond());
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.maestro.common.worker;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class WorkerCountersTest {
+
+    /*
+     * A worker written before the counters existed: it only reports its state through isRunning
+     * and messageCount
+     */
+    private static class LegacyWorker implements MaestroWorker {
+        volatile boolean running = false;
+        volatile long count = 0;
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public long messageCount() {
+            return count;
+        }
+
+        @Override
+        public long startedEpochMillis() {
+            return 0;
+        }
+
+        @Override
+        public void setupBarriers(CountDownLatch startSignal, CountDownLatch endSignal) {
+
+        }
+
+        @Override
+        public void setWorkerOptions(WorkerOptions workerOptions) {
+
+        }
+
+        @Override
+        public WorkerStateInfo getWorkerState() {
+            return null;
+        }
+
+        @Override
+        public void start() {
+
+        }
+
+        @Override
+        public void stop() {
+
+        }
+
+        @Override
+        public void fail(Exception exception) {
+
+        }
+
+        @Override
+        public void halt() {
+
+        }
+
+        @Override
+        public void setWorkerNumber(int number) {
+
+        }
+
+        @Override
+        public void run() {
+
+        }
+    }
+
+    private static class CountingWorker extends LegacyWorker {
+        WorkerCounters.Counter counter;
+
+        @Override
+        public boolean usesMessageCounter() {
+            return true;
+        }
+
+        @Override
+        public void setMessageCounter(WorkerCounters.Counter counter) {
+            this.counter = counter;
+        }
+    }
+
+    /*
+     * A worker that overrides setMessageCounter without using the counter (ie.: a base class
+     * delegating to a wrapped worker)
+     */
+    private static class DelegatingWorker extends LegacyWorker {
+        WorkerCounters.Counter counter;
+
+        @Override
+        public void setMessageCounter(WorkerCounters.Counter counter) {
+            this.counter = counter;
+        }
+    }
+
+    @Test
+    public void testCounters() {
+        final WorkerCounters counters = new WorkerCounters(3);
+
+        final WorkerCounters.Counter first = counters.counter(0);
+        final WorkerCounters.Counter third = counters.counter(2);
+
+        first.lazySet(10);
+        third.incrementAndGet();
+        third.incrementAndGet();
+
+        assertEquals(10, counters.count(0));
+        assertEquals(0, counters.count(1));
+        assertEquals(2, counters.count(2));
+
+        final long[] counts = new long[counters.size()];
+        assertEquals(12, counters.snapshot(counts));
+        assertArrayEquals(new long[] { 10, 0, 2 }, counts);
+    }
+
+    @Test
+    public void testRunningState() {
+        final WorkerCounters counters = new WorkerCounters(2);
+        final WorkerStateInfo first = new WorkerStateInfo();
+        final WorkerStateInfo second = new WorkerStateInfo();
+
+        first.setCounter(counters.counter(0));
+        second.setCounter(counters.counter(1));
+        assertFalse(counters.allRunning());
+
+        first.setState(true, null, null);
+        second.setState(true, null, null);
+        assertTrue(counters.isRunning(0));
+        assertTrue(counters.allRunning());
+
+        second.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_STOPPED, null);
+        assertFalse(counters.isRunning(1));
+        assertFalse(counters.allRunning());
+    }
+
+    @Test
+    public void testWorkerWithoutCounter() {
+        final WorkerCounters counters = new WorkerCounters(2);
+        final LegacyWorker legacyWorker = new LegacyWorker();
+        final CountingWorker countingWorker = new CountingWorker();
+
+        counters.register(0, legacyWorker);
+        counters.register(1, countingWorker);
+        assertNotNull("The worker using the counter should get it", countingWorker.counter);
+        assertFalse(counters.allRunning());
+
+        // The state of the worker without the counter is polled from it
+        legacyWorker.running = true;
+        legacyWorker.count = 5;
+        countingWorker.counter.setRunning(true);
+        countingWorker.counter.lazySet(7);
+
+        assertTrue(counters.isRunning(0));
+        assertTrue(counters.allRunning());
+        assertEquals(5, counters.count(0));
+
+        final long[] counts = new long[counters.size()];
+        assertEquals(12, counters.snapshot(counts));
+        assertArrayEquals(new long[] { 5, 7 }, counts);
+
+        legacyWorker.running = false;
+        assertFalse(counters.allRunning());
+    }
+
+    @Test
+    public void testWorkerNotUsingCounter() {
+        final WorkerCounters counters = new WorkerCounters(1);
+        final DelegatingWorker delegatingWorker = new DelegatingWorker();
+
+        counters.register(0, delegatingWorker);
+        assertNull("The worker not using the counter should not get it", delegatingWorker.counter);
+
+        delegatingWorker.running = true;
+        delegatingWorker.count = 3;
+
+        assertTrue(counters.isRunning(0));
+        assertEquals(3, counters.count(0));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertFalse(new WorkerCounters(0).allRunning());
+    }
+}
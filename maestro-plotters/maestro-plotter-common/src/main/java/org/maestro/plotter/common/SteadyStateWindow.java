@@ -0,0 +1,175 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.common;
+
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.maestro.common.ConfigurationWrapper;
+import org.maestro.common.duration.DurationCount;
+import org.maestro.common.io.data.readers.MappedRateReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntToLongFunction;
+
+/**
+ * The steady state window of a test: the period of time after the warm-up and before the cool-down.
+ * The warm-up and cool-down are measured in messages (as given by TestDuration.getWarmUpDuration and
+ * TestDuration.getCoolDownDuration, which default to DurationCount.WARM_UP_COUNT) and are limited to
+ * a fraction of the messages exchanged during the test, so that short tests are not trimmed away.
+ */
+public final class SteadyStateWindow {
+    private static final Logger logger = LoggerFactory.getLogger(SteadyStateWindow.class);
+    private static final AbstractConfiguration config = ConfigurationWrapper.getConfig();
+
+    private static final SteadyStateWindow UNTRIMMED = new SteadyStateWindow(Long.MIN_VALUE, Long.MAX_VALUE);
+
+    private final long start;
+    private final long end;
+
+    private SteadyStateWindow(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Gets a window that includes everything
+     * @return the untrimmed window
+     */
+    public static SteadyStateWindow untrimmed() {
+        return UNTRIMMED;
+    }
+
+    /**
+     * Calculates the steady state window from the samples of a test, using the default warm-up and
+     * cool-down counts
+     * @param size the number of samples
+     * @param timestamps the sample timestamps (in milliseconds since the epoch and in chronological order)
+     * @param counts the number of messages exchanged on each sample
+     * @return the steady state window
+     */
+    public static SteadyStateWindow fromCounts(int size, final IntToLongFunction timestamps,
+                                               final IntToLongFunction counts) {
+        return fromCounts(size, timestamps, counts, DurationCount.WARM_UP_COUNT, DurationCount.WARM_UP_COUNT);
+    }
+
+    /**
+     * Calculates the steady state window from the samples of a test
+     * @param size the number of samples
+     * @param timestamps the sample timestamps (in milliseconds since the epoch and in chronological order)
+     * @param counts the number of messages exchanged on each sample
+     * @param warmUpCount the number of messages exchanged during the warm-up
+     * @param coolDownCount the number of messages exchanged during the cool-down
+     * @return the steady state window
+     */
+    public static SteadyStateWindow fromCounts(int size, final IntToLongFunction timestamps,
+                                               final IntToLongFunction counts, long warmUpCount,
+                                               long coolDownCount) {
+        if (!config.getBoolean("maestro.reports.trim.enabled", true) || size == 0) {
+            return UNTRIMMED;
+        }
+
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += counts.applyAsLong(i);
+        }
+
+        final long maxTrimmed = (long) (total * config.getDouble("maestro.reports.trim.max.fraction", 0.1));
+        final long warmUp = Math.min(warmUpCount, maxTrimmed);
+        final long coolDown = Math.min(coolDownCount, maxTrimmed);
+
+        int first = 0;
+        long trimmed = 0;
+        while (first < size && trimmed < warmUp) {
+            trimmed += counts.applyAsLong(first);
+            first++;
+        }
+
+        int last = size;
+        trimmed = 0;
+        while (last > first && trimmed < coolDown) {
+            last--;
+            trimmed += counts.applyAsLong(last);
+        }
+
+        if (first >= last) {
+            return UNTRIMMED;
+        }
+
+        final long start = first == 0 ? Long.MIN_VALUE : timestamps.applyAsLong(first);
+        final long end = last == size ? Long.MAX_VALUE : timestamps.applyAsLong(last);
+
+        logger.debug("Trimmed {} samples of warm-up and {} samples of cool-down", first, size - last);
+        return new SteadyStateWindow(start, end);
+    }
+
+    /**
+     * Calculates the steady state window from a rate file
+     * @param rateFile the rate file
+     * @return the steady state window
+     * @throws IOException if unable to read the rate file
+     */
+    public static SteadyStateWindow fromRateFile(final File rateFile) throws IOException {
+        try (MappedRateReader rateReader = new MappedRateReader(rateFile)) {
+            return fromCounts(rateReader.size(), i -> TimeUnit.MICROSECONDS.toMillis(rateReader.timestamp(i)),
+                    rateReader::count);
+        }
+    }
+
+    /**
+     * The start of the window
+     * @return the start of the window (in milliseconds since the epoch, inclusive)
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * The end of the window
+     * @return the end of the window (in milliseconds since the epoch, exclusive)
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * Whether anything is trimmed by this window
+     * @return true if the window trims anything or false otherwise
+     */
+    public boolean isTrimmed() {
+        return start != Long.MIN_VALUE || end != Long.MAX_VALUE;
+    }
+
+    /**
+     * Whether a timestamp is within the window
+     * @param timestamp the timestamp (in milliseconds since the epoch)
+     * @return true if within the window or false otherwise
+     */
+    public boolean contains(long timestamp) {
+        return timestamp >= start && timestamp < end;
+    }
+
+    @Override
+    public String toString() {
+        return "SteadyStateWindow{" +
+                "start=" + start +
+                ", end=" + end +
+                '}';
+    }
+}
@@ -18,13 +18,22 @@ package org.maestro.plotter.common.serializer;
 
 import org.maestro.plotter.common.statistics.Statistics;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
-public class SingleData<T> implements MaestroSerializable {
-    private List<Date> periods;
-    private List<T> values;
+public class SingleData<T> implements MaestroSerializable, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // These may be views over the data they were read from, so they are copied when serialized
+    private transient List<Date> periods;
+    private transient List<T> values;
     private Statistics statistics;
+    private Statistics untrimmedStatistics;
 
     public List<Date> getPeriods() {
         return periods;
@@ -49,4 +58,29 @@ public class SingleData<T> implements MaestroSerializable {
     public void setStatistics(Statistics statistics) {
         this.statistics = statistics;
     }
+
+    /**
+     * Gets the statistics including the warm-up and the cool-down
+     * @return the untrimmed statistics or null if the data was not trimmed
+     */
+    public Statistics getUntrimmedStatistics() {
+        return untrimmedStatistics;
+    }
+
+    public void setUntrimmedStatistics(Statistics untrimmedStatistics) {
+        this.untrimmedStatistics = untrimmedStatistics;
+    }
+
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(periods == null ? null : new ArrayList<>(periods));
+        out.writeObject(values == null ? null : new ArrayList<>(values));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        periods = (List<Date>) in.readObject();
+        values = (List<T>) in.readObject();
+    }
 }
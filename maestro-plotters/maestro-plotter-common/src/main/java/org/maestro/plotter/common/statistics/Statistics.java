@@ -16,20 +16,35 @@
 
 package org.maestro.plotter.common.statistics;
 
+import org.HdrHistogram.AbstractHistogram;
 import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 import org.maestro.common.test.properties.annotations.PropertyName;
 import org.maestro.common.test.properties.annotations.PropertyProvider;
 
+import java.io.Serializable;
+
 /**
  * A container for report statistics
  */
 @PropertyName(name="")
-public class Statistics {
+public class Statistics implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final SummaryStatistics summaryStatistics;
+    private final AbstractHistogram histogram;
 
     public Statistics(SummaryStatistics summaryStatistics) {
-        this.summaryStatistics = summaryStatistics;
+        this(summaryStatistics, null);
+    }
 
+    /**
+     * Constructor
+     * @param summaryStatistics the summary statistics for the data set
+     * @param histogram an optional histogram of the data set, used to calculate the percentiles (may be null)
+     */
+    public Statistics(SummaryStatistics summaryStatistics, AbstractHistogram histogram) {
+        this.summaryStatistics = summaryStatistics;
+        this.histogram = histogram;
     }
 
     /**
@@ -79,4 +94,67 @@ public class Statistics {
     public double getStandardDeviation() {
         return summaryStatistics.getStandardDeviation();
     }
+
+
+    /**
+     * Get the value at a given percentile of the data set
+     * @param percentile the percentile (ie.: 95.0)
+     * @return the value at the given percentile or null if the percentiles were not calculated
+     */
+    public Double getPercentile(double percentile) {
+        if (histogram == null || histogram.getTotalCount() == 0) {
+            return null;
+        }
+
+        return (double) histogram.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * Get the 1st percentile for the data set
+     * @return the 1st percentile or null if not calculated
+     */
+    @PropertyProvider(name="p1")
+    public Double getP1() {
+        return getPercentile(1.0);
+    }
+
+    /**
+     * Get the 5th percentile for the data set
+     * @return the 5th percentile or null if not calculated
+     */
+    @PropertyProvider(name="p5")
+    public Double getP5() {
+        return getPercentile(5.0);
+    }
+
+    /**
+     * Get the median for the data set
+     * @return the median or null if not calculated
+     */
+    @PropertyProvider(name="p50")
+    public Double getP50() {
+        return getPercentile(50.0);
+    }
+
+    /**
+     * Get the 95th percentile for the data set
+     * @return the 95th percentile or null if not calculated
+     */
+    @PropertyProvider(name="p95")
+    public Double getP95() {
+        return getPercentile(95.0);
+    }
+
+    /**
+     * Estimates the heap footprint of the histogram used to calculate the percentiles (not named as a
+     * getter so that the histogram is not exposed as a property)
+     * @return the estimated footprint in bytes or 0 if the percentiles were not calculated
+     */
+    public long histogramFootprint() {
+        if (histogram == null) {
+            return 0;
+        }
+
+        return histogram.getEstimatedFootprintInBytes();
+    }
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.plotter.common.statistics;
+
+import org.HdrHistogram.Histogram;
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+
+/**
+ * Calculates the statistics for a data set in a single pass and with constant memory, so that the
+ * data set does not need to be loaded in memory. Along with the moments, it records the values on
+ * a histogram to obtain the (approximate) percentiles.
+ */
+public class StreamingStatistics {
+    /*
+     * 3 significant digits keep the percentiles within 0.1% of the actual values
+     */
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final SummaryStatistics summaryStatistics = new SummaryStatistics();
+    private final Histogram histogram = new Histogram(SIGNIFICANT_DIGITS);
+
+    /**
+     * Records a value
+     * @param value the value to record. Negative values are not accounted for the percentiles
+     */
+    public void record(long value) {
+        summaryStatistics.addValue(value);
+
+        if (value >= 0) {
+            histogram.recordValue(value);
+        }
+    }
+
+    /**
+     * Builds the statistics for the values recorded so far
+     * @return A statistics container with the percentiles
+     */
+    public Statistics build() {
+        return new Statistics(summaryStatistics.copy(), histogram.copy());
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.common.statistics;
+
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class StreamingStatisticsTest {
+
+    @Test
+    public void testKnownDataSet() {
+        StreamingStatistics streamingStatistics = new StreamingStatistics();
+
+        // Shuffled, so that the order in which the values are recorded does not matter
+        for (int i = 0; i < 1000; i++) {
+            streamingStatistics.record(((i * 7) % 1000) + 1);
+        }
+
+        Statistics statistics = streamingStatistics.build();
+
+        assertEquals(500.5, statistics.getMean(), 0.0001);
+        assertEquals(1, statistics.getMin(), 0.0);
+        assertEquals(1000, statistics.getMax(), 0.0);
+        // The sample standard deviation of 1..n is sqrt(n * (n + 1) / 12)
+        assertEquals(Math.sqrt(1000 * 1001 / 12.0), statistics.getStandardDeviation(), 0.0001);
+
+        // The values below 2048 are recorded exactly by the histogram
+        assertEquals(10, statistics.getP1(), 0.0);
+        assertEquals(50, statistics.getP5(), 0.0);
+        assertEquals(500, statistics.getP50(), 0.0);
+        assertEquals(950, statistics.getP95(), 0.0);
+    }
+
+    @Test
+    public void testPercentilesAgainstDescriptiveStatistics() {
+        StreamingStatistics streamingStatistics = new StreamingStatistics();
+        DescriptiveStatistics descriptiveStatistics = new DescriptiveStatistics();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100000; i++) {
+            long value = 50000 + (long) (random.nextGaussian() * 10000);
+
+            streamingStatistics.record(value);
+            descriptiveStatistics.addValue(value);
+        }
+
+        Statistics statistics = streamingStatistics.build();
+
+        assertEquals(descriptiveStatistics.getMean(), statistics.getMean(), 0.001);
+        assertEquals(descriptiveStatistics.getStandardDeviation(), statistics.getStandardDeviation(), 0.001);
+        assertEquals(descriptiveStatistics.getGeometricMean(), statistics.getGeometricMean(), 0.001);
+
+        // The percentiles are within 0.1% of the actual values (plus the distance between the ranks)
+        for (double percentile : new double[] {1.0, 5.0, 50.0, 95.0}) {
+            double expected = descriptiveStatistics.getPercentile(percentile);
+
+            assertEquals("Unexpected value for the percentile " + percentile, expected,
+                    statistics.getPercentile(percentile), (expected * 0.001) + 10);
+        }
+    }
+
+    @Test
+    public void testNegativeValuesAreNotPercentiles() {
+        StreamingStatistics streamingStatistics = new StreamingStatistics();
+
+        streamingStatistics.record(-10);
+        streamingStatistics.record(10);
+        streamingStatistics.record(20);
+
+        Statistics statistics = streamingStatistics.build();
+
+        assertEquals(-10, statistics.getMin(), 0.0);
+        assertEquals(20.0 / 3, statistics.getMean(), 0.0001);
+        assertEquals(10, statistics.getP1(), 0.0);
+    }
+
+    @Test
+    public void testEmptyDataSet() {
+        Statistics statistics = new StreamingStatistics().build();
+
+        assertNull(statistics.getP1());
+        assertNull(statistics.getP50());
+        assertNull(statistics.getP95());
+        assertEquals(0, new Statistics(new SummaryStatistics()).histogramFootprint());
+    }
+
+    @Test
+    public void testBuildIsASnapshot() {
+        StreamingStatistics streamingStatistics = new StreamingStatistics();
+
+        streamingStatistics.record(100);
+        Statistics statistics = streamingStatistics.build();
+        streamingStatistics.record(1000);
+
+        assertEquals(100, statistics.getMax(), 0.0);
+        assertEquals(100, statistics.getP95(), 0.0);
+    }
+}
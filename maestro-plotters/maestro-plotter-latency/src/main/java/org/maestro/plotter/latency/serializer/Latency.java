@@ -16,12 +16,16 @@
 
 package org.maestro.plotter.latency.serializer;
 
+import java.io.Serializable;
 import java.util.List;
 
-public class Latency {
+public class Latency implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private List<Double> percentiles;
     private List<Double> values;
     private Statistics statistics;
+    private Statistics untrimmedStatistics;
 
     public List<Double> getPercentiles() {
         return percentiles;
@@ -46,4 +50,16 @@ public class Latency {
     public void setStatistics(Statistics statistics) {
         this.statistics = statistics;
     }
+
+    /**
+     * Gets the statistics including the warm-up and the cool-down
+     * @return the untrimmed statistics or null if the latencies were not trimmed
+     */
+    public Statistics getUntrimmedStatistics() {
+        return untrimmedStatistics;
+    }
+
+    public void setUntrimmedStatistics(Statistics untrimmedStatistics) {
+        this.untrimmedStatistics = untrimmedStatistics;
+    }
 }
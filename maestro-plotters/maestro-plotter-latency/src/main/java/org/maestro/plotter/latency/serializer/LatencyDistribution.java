@@ -16,10 +16,13 @@
 
 package org.maestro.plotter.latency.serializer;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 
-public class LatencyDistribution {
+public class LatencyDistribution implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private Map<String, Latency> latencyDistribution = new HashMap<>();
 
     public Map<String, Latency> getLatencyDistribution() {
@@ -24,6 +24,7 @@ import org.maestro.common.worker.WorkerUtils;
 import org.maestro.plotter.common.serializer.MaestroSerializer;
 import org.maestro.plotter.latency.common.HdrData;
 import org.maestro.plotter.latency.common.HdrDataCO;
+import org.maestro.plotter.utils.LatencyHistograms;
 import org.maestro.plotter.utils.Util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +35,9 @@ import java.io.IOException;
 abstract public class LatencySerializer implements MaestroSerializer<LatencyDistribution> {
     private static final Logger logger = LoggerFactory.getLogger(LatencySerializer.class);
     private static final String dataName = "latency";
+    private static final String SERVICE_TIME_FILE_NAME = "senderd-service-time.hdr";
+    private static final String SENDER_RATE_FILE_NAME = "sender.dat";
+    private static final String RECEIVER_RATE_FILE_NAME = "receiver.dat";
 
 
     private TestProperties loadProperties(final File baseDir) {
@@ -57,10 +61,10 @@ abstract public class LatencySerializer implements MaestroSerializer<LatencyDist
         return null;
     }
 
-    private synchronized HdrData getHdrData(final Histogram histogram, final File file) {
+    private synchronized HdrData getHdrData(final Histogram histogram, final File file,
+                                            final TestProperties testProperties) {
         HdrData hdrData;
 
-        TestProperties testProperties = loadProperties(file.getParentFile());
         if (testProperties != null) {
             final long intervalInNanos = WorkerUtils.getExchangeInterval(testProperties.getRate());
 
@@ -97,11 +101,61 @@ abstract public class LatencySerializer implements MaestroSerializer<LatencyDist
         return latency;
     }
 
-    @Override
-    public LatencyDistribution serialize(final File file) throws IOException {
-        Histogram histogram = Util.getAccumulated(file);
+    private static File rateFile(final File latencyFile) {
+        final String name = SERVICE_TIME_FILE_NAME.equals(latencyFile.getName()) ? SENDER_RATE_FILE_NAME
+                : RECEIVER_RATE_FILE_NAME;
+
+        return new File(latencyFile.getParentFile(), name);
+    }
+
+    /*
+     * Gets the histogram for the steady state of the test, if the latencies can be trimmed, or the one
+     * for the whole test otherwise. Both are served from the sidecar caches when valid
+     */
+    private static Histogram getHistogram(final File file, boolean steadyState) throws IOException {
+        if (steadyState) {
+            Histogram histogram = Util.getSteadyState(file, rateFile(file));
+
+            if (histogram != null) {
+                return histogram;
+            }
+        }
+
+        return Util.getAccumulated(file);
+    }
+
+    /*
+     * On open model tests the messages are stamped with their intended send time, therefore the
+     * latency recorded by the receivers is already the response time and must not be corrected. The
+     * service time, if available, is recorded by the senders on a separate file.
+     */
+    private LatencyDistribution serializeOpenModel(final Histogram histogram, final File file,
+                                                   boolean steadyState) throws IOException {
+        LatencyDistribution latencyDistribution = new LatencyDistribution();
+
+        Latency responseTime = getLatencyInfo(histogram, getHdrDataUnbounded(histogram), file);
+        latencyDistribution.getLatencyDistribution().put("responseTime", responseTime);
+
+        final File serviceTimeFile = new File(file.getParentFile(), SERVICE_TIME_FILE_NAME);
+        if (serviceTimeFile.exists()) {
+            Histogram serviceTimeHistogram = getHistogram(serviceTimeFile, steadyState);
+
+            Latency serviceTime = getLatencyInfo(serviceTimeHistogram, getHdrDataUnbounded(serviceTimeHistogram),
+                    serviceTimeFile);
+            latencyDistribution.getLatencyDistribution().put("serviceTime", serviceTime);
+        }
+
+        return latencyDistribution;
+    }
 
-        HdrData hdrData = getHdrData(histogram, file);
+    private LatencyDistribution serialize(final Histogram histogram, final File file,
+                                          final TestProperties testProperties, boolean steadyState)
+            throws IOException {
+        if (testProperties != null && testProperties.isOpenModel()) {
+            return serializeOpenModel(histogram, file, steadyState);
+        }
+
+        HdrData hdrData = getHdrData(histogram, file, testProperties);
 
         LatencyDistribution latencyDistribution = new LatencyDistribution();
 
@@ -119,6 +173,39 @@ abstract public class LatencySerializer implements MaestroSerializer<LatencyDist
         return latencyDistribution;
     }
 
+    /**
+     * Serializes the latencies for the steady state of the test (ie.: excluding the warm-up and the
+     * cool-down). The statistics for the whole test are kept as the untrimmed statistics
+     * @param file the latency file
+     * @return the latency distribution
+     * @throws IOException if unable to read the latency data
+     */
+    @Override
+    public LatencyDistribution serialize(final File file) throws IOException {
+        TestProperties testProperties = loadProperties(file.getParentFile());
+
+        LatencyHistograms histograms = Util.getLatencies(file, rateFile(file));
+        Histogram histogram = histograms.getAccumulated();
+        Histogram steadyStateHistogram = histograms.getSteadyState();
+
+        if (steadyStateHistogram == null) {
+            return serialize(histogram, file, testProperties, false);
+        }
+
+        LatencyDistribution latencyDistribution = serialize(steadyStateHistogram, file, testProperties, true);
+        LatencyDistribution untrimmed = serialize(histogram, file, testProperties, false);
+
+        untrimmed.getLatencyDistribution().forEach((name, latency) -> {
+            Latency steadyState = latencyDistribution.getLatencyDistribution().get(name);
+
+            if (steadyState != null) {
+                steadyState.setUntrimmedStatistics(latency.getStatistics());
+            }
+        });
+
+        return latencyDistribution;
+    }
+
     @Override
     public String name() {
         return dataName;
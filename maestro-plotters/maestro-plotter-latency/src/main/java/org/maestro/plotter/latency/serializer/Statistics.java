@@ -16,7 +16,11 @@
 
 package org.maestro.plotter.latency.serializer;
 
-public class Statistics {
+import java.io.Serializable;
+
+public class Statistics implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private long latencyStartTS;
     private long latencyEndTS;
     private double latencyMaxValue;
@@ -0,0 +1,400 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.utils;
+
+import org.maestro.common.exceptions.MaestroException;
+import org.maestro.common.io.data.common.SidecarFreshness;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * An index of the intervals on a HdrHistogram log, mapping the start and end timestamps of each
+ * interval to the position of its line on the log. The intervals are sorted by their start timestamp
+ * (the intervals of different workers are interleaved on the log), so that the ones within a time
+ * window can be found with a binary search. It is stored on a sidecar file, which records the size
+ * and the modification time of the log and is only used if they match.
+ */
+public final class HistogramLogIndex {
+    private static final Logger logger = LoggerFactory.getLogger(HistogramLogIndex.class);
+
+    /**
+     * The suffix appended to the name of the latency file to name the index file
+     */
+    public static final String INDEX_FILE_SUFFIX = ".idx";
+
+    private static final int INDEX_FILE_MAGIC = 0x6d696478;
+    // Version 1 indexes were not sorted
+    private static final int INDEX_FILE_VERSION = 2;
+
+    private final double baseTime;
+    private int size;
+    private long[] startTimeStamps;
+    private long[] endTimeStamps;
+    private long[] offsets;
+    private int[] lengths;
+
+    private HistogramLogIndex(double baseTime, int capacity) {
+        this.baseTime = baseTime;
+        this.startTimeStamps = new long[capacity];
+        this.endTimeStamps = new long[capacity];
+        this.offsets = new long[capacity];
+        this.lengths = new int[capacity];
+    }
+
+    private void add(long startTimeStamp, long endTimeStamp, long offset, int length) {
+        if (size == offsets.length) {
+            final int capacity = Math.max(16, size * 2);
+
+            startTimeStamps = Arrays.copyOf(startTimeStamps, capacity);
+            endTimeStamps = Arrays.copyOf(endTimeStamps, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+
+        startTimeStamps[size] = startTimeStamp;
+        endTimeStamps[size] = endTimeStamp;
+        offsets[size] = offset;
+        lengths[size] = length;
+        size++;
+    }
+
+    private boolean isSorted() {
+        for (int i = 1; i < size; i++) {
+            if (startTimeStamps[i] < startTimeStamps[i - 1]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /*
+     * Sorts the intervals by their start timestamp. The sort is stable, so the intervals starting at
+     * the same time keep the order of the log
+     */
+    private void sort() {
+        if (isSorted()) {
+            return;
+        }
+
+        final int[] order = IntStream.range(0, size).boxed()
+                .sorted(Comparator.comparingLong(i -> startTimeStamps[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        final long[] sortedStartTimeStamps = new long[size];
+        final long[] sortedEndTimeStamps = new long[size];
+        final long[] sortedOffsets = new long[size];
+        final int[] sortedLengths = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            sortedStartTimeStamps[i] = startTimeStamps[order[i]];
+            sortedEndTimeStamps[i] = endTimeStamps[order[i]];
+            sortedOffsets[i] = offsets[order[i]];
+            sortedLengths[i] = lengths[order[i]];
+        }
+
+        startTimeStamps = sortedStartTimeStamps;
+        endTimeStamps = sortedEndTimeStamps;
+        offsets = sortedOffsets;
+        lengths = sortedLengths;
+    }
+
+    /**
+     * Gets the index file for a latency file
+     * @param latencyFile the latency file
+     * @return the index file (which may not exist)
+     */
+    public static File indexFile(final File latencyFile) {
+        return new File(latencyFile.getParentFile(), latencyFile.getName() + INDEX_FILE_SUFFIX);
+    }
+
+    private static String readString(final ByteBuffer buffer, int start, int end) {
+        final byte[] bytes = new byte[end - start];
+
+        for (int i = start; i < end; i++) {
+            bytes[i - start] = buffer.get(i);
+        }
+
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /*
+     * Gets the position of the comma preceding the compressed histogram, so that only the timestamps
+     * need to be read
+     */
+    private static int payloadIndex(final ByteBuffer buffer, int start, int end) {
+        int commas = buffer.get(start) == 'T' ? 4 : 3;
+
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == ',') {
+                commas--;
+
+                if (commas == 0) {
+                    return i;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Builds the index by scanning the latency file. The interval histograms are not decoded
+     * @param latencyFile the latency file
+     * @return the index
+     * @throws IOException if unable to read the latency file
+     */
+    public static HistogramLogIndex build(final File latencyFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(latencyFile.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new MaestroException("The latency file %s is too large to be indexed", latencyFile);
+            }
+
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            double startTime = 0.0;
+            double baseTime = Double.NaN;
+            HistogramLogIndex index = null;
+
+            int lineStart = 0;
+            while (lineStart < buffer.limit()) {
+                int lineEnd = lineStart;
+                while (lineEnd < buffer.limit() && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+
+                final int length = lineEnd - lineStart;
+                if (length > 0) {
+                    final byte first = buffer.get(lineStart);
+
+                    if (first == '#') {
+                        final String line = readString(buffer, lineStart, lineEnd).trim();
+
+                        if (line.startsWith(HistogramLogLines.START_TIME_PREFIX)) {
+                            startTime = HistogramLogLines.parseHeaderTime(line, HistogramLogLines.START_TIME_PREFIX);
+                        }
+                        else if (line.startsWith(HistogramLogLines.BASE_TIME_PREFIX)) {
+                            baseTime = HistogramLogLines.parseHeaderTime(line, HistogramLogLines.BASE_TIME_PREFIX);
+                        }
+                    }
+                    else if (first != '"' && first != '\r') {
+                        if (index == null) {
+                            index = new HistogramLogIndex(HistogramLogLines.resolveBaseTime(startTime, baseTime), 64);
+                        }
+
+                        final int payloadIndex = payloadIndex(buffer, lineStart, lineEnd);
+                        if (payloadIndex < 0) {
+                            throw new MaestroException("Invalid histogram log line at offset %d on %s", lineStart,
+                                    latencyFile);
+                        }
+
+                        String[] fields = readString(buffer, lineStart, payloadIndex).split(",");
+                        final int fieldOffset = fields[0].startsWith(HistogramLogLines.TAG_PREFIX) ? 1 : 0;
+
+                        final double intervalStart = HistogramLogLines.absoluteTime(
+                                Double.parseDouble(fields[fieldOffset]), index.baseTime);
+                        final double intervalLength = Double.parseDouble(fields[fieldOffset + 1]);
+
+                        index.add(HistogramLogLines.toMillis(intervalStart),
+                                HistogramLogLines.toMillis(intervalStart + intervalLength), lineStart, length);
+                    }
+                }
+
+                lineStart = lineEnd + 1;
+            }
+
+            if (index == null) {
+                return new HistogramLogIndex(HistogramLogLines.resolveBaseTime(startTime, baseTime), 0);
+            }
+
+            index.sort();
+            return index;
+        }
+    }
+
+    /**
+     * Writes the index to the sidecar file of a latency file
+     * @param latencyFile the latency file
+     * @throws IOException if unable to write the index file
+     */
+    public void write(final File latencyFile) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(indexFile(latencyFile))))) {
+            out.writeInt(INDEX_FILE_MAGIC);
+            out.writeInt(INDEX_FILE_VERSION);
+            SidecarFreshness.write(out, latencyFile);
+            out.writeDouble(baseTime);
+            out.writeInt(size);
+
+            for (int i = 0; i < size; i++) {
+                out.writeLong(startTimeStamps[i]);
+                out.writeLong(endTimeStamps[i]);
+                out.writeLong(offsets[i]);
+                out.writeInt(lengths[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads the index from the sidecar file of a latency file
+     * @param latencyFile the latency file
+     * @return the index or null if the sidecar does not exist or is not valid
+     */
+    public static HistogramLogIndex read(final File latencyFile) {
+        final File indexFile = indexFile(latencyFile);
+
+        if (!indexFile.exists()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != INDEX_FILE_MAGIC || in.readInt() != INDEX_FILE_VERSION) {
+                logger.warn("Ignoring the latency index {} because its format is not supported", indexFile);
+                return null;
+            }
+
+            if (!SidecarFreshness.isFresh(in, latencyFile, indexFile)) {
+                logger.debug("Ignoring the latency index {} because it is stale", indexFile);
+                return null;
+            }
+
+            final double baseTime = in.readDouble();
+            final int size = in.readInt();
+            final HistogramLogIndex index = new HistogramLogIndex(baseTime, size);
+
+            for (int i = 0; i < size; i++) {
+                index.add(in.readLong(), in.readLong(), in.readLong(), in.readInt());
+            }
+
+            return index;
+        }
+        catch (IOException e) {
+            logger.warn("Unable to read the latency index {}: {}", indexFile, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Loads the index of a latency file, building (and storing) it if the sidecar does not exist
+     * or is not valid
+     * @param latencyFile the latency file
+     * @return the index
+     * @throws IOException if unable to read the latency file
+     */
+    public static HistogramLogIndex load(final File latencyFile) throws IOException {
+        HistogramLogIndex index = read(latencyFile);
+
+        if (index == null) {
+            logger.debug("Building the latency index for {}", latencyFile);
+            index = build(latencyFile);
+
+            try {
+                index.write(latencyFile);
+            } catch (IOException e) {
+                logger.warn("Unable to write the latency index for {}: {}", latencyFile, e.getMessage());
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Gets the time (in seconds since the epoch) the relative interval timestamps refer to
+     * @return the base time
+     */
+    public double getBaseTime() {
+        return baseTime;
+    }
+
+    /**
+     * The number of intervals on the log
+     * @return the number of intervals
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the start timestamp of an interval
+     * @param i the interval index
+     * @return the start timestamp (in milliseconds since the epoch)
+     */
+    public long getStartTimeStamp(int i) {
+        return startTimeStamps[i];
+    }
+
+    /**
+     * Gets the end timestamp of an interval
+     * @param i the interval index
+     * @return the end timestamp (in milliseconds since the epoch)
+     */
+    public long getEndTimeStamp(int i) {
+        return endTimeStamps[i];
+    }
+
+    /**
+     * Gets the first interval starting at or after the given timestamp
+     * @param timestamp the timestamp (in milliseconds since the epoch)
+     * @return the index of the interval or the number of intervals if all of them start before the
+     * timestamp
+     */
+    public int ceilingIndex(long timestamp) {
+        int low = 0;
+        int high = size;
+
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+
+            if (startTimeStamps[middle] < timestamp) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Gets the position of the line of an interval on the log
+     * @param i the interval index
+     * @return the offset of the line
+     */
+    public long getOffset(int i) {
+        return offsets[i];
+    }
+
+    /**
+     * Gets the length of the line of an interval on the log (not including the line terminator)
+     * @param i the interval index
+     * @return the length of the line
+     */
+    public int getLength(int i) {
+        return lengths[i];
+    }
+}
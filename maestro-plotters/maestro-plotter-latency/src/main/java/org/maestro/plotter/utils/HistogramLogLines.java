@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.utils;
+
+import org.HdrHistogram.Histogram;
+import org.maestro.common.exceptions.MaestroException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+
+/**
+ * Parsing of the lines of a HdrHistogram log
+ */
+final class HistogramLogLines {
+    static final String TAG_PREFIX = "Tag=";
+    static final String START_TIME_PREFIX = "#[StartTime: ";
+    static final String BASE_TIME_PREFIX = "#[BaseTime: ";
+    static final String LEGEND_PREFIX = "\"StartTimestamp\"";
+
+    // Same heuristic used by HistogramLogReader: timestamps below one year are relative to the base time
+    private static final double ABSOLUTE_TIME_THRESHOLD = 365 * 24 * 3600.0;
+
+    private HistogramLogLines() {}
+
+    static long toMillis(double seconds) {
+        return Math.round(seconds * 1000.0);
+    }
+
+    static double parseHeaderTime(final String line, final String prefix) {
+        final String value = line.substring(prefix.length());
+        final int end = value.indexOf(' ');
+
+        return Double.parseDouble(end > 0 ? value.substring(0, end) : value);
+    }
+
+    /**
+     * Gets the time all the relative interval timestamps refer to
+     * @param startTime the start time from the log header (or 0 if not present)
+     * @param baseTime the base time from the log header (or NaN if not present)
+     * @return the base time
+     */
+    static double resolveBaseTime(double startTime, double baseTime) {
+        return Double.isNaN(baseTime) ? startTime : baseTime;
+    }
+
+    static double absoluteTime(double time, double baseTime) {
+        if (time < ABSOLUTE_TIME_THRESHOLD) {
+            return time + baseTime;
+        }
+
+        return time;
+    }
+
+    static Histogram decode(final String line, double baseTime) {
+        int offset = 0;
+
+        if (line.startsWith(TAG_PREFIX)) {
+            offset = line.indexOf(',') + 1;
+
+            if (offset == 0) {
+                throw new MaestroException("Invalid histogram log line: " + line);
+            }
+        }
+
+        // StartTimestamp, Interval_Length, Interval_Max, Interval_Compressed_Histogram
+        final int lengthIndex = line.indexOf(',', offset);
+        final int maxIndex = line.indexOf(',', lengthIndex + 1);
+        final int payloadIndex = line.indexOf(',', maxIndex + 1);
+
+        if (lengthIndex < 0 || maxIndex < 0 || payloadIndex < 0) {
+            throw new MaestroException("Invalid histogram log line: " + line);
+        }
+
+        try {
+            final double startTime = absoluteTime(Double.parseDouble(line.substring(offset, lengthIndex)), baseTime);
+            final double length = Double.parseDouble(line.substring(lengthIndex + 1, maxIndex));
+
+            final byte[] compressed = Base64.getDecoder().decode(line.substring(payloadIndex + 1).trim());
+            final Histogram histogram = Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(compressed), 0);
+
+            histogram.setStartTimeStamp(toMillis(startTime));
+            histogram.setEndTimeStamp(toMillis(startTime + length));
+            return histogram;
+        }
+        catch (DataFormatException | IllegalArgumentException e) {
+            // Maestro-generated histograms should always be integer ones, so this shouldn't happen
+            throw new MaestroException("Unable to decode the histogram log line: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.utils;
+
+import org.HdrHistogram.Histogram;
+import org.maestro.common.exceptions.MaestroException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A reader that uses the interval index (see {@link HistogramLogIndex}) of a latency file to
+ * decode only the intervals within a time window, instead of the whole file.
+ */
+public class IndexedHistogramLogReader implements Closeable {
+    // The maximum number of interval lines read from the log before they are decoded
+    private static final int DECODE_BATCH_SIZE = 4096;
+
+    private final File latencyFile;
+    private final FileChannel channel;
+    private final HistogramLogIndex index;
+    private final ParallelHistogramLogDecoder decoder;
+
+    private long startTimeStamp = Long.MAX_VALUE;
+    private long endTimeStamp = Long.MIN_VALUE;
+
+    /**
+     * Constructor
+     * @param latencyFile the latency file
+     * @throws IOException if unable to read the latency file
+     */
+    public IndexedHistogramLogReader(final File latencyFile) throws IOException {
+        this(latencyFile, new ParallelHistogramLogDecoder());
+    }
+
+    /**
+     * Constructor
+     * @param latencyFile the latency file
+     * @param decoder the decoder used to decode the intervals
+     * @throws IOException if unable to read the latency file
+     */
+    public IndexedHistogramLogReader(final File latencyFile, final ParallelHistogramLogDecoder decoder)
+            throws IOException {
+        this.latencyFile = latencyFile;
+        this.decoder = decoder;
+        this.index = HistogramLogIndex.load(latencyFile);
+        this.channel = FileChannel.open(latencyFile.toPath(), StandardOpenOption.READ);
+
+        for (int i = 0; i < index.size(); i++) {
+            startTimeStamp = Math.min(startTimeStamp, index.getStartTimeStamp(i));
+            endTimeStamp = Math.max(endTimeStamp, index.getEndTimeStamp(i));
+        }
+    }
+
+    /**
+     * Gets the interval index
+     * @return the interval index
+     */
+    public HistogramLogIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the start timestamp of the earliest interval on the log
+     * @return the start timestamp (in milliseconds since the epoch) or Long.MAX_VALUE if the log is empty
+     */
+    public long getStartTimeStamp() {
+        return startTimeStamp;
+    }
+
+    /**
+     * Gets the end timestamp of the latest interval on the log
+     * @return the end timestamp (in milliseconds since the epoch) or Long.MIN_VALUE if the log is empty
+     */
+    public long getEndTimeStamp() {
+        return endTimeStamp;
+    }
+
+    private String readLine(int i) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(index.getLength(i));
+        long position = index.getOffset(i);
+
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new MaestroException("The latency file %s was truncated after it was indexed", latencyFile);
+            }
+
+            position += read;
+        }
+
+        return new String(buffer.array(), StandardCharsets.US_ASCII);
+    }
+
+    /*
+     * Adds a partial histogram to an accumulated one (which may be null), keeping the earliest start
+     * and the latest end timestamps
+     */
+    private static Histogram add(final Histogram accumulated, final Histogram partial) {
+        if (accumulated == null) {
+            return partial;
+        }
+
+        if (partial != null) {
+            final long startTimeStamp = Math.min(accumulated.getStartTimeStamp(), partial.getStartTimeStamp());
+            final long endTimeStamp = Math.max(accumulated.getEndTimeStamp(), partial.getEndTimeStamp());
+
+            accumulated.add(partial);
+            accumulated.setStartTimeStamp(startTimeStamp);
+            accumulated.setEndTimeStamp(endTimeStamp);
+        }
+
+        return accumulated;
+    }
+
+    /*
+     * Decodes the intervals from the given range of the index in batches, so that only a bounded
+     * number of lines is held in memory at once
+     */
+    private Histogram decode(int from, int to, Histogram accumulated) throws IOException {
+        final List<String> lines = new ArrayList<>(Math.min(to - from, DECODE_BATCH_SIZE));
+
+        for (int i = from; i < to; i++) {
+            lines.add(readLine(i));
+
+            if (lines.size() == DECODE_BATCH_SIZE) {
+                accumulated = add(accumulated, decoder.decode(lines, index.getBaseTime()));
+                lines.clear();
+            }
+        }
+
+        return add(accumulated, decoder.decode(lines, index.getBaseTime()));
+    }
+
+    /**
+     * Reads a single interval
+     * @param i the interval index
+     * @return the interval histogram
+     * @throws IOException if unable to read the latency file
+     */
+    public Histogram read(int i) throws IOException {
+        return HistogramLogLines.decode(readLine(i), index.getBaseTime());
+    }
+
+    /**
+     * Accumulates the intervals starting within a time window
+     * @param start the start of the window (in milliseconds since the epoch, inclusive)
+     * @param end the end of the window (in milliseconds since the epoch, exclusive)
+     * @return the accumulated histogram or null if there are no intervals within the window
+     * @throws IOException if unable to read the latency file
+     */
+    public Histogram accumulate(long start, long end) throws IOException {
+        if (start >= end) {
+            return null;
+        }
+
+        return decode(index.ceilingIndex(start), index.ceilingIndex(end), null);
+    }
+
+    /**
+     * Accumulates the intervals starting outside a time window. Along with {@link #accumulate(long, long)}
+     * it allows obtaining both the trimmed and the whole histogram decoding each interval only once
+     * @param start the start of the window (in milliseconds since the epoch, inclusive)
+     * @param end the end of the window (in milliseconds since the epoch, exclusive)
+     * @return the accumulated histogram or null if there are no intervals outside the window
+     * @throws IOException if unable to read the latency file
+     */
+    public Histogram accumulateOutside(long start, long end) throws IOException {
+        if (start >= end) {
+            return decode(0, index.size(), null);
+        }
+
+        return decode(index.ceilingIndex(end), index.size(), decode(0, index.ceilingIndex(start), null));
+    }
+
+    /**
+     * Whether all the intervals on the log start within a time window (in which case nothing would be
+     * trimmed by it)
+     * @param start the start of the window (in milliseconds since the epoch, inclusive)
+     * @param end the end of the window (in milliseconds since the epoch, exclusive)
+     * @return true if the window covers the whole log or false otherwise
+     */
+    public boolean covers(long start, long end) {
+        return start <= startTimeStamp && end >= endTimeStamp;
+    }
+
+    /**
+     * Accumulates the intervals starting within a time window in steps, producing a time series of
+     * histograms. Steps without any interval are not included in the series
+     * @param start the start of the window (in milliseconds since the epoch, inclusive)
+     * @param end the end of the window (in milliseconds since the epoch, exclusive)
+     * @param step the duration of each step (in milliseconds)
+     * @return the accumulated histogram of each step, with the start and end timestamps set to the step
+     * boundaries
+     * @throws IOException if unable to read the latency file
+     */
+    public List<Histogram> series(long start, long end, long step) throws IOException {
+        if (step <= 0) {
+            throw new IllegalArgumentException("The step must be greater than zero");
+        }
+
+        if (index.size() == 0 || start >= end) {
+            return Collections.emptyList();
+        }
+
+        final List<Histogram> ret = new ArrayList<>();
+
+        // The index is sorted, so the intervals of each step are contiguous
+        int from = index.ceilingIndex(start);
+        final int to = index.ceilingIndex(end);
+        while (from < to) {
+            final long stepStart = start + (((index.getStartTimeStamp(from) - start) / step) * step);
+            final int stepEnd = Math.min(index.ceilingIndex(stepStart + step), to);
+
+            final Histogram histogram = decode(from, stepEnd, null);
+
+            histogram.setStartTimeStamp(stepStart);
+            histogram.setEndTimeStamp(stepStart + step);
+            ret.add(histogram);
+
+            from = stepEnd;
+        }
+
+        return ret;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.plotter.utils;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * The accumulated histograms of a latency file: the one for the whole test and, if the latencies can
+ * be trimmed, the one for its steady state
+ */
+public class LatencyHistograms {
+    private final Histogram accumulated;
+    private final Histogram steadyState;
+
+    LatencyHistograms(final Histogram accumulated, final Histogram steadyState) {
+        this.accumulated = accumulated;
+        this.steadyState = steadyState;
+    }
+
+    /**
+     * Gets the accumulated histogram for all the intervals on the latency file
+     * @return the accumulated histogram
+     */
+    public Histogram getAccumulated() {
+        return accumulated;
+    }
+
+    /**
+     * Gets the accumulated histogram for the steady state of the test
+     * @return the steady state histogram or null if nothing is trimmed
+     */
+    public Histogram getSteadyState() {
+        return steadyState;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.utils;
+
+import org.HdrHistogram.Histogram;
+import org.maestro.common.exceptions.MaestroException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Decodes all the intervals of a HdrHistogram log into an accumulated histogram. The log is split
+ * by lines and the (compressed) intervals are decoded on a fork-join pool, with each task
+ * accumulating its own partial histogram. The partials are merged as the tasks are joined.
+ */
+public class ParallelHistogramLogDecoder {
+    private static final Logger logger = LoggerFactory.getLogger(ParallelHistogramLogDecoder.class);
+
+    private static final int DEFAULT_THRESHOLD = 64;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    private static final class Partial {
+        private Histogram histogram;
+        private long startTimeStamp = Long.MAX_VALUE;
+        private long endTimeStamp = Long.MIN_VALUE;
+
+        void add(final Histogram intervalHistogram) {
+            if (histogram == null) {
+                histogram = intervalHistogram;
+                histogram.setAutoResize(true);
+            }
+            else {
+                histogram.add(intervalHistogram);
+            }
+
+            startTimeStamp = Math.min(startTimeStamp, intervalHistogram.getStartTimeStamp());
+            endTimeStamp = Math.max(endTimeStamp, intervalHistogram.getEndTimeStamp());
+        }
+
+        Partial merge(final Partial other) {
+            if (other.histogram == null) {
+                return this;
+            }
+
+            if (histogram == null) {
+                return other;
+            }
+
+            histogram.add(other.histogram);
+            startTimeStamp = Math.min(startTimeStamp, other.startTimeStamp);
+            endTimeStamp = Math.max(endTimeStamp, other.endTimeStamp);
+            return this;
+        }
+    }
+
+    private final class DecodeTask extends RecursiveTask<Partial> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> lines;
+        private final double baseTime;
+        private final int start;
+        private final int end;
+
+        DecodeTask(final List<String> lines, double baseTime, int start, int end) {
+            this.lines = lines;
+            this.baseTime = baseTime;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Partial compute() {
+            if ((end - start) <= threshold) {
+                final Partial partial = new Partial();
+
+                for (int i = start; i < end; i++) {
+                    partial.add(HistogramLogLines.decode(lines.get(i), baseTime));
+                }
+
+                return partial;
+            }
+
+            final int middle = (start + end) >>> 1;
+            final DecodeTask left = new DecodeTask(lines, baseTime, start, middle);
+            final DecodeTask right = new DecodeTask(lines, baseTime, middle, end);
+
+            left.fork();
+            final Partial rightPartial = right.compute();
+            return left.join().merge(rightPartial);
+        }
+    }
+
+    /**
+     * Constructor (uses the common fork-join pool)
+     */
+    public ParallelHistogramLogDecoder() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructor
+     * @param pool the pool used to decode the intervals
+     * @param threshold the maximum number of intervals decoded sequentially by a single task
+     */
+    public ParallelHistogramLogDecoder(final ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("The threshold must be greater than zero");
+        }
+
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Decodes all the intervals of a histogram log into an accumulated histogram
+     * @param histogramFile the histogram log file
+     * @return the accumulated histogram or null if the log does not contain any interval
+     * @throws FileNotFoundException if the file does not exist
+     */
+    public Histogram decode(final File histogramFile) throws FileNotFoundException {
+        final List<String> lines = new ArrayList<>();
+        double startTime = 0.0;
+        double baseTime = Double.NaN;
+
+        try (BufferedReader reader = Files.newBufferedReader(histogramFile.toPath(), StandardCharsets.US_ASCII)) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith(HistogramLogLines.LEGEND_PREFIX)) {
+                    continue;
+                }
+
+                if (line.startsWith("#")) {
+                    if (line.startsWith(HistogramLogLines.START_TIME_PREFIX)) {
+                        startTime = HistogramLogLines.parseHeaderTime(line, HistogramLogLines.START_TIME_PREFIX);
+                    }
+                    else if (line.startsWith(HistogramLogLines.BASE_TIME_PREFIX)) {
+                        baseTime = HistogramLogLines.parseHeaderTime(line, HistogramLogLines.BASE_TIME_PREFIX);
+                    }
+
+                    continue;
+                }
+
+                lines.add(line);
+            }
+        }
+        catch (FileNotFoundException | NoSuchFileException e) {
+            throw new FileNotFoundException(histogramFile.getPath());
+        }
+        catch (IOException e) {
+            throw new MaestroException("Unable to read the histogram log " + histogramFile + ": " + e.getMessage(), e);
+        }
+
+        logger.debug("Decoding {} intervals from {}", lines.size(), histogramFile);
+        return decode(lines, HistogramLogLines.resolveBaseTime(startTime, baseTime));
+    }
+
+    /**
+     * Decodes a set of interval lines of a histogram log into an accumulated histogram
+     * @param lines the interval lines
+     * @param baseTime the time (in seconds since the epoch) the relative interval timestamps refer to
+     * @return the accumulated histogram or null if there are no lines
+     */
+    public Histogram decode(final List<String> lines, double baseTime) {
+        if (lines.isEmpty()) {
+            return null;
+        }
+
+        final Partial partial = pool.invoke(new DecodeTask(lines, baseTime, 0, lines.size()));
+
+        partial.histogram.setStartTimeStamp(partial.startTimeStamp);
+        partial.histogram.setEndTimeStamp(partial.endTimeStamp);
+        return partial.histogram;
+    }
+}
@@ -16,66 +16,192 @@
 
 package org.maestro.plotter.utils;
 
-import org.HdrHistogram.DoubleHistogram;
-import org.HdrHistogram.EncodableHistogram;
 import org.HdrHistogram.Histogram;
-import org.HdrHistogram.HistogramLogReader;
+import org.maestro.common.io.data.common.AccumulatedHistogramCache;
+import org.maestro.plotter.common.SteadyStateWindow;
 import org.maestro.plotter.common.exceptions.EmptyDataSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.time.Instant;
-import java.util.Objects;
 
 public class Util {
     private static final Logger logger = LoggerFactory.getLogger(Util.class);
+    private static final ParallelHistogramLogDecoder decoder = new ParallelHistogramLogDecoder();
 
+    /**
+     * Gets the accumulated histogram for all the intervals on a latency file. It uses the sidecar
+     * cache of the accumulated histogram, if valid, and decodes the whole file otherwise
+     * @param histogramFile the latency file
+     * @return the accumulated histogram
+     * @throws FileNotFoundException if the latency file does not exist
+     */
     public static Histogram getAccumulated(final File histogramFile) throws FileNotFoundException {
-        Histogram accumulatedHistogram = null;
-        DoubleHistogram accumulatedDoubleHistogram = null;
+        final Histogram cached = AccumulatedHistogramCache.read(histogramFile);
+        if (cached != null) {
+            logger.debug("Using the cached accumulated histogram for {}", histogramFile);
+            return cached;
+        }
 
-        HistogramLogReader histogramLogReader = new HistogramLogReader(histogramFile);
+        return decodeAccumulated(histogramFile);
+    }
 
-        int i = 0;
-        while (histogramLogReader.hasNext()) {
-            EncodableHistogram eh = histogramLogReader.nextIntervalHistogram();
-            if (eh == null) {
-                logger.error("The histogram library returned an unexpected null value");
-                break;
-            }
+    /**
+     * Decodes all the intervals on a latency file into an accumulated histogram. The intervals are
+     * decoded in parallel (see {@link ParallelHistogramLogDecoder})
+     * @param histogramFile the latency file
+     * @return the accumulated histogram
+     * @throws FileNotFoundException if the latency file does not exist
+     */
+    public static Histogram decodeAccumulated(final File histogramFile) throws FileNotFoundException {
+        final Histogram accumulatedHistogram = decoder.decode(histogramFile);
 
-            if (i == 0) {
-                if (eh instanceof DoubleHistogram) {
-                    accumulatedDoubleHistogram = ((DoubleHistogram) eh).copy();
-                    accumulatedDoubleHistogram.reset();
-                    accumulatedDoubleHistogram.setAutoResize(true);
-                }
-                else {
-                    accumulatedHistogram = ((Histogram) eh).copy();
-                    accumulatedHistogram.reset();
-                    accumulatedHistogram.setAutoResize(true);
-                }
-            }
+        if (accumulatedHistogram == null) {
+            throw new EmptyDataSet("The HDR data file did not contain any histogram data");
+        }
 
-            logger.debug("Processing histogram from point in time {} to {}",
-                    Instant.ofEpochMilli(eh.getStartTimeStamp()), Instant.ofEpochMilli(eh.getEndTimeStamp()));
+        logger.debug("Decoded the histograms from point in time {} to {}",
+                Instant.ofEpochMilli(accumulatedHistogram.getStartTimeStamp()),
+                Instant.ofEpochMilli(accumulatedHistogram.getEndTimeStamp()));
 
-            if (eh instanceof DoubleHistogram) {
-                Objects.requireNonNull(accumulatedDoubleHistogram).add((DoubleHistogram) eh);
-            }
-            else {
-                Objects.requireNonNull(accumulatedHistogram).add((Histogram) eh);
-            }
+        return accumulatedHistogram;
+    }
 
-            i++;
+    /*
+     * Gets the steady state window for a latency file or null if nothing is trimmed
+     */
+    private static SteadyStateWindow getWindow(final File rateFile) throws IOException {
+        if (!rateFile.exists()) {
+            logger.debug("The rate file {} does not exist, so the latencies are not trimmed", rateFile);
+            return null;
         }
 
-        if (accumulatedHistogram == null) {
-            throw new EmptyDataSet("The HDR data file did not contain any histogram data");
+        final SteadyStateWindow window = SteadyStateWindow.fromRateFile(rateFile);
+        if (!window.isTrimmed()) {
+            return null;
         }
 
-        return accumulatedHistogram;
+        return window;
+    }
+
+    private static void cacheSteadyState(final File histogramFile, final SteadyStateWindow window,
+                                         final Histogram steadyState) {
+        try {
+            AccumulatedHistogramCache.writeSteadyState(histogramFile, window.getStart(), window.getEnd(),
+                    steadyState);
+        } catch (IOException e) {
+            logger.warn("Unable to write the steady state histogram cache for {}: {}", histogramFile,
+                    e.getMessage());
+        }
+    }
+
+    /*
+     * Accumulates the intervals within the window and caches the result. Returns null if the window
+     * covers the whole log or if there are no intervals within it
+     */
+    private static Histogram accumulateSteadyState(final IndexedHistogramLogReader reader, final File histogramFile,
+                                                   final SteadyStateWindow window) throws IOException {
+        if (reader.covers(window.getStart(), window.getEnd())) {
+            return null;
+        }
+
+        final Histogram steadyState = reader.accumulate(window.getStart(), window.getEnd());
+        if (steadyState != null) {
+            cacheSteadyState(histogramFile, window, steadyState);
+        }
+
+        return steadyState;
+    }
+
+    /**
+     * Gets the accumulated histogram for the intervals on a latency file that start within the steady
+     * state of the test (ie.: excluding the warm-up and the cool-down). The steady state is calculated
+     * from the message counts on the rate file for the same test. The result is cached on a sidecar
+     * file (see {@link AccumulatedHistogramCache#writeSteadyState(File, long, long, Histogram)})
+     * @param histogramFile the latency file
+     * @param rateFile the rate file
+     * @return the accumulated histogram for the steady state or null if nothing is trimmed (ie.: if the
+     * rate file does not exist or if the steady state covers the whole test)
+     * @throws IOException if unable to read the files
+     */
+    public static Histogram getSteadyState(final File histogramFile, final File rateFile) throws IOException {
+        final SteadyStateWindow window = getWindow(rateFile);
+        if (window == null) {
+            return null;
+        }
+
+        final Histogram cached = AccumulatedHistogramCache.readSteadyState(histogramFile, window.getStart(),
+                window.getEnd());
+        if (cached != null) {
+            logger.debug("Using the cached steady state histogram for {}", histogramFile);
+            return cached;
+        }
+
+        try (IndexedHistogramLogReader reader = new IndexedHistogramLogReader(histogramFile)) {
+            return accumulateSteadyState(reader, histogramFile, window);
+        }
+    }
+
+    private static Histogram merge(final Histogram steadyState, final Histogram outside) {
+        final Histogram accumulated = steadyState.copy();
+
+        accumulated.setAutoResize(true);
+        accumulated.setStartTimeStamp(steadyState.getStartTimeStamp());
+        accumulated.setEndTimeStamp(steadyState.getEndTimeStamp());
+
+        if (outside != null) {
+            accumulated.add(outside);
+            accumulated.setStartTimeStamp(Math.min(steadyState.getStartTimeStamp(), outside.getStartTimeStamp()));
+            accumulated.setEndTimeStamp(Math.max(steadyState.getEndTimeStamp(), outside.getEndTimeStamp()));
+        }
+
+        return accumulated;
+    }
+
+    /**
+     * Gets both the accumulated histogram for the whole test and the one for its steady state (see
+     * {@link #getSteadyState(File, File)}). The histograms are read from the sidecar files, if valid,
+     * and each interval on the latency file is decoded at most once otherwise
+     * @param histogramFile the latency file
+     * @param rateFile the rate file
+     * @return the histograms
+     * @throws IOException if unable to read the files
+     */
+    public static LatencyHistograms getLatencies(final File histogramFile, final File rateFile) throws IOException {
+        final Histogram accumulated = AccumulatedHistogramCache.read(histogramFile);
+        final SteadyStateWindow window = getWindow(rateFile);
+
+        if (window == null) {
+            return new LatencyHistograms(accumulated != null ? accumulated : decodeAccumulated(histogramFile), null);
+        }
+
+        if (accumulated != null) {
+            if (window.getStart() <= accumulated.getStartTimeStamp()
+                    && window.getEnd() >= accumulated.getEndTimeStamp()) {
+                return new LatencyHistograms(accumulated, null);
+            }
+
+            return new LatencyHistograms(accumulated, getSteadyState(histogramFile, rateFile));
+        }
+
+        try (IndexedHistogramLogReader reader = new IndexedHistogramLogReader(histogramFile)) {
+            Histogram steadyState = AccumulatedHistogramCache.readSteadyState(histogramFile, window.getStart(),
+                    window.getEnd());
+
+            if (steadyState == null) {
+                steadyState = accumulateSteadyState(reader, histogramFile, window);
+
+                if (steadyState == null) {
+                    return new LatencyHistograms(decodeAccumulated(histogramFile), null);
+                }
+            }
+
+            // Only the intervals on the warm-up and the cool-down remain to be decoded
+            final Histogram outside = reader.accumulateOutside(window.getStart(), window.getEnd());
+            return new LatencyHistograms(merge(steadyState, outside), steadyState);
+        }
     }
 }
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.latency;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.maestro.common.io.data.writers.LatencyWriter;
+import org.maestro.plotter.utils.HistogramLogIndex;
+import org.maestro.plotter.utils.IndexedHistogramLogReader;
+import org.maestro.plotter.utils.Util;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class IndexedHistogramLogReaderTest {
+    private static final int INTERVALS = 60;
+    private static final long START = 1528874906000L;
+
+    @Rule
+    public TemporaryFolder tempTestFolder = new TemporaryFolder();
+
+    private File sourceFile;
+
+    /*
+     * Two workers, each one recording a single value per interval: 100 + i for worker-0 and 1000 + i for
+     * worker-1
+     */
+    @Before
+    public void setUp() throws Exception {
+        sourceFile = new File(tempTestFolder.getRoot(), "receiverd-latency.hdr");
+
+        try (LatencyWriter latencyWriter = new LatencyWriter(sourceFile)) {
+            latencyWriter.outputLegend(START);
+
+            for (int i = 0; i < INTERVALS; i++) {
+                for (int worker = 0; worker < 2; worker++) {
+                    Histogram histogram = new Histogram(3);
+
+                    histogram.recordValueWithCount((worker == 0 ? 100 : 1000) + i, 10);
+                    histogram.setStartTimeStamp(START + (i * 1000L) + worker);
+                    histogram.setEndTimeStamp(histogram.getStartTimeStamp() + 1000);
+                    histogram.setTag("worker-" + worker);
+                    latencyWriter.outputIntervalHistogram(histogram);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        HistogramLogIndex index = HistogramLogIndex.load(sourceFile);
+
+        assertEquals(INTERVALS * 2, index.size());
+        assertEquals(START, index.getStartTimeStamp(0));
+        assertEquals(START + 1, index.getStartTimeStamp(1));
+        assertEquals(START + 1000, index.getEndTimeStamp(0));
+        assertTrue(HistogramLogIndex.indexFile(sourceFile).exists());
+
+        HistogramLogIndex stored = HistogramLogIndex.read(sourceFile);
+        assertNotNull(stored);
+        assertEquals(index.size(), stored.size());
+
+        for (int i = 0; i < index.size(); i++) {
+            assertEquals(index.getStartTimeStamp(i), stored.getStartTimeStamp(i));
+            assertEquals(index.getOffset(i), stored.getOffset(i));
+            assertEquals(index.getLength(i), stored.getLength(i));
+        }
+    }
+
+    @Test
+    public void testStaleIndex() throws Exception {
+        HistogramLogIndex.load(sourceFile);
+
+        try (LatencyWriter latencyWriter = new LatencyWriter(sourceFile)) {
+            latencyWriter.outputLegend(START);
+        }
+
+        assertNull(HistogramLogIndex.read(sourceFile));
+        assertEquals(0, HistogramLogIndex.load(sourceFile).size());
+    }
+
+    @Test
+    public void testAccumulateWindow() throws Exception {
+        try (IndexedHistogramLogReader reader = new IndexedHistogramLogReader(sourceFile)) {
+            assertEquals(START, reader.getStartTimeStamp());
+            assertEquals(START + (INTERVALS * 1000L) + 1, reader.getEndTimeStamp());
+
+            Histogram all = reader.accumulate(reader.getStartTimeStamp(), reader.getEndTimeStamp());
+            Histogram expected = Util.decodeAccumulated(sourceFile);
+            assertEquals(expected.getTotalCount(), all.getTotalCount());
+            assertEquals(expected.getMaxValue(), all.getMaxValue());
+
+            // From second 10 to 20
+            Histogram window = reader.accumulate(START + 10_000, START + 20_000);
+            assertEquals(10 * 2 * 10, window.getTotalCount());
+            assertEquals(110, window.getMinValue());
+            assertEquals(1019, window.getMaxValue(), 1.0);
+
+            assertNull(reader.accumulate(START - 10_000, START - 1));
+        }
+    }
+
+    @Test
+    public void testSeries() throws Exception {
+        try (IndexedHistogramLogReader reader = new IndexedHistogramLogReader(sourceFile)) {
+            List<Histogram> series = reader.series(START, reader.getEndTimeStamp(), 10_000);
+
+            assertEquals(INTERVALS / 10, series.size());
+
+            for (int s = 0; s < series.size(); s++) {
+                Histogram histogram = series.get(s);
+
+                assertEquals(START + (s * 10_000L), histogram.getStartTimeStamp());
+                assertEquals(10 * 2 * 10, histogram.getTotalCount());
+                assertEquals(100 + (s * 10), histogram.getMinValue());
+                assertEquals(1009 + (s * 10), histogram.getMaxValue(), 1.0);
+            }
+
+            Histogram single = reader.read(3);
+            assertEquals(1001, single.getMaxValue(), 1.0);
+        }
+    }
+
+    /*
+     * Writes the intervals of the given number of seconds in reverse order
+     */
+    private File writeReversed(final String name, int seconds) throws Exception {
+        final File latencyFile = new File(tempTestFolder.getRoot(), name);
+
+        try (LatencyWriter latencyWriter = new LatencyWriter(latencyFile)) {
+            latencyWriter.outputLegend(START);
+
+            for (int i = seconds - 1; i >= 0; i--) {
+                Histogram histogram = new Histogram(3);
+
+                histogram.recordValueWithCount(100 + (i % 100), 10);
+                histogram.setStartTimeStamp(START + (i * 1000L));
+                histogram.setEndTimeStamp(histogram.getStartTimeStamp() + 1000);
+                latencyWriter.outputIntervalHistogram(histogram);
+            }
+        }
+
+        return latencyFile;
+    }
+
+    @Test
+    public void testUnsortedLog() throws Exception {
+        final File latencyFile = writeReversed("reversed-latency.hdr", INTERVALS);
+
+        HistogramLogIndex index = HistogramLogIndex.load(latencyFile);
+        for (int i = 0; i < index.size(); i++) {
+            assertEquals(START + (i * 1000L), index.getStartTimeStamp(i));
+        }
+
+        assertEquals(10, index.ceilingIndex(START + 9_500));
+        assertEquals(0, index.ceilingIndex(Long.MIN_VALUE));
+        assertEquals(INTERVALS, index.ceilingIndex(Long.MAX_VALUE));
+
+        try (IndexedHistogramLogReader reader = new IndexedHistogramLogReader(latencyFile)) {
+            Histogram window = reader.accumulate(START + 10_000, START + 20_000);
+            assertEquals(10 * 10, window.getTotalCount());
+            assertEquals(110, window.getMinValue());
+            assertEquals(119, window.getMaxValue(), 1.0);
+            assertEquals(START + 10_000, window.getStartTimeStamp());
+            assertEquals(START + 20_000, window.getEndTimeStamp());
+
+            Histogram outside = reader.accumulateOutside(START + 10_000, START + 20_000);
+            assertEquals((INTERVALS - 10) * 10, outside.getTotalCount());
+
+            List<Histogram> series = reader.series(START, reader.getEndTimeStamp(), 10_000);
+            assertEquals(INTERVALS / 10, series.size());
+            assertEquals(10 * 10, series.get(1).getTotalCount());
+            assertEquals(110, series.get(1).getMinValue());
+        }
+    }
+
+    @Test
+    public void testDecodeInBatches() throws Exception {
+        final int seconds = 10_000;
+        final File latencyFile = writeReversed("long-latency.hdr", seconds);
+
+        try (IndexedHistogramLogReader reader = new IndexedHistogramLogReader(latencyFile)) {
+            Histogram all = reader.accumulate(reader.getStartTimeStamp(), reader.getEndTimeStamp());
+
+            assertEquals(seconds * 10, all.getTotalCount());
+            assertEquals(100, all.getMinValue());
+            assertEquals(199, all.getMaxValue(), 1.0);
+            assertEquals(START, all.getStartTimeStamp());
+            assertEquals(START + (seconds * 1000L), all.getEndTimeStamp());
+        }
+    }
+}
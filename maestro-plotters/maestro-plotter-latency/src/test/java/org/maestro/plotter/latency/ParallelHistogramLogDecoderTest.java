@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.latency;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.maestro.common.io.data.writers.LatencyWriter;
+import org.maestro.plotter.utils.ParallelHistogramLogDecoder;
+
+import java.io.File;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ParallelHistogramLogDecoderTest {
+    @Rule
+    public TemporaryFolder tempTestFolder = new TemporaryFolder();
+
+    private static Histogram decodeSequentially(final File file) throws Exception {
+        Histogram accumulated = new Histogram(3);
+        accumulated.setAutoResize(true);
+
+        HistogramLogReader reader = new HistogramLogReader(file);
+        while (reader.hasNext()) {
+            accumulated.add((Histogram) reader.nextIntervalHistogram());
+        }
+
+        return accumulated;
+    }
+
+    private void assertSameAsSequential(final File file) throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            Histogram expected = decodeSequentially(file);
+            Histogram parallel = new ParallelHistogramLogDecoder(pool, 2).decode(file);
+
+            assertEquals(expected.getTotalCount(), parallel.getTotalCount());
+            assertEquals(expected.getMaxValue(), parallel.getMaxValue());
+            assertEquals(expected.getMinValue(), parallel.getMinValue());
+            assertEquals(expected.getMean(), parallel.getMean(), 0.0);
+            assertEquals(expected.getValueAtPercentile(99.0), parallel.getValueAtPercentile(99.0));
+            assertEquals(expected, parallel);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testDecodeFiles() throws Exception {
+        assertSameAsSequential(new File(this.getClass().getResource("file-01.hdr").getPath()));
+        assertSameAsSequential(new File(this.getClass().getResource("file-03.hdr").getPath()));
+    }
+
+    @Test
+    public void testDecodeTaggedManyIntervals() throws Exception {
+        File sourceFile = new File(tempTestFolder.getRoot(), "receiverd-latency.hdr");
+        final long start = System.currentTimeMillis();
+
+        try (LatencyWriter latencyWriter = new LatencyWriter(sourceFile)) {
+            latencyWriter.outputLegend(start);
+
+            for (int i = 0; i < 500; i++) {
+                Histogram histogram = new Histogram(3);
+
+                histogram.recordValueWithCount(100 + i, i + 1);
+                histogram.setStartTimeStamp(start + (i * 1000L));
+                histogram.setEndTimeStamp(histogram.getStartTimeStamp() + 1000);
+                histogram.setTag("worker-" + (i % 3));
+                latencyWriter.outputIntervalHistogram(histogram);
+            }
+        }
+
+        assertSameAsSequential(sourceFile);
+
+        Histogram histogram = new ParallelHistogramLogDecoder().decode(sourceFile);
+        assertEquals(500 * 501 / 2, histogram.getTotalCount());
+        assertEquals(start, histogram.getStartTimeStamp(), 1.0);
+        assertEquals(start + 500_000L, histogram.getEndTimeStamp(), 1.0);
+    }
+
+    @Test
+    public void testDecodeEmptyFile() throws Exception {
+        File sourceFile = new File(this.getClass().getResource("empty.hdr").getPath());
+
+        assertNull(new ParallelHistogramLogDecoder().decode(sourceFile));
+    }
+}
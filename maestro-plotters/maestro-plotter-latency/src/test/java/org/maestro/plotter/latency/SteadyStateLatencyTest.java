@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.latency;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.maestro.common.io.data.common.AccumulatedHistogramCache;
+import org.maestro.common.io.data.common.FileHeader;
+import org.maestro.common.io.data.writers.BinaryRateWriter;
+import org.maestro.common.io.data.writers.LatencyWriter;
+import org.maestro.plotter.latency.serializer.Latency;
+import org.maestro.plotter.latency.serializer.LatencyDistribution;
+import org.maestro.plotter.latency.serializer.SmoothLatencySerializer;
+import org.maestro.plotter.utils.LatencyHistograms;
+import org.maestro.plotter.utils.Util;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SteadyStateLatencyTest {
+    private static final int SECONDS = 100;
+    private static final long MESSAGES_PER_SECOND = 100_000;
+    private static final long START = 1528874906000L;
+
+    @Rule
+    public TemporaryFolder tempTestFolder = new TemporaryFolder();
+
+    /*
+     * The test exchanges 10 million messages, so the default warm-up and cool-down (1 million messages
+     * each) span the first and the last 10 seconds. The latencies during those are much higher.
+     */
+    private File writeTest(boolean withRateFile) throws Exception {
+        final File latencyFile = new File(tempTestFolder.getRoot(), "receiverd-latency.hdr");
+
+        try (LatencyWriter latencyWriter = new LatencyWriter(latencyFile)) {
+            latencyWriter.outputLegend(START);
+
+            for (int i = 0; i < SECONDS; i++) {
+                Histogram histogram = new Histogram(3);
+
+                final boolean steadyState = i >= 10 && i < SECONDS - 10;
+                histogram.recordValueWithCount(steadyState ? 100 : 10000, 10);
+                histogram.setStartTimeStamp(START + (i * 1000L));
+                histogram.setEndTimeStamp(histogram.getStartTimeStamp() + 1000);
+                latencyWriter.outputIntervalHistogram(histogram);
+            }
+        }
+
+        if (withRateFile) {
+            final File rateFile = new File(tempTestFolder.getRoot(), "receiver.dat");
+
+            try (BinaryRateWriter rateWriter = new BinaryRateWriter(rateFile, FileHeader.WRITER_DEFAULT_RECEIVER)) {
+                for (int i = 0; i < SECONDS; i++) {
+                    rateWriter.write(0, MESSAGES_PER_SECOND, TimeUnit.MILLISECONDS.toMicros(START + (i * 1000L)));
+                }
+            }
+        }
+
+        return latencyFile;
+    }
+
+    @Test
+    public void testSteadyStateHistogram() throws Exception {
+        File latencyFile = writeTest(true);
+
+        Histogram histogram = Util.getSteadyState(latencyFile, new File(latencyFile.getParentFile(), "receiver.dat"));
+
+        assertNotNull(histogram);
+        assertEquals((SECONDS - 20) * 10, histogram.getTotalCount());
+        assertEquals(100, histogram.getMaxValue(), 1.0);
+    }
+
+    @Test
+    public void testSerializeSteadyState() throws Exception {
+        File latencyFile = writeTest(true);
+
+        LatencyDistribution distribution = new SmoothLatencySerializer().serialize(latencyFile);
+        Latency latency = distribution.getLatencyDistribution().get("serviceTime");
+
+        assertEquals((SECONDS - 20) * 10, latency.getStatistics().getLatencyTotalCount());
+        assertEquals(100, latency.getStatistics().getLatency99th(), 1.0);
+
+        assertNotNull(latency.getUntrimmedStatistics());
+        assertEquals(SECONDS * 10, latency.getUntrimmedStatistics().getLatencyTotalCount());
+        assertEquals(10000, latency.getUntrimmedStatistics().getLatency99th(), 10.0);
+    }
+
+    @Test
+    public void testSerializeWithoutRateFile() throws Exception {
+        File latencyFile = writeTest(false);
+
+        LatencyDistribution distribution = new SmoothLatencySerializer().serialize(latencyFile);
+        Latency latency = distribution.getLatencyDistribution().get("serviceTime");
+
+        assertEquals(SECONDS * 10, latency.getStatistics().getLatencyTotalCount());
+        assertNull(latency.getUntrimmedStatistics());
+    }
+
+    @Test
+    public void testSteadyStateIsCached() throws Exception {
+        File latencyFile = writeTest(true);
+        File rateFile = new File(latencyFile.getParentFile(), "receiver.dat");
+
+        LatencyHistograms histograms = Util.getLatencies(latencyFile, rateFile);
+        assertEquals(SECONDS * 10, histograms.getAccumulated().getTotalCount());
+        assertEquals((SECONDS - 20) * 10, histograms.getSteadyState().getTotalCount());
+        assertEquals(START, histograms.getAccumulated().getStartTimeStamp());
+        assertEquals(START + (SECONDS * 1000L), histograms.getAccumulated().getEndTimeStamp());
+
+        File cacheFile = AccumulatedHistogramCache.steadyStateCacheFile(latencyFile);
+        assertTrue(cacheFile.exists());
+
+        // The following reads are served from the sidecar
+        Histogram cached = Util.getSteadyState(latencyFile, rateFile);
+        assertNotNull(cached);
+        assertEquals((SECONDS - 20) * 10, cached.getTotalCount());
+        assertEquals(100, cached.getMaxValue(), 1.0);
+
+        // A different window does not use it
+        assertNull(AccumulatedHistogramCache.readSteadyState(latencyFile, START, START + 1000));
+    }
+
+    @Test
+    public void testAccumulatedAndSteadyStateFromSidecars() throws Exception {
+        File latencyFile = writeTest(true);
+        File rateFile = new File(latencyFile.getParentFile(), "receiver.dat");
+
+        AccumulatedHistogramCache.write(latencyFile, Util.decodeAccumulated(latencyFile));
+
+        LatencyHistograms histograms = Util.getLatencies(latencyFile, rateFile);
+        assertEquals(SECONDS * 10, histograms.getAccumulated().getTotalCount());
+        assertEquals((SECONDS - 20) * 10, histograms.getSteadyState().getTotalCount());
+    }
+
+    @Test
+    public void testWindowCoveringTheWholeTest() throws Exception {
+        File latencyFile = writeTest(false);
+        File rateFile = new File(latencyFile.getParentFile(), "receiver.dat");
+
+        // The rate samples span 20 seconds more on each side, so the steady state includes every interval
+        try (BinaryRateWriter rateWriter = new BinaryRateWriter(rateFile, FileHeader.WRITER_DEFAULT_RECEIVER)) {
+            for (int i = -20; i < SECONDS + 20; i++) {
+                rateWriter.write(0, MESSAGES_PER_SECOND, TimeUnit.MILLISECONDS.toMicros(START + (i * 1000L)));
+            }
+        }
+
+        LatencyHistograms histograms = Util.getLatencies(latencyFile, rateFile);
+        assertEquals(SECONDS * 10, histograms.getAccumulated().getTotalCount());
+        assertNull(histograms.getSteadyState());
+        assertFalse(AccumulatedHistogramCache.steadyStateCacheFile(latencyFile).exists());
+    }
+}
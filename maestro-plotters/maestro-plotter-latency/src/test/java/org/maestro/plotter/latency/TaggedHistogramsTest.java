@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.maestro.plotter.latency;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.maestro.common.io.data.writers.LatencyWriter;
+import org.maestro.plotter.utils.Util;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+
+public class TaggedHistogramsTest {
+    @Rule
+    public TemporaryFolder tempTestFolder = new TemporaryFolder();
+
+    private static Histogram newHistogram(final String tag, long value, int count) {
+        Histogram histogram = new Histogram(3);
+
+        histogram.recordValueWithCount(value, count);
+        histogram.setStartTimeStamp(System.currentTimeMillis());
+        histogram.setEndTimeStamp(histogram.getStartTimeStamp() + 1000);
+        histogram.setTag(tag);
+
+        return histogram;
+    }
+
+    @Test
+    public void testAccumulateTaggedHistograms() throws Exception {
+        File sourceFile = new File(tempTestFolder.getRoot(), "receiverd-latency.hdr");
+
+        try (LatencyWriter latencyWriter = new LatencyWriter(sourceFile)) {
+            latencyWriter.outputLegend(System.currentTimeMillis());
+            latencyWriter.outputIntervalHistogram(newHistogram("worker-0", 100, 10));
+            latencyWriter.outputIntervalHistogram(newHistogram("worker-1", 1000, 5));
+        }
+
+        Histogram histogram = Util.getAccumulated(sourceFile);
+
+        assertEquals("The histograms of all the workers should be accumulated", 15, histogram.getTotalCount());
+        assertEquals(1000, histogram.getMaxValue(), 1.0);
+    }
+}
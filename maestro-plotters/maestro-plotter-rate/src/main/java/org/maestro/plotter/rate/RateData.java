@@ -18,72 +18,260 @@ package org.maestro.plotter.rate;
 
 
 import org.maestro.plotter.common.ReportData;
+import org.maestro.plotter.common.SteadyStateWindow;
 import org.maestro.common.test.properties.annotations.PropertyName;
 import org.maestro.common.test.properties.annotations.PropertyProvider;
 import org.maestro.plotter.common.statistics.Statistics;
-import org.maestro.plotter.common.statistics.StatisticsBuilder;
+import org.maestro.plotter.common.statistics.StreamingStatistics;
 
+import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
- * A container for the collected rate information
+ * A container for the collected rate information. The samples are kept ordered by timestamp in two
+ * primitive columns (timestamp and count), which avoids having an object per sample for long tests.
  */
 @PropertyName(name="rate")
 public class RateData implements ReportData {
-    final private Set<RateRecord> recordSet;
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private long[] timestamps;
+    private long[] counts;
+    private int size;
+
     private Statistics statistics;
     private long errorCount;
     private long skipCount = 0;
+    private SteadyStateWindow steadyStateWindow = SteadyStateWindow.untrimmed();
+    private RateData untrimmed;
 
 
     public RateData() {
-        recordSet = new TreeSet<>();
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     * @param capacity the initial number of samples that the data can hold without resizing
+     */
+    public RateData(int capacity) {
+        timestamps = new long[capacity];
+        counts = new long[capacity];
     }
 
     public RateData(final Set<RateRecord> other) {
-        this.recordSet = other;
+        this(other.size());
+
+        other.forEach(this::add);
+    }
+
+    /**
+     * Ensures that the data can hold the given number of samples without resizing
+     * @param capacity the number of samples
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > timestamps.length) {
+            final int newCapacity = Math.max(capacity, timestamps.length + (timestamps.length >> 1));
+
+            timestamps = Arrays.copyOf(timestamps, newCapacity);
+            counts = Arrays.copyOf(counts, newCapacity);
+        }
     }
 
     public void add(RateRecord rateRecord) {
-        recordSet.add(rateRecord);
+        add(rateRecord.getTimestamp().toEpochMilli(), rateRecord.getCount());
+    }
+
+    /**
+     * Adds a sample. Samples are expected to be added in chronological order, but older ones are
+     * inserted in the correct position. As with a set, a sample for an existing timestamp is ignored
+     * @param timestamp the sample timestamp, in milliseconds since the epoch
+     * @param count the sample count
+     */
+    public void add(long timestamp, long count) {
+        int index = size;
+
+        if (size > 0 && timestamps[size - 1] >= timestamp) {
+            index = Arrays.binarySearch(timestamps, 0, size, timestamp);
+            if (index >= 0) {
+                return;
+            }
+
+            index = -(index + 1);
+        }
+
+        ensureCapacity(size + 1);
+        if (index < size) {
+            System.arraycopy(timestamps, index, timestamps, index + 1, size - index);
+            System.arraycopy(counts, index, counts, index + 1, size - index);
+        }
+
+        timestamps[index] = timestamp;
+        counts[index] = count;
+        size++;
+        statistics = null;
+    }
+
+    /**
+     * Gets the timestamp of a sample
+     * @param index the sample index
+     * @return the timestamp, in milliseconds since the epoch
+     */
+    public long getTimestamp(int index) {
+        checkIndex(index);
+
+        return timestamps[index];
+    }
+
+    /**
+     * Gets the count of a sample
+     * @param index the sample index
+     * @return the count
+     */
+    public long getCount(int index) {
+        checkIndex(index);
+
+        return counts[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
     }
 
+    /**
+     * Gets the periods as a read-only view over the timestamps
+     * @return the periods
+     */
     @Override
     public List<Date> getPeriods() {
-        final List<Date> list = new ArrayList<>(recordSet.size());
-
-        recordSet.forEach(item -> list.add(Date.from(item.getTimestamp())));
+        return new AbstractList<Date>() {
+            @Override
+            public Date get(int index) {
+                return new Date(getTimestamp(index));
+            }
 
-        return list;
+            @Override
+            public int size() {
+                return size;
+            }
+        };
     }
 
+    /**
+     * Gets the rate values as a read-only view over the counts
+     * @return the rate values
+     */
     public List<Long> getRateValues()
     {
-        return recordSet.stream().mapToLong(RateRecord::getCount).boxed().collect(Collectors.toList());
+        return new AbstractList<Long>() {
+            @Override
+            public Long get(int index) {
+                return getCount(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
     }
 
+    /**
+     * Gets a copy of the samples as records. Prefer the column accessors when possible
+     * @return a new set with the samples
+     */
     @Override
     public Set<RateRecord> getRecordSet() {
+        final Set<RateRecord> recordSet = new TreeSet<>();
+
+        for (int i = 0; i < size; i++) {
+            recordSet.add(new RateRecord(Instant.ofEpochMilli(timestamps[i]), counts[i]));
+        }
+
         return recordSet;
     }
 
     @PropertyProvider(name="samples")
     public int getNumberOfSamples() {
-        return recordSet.size();
+        return size;
     }
 
 
     @PropertyProvider(name="")
     public Statistics rateStatistics() {
         if (statistics == null) {
-            statistics = StatisticsBuilder.of(recordSet.stream().mapToDouble(RateRecord::getCount));
+            final StreamingStatistics streamingStatistics = new StreamingStatistics();
+
+            for (int i = 0; i < size; i++) {
+                streamingStatistics.record(counts[i]);
+            }
+
+            statistics = streamingStatistics.build();
         }
 
         return statistics;
     }
 
 
+    /**
+     * Gets the steady state window of the test (ie.: excluding the warm-up and the cool-down)
+     * @return the steady state window
+     */
+    public SteadyStateWindow getSteadyStateWindow() {
+        return steadyStateWindow;
+    }
+
+    public void setSteadyStateWindow(final SteadyStateWindow steadyStateWindow) {
+        this.steadyStateWindow = steadyStateWindow;
+    }
+
+    /**
+     * Gets the samples within the steady state window. The returned data keeps a reference to this one,
+     * so that the untrimmed statistics are still available
+     * @return the steady state data or this instance if nothing is trimmed
+     */
+    public RateData trim() {
+        if (!steadyStateWindow.isTrimmed()) {
+            return this;
+        }
+
+        final int startIndex = ceilingIndex(steadyStateWindow.getStart());
+        final int endIndex = ceilingIndex(steadyStateWindow.getEnd());
+
+        final RateData ret = new RateData(0);
+        ret.timestamps = Arrays.copyOfRange(timestamps, startIndex, endIndex);
+        ret.counts = Arrays.copyOfRange(counts, startIndex, endIndex);
+        ret.size = endIndex - startIndex;
+        ret.errorCount = errorCount;
+        ret.skipCount = skipCount;
+        ret.steadyStateWindow = steadyStateWindow;
+        ret.untrimmed = this;
+
+        return ret;
+    }
+
+    private int ceilingIndex(long timestamp) {
+        final int index = Arrays.binarySearch(timestamps, 0, size, timestamp);
+
+        return index >= 0 ? index : -(index + 1);
+    }
+
+    /**
+     * Gets the statistics including the warm-up and the cool-down, if this data was trimmed
+     * @return the untrimmed statistics or null if this data was not trimmed
+     */
+    @PropertyProvider(name="untrimmed")
+    public Statistics untrimmedStatistics() {
+        return untrimmed == null ? null : untrimmed.rateStatistics();
+    }
+
+    @PropertyProvider(name="untrimmedSamples")
+    public Integer getUntrimmedNumberOfSamples() {
+        return untrimmed == null ? null : untrimmed.getNumberOfSamples();
+    }
+
     @PropertyProvider(name="errorCount")
     public long getErrorCount() {
         return errorCount;
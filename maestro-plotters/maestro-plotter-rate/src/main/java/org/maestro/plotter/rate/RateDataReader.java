@@ -16,9 +16,9 @@
 
 package org.maestro.plotter.rate;
 
-import org.maestro.common.io.data.common.RateEntry;
-import org.maestro.common.io.data.readers.BinaryRateReader;
+import org.maestro.common.io.data.readers.MappedRateReader;
 import org.maestro.plotter.common.ReportReader;
+import org.maestro.plotter.common.SteadyStateWindow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,37 +33,66 @@ public class RateDataReader implements ReportReader<RateData> {
 
     @Override
     public RateData read(final File file) throws IOException {
-        try (BinaryRateReader binaryRateReader = new BinaryRateReader(file)) {
-            RateEntry entry = binaryRateReader.readRecord();
-
-            while (entry != null) {
-                if (logger.isTraceEnabled()) {
-                    logger.trace("Read record: {}", entry);
-                }
-
-                /*
-                 * TODO: I think on Java 9 and newer Instant has greater precision.
-                 * This needs some checks.
-                 *
-                 * For reference:
-                 * - https://bugs.openjdk.java.net/browse/JDK-8068730
-                 * - http://blog.joda.org/2017/02/java-time-jsr-310-enhancements-java-9.html
-                 */
-                long timestamp = TimeUnit.MICROSECONDS.toMillis(entry.getTimestamp());
-
-                Instant instant = Instant.ofEpochMilli(timestamp);
-
-                if (logger.isTraceEnabled()) {
-                    logger.trace("Record timestamp: {} ", instant);
-                }
-
-                final RateRecord rateRecord = new RateRecord(instant, entry.getCount());
-                rateData.add(rateRecord);
-
-                entry = binaryRateReader.readRecord();
+        try (MappedRateReader rateReader = new MappedRateReader(file)) {
+            read(rateReader, 0, rateReader.size());
+
+            rateData.setSteadyStateWindow(SteadyStateWindow.fromCounts(rateReader.size(),
+                    i -> TimeUnit.MICROSECONDS.toMillis(rateReader.timestamp(i)), rateReader::count));
+            return rateData;
+        }
+    }
+
+    /**
+     * Reads only the records within a time window, without reading the whole file
+     * @param file the rate file
+     * @param start the start of the window (inclusive)
+     * @param end the end of the window (exclusive)
+     * @return the rate data for the window
+     * @throws IOException if unable to read the file
+     */
+    public RateData read(final File file, final Instant start, final Instant end) throws IOException {
+        try (MappedRateReader rateReader = new MappedRateReader(file)) {
+            final int startIndex = rateReader.ceilingIndex(toEpochMicros(start));
+            final int endIndex = rateReader.ceilingIndex(toEpochMicros(end));
+
+            return read(rateReader, startIndex, endIndex);
+        }
+    }
+
+    private static long toEpochMicros(final Instant instant) {
+        return TimeUnit.SECONDS.toMicros(instant.getEpochSecond()) + TimeUnit.NANOSECONDS.toMicros(instant.getNano());
+    }
+
+    private RateData read(final MappedRateReader rateReader, int startIndex, int endIndex) {
+        /*
+         * Files sampled with a sub-second resolution contain the count for each sampling slot,
+         * so it is scaled to keep the rate data in messages per second
+         */
+        final long samplingResolution = rateReader.getHeader().getSamplingResolution();
+        final long scale = TimeUnit.SECONDS.toMillis(1) / samplingResolution;
+
+        rateData.ensureCapacity(rateData.getNumberOfSamples() + Math.max(0, endIndex - startIndex));
+
+        for (int i = startIndex; i < endIndex; i++) {
+            final long count = rateReader.count(i);
+
+            /*
+             * TODO: I think on Java 9 and newer Instant has greater precision.
+             * This needs some checks.
+             *
+             * For reference:
+             * - https://bugs.openjdk.java.net/browse/JDK-8068730
+             * - http://blog.joda.org/2017/02/java-time-jsr-310-enhancements-java-9.html
+             */
+            long timestamp = TimeUnit.MICROSECONDS.toMillis(rateReader.timestamp(i));
+
+            if (logger.isTraceEnabled()) {
+                logger.trace("Read record: {} at {}", count, Instant.ofEpochMilli(timestamp));
             }
 
+            rateData.add(timestamp, count * scale);
         }
+
         return rateData;
     }
 
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.plotter.rate;
+
+import org.maestro.common.io.data.readers.MappedRateReader;
+import org.maestro.plotter.common.ReportReader;
+import org.maestro.plotter.common.SteadyStateWindow;
+import org.maestro.plotter.common.statistics.Statistics;
+import org.maestro.plotter.common.statistics.StreamingStatistics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calculates the rate statistics (including the percentiles) straight from the rate file, in a
+ * single pass and without loading the rate data in memory. By default, the statistics only include
+ * the steady state of the test (see {@link SteadyStateWindow})
+ */
+public class RateStatisticsReader implements ReportReader<Statistics> {
+    private final boolean steadyState;
+
+    public RateStatisticsReader() {
+        this(true);
+    }
+
+    /**
+     * Constructor
+     * @param steadyState whether to exclude the warm-up and the cool-down from the statistics
+     */
+    public RateStatisticsReader(boolean steadyState) {
+        this.steadyState = steadyState;
+    }
+
+
+    @Override
+    public Statistics read(final File file) throws IOException {
+        final StreamingStatistics streamingStatistics = new StreamingStatistics();
+
+        try (MappedRateReader rateReader = new MappedRateReader(file)) {
+            // Same as RateDataReader: keeps the statistics in messages per second
+            final long scale = TimeUnit.SECONDS.toMillis(1) / rateReader.getHeader().getSamplingResolution();
+
+            final SteadyStateWindow window = steadyState
+                    ? SteadyStateWindow.fromCounts(rateReader.size(),
+                            i -> TimeUnit.MICROSECONDS.toMillis(rateReader.timestamp(i)), rateReader::count)
+                    : SteadyStateWindow.untrimmed();
+
+            for (int i = 0; i < rateReader.size(); i++) {
+                if (window.contains(TimeUnit.MICROSECONDS.toMillis(rateReader.timestamp(i)))) {
+                    streamingStatistics.record(rateReader.count(i) * scale);
+                }
+            }
+        }
+
+        return streamingStatistics.build();
+    }
+}
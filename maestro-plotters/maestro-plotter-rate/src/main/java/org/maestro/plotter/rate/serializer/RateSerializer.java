@@ -42,7 +42,11 @@ public class RateSerializer implements MaestroSerializer<SingleData<Long>> {
 
         rate.setPeriods(rateData.getPeriods());
         rate.setValues(rateData.getRateValues());
-        rate.setStatistics(rateData.rateStatistics());
+
+        // The statistics exclude the warm-up and the cool-down, but the whole test is plotted
+        RateData steadyState = rateData.trim();
+        rate.setStatistics(steadyState.rateStatistics());
+        rate.setUntrimmedStatistics(steadyState.untrimmedStatistics());
 
         return rate;
     }
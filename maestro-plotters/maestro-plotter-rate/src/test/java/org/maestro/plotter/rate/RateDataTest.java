@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.plotter.rate;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class RateDataTest {
+
+    @Test
+    public void testAddOrdered() {
+        RateData rateData = new RateData(2);
+
+        rateData.add(3000, 3);
+        rateData.add(1000, 1);
+        rateData.add(4000, 4);
+        rateData.add(2000, 2);
+
+        // Same as a set: the sample for an existing timestamp is ignored
+        rateData.add(2000, 20);
+
+        assertEquals(4, rateData.getNumberOfSamples());
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), rateData.getRateValues());
+        assertEquals(Arrays.asList(new Date(1000), new Date(2000), new Date(3000), new Date(4000)),
+                rateData.getPeriods());
+        assertEquals(2.5, rateData.rateStatistics().getMean(), 0.0);
+    }
+
+    @Test
+    public void testRecordSet() {
+        RateData rateData = new RateData();
+
+        rateData.add(new RateRecord(Instant.ofEpochMilli(2000), 2));
+        rateData.add(new RateRecord(Instant.ofEpochMilli(1000), 1));
+
+        Set<RateRecord> recordSet = rateData.getRecordSet();
+        assertEquals(2, recordSet.size());
+
+        Iterator<RateRecord> iterator = recordSet.iterator();
+        assertEquals(1, iterator.next().getCount());
+        assertEquals(2, iterator.next().getCount());
+
+        RateData copy = new RateData(recordSet);
+        assertEquals(rateData.getRateValues(), copy.getRateValues());
+        assertEquals(1000, copy.getTimestamp(0));
+    }
+}
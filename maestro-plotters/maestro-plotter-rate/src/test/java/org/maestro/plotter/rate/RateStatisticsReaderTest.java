@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.rate;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.maestro.common.io.data.common.FileHeader;
+import org.maestro.common.io.data.writers.BinaryRateWriter;
+import org.maestro.plotter.common.statistics.Statistics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class RateStatisticsReaderTest {
+    private static final long START = TimeUnit.SECONDS.toMicros(1_500_000_000L);
+
+    @Rule
+    public TemporaryFolder tempTestFolder = new TemporaryFolder();
+
+    /*
+     * Writes a rate file with the counts 1..100 (shuffled), one per sampling slot
+     */
+    private File generate(final FileHeader header) throws IOException {
+        final File reportFile = new File(tempTestFolder.getRoot(), "sender.dat");
+        final long slot = TimeUnit.MILLISECONDS.toMicros(header.getSamplingResolution());
+
+        try (BinaryRateWriter writer = new BinaryRateWriter(reportFile, header)) {
+            for (int i = 0; i < 100; i++) {
+                writer.write(0, ((i * 37) % 100) + 1, START + (i * slot));
+            }
+        }
+
+        return reportFile;
+    }
+
+    @Test
+    public void testKnownDataSet() throws IOException {
+        final File reportFile = generate(FileHeader.WRITER_DEFAULT_SENDER);
+
+        Statistics statistics = new RateStatisticsReader(false).read(reportFile);
+
+        assertEquals(50.5, statistics.getMean(), 0.0001);
+        assertEquals(1, statistics.getMin(), 0.0);
+        assertEquals(100, statistics.getMax(), 0.0);
+        assertEquals(Math.sqrt(100 * 101 / 12.0), statistics.getStandardDeviation(), 0.0001);
+
+        assertEquals(1, statistics.getP1(), 0.0);
+        assertEquals(5, statistics.getP5(), 0.0);
+        assertEquals(50, statistics.getP50(), 0.0);
+        assertEquals(95, statistics.getP95(), 0.0);
+    }
+
+    @Test
+    public void testSubSecondResolution() throws IOException {
+        final File reportFile = generate(FileHeader.WRITER_DEFAULT_SENDER.withSamplingResolution(100));
+
+        Statistics statistics = new RateStatisticsReader(false).read(reportFile);
+
+        // The statistics are kept in messages per second
+        assertEquals(505, statistics.getMean(), 0.0001);
+        assertEquals(10, statistics.getMin(), 0.0);
+        assertEquals(1000, statistics.getMax(), 0.0);
+
+        assertEquals(10, statistics.getP1(), 0.0);
+        assertEquals(50, statistics.getP5(), 0.0);
+        assertEquals(500, statistics.getP50(), 0.0);
+        assertEquals(950, statistics.getP95(), 0.0);
+    }
+
+    @Test
+    public void testSameAsRateData() throws IOException {
+        final File reportFile = generate(FileHeader.WRITER_DEFAULT_SENDER);
+
+        RateData rateData = new RateData();
+        for (int i = 0; i < 100; i++) {
+            rateData.add(TimeUnit.MICROSECONDS.toMillis(START) + TimeUnit.SECONDS.toMillis(i), ((i * 37) % 100) + 1);
+        }
+
+        Statistics expected = rateData.rateStatistics();
+        Statistics statistics = new RateStatisticsReader(false).read(reportFile);
+
+        assertEquals(expected.getMean(), statistics.getMean(), 0.0001);
+        assertEquals(expected.getStandardDeviation(), statistics.getStandardDeviation(), 0.0001);
+        assertEquals(expected.getP1(), statistics.getP1());
+        assertEquals(expected.getP5(), statistics.getP5());
+        assertEquals(expected.getP50(), statistics.getP50());
+        assertEquals(expected.getP95(), statistics.getP95());
+    }
+}
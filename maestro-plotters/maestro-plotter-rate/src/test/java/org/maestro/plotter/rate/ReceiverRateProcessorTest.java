@@ -18,6 +18,12 @@ package org.maestro.plotter.rate;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
 public class ReceiverRateProcessorTest extends CommonRateProcessorTest {
 
     @Test
@@ -27,4 +33,18 @@ public class ReceiverRateProcessorTest extends CommonRateProcessorTest {
         final int periodCount = 86400;
         super.testRecordCount(periodCount, rateData);
     }
+
+    @Test
+    public void testRecordCountWindow() throws Exception {
+        final File file = new File(this.getClass().getResource("/data-ok/receiver.dat").getPath());
+
+        final Instant start = getData("/data-ok/receiver.dat").getRecordSet().iterator().next()
+                .getTimestamp().plus(1, ChronoUnit.HOURS);
+
+        RateData rateData = new RateDataReader().read(file, start, start.plus(10, ChronoUnit.MINUTES));
+
+        final int periodCount = 600;
+        super.testRecordCount(periodCount, rateData);
+        assertEquals(start, rateData.getRecordSet().iterator().next().getTimestamp());
+    }
 }
@@ -21,8 +21,11 @@ import org.maestro.common.test.properties.PropertyWriter;
 import org.maestro.plotter.common.statistics.Statistics;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.util.Properties;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class SenderRateProcessorTest extends CommonRateProcessorTest {
@@ -58,6 +61,34 @@ public class SenderRateProcessorTest extends CommonRateProcessorTest {
                 statistics.getMean(), 0.0000);
     }
 
+    @Test
+    public void testPercentiles() throws Exception {
+        RateData rateData = getData("/data-ok/sender.dat");
+
+        Statistics statistics = rateData.rateStatistics();
+
+        assertEquals("Unexpected value for the p1", 0, statistics.getP1(), 0.0000);
+        assertEquals("Unexpected value for the p5", 2, statistics.getP5(), 0.0000);
+        assertEquals("Unexpected value for the p50", 29, statistics.getP50(), 0.0000);
+        assertEquals("Unexpected value for the p95", 56, statistics.getP95(), 0.0000);
+    }
+
+    @Test
+    public void testStreamingStatistics() throws Exception {
+        final File file = new File(this.getClass().getResource("/data-ok/sender-non-zero.dat").getPath());
+
+        Statistics statistics = new RateStatisticsReader(false).read(file);
+        Statistics expected = getData("/data-ok/sender-non-zero.dat").rateStatistics();
+
+        assertEquals("Unexpected value for the max", expected.getMax(), statistics.getMax(), 0.0000);
+        assertEquals("Unexpected value for the min", expected.getMin(), statistics.getMin(), 0.0000);
+        assertEquals("Unexpected value for the average mean", expected.getMean(), statistics.getMean(), 0.0000);
+        assertEquals("Unexpected value for the p50", expected.getP50(), statistics.getP50(), 0.0000);
+
+        // The percentiles are approximate: within 0.1% of the actual value
+        assertEquals("Unexpected value for the p95", 82080, statistics.getP95(), 82080 * 0.001);
+    }
+
     @Test
     public void testStatisticsNonZero() throws Exception {
         RateData rateData = getData("/data-ok/sender-non-zero.dat");
@@ -77,6 +108,51 @@ public class SenderRateProcessorTest extends CommonRateProcessorTest {
                 statistics.getMean(), 0.0000);
     }
 
+    @Test
+    public void testSteadyState() throws Exception {
+        RateData rateData = getData("/data-ok/sender-non-zero.dat");
+        RateData steadyState = rateData.trim();
+
+        // The counts go from 1 to 86400, so the first 1414 samples and the last 12 add up to the warm-up
+        // and cool-down counts
+        assertTrue(steadyState.getSteadyStateWindow().isTrimmed());
+        assertEquals(86400 - 1414 - 12, steadyState.getNumberOfSamples());
+        assertEquals(1415, steadyState.getCount(0));
+        assertEquals(86400 - 12, steadyState.getCount(steadyState.getNumberOfSamples() - 1));
+
+        assertEquals(rateData.rateStatistics().getMax(), steadyState.untrimmedStatistics().getMax(), 0.0);
+        assertEquals(86400 - 12, steadyState.rateStatistics().getMax(), 0.0);
+        assertNull(rateData.untrimmedStatistics());
+
+        final File file = new File(this.getClass().getResource("/data-ok/sender-non-zero.dat").getPath());
+        Statistics statistics = new RateStatisticsReader().read(file);
+        assertEquals(steadyState.rateStatistics().getMin(), statistics.getMin(), 0.0);
+        assertEquals(steadyState.rateStatistics().getMax(), statistics.getMax(), 0.0);
+        assertEquals(steadyState.rateStatistics().getMean(), statistics.getMean(), 0.0);
+    }
+
+    @Test
+    public void testSteadyStateShortTest() throws Exception {
+        RateData rateData = getData("/data-ok/sender.dat");
+        RateData steadyState = rateData.trim();
+
+        // Short tests are trimmed by about 10% of the messages on each end (give or take a sample)
+        long total = 0;
+        long max = 0;
+        for (int i = 0; i < rateData.getNumberOfSamples(); i++) {
+            total += rateData.getCount(i);
+            max = Math.max(max, rateData.getCount(i));
+        }
+
+        long trimmed = total;
+        for (int i = 0; i < steadyState.getNumberOfSamples(); i++) {
+            trimmed -= steadyState.getCount(i);
+        }
+
+        assertTrue(steadyState.getNumberOfSamples() > 0);
+        assertTrue("Trimmed too much: " + trimmed + " of " + total, trimmed <= 2 * ((total / 10) + max));
+    }
+
     @Test
     public void testProperties() throws Exception {
         RateData rateData = getData("/data-ok/sender.dat");
@@ -89,5 +165,12 @@ public class SenderRateProcessorTest extends CommonRateProcessorTest {
         propertyWriter.write(rateData, outputFile);
 
         assertTrue("The output file does not exist", outputFile.exists());
+
+        Properties properties = new Properties();
+        try (FileInputStream stream = new FileInputStream(outputFile)) {
+            properties.load(stream);
+        }
+
+        assertEquals("29.0", properties.getProperty("rateP50"));
     }
 }
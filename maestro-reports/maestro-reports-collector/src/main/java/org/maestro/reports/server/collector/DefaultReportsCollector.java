@@ -28,15 +28,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DefaultReportsCollector extends MaestroWorkerManager implements MaestroLogCollectorListener {
     private static final Logger logger = LoggerFactory.getLogger(DefaultReportsCollector.class);
 
     private final File dataDir;
-    private final Map<Test, ReportCollectorWorker> workerMap = new HashMap<>();
-    private final Map<String, Test> testMap = new HashMap<>();
+    // The log responses are handled concurrently with the control notes
+    private final Map<Test, ReportCollectorWorker> workerMap = new ConcurrentHashMap<>();
+    private final Map<String, Test> testMap = new ConcurrentHashMap<>();
     private final ReportCollectorWorkerFactory reportCollectorWorkerFactory;
 
     public DefaultReportsCollector(final String maestroURL, final PeerInfo peerInfo, final File dataDir) {
@@ -58,13 +59,23 @@ public class DefaultReportsCollector extends MaestroWorkerManager implements Mae
 
 
     protected ReportCollectorWorker getCollectorWorker(final TestExecutionInfo testExecutionInfo) {
-        ReportCollectorWorker reportCollectorWorker = workerMap.get(testExecutionInfo.getTest());
-        if (reportCollectorWorker == null) {
-            reportCollectorWorker = reportCollectorWorkerFactory.newWorker(this.dataDir, getClient(), testExecutionInfo);
-        }
+        return workerMap.computeIfAbsent(testExecutionInfo.getTest(), test -> {
+            final ReportCollectorWorker worker = reportCollectorWorkerFactory.newWorker(this.dataDir, getClient(),
+                    testExecutionInfo);
+
+            worker.setCompletionCallback(() -> release(test, worker));
+            return worker;
+        });
+    }
 
-        workerMap.put(testExecutionInfo.getTest(), reportCollectorWorker);
-        return reportCollectorWorker;
+    /*
+     * Called by the worker once all the files were downloaded (or given up), which may happen on the
+     * transfer sweeper rather than when handling a log response
+     */
+    private void release(final Test test, final ReportCollectorWorker worker) {
+        logger.info("Test transaction is complete, removing the objects from the caches");
+        workerMap.remove(test, worker);
+        testMap.values().removeIf(test::equals);
     }
 
     @Override
@@ -79,13 +90,14 @@ public class DefaultReportsCollector extends MaestroWorkerManager implements Mae
             return;
         }
 
-        reportCollectorWorker.handle(note);
-
         final String id = note.getId();
         final Test test = note.getTest();
 
+        // The log responses are handled on a separate lane, so the ID must be associated before requesting them
         logger.info("Associating ID {} with test {}", id, test);
         testMap.put(id, test);
+
+        reportCollectorWorker.handle(note);
     }
 
     @Override
@@ -101,13 +113,14 @@ public class DefaultReportsCollector extends MaestroWorkerManager implements Mae
             return;
         }
 
-        reportCollectorWorker.handle(note);
-
         final String id = note.getId();
         final Test test = note.getTest();
 
+        // The log responses are handled on a separate lane, so the ID must be associated before requesting them
         logger.info("Associating ID {} with test {}", id, test);
         testMap.put(id, test);
+
+        reportCollectorWorker.handle(note);
     }
 
     @Override
@@ -130,12 +143,6 @@ public class DefaultReportsCollector extends MaestroWorkerManager implements Mae
         }
 
         reportCollectorWorker.handle(note);
-
-        if (reportCollectorWorker.isCompleted()) {
-            logger.info("Test transaction is complete, removing the objects from the caches");
-            workerMap.remove(test);
-            testMap.remove(note.getId());
-        }
     }
 
     @Override
@@ -17,17 +17,14 @@
 package org.maestro.reports.server.collector;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.maestro.client.exchange.support.PeerInfo;
 import org.maestro.client.notes.LogResponse;
-import org.maestro.contrib.utils.digest.Sha1Digest;
+import org.maestro.common.exceptions.MaestroException;
 import org.maestro.reports.common.organizer.DefaultOrganizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Objects;
 
@@ -35,7 +32,13 @@ public class LogResponseUtils {
     private static final Logger logger = LoggerFactory.getLogger(LogResponseUtils.class);
 
 
-    public static void save(final LogResponse logResponse, final DefaultOrganizer organizer) {
+    /**
+     * Starts the transfer of a log file, pre-allocating the destination file
+     * @param logResponse the first chunk received for the file
+     * @param organizer the organizer for the destination directory
+     * @return the transfer or null if unable to create the destination file
+     */
+    public static LogTransfer open(final LogResponse logResponse, final DefaultOrganizer organizer) {
         Objects.requireNonNull(logResponse);
         Objects.requireNonNull(organizer);
 
@@ -53,34 +56,62 @@ public class LogResponseUtils {
             }
         }
 
-        try (FileOutputStream fo = new FileOutputStream(outFile)) {
-            IOUtils.copy(logResponse.getLogData(), fo);
-        } catch (FileNotFoundException e) {
-            logger.error("Unable to save the file: {}", e.getMessage(), e);
+        try {
+            return new LogTransfer(outFile, logResponse);
         } catch (IOException e) {
             logger.error("Unable to save the file due to I/O error: {}", e.getMessage(), e);
         }
 
-        verify(logResponse, outFile);
+        return null;
     }
 
-    private static void verify(final LogResponse logResponse, final File outFile) {
-        Sha1Digest digest = new Sha1Digest();
+    /**
+     * Saves a log response chunk at its offset on the destination file
+     * @param logResponse the log response chunk
+     * @param transfer the transfer of the file
+     * @return true if the chunk was saved or false otherwise
+     */
+    public static boolean save(final LogResponse logResponse, final LogTransfer transfer) {
+        logger.debug("Saving chunk {}/{} of file {}", logResponse.getIndex() + 1, logResponse.getTotal(),
+                transfer.getOutFile());
 
-        if (logResponse.getFileHash() != null && !logResponse.getFileHash().isEmpty()) {
-            try {
-                logger.info("Verifying SHA-1 hash for file {}", outFile);
-                if (!digest.verify(outFile.getPath(), logResponse.getFileHash())) {
-                    logger.error("The SHA-1 hash for file {} does not match the expected one {}",
-                            outFile.getPath(), logResponse.getFileHash());
-                }
-            } catch (IOException e) {
-                logger.error("Unable to verify the hash for file {}: {}", outFile.getName(),
-                        e.getMessage());
+        try {
+            if (!transfer.write(logResponse)) {
+                logger.warn("Ignoring the duplicated chunk {}/{} of file {}", logResponse.getIndex() + 1,
+                        logResponse.getTotal(), transfer.getOutFile());
+                return false;
+            }
+
+            return true;
+        } catch (MaestroException e) {
+            logger.error("Unable to save the chunk: {}", e.getMessage(), e);
+        } catch (IOException e) {
+            logger.error("Unable to save the file due to I/O error: {}", e.getMessage(), e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Completes the transfer of a log file, verifying its hash
+     * @param transfer the transfer of the file
+     */
+    public static void close(final LogTransfer transfer) {
+        try {
+            transfer.close();
+        } catch (IOException e) {
+            logger.error("Unable to close the file {}: {}", transfer.getOutFile(), e.getMessage(), e);
+        }
+
+        if (transfer.hasHash()) {
+            logger.info("Verifying SHA-1 hash for file {}", transfer.getOutFile());
+            if (!transfer.verify()) {
+                logger.error("The SHA-1 hash for file {} does not match the expected one {}",
+                        transfer.getOutFile().getPath(), transfer.getFileHash());
             }
         }
         else {
-            logger.warn("The peer did not set up a hash for file {}", logResponse.getFileName());
+            logger.warn("The peer did not set up a hash for file {}", transfer.getOutFile().getName());
         }
     }
 }
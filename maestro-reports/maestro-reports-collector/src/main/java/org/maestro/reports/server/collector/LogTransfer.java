@@ -0,0 +1,354 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.reports.server.collector;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.maestro.client.exchange.support.PeerInfo;
+import org.maestro.client.notes.LogResponse;
+import org.maestro.common.client.notes.LocationType;
+import org.maestro.common.client.notes.LocationTypeInfo;
+import org.maestro.common.client.notes.LogCompression;
+import org.maestro.common.client.notes.MessageCorrelation;
+import org.maestro.common.exceptions.MaestroException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The transfer of a log file, whose chunks are written at their offsets on the destination file as
+ * they arrive (in any order), decompressing them as they are written if needed. The received byte
+ * ranges are tracked so that the hash of the file is calculated incrementally, over the contiguous
+ * data received from its start. The transfer is written by the data lane and swept for idleness by
+ * the collector, so the access to it is synchronized.
+ */
+public class LogTransfer implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File outFile;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int total;
+    private final String fileHash;
+    private final LocationType locationType;
+    private final LocationTypeInfo locationTypeInfo;
+    private final String id;
+    private final PeerInfo peerInfo;
+    private final String fileName;
+    private final MessageCorrelation correlation;
+
+    private final BitSet receivedChunks;
+    // Start -> end (exclusive) of the byte ranges received, merged when adjacent
+    private final TreeMap<Long, Long> receivedRanges = new TreeMap<>();
+    private final MessageDigest digest = DigestUtils.getSha1Digest();
+    private long digested = 0;
+
+    private int lastExpected;
+    private int retries = 0;
+    private long lastActivity = System.currentTimeMillis();
+
+    /**
+     * Constructor. The destination file is pre-allocated with the size of the file being transferred
+     * @param outFile the destination file
+     * @param logResponse any chunk of the file
+     * @throws IOException if unable to create the destination file
+     */
+    public LogTransfer(final File outFile, final LogResponse logResponse) throws IOException {
+        this.outFile = outFile;
+        this.fileSize = logResponse.getFileSize();
+        this.total = logResponse.getTotal();
+        this.fileHash = logResponse.getFileHash();
+        this.locationType = logResponse.getLocationType();
+        this.locationTypeInfo = logResponse.getLocationTypeInfo();
+        this.id = logResponse.getId();
+        this.peerInfo = logResponse.getPeerInfo();
+        this.fileName = logResponse.getFileName();
+        this.correlation = logResponse.correlate();
+        this.receivedChunks = new BitSet(total);
+        this.lastExpected = total - 1;
+
+        try (RandomAccessFile file = new RandomAccessFile(outFile, "rw")) {
+            file.setLength(fileSize);
+        }
+
+        this.channel = FileChannel.open(outFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.READ);
+    }
+
+    public File getOutFile() {
+        return outFile;
+    }
+
+    public LocationType getLocationType() {
+        return locationType;
+    }
+
+    public LocationTypeInfo getLocationTypeInfo() {
+        return locationTypeInfo;
+    }
+
+    /**
+     * Gets the ID of the peer sending the file
+     * @return the peer ID
+     */
+    public String getId() {
+        return id;
+    }
+
+    public PeerInfo getPeerInfo() {
+        return peerInfo;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Gets the correlation of the log request that started the transfer
+     * @return the message correlation
+     */
+    public MessageCorrelation getCorrelation() {
+        return correlation;
+    }
+
+    /**
+     * Writes a chunk of the file
+     * @param logResponse the chunk
+     * @return true if the chunk was written or false if it had already been received
+     * @throws IOException if unable to write the chunk
+     */
+    public synchronized boolean write(final LogResponse logResponse) throws IOException {
+        final int index = logResponse.getIndex();
+        if (index < 0 || index >= total) {
+            throw new MaestroException("Invalid chunk %d for file %s with %d chunks", index, outFile, total);
+        }
+
+        if (receivedChunks.get(index)) {
+            return false;
+        }
+
+        final long offset = logResponse.getChunkOffset();
+        if (offset < 0) {
+            throw new MaestroException("Invalid offset %d for the chunk %d of file %s", offset, index, outFile);
+        }
+
+        final LogCompression compression = logResponse.getCompression();
+        final long end;
+
+        if (compression == LogCompression.NONE) {
+            end = write(logResponse.getData(), offset);
+        }
+        else if (compression == LogCompression.DEFLATE) {
+            end = write(logResponse.getLogData(), offset);
+        }
+        else {
+            throw new MaestroException("Unsupported compression for the chunk %d of file %s", index, outFile);
+        }
+
+        receivedChunks.set(index);
+        addRange(offset, end);
+        updateDigest();
+
+        lastActivity = System.currentTimeMillis();
+
+        return true;
+    }
+
+    /*
+     * Writes the data of a chunk as it is decompressed
+     */
+    private long write(final InputStream inputStream, long position) throws IOException {
+        try (InputStream in = inputStream) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                position = write(ByteBuffer.wrap(buffer, 0, read), position);
+            }
+        }
+
+        return position;
+    }
+
+    private long write(final ByteBuffer data, long position) throws IOException {
+        final long end = position + data.remaining();
+        if (end > fileSize) {
+            throw new MaestroException("The data at offset %d does not fit the file %s with %d bytes", position,
+                    outFile, fileSize);
+        }
+
+        // The chunks usually arrive in order, so the data is hashed without reading it back
+        if (position == digested) {
+            digest.update(data.duplicate());
+            digested = end;
+        }
+
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+
+        return end;
+    }
+
+    private void addRange(long start, long end) {
+        final Map.Entry<Long, Long> previous = receivedRanges.floorEntry(start);
+        if (previous != null && previous.getValue() >= start) {
+            start = previous.getKey();
+            end = Math.max(end, previous.getValue());
+        }
+
+        final Long next = receivedRanges.get(end);
+        if (next != null) {
+            receivedRanges.remove(end);
+            end = next;
+        }
+
+        receivedRanges.put(start, end);
+    }
+
+    /*
+     * Hashes the data received after the chunks that arrived out of order, if it is now contiguous
+     * to the data already hashed
+     */
+    private void updateDigest() throws IOException {
+        final Map.Entry<Long, Long> range = receivedRanges.floorEntry(digested);
+        if (range == null || range.getValue() <= digested) {
+            return;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (digested < range.getValue()) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), range.getValue() - digested));
+
+            final int read = channel.read(buffer, digested);
+            if (read < 0) {
+                throw new MaestroException("The file %s was truncated during the transfer", outFile);
+            }
+
+            buffer.flip();
+            digest.update(buffer);
+            digested += read;
+        }
+    }
+
+    /**
+     * Whether all the chunks of the file were received
+     * @return true if all the chunks were received or false otherwise
+     */
+    public synchronized boolean isComplete() {
+        return receivedChunks.cardinality() == total;
+    }
+
+    /**
+     * Whether the chunk is the last one expected for the file, after which the missing chunks (if any)
+     * should be requested
+     * @param logResponse the chunk
+     * @return true if it is the last expected chunk or false otherwise
+     */
+    public synchronized boolean isLastExpected(final LogResponse logResponse) {
+        return logResponse.getIndex() == lastExpected;
+    }
+
+    /**
+     * Gets the chunks that were not received and marks the last of them as the last expected chunk
+     * @return the indexes of the missing chunks, in ascending order
+     */
+    public synchronized int[] requestMissing() {
+        final int[] missing = new int[total - receivedChunks.cardinality()];
+
+        int i = 0;
+        for (int chunk = receivedChunks.nextClearBit(0); chunk < total; chunk = receivedChunks.nextClearBit(chunk + 1)) {
+            missing[i++] = chunk;
+        }
+
+        if (missing.length > 0) {
+            lastExpected = missing[missing.length - 1];
+        }
+
+        retries++;
+        lastActivity = System.currentTimeMillis();
+        return missing;
+    }
+
+    public synchronized int getRetries() {
+        return retries;
+    }
+
+    /**
+     * Whether nothing was received (nor requested) for the transfer for a while
+     * @param now the current time (in milliseconds since the epoch)
+     * @param timeout the idle timeout (in milliseconds)
+     * @return true if the transfer is idle or false otherwise
+     */
+    public synchronized boolean isIdle(long now, long timeout) {
+        return (now - lastActivity) >= timeout;
+    }
+
+    /*
+     * The number of non-contiguous byte ranges received
+     */
+    synchronized int rangeCount() {
+        return receivedRanges.size();
+    }
+
+    /**
+     * Verifies the hash of the file. It should only be called after all the chunks were received
+     * @return true if the hash matches (or if the peer did not provide one) or false otherwise
+     */
+    public synchronized boolean verify() {
+        if (fileHash == null || fileHash.isEmpty()) {
+            return true;
+        }
+
+        return fileHash.equalsIgnoreCase(Hex.encodeHexString(digest.digest()));
+    }
+
+    public boolean hasHash() {
+        return fileHash != null && !fileHash.isEmpty();
+    }
+
+    public String getFileHash() {
+        return fileHash;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Abandons the transfer, closing and deleting the partially written file
+     * @throws IOException if unable to close or to delete the file
+     */
+    public synchronized void discard() throws IOException {
+        channel.close();
+
+        Files.deleteIfExists(outFile.toPath());
+    }
+}
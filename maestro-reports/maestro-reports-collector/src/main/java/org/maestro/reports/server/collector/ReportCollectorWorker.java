@@ -25,6 +25,8 @@ import org.maestro.common.ErrorUtils;
 import org.maestro.common.ResultStrings;
 import org.maestro.common.client.notes.ErrorCode;
 import org.maestro.common.client.notes.LocationType;
+import org.maestro.common.client.notes.LocationTypeInfo;
+import org.maestro.common.client.notes.LogCompression;
 import org.maestro.common.client.notes.Test;
 import org.maestro.common.client.notes.TestExecutionInfo;
 import org.maestro.common.worker.TestLogUtils;
@@ -36,21 +38,48 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.maestro.reports.server.collector.LogResponseUtils.save;
 import static org.maestro.reports.server.collector.TestDirectoryUtils.getTestDirectory;
 import static org.maestro.reports.server.collector.TestDirectoryUtils.getTestIterationDirectory;
 
+/**
+ * Collects the reports of a test. The log responses are handled concurrently with the control notes,
+ * so the handling of the control notes and the download progress are synchronized
+ */
 public class ReportCollectorWorker {
     private static final Logger logger = LoggerFactory.getLogger(ReportCollectorWorker.class);
 
+    private static final int MAX_CHUNK_RETRIES = 3;
+    private static final long TRANSFER_IDLE_TIMEOUT = TimeUnit.SECONDS.toMillis(60);
+    private static final long TRANSFER_SWEEP_PERIOD = TimeUnit.SECONDS.toMillis(10);
+
+    private static final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "log-transfer-sweeper");
+
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final Map<PeerInfo, DownloadProgress> aggregatablesMap = new HashMap<>();
+    // Not guarded by the worker lock, so that the transfers do not contend with the control notes
+    private final Map<String, LogTransfer> transfers = new ConcurrentHashMap<>();
+    // The transfers that were given up (so that late chunks do not restart them)
+    private final Set<String> abandoned = ConcurrentHashMap.newKeySet();
+    private final Object sweepLock = new Object();
+    private ScheduledFuture<?> sweepTask;
     private final ReportDao reportDao = new ReportDao();
     private final File dataDir;
     private final ExecutorService executorService;
@@ -59,6 +88,7 @@ public class ReportCollectorWorker {
 
     private DefaultOrganizer organizer;
     private Report report;
+    private Runnable completionCallback;
 
     public ReportCollectorWorker(final File dataDir, final MaestroReceiverClient client,
                                  final TestExecutionInfo testExecutionInfo)
@@ -72,6 +102,14 @@ public class ReportCollectorWorker {
         initializeTest(testExecutionInfo.getTest());
     }
 
+    /**
+     * Sets a callback that runs once all the files of the test are either downloaded or given up
+     * @param completionCallback the callback
+     */
+    public synchronized void setCompletionCallback(final Runnable completionCallback) {
+        this.completionCallback = completionCallback;
+    }
+
     private int countRemaining() {
         int remaining = 0;
         for (DownloadProgress p : aggregatablesMap.values()) {
@@ -83,7 +121,7 @@ public class ReportCollectorWorker {
         return remaining;
     }
 
-    public boolean isCompleted() {
+    public synchronized boolean isCompleted() {
         int remaining = countRemaining();
 
         if (remaining > 0) {
@@ -109,6 +147,7 @@ public class ReportCollectorWorker {
         logger.debug("Sending log request to {}", topic);
 
         request.setLocationType(locationType);
+        request.setAcceptedCompressions(LogCompression.DEFLATE);
         request.correlate(note);
 
         try {
@@ -134,13 +173,13 @@ public class ReportCollectorWorker {
         reportDao.insert(report);
     }
 
-    public void handle(final TestStartedNotification note) {
+    public synchronized void handle(final TestStartedNotification note) {
         if (!aggregatablesMap.keySet().contains(note.getPeerInfo())) {
             aggregatablesMap.put(note.getPeerInfo(), null);
         }
     }
 
-    public void handle(final StartTestRequest note) {
+    public synchronized void handle(final StartTestRequest note) {
         /*
          It may receive the test started notification before the start test request,
          so only check if any download file remains to be downloaded and disregard
@@ -218,25 +257,167 @@ public class ReportCollectorWorker {
     }
 
 
+    /**
+     * Handles a log response chunk. This is not synchronized with the control notes: the chunks are
+     * written without holding the worker lock, which is only held to track the download progress
+     * @param note the log response chunk
+     */
     public void handle(final LogResponse note) {
         final PeerInfo peerInfo = note.getPeerInfo();
+        final String key = DefaultOrganizer.generateUniquePeerPath(note.getId(), peerInfo) + File.separator
+                + note.getFileName();
 
-        save(note, organizer);
+        if (abandoned.contains(key)) {
+            logger.warn("Ignoring the chunk {}/{} of file {} because its transfer was given up", note.getIndex() + 1,
+                    note.getTotal(), note.getFileName());
+            return;
+        }
 
-        trackProgress(note, peerInfo);
+        LogTransfer transfer = transfers.get(key);
+        if (transfer == null) {
+            transfer = LogResponseUtils.open(note, organizer);
+            if (transfer == null) {
+                return;
+            }
+
+            transfers.put(key, transfer);
+            startSweeping();
+        }
+
+        save(note, transfer);
+
+        if (!transfer.isComplete()) {
+            if (transfer.isLastExpected(note)) {
+                requestMissing(transfer);
+            }
+
+            return;
+        }
+
+        if (transfers.remove(key, transfer)) {
+            LogResponseUtils.close(transfer);
+
+            downloaded(transfer.getLocationTypeInfo(), peerInfo);
+        }
+    }
+
+    private synchronized void downloaded(final LocationTypeInfo locationTypeInfo, final PeerInfo peerInfo) {
+        trackProgress(locationTypeInfo, peerInfo);
 
         if (isCompleted() && !aggregatablesMap.isEmpty()) {
             logger.info("All downloads currently in progress have finished. Aggregating the data now");
             executorService.submit(() -> runAggregation(report.getTestId(), report.getTestNumber()));
 
             aggregatablesMap.clear();
+            completed();
+        }
+    }
+
+    /*
+     * Releases the state of the transfers. This runs whether the last file was downloaded or given up,
+     * since no more log responses are expected for the test in either case
+     */
+    private void completed() {
+        abandoned.clear();
+
+        synchronized (sweepLock) {
+            if (sweepTask != null) {
+                sweepTask.cancel(false);
+                sweepTask = null;
+            }
+        }
+
+        if (completionCallback != null) {
+            completionCallback.run();
+        }
+    }
+
+    private void startSweeping() {
+        synchronized (sweepLock) {
+            if (sweepTask == null) {
+                sweepTask = sweeper.scheduleWithFixedDelay(this::sweep, TRANSFER_SWEEP_PERIOD,
+                        TRANSFER_SWEEP_PERIOD, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /*
+     * Requests the missing chunks of the transfers that are idle (regardless of which chunks were lost)
+     * and gives up on the ones that are still incomplete after all the retries
+     */
+    private void sweep() {
+        final long now = System.currentTimeMillis();
+
+        for (Map.Entry<String, LogTransfer> entry : transfers.entrySet()) {
+            final LogTransfer transfer = entry.getValue();
+
+            if (transfer.isComplete() || !transfer.isIdle(now, TRANSFER_IDLE_TIMEOUT)) {
+                continue;
+            }
+
+            if (transfer.getRetries() < MAX_CHUNK_RETRIES) {
+                requestMissing(transfer);
+            }
+            else {
+                abandon(entry.getKey(), transfer);
+            }
+        }
+
+        synchronized (sweepLock) {
+            if (transfers.isEmpty() && sweepTask != null) {
+                sweepTask.cancel(false);
+                sweepTask = null;
+            }
+        }
+    }
+
+    private void abandon(final String key, final LogTransfer transfer) {
+        if (!transfers.remove(key, transfer)) {
+            return;
+        }
+
+        abandoned.add(key);
+        logger.error("Giving up on file {} after requesting the missing chunks {} times", transfer.getOutFile(),
+                transfer.getRetries());
+
+        try {
+            transfer.discard();
+        } catch (IOException e) {
+            logger.error("Unable to remove the partial file {}: {}", transfer.getOutFile(), e.getMessage(), e);
+        }
+
+        // The file is accounted as finished, so that the aggregation is not held by it
+        downloaded(transfer.getLocationTypeInfo(), transfer.getPeerInfo());
+    }
+
+    private void requestMissing(final LogTransfer transfer) {
+        if (transfer.getRetries() >= MAX_CHUNK_RETRIES) {
+            logger.warn("Not requesting the missing chunks of file {} again: it will be given up if they do not arrive",
+                    transfer.getOutFile());
+            return;
+        }
+
+        final int[] missing = transfer.requestMissing();
+        logger.warn("Requesting {} missing chunks of file {}", missing.length, transfer.getOutFile());
+
+        LogRequest request = new LogRequest();
+
+        request.setLocationType(transfer.getLocationType());
+        request.setChunks(transfer.getFileName(), missing);
+        request.setAcceptedCompressions(LogCompression.DEFLATE);
+        request.correlate(transfer.getCorrelation());
+
+        try {
+            client.publish(MaestroTopics.peerTopic(transfer.getId()), request);
+        } catch (Exception e) {
+            logger.error("Unable to publish the log request {}", e.getMessage(), e);
         }
     }
 
-    private void trackProgress(LogResponse note, PeerInfo peerInfo) {
+    private void trackProgress(final LocationTypeInfo locationTypeInfo, final PeerInfo peerInfo) {
         DownloadProgress downloadProgress = aggregatablesMap.get(peerInfo);
         if (downloadProgress == null) {
-            downloadProgress = new DownloadProgress(note.getLocationTypeInfo().getFileCount());
+            downloadProgress = new DownloadProgress(locationTypeInfo.getFileCount());
         }
 
         try {
@@ -253,7 +434,7 @@ public class ReportCollectorWorker {
     }
 
 
-    public void handle(final TestFailedNotification note) {
+    public synchronized void handle(final TestFailedNotification note) {
         logRequest(note, LocationType.LAST_FAILED);
 
         if (isIgnored(note)) {
@@ -264,7 +445,7 @@ public class ReportCollectorWorker {
         }
     }
 
-    public void handle(final TestSuccessfulNotification note) {
+    public synchronized void handle(final TestSuccessfulNotification note) {
         logRequest(note, LocationType.LAST_SUCCESS);
 
         createNewReportRecord(ResultStrings.SUCCESS, note.getMessage(), note.getId(), note.getPeerInfo());
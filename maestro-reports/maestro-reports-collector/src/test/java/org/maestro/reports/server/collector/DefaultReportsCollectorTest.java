@@ -0,0 +1,187 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.reports.server.collector;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.maestro.client.MaestroReceiverClient;
+import org.maestro.client.exchange.MaestroDeserializer;
+import org.maestro.client.exchange.MaestroTopics;
+import org.maestro.client.exchange.support.DefaultGroupInfo;
+import org.maestro.client.exchange.support.PeerInfo;
+import org.maestro.client.exchange.support.WorkerPeer;
+import org.maestro.client.notes.LogResponse;
+import org.maestro.client.notes.TestSuccessfulNotification;
+import org.maestro.common.ConfigurationWrapper;
+import org.maestro.common.Role;
+import org.maestro.common.client.notes.LocationType;
+import org.maestro.common.client.notes.LocationTypeInfo;
+import org.maestro.common.client.notes.TestDetails;
+import org.maestro.common.client.notes.TestExecutionInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DefaultReportsCollectorTest {
+    private static final PeerInfo peerInfo = new WorkerPeer(Role.RECEIVER, "unittest", "localhost",
+            new DefaultGroupInfo("test", "all"));
+
+    private static final String ID = "testid";
+
+    private final org.maestro.common.client.notes.Test test = new org.maestro.common.client.notes.Test(
+            org.maestro.common.client.notes.Test.NEXT, org.maestro.common.client.notes.Test.NEXT, "unittest",
+            "undefined", new TestDetails("unit test", ""));
+
+    private File dataDir;
+    private File logFile;
+    private DefaultReportsCollector collector;
+
+    /*
+     * Delivers the log response as soon as the log request would have been sent, the same as a peer
+     * responding before the notification is done being handled
+     */
+    private class RespondingWorker extends ReportCollectorWorker {
+        private final CountDownLatch received = new CountDownLatch(1);
+
+        RespondingWorker(final File dataDir, final MaestroReceiverClient client,
+                         final TestExecutionInfo testExecutionInfo) {
+            super(dataDir, client, testExecutionInfo);
+        }
+
+        @Override
+        public void handle(final TestSuccessfulNotification note) {
+            try {
+                collector.messageArrived(MaestroTopics.MAESTRO_LOGS_TOPIC, new MqttMessage(logResponse().serialize()));
+
+                received.await(5, TimeUnit.SECONDS);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void handle(final LogResponse note) {
+            received.countDown();
+        }
+    }
+
+    /*
+     * Downloads the files without aggregating them
+     */
+    private static class NonAggregatingWorker extends ReportCollectorWorker {
+        NonAggregatingWorker(final File dataDir, final MaestroReceiverClient client,
+                             final TestExecutionInfo testExecutionInfo) {
+            super(dataDir, client, testExecutionInfo);
+        }
+
+        @Override
+        protected void runAggregation(int maxTestId, int maxTestNumber) {
+
+        }
+    }
+
+    @BeforeClass
+    public static void setUpDatabase() {
+        ConfigurationWrapper.getConfig().setProperty("maestro.reports.datasource.url",
+                "jdbc:h2:mem:collector;DB_CLOSE_DELAY=-1");
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("collector").toFile();
+        logFile = new File(dataDir, "test.log");
+
+        Files.write(logFile.toPath(), "some log data".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (collector != null) {
+            collector.disconnect();
+        }
+
+        FileUtils.deleteDirectory(dataDir);
+    }
+
+    private LogResponse logResponse() {
+        final LogResponse logResponse = new LogResponse();
+
+        logResponse.setId(ID);
+        logResponse.setPeerInfo(peerInfo);
+        logResponse.setLocationType(LocationType.LAST_SUCCESS);
+        logResponse.setLocationTypeInfo(new LocationTypeInfo(1));
+        logResponse.setFile(logFile);
+
+        return logResponse;
+    }
+
+    private TestSuccessfulNotification notification() {
+        final TestSuccessfulNotification notification = new TestSuccessfulNotification();
+
+        notification.setId(ID);
+        notification.setPeerInfo(peerInfo);
+        notification.setTest(test);
+        notification.setMessage("Test completed successfully");
+
+        return notification;
+    }
+
+    @Test(timeout = 20000)
+    public void testLogResponseRightAfterNotification() throws Exception {
+        collector = new DefaultReportsCollector("tcp://localhost:1883", peerInfo, dataDir, RespondingWorker::new);
+
+        final RespondingWorker worker = (RespondingWorker) collector.getCollectorWorker(
+                new TestExecutionInfo(test, null));
+
+        collector.messageArrived(MaestroTopics.NOTIFICATION_TOPIC, new MqttMessage(notification().serialize()));
+
+        assertTrue("The log response should have been handed to the worker",
+                worker.received.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testReleaseOnCompletion() throws Exception {
+        collector = new DefaultReportsCollector("tcp://localhost:1883", peerInfo, dataDir,
+                NonAggregatingWorker::new);
+
+        final TestExecutionInfo testExecutionInfo = new TestExecutionInfo(test, null);
+        final ReportCollectorWorker worker = collector.getCollectorWorker(testExecutionInfo);
+
+        collector.handle(notification());
+        assertSame(worker, collector.getCollectorWorker(test));
+
+        final LogResponse logResponse = logResponse();
+        collector.handle((LogResponse) MaestroDeserializer.deserialize(logResponse.serialize()));
+
+        assertNull("The worker should be released once all the files are downloaded",
+                collector.getCollectorWorker(test));
+        assertNotSame("A new worker should be used for the next test", worker,
+                collector.getCollectorWorker(testExecutionInfo));
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.reports.server.collector;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.maestro.client.exchange.MaestroDeserializer;
+import org.maestro.client.exchange.support.DefaultGroupInfo;
+import org.maestro.client.exchange.support.PeerInfo;
+import org.maestro.client.exchange.support.WorkerPeer;
+import org.maestro.client.notes.LogResponse;
+import org.maestro.common.Role;
+import org.maestro.common.client.notes.LocationType;
+import org.maestro.common.client.notes.LocationTypeInfo;
+import org.maestro.common.client.notes.LogCompression;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.*;
+
+public class LogTransferTest {
+    private static final PeerInfo peerInfo = new WorkerPeer(Role.RECEIVER, "unittest", "localhost",
+            new DefaultGroupInfo("test", "all"));
+
+    private static final int CHUNK_SIZE = 16;
+    private static final byte[] content = ("The quick brown fox jumps over the lazy dog. " +
+            "The quick brown fox jumps over the lazy dog.").getBytes(StandardCharsets.US_ASCII);
+
+    static class TestLogResponse extends LogResponse {
+        @Override
+        protected int getMaxChunkSize() {
+            return CHUNK_SIZE;
+        }
+    }
+
+    private File sourceFile;
+    private File outFile;
+
+    @Before
+    public void setUp() throws IOException {
+        sourceFile = File.createTempFile("log-transfer-source", ".txt");
+        outFile = File.createTempFile("log-transfer-out", ".txt");
+
+        Files.write(sourceFile.toPath(), content);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(sourceFile.toPath());
+        Files.deleteIfExists(outFile.toPath());
+    }
+
+    private List<LogResponse> chunks(final String hash, final LogCompression compression) throws Exception {
+        TestLogResponse logResponse = new TestLogResponse();
+
+        logResponse.setId("testid");
+        logResponse.setPeerInfo(peerInfo);
+        logResponse.setLocationType(LocationType.LAST);
+        logResponse.setLocationTypeInfo(new LocationTypeInfo(1));
+        logResponse.setFile(sourceFile);
+        logResponse.setFileHash(hash);
+        logResponse.setCompression(compression, Deflater.DEFAULT_COMPRESSION);
+
+        final List<LogResponse> ret = new ArrayList<>();
+        do {
+            ret.add((LogResponse) MaestroDeserializer.deserialize(logResponse.serialize()));
+            logResponse.next();
+        } while (logResponse.hasNext());
+
+        return ret;
+    }
+
+    private List<LogResponse> chunks() throws Exception {
+        return chunks(DigestUtils.sha1Hex(content), LogCompression.NONE);
+    }
+
+    @Test
+    public void writeInOrder() throws Exception {
+        final List<LogResponse> chunks = chunks();
+        assertEquals(6, chunks.size());
+
+        try (LogTransfer transfer = new LogTransfer(outFile, chunks.get(0))) {
+            for (LogResponse chunk : chunks) {
+                assertFalse(transfer.isComplete());
+                assertTrue(transfer.write(chunk));
+                assertEquals(1, transfer.rangeCount());
+            }
+
+            assertTrue(transfer.isComplete());
+            assertTrue(transfer.verify());
+        }
+
+        assertArrayEquals(content, Files.readAllBytes(outFile.toPath()));
+    }
+
+    @Test
+    public void writeOutOfOrderMergesRanges() throws Exception {
+        final List<LogResponse> chunks = chunks();
+
+        try (LogTransfer transfer = new LogTransfer(outFile, chunks.get(3))) {
+            assertTrue(transfer.write(chunks.get(3)));
+            assertTrue(transfer.write(chunks.get(1)));
+            assertTrue(transfer.write(chunks.get(5)));
+            assertEquals(3, transfer.rangeCount());
+
+            // Adjacent to the ranges on both sides
+            assertTrue(transfer.write(chunks.get(2)));
+            assertEquals(2, transfer.rangeCount());
+
+            assertTrue(transfer.write(chunks.get(4)));
+            assertEquals(1, transfer.rangeCount());
+            assertFalse(transfer.isComplete());
+
+            assertTrue(transfer.write(chunks.get(0)));
+            assertEquals(1, transfer.rangeCount());
+            assertTrue(transfer.isComplete());
+
+            // The data received out of order is hashed once the gap before it is filled
+            assertTrue(transfer.verify());
+        }
+
+        assertArrayEquals(content, Files.readAllBytes(outFile.toPath()));
+    }
+
+    @Test
+    public void writeDuplicatedChunk() throws Exception {
+        final List<LogResponse> chunks = chunks();
+
+        try (LogTransfer transfer = new LogTransfer(outFile, chunks.get(0))) {
+            assertTrue(transfer.write(chunks.get(0)));
+            assertFalse("A duplicated chunk should not be written", transfer.write(chunks.get(0)));
+
+            for (LogResponse chunk : chunks.subList(1, chunks.size())) {
+                assertTrue(transfer.write(chunk));
+            }
+
+            assertFalse("A duplicated chunk should not be written", transfer.write(chunks.get(2)));
+
+            // The duplicates are not hashed again
+            assertTrue(transfer.verify());
+        }
+    }
+
+    @Test
+    public void verifyMismatchedHash() throws Exception {
+        final List<LogResponse> chunks = chunks(DigestUtils.sha1Hex("something else"), LogCompression.NONE);
+
+        try (LogTransfer transfer = new LogTransfer(outFile, chunks.get(0))) {
+            for (LogResponse chunk : chunks) {
+                transfer.write(chunk);
+            }
+
+            assertTrue(transfer.isComplete());
+            assertFalse(transfer.verify());
+        }
+    }
+
+    @Test
+    public void requestMissing() throws Exception {
+        final List<LogResponse> chunks = chunks();
+
+        try (LogTransfer transfer = new LogTransfer(outFile, chunks.get(0))) {
+            transfer.write(chunks.get(0));
+            transfer.write(chunks.get(2));
+            transfer.write(chunks.get(5));
+
+            assertTrue(transfer.isLastExpected(chunks.get(5)));
+            assertArrayEquals(new int[] { 1, 3, 4 }, transfer.requestMissing());
+            assertEquals(1, transfer.getRetries());
+
+            // After requesting them, the last missing chunk is the last expected one
+            assertFalse(transfer.isLastExpected(chunks.get(5)));
+            assertTrue(transfer.isLastExpected(chunks.get(4)));
+
+            assertFalse(transfer.isIdle(System.currentTimeMillis(), 60000));
+            assertTrue(transfer.isIdle(System.currentTimeMillis() + 60000, 60000));
+        }
+    }
+
+    @Test
+    public void writeCompressedOutOfOrder() throws Exception {
+        final List<LogResponse> chunks = chunks(DigestUtils.sha1Hex(content), LogCompression.DEFLATE);
+
+        try (LogTransfer transfer = new LogTransfer(outFile, chunks.get(0))) {
+            for (int i = chunks.size() - 1; i >= 0; i--) {
+                assertTrue(transfer.write(chunks.get(i)));
+            }
+
+            assertTrue(transfer.isComplete());
+            assertTrue(transfer.verify());
+        }
+
+        assertArrayEquals(content, Files.readAllBytes(outFile.toPath()));
+    }
+
+    @Test
+    public void discard() throws Exception {
+        final List<LogResponse> chunks = chunks();
+
+        LogTransfer transfer = new LogTransfer(outFile, chunks.get(0));
+        transfer.write(chunks.get(0));
+        transfer.discard();
+
+        assertFalse("The partial file should have been removed", outFile.exists());
+    }
+}
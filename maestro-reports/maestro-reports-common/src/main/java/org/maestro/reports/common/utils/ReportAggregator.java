@@ -18,11 +18,14 @@
 package org.maestro.reports.common.utils;
 
 import org.HdrHistogram.*;
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.maestro.common.ConfigurationWrapper;
 import org.maestro.common.Role;
 import org.maestro.common.exceptions.MaestroException;
-import org.maestro.common.io.data.common.exceptions.InvalidRecordException;
-import org.maestro.common.io.data.writers.BinaryRateUpdater;
+import org.maestro.common.io.data.common.AccumulatedHistogramCache;
+import org.maestro.common.io.data.writers.BinaryRateMerger;
 import org.maestro.common.io.data.writers.LatencyWriter;
+import org.maestro.plotter.utils.ParallelHistogramLogDecoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,7 +34,9 @@ import java.util.*;
 
 public class ReportAggregator {
     private static final Logger logger = LoggerFactory.getLogger(ReportAggregator.class);
+    private static final AbstractConfiguration config = ConfigurationWrapper.getConfig();
     private final Map<String, List<File>> aggregatables = new HashMap<>();
+    private final ParallelHistogramLogDecoder decoder = new ParallelHistogramLogDecoder();
 
     private final File baseDir;
 
@@ -48,7 +53,12 @@ public class ReportAggregator {
             return false;
         }
 
-        String knownAggregatableFiles[] = {"receiver.dat", "sender.dat", "receiverd-latency.hdr"};
+        /*
+         * The per-worker rate files (ie.: sender-worker-<number>.dat) are not aggregated: the worker
+         * numbers are local to each peer and the combined rate files are written along with them
+         */
+        String knownAggregatableFiles[] = {"receiver.dat", "sender.dat", "receiverd-latency.hdr",
+                "senderd-service-time.hdr"};
 
         for (String fileName : knownAggregatableFiles) {
             if (fileName.equals(name)) {
@@ -125,11 +135,19 @@ public class ReportAggregator {
 
         if (name.equals("receiverd-latency.hdr")) {
             try {
-                aggregateLatencies(files);
+                aggregateLatencies(files, name);
             } catch (MaestroException | IOException e) {
                 logger.error("Unable to aggregate receiver latency files: {}", e.getMessage(), e);
             }
         }
+
+        if (name.equals("senderd-service-time.hdr")) {
+            try {
+                aggregateLatencies(files, name);
+            } catch (MaestroException | IOException e) {
+                logger.error("Unable to aggregate sender service time files: {}", e.getMessage(), e);
+            }
+        }
     }
 
     /**
@@ -147,25 +165,20 @@ public class ReportAggregator {
 
 
     private void aggregateRate(List<File> currentReports, Role role) throws IOException {
+        final String name = role == Role.RECEIVER ? "receiver.dat" : "sender.dat";
+        final BinaryRateMerger binaryRateMerger = new BinaryRateMerger(new File(baseDir, name), role);
 
-        try (BinaryRateUpdater binaryRateUpdater = BinaryRateUpdater.get(role, baseDir)) {
-            for (File currentReport : currentReports) {
-                logger.info("Producing aggregated report for: {}", currentReport);
+        binaryRateMerger.setSkewTolerance(config.getLong("maestro.reports.aggregation.skew.tolerance", 100));
+        binaryRateMerger.setFillGaps(config.getBoolean("maestro.reports.aggregation.fill.gaps", true));
 
-                try {
-                    BinaryRateUpdater.joinFile(binaryRateUpdater, currentReport);
-                }
-                catch (InvalidRecordException e) {
-                    logger.warn("File {} contains invalid records and will be ignored", currentReport);
-                }
-            }
-        }
+        logger.info("Producing aggregated report for: {}", currentReports);
+        binaryRateMerger.merge(currentReports);
     }
 
-    private void aggregateLatencies(List<File> currentReports) throws IOException {
+    private void aggregateLatencies(List<File> currentReports, final String name) throws IOException {
         Histogram aggregatedHistogram = new Histogram(3);
 
-        File destFile = new File(baseDir, "receiverd-latency.hdr");
+        File destFile = new File(baseDir, name);
 
         try (LatencyWriter latencyWriter = new LatencyWriter(destFile)) {
 
@@ -176,29 +189,26 @@ public class ReportAggregator {
 
             latencyWriter.outputIntervalHistogram(aggregatedHistogram);
         }
+
+        AccumulatedHistogramCache.write(destFile, aggregatedHistogram);
     }
 
     private void joinHistograms(Histogram dest, File sourceFile) throws FileNotFoundException {
-        HistogramLogReader logReader = new HistogramLogReader(sourceFile);
-
-        while (logReader.hasNext()) {
-            EncodableHistogram eh = logReader.nextIntervalHistogram();
-            if (eh == null) {
-                logger.warn("Unable to aggregate an histogram from file {} because it is empty", sourceFile);
-
-                break;
-            }
-
-            if (eh instanceof AbstractHistogram) {
-                AbstractHistogram ah = (AbstractHistogram) eh;
+        final Histogram cached = AccumulatedHistogramCache.read(sourceFile);
+        if (cached != null) {
+            logger.debug("Using the cached accumulated histogram for {}", sourceFile);
+            dest.add(cached);
+            return;
+        }
 
-                dest.add(ah);
-            }
-            else {
+        // The decoder accumulates the tagged (ie.: per-worker) intervals as well, into the combined view
+        final Histogram accumulated = decoder.decode(sourceFile);
+        if (accumulated == null) {
+            logger.warn("Unable to aggregate an histogram from file {} because it is empty", sourceFile);
 
-                // Maestro-generated histograms should always be AbstractHistogram, so this shouldn't happen
-                throw new MaestroException("The histogram type does not allow it to be aggregated");
-            }
+            return;
         }
+
+        dest.add(accumulated);
     }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.reports.common.utils;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.maestro.common.io.data.common.FileHeader;
+import org.maestro.common.io.data.readers.MappedRateReader;
+import org.maestro.common.io.data.writers.BinaryRateWriter;
+import org.maestro.common.io.data.writers.LatencyWriter;
+import org.maestro.plotter.utils.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ReportAggregatorTest {
+    private static final long START = TimeUnit.SECONDS.toMicros(1_500_000_000L);
+    private static final int WORKERS = 2;
+
+    @Rule
+    public TemporaryFolder tempTestFolder = new TemporaryFolder();
+
+    private static Histogram newHistogram(final String tag, long value, int count) {
+        Histogram histogram = new Histogram(3);
+
+        histogram.recordValueWithCount(value, count);
+        histogram.setStartTimeStamp(System.currentTimeMillis());
+        histogram.setEndTimeStamp(histogram.getStartTimeStamp() + 1000);
+        histogram.setTag(tag);
+
+        return histogram;
+    }
+
+    private static void writeRate(final File reportFile, long count, int total) throws IOException {
+        try (BinaryRateWriter writer = new BinaryRateWriter(reportFile, FileHeader.WRITER_DEFAULT_SENDER)) {
+            for (int i = 0; i < total; i++) {
+                writer.write(0, count, START + TimeUnit.SECONDS.toMicros(i));
+            }
+        }
+    }
+
+    /*
+     * Generates the reports of a peer with per-worker reporting enabled: each worker sends one
+     * message per second and records its latencies on its own tagged intervals
+     */
+    private File generatePeer(final String name, long latency) throws IOException {
+        final File location = tempTestFolder.newFolder(name);
+
+        writeRate(new File(location, "sender.dat"), WORKERS, 10);
+        for (int i = 0; i < WORKERS; i++) {
+            writeRate(new File(location, "sender-worker-" + i + ".dat"), 1, 10);
+        }
+
+        try (LatencyWriter latencyWriter = new LatencyWriter(new File(location, "receiverd-latency.hdr"))) {
+            latencyWriter.outputLegend(System.currentTimeMillis());
+
+            for (int i = 0; i < WORKERS; i++) {
+                latencyWriter.outputIntervalHistogram(newHistogram("worker-" + i, latency * (i + 1), 10));
+            }
+        }
+
+        return location;
+    }
+
+    @Test
+    public void testAggregatePerWorkerReports() throws Exception {
+        final File first = generatePeer("first", 100);
+        final File second = generatePeer("second", 1000);
+        final File baseDir = tempTestFolder.newFolder("aggregated");
+
+        new ReportAggregator(baseDir).aggregate(Arrays.asList(first.getPath(), second.getPath()));
+
+        try (MappedRateReader reader = new MappedRateReader(new File(baseDir, "sender.dat"))) {
+            assertEquals("The number of records don't match", 10, reader.size());
+
+            for (int i = 0; i < reader.size(); i++) {
+                assertEquals("Unexpected value at " + i, 2 * WORKERS, reader.count(i));
+            }
+        }
+
+        final Histogram histogram = Util.getAccumulated(new File(baseDir, "receiverd-latency.hdr"));
+        assertEquals("The histograms of all the workers should be combined", 2 * WORKERS * 10,
+                histogram.getTotalCount());
+        assertEquals(2000, histogram.getMaxValue(), 1.0);
+
+        for (int i = 0; i < WORKERS; i++) {
+            assertFalse(new File(baseDir, "sender-worker-" + i + ".dat").exists());
+        }
+    }
+}
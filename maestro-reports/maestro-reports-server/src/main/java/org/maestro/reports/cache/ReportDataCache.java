@@ -0,0 +1,345 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.reports.cache;
+
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.MemoryUnit;
+import org.maestro.common.ConfigurationWrapper;
+import org.maestro.common.exceptions.MaestroException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * A cache for the data read from the report files (rate and latency data, as well as their statistics),
+ * shared by all the controllers of the reports server.
+ *
+ * The data is kept on the heap, bounded by its (estimated) size in bytes instead of the number of
+ * entries, so that a few large reports cannot exhaust the memory while many small ones still fit. The
+ * least recently used data is evicted first and, optionally, spilled to an off-heap or disk tier from
+ * where it can be retrieved without reading the report files again. The data is keyed by the file
+ * modification time and size, so modified files are read again and their stale data is dropped.
+ */
+public final class ReportDataCache {
+    private static final Logger logger = LoggerFactory.getLogger(ReportDataCache.class);
+    private static final AbstractConfiguration config = ConfigurationWrapper.getConfig();
+
+    private static final String TIER_CACHE_NAME = "reportData";
+
+    private static ReportDataCache instance;
+
+    /**
+     * Loads the data in case of a cache miss
+     * @param <T> the data type
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws IOException;
+    }
+
+    private static final class Entry {
+        private final Serializable value;
+        private final long weight;
+        private final long expiration;
+
+        Entry(final Serializable value, long weight, long expiration) {
+            this.value = value;
+            this.weight = weight;
+            this.expiration = expiration;
+        }
+    }
+
+    private final LinkedHashMap<ReportDataKey, Entry> heap = new LinkedHashMap<>(64, 0.75f, true);
+    // The data moved to the tier and when it expires there, in expiration order
+    private final LinkedHashMap<ReportDataKey, Long> tiered = new LinkedHashMap<>();
+    // The version of each file whose data is cached, kept only while the data is on the heap or on the tier
+    private final Map<String, ReportDataKey> current = new HashMap<>();
+    private final long maxWeight;
+    private final long timeToLive;
+    private long weight;
+
+    private final Cache<ReportDataKey, Serializable> tier;
+
+    /**
+     * Constructor
+     * @param maxWeight the maximum (estimated) size of the data kept on the heap, in bytes
+     * @param timeToLive for how long the data is kept, in milliseconds
+     * @param tier an optional off-heap or disk tier for the data evicted from the heap (may be null)
+     */
+    ReportDataCache(long maxWeight, long timeToLive, final Cache<ReportDataKey, Serializable> tier) {
+        this.maxWeight = maxWeight;
+        this.timeToLive = timeToLive;
+        this.tier = tier;
+    }
+
+    private static Cache<ReportDataKey, Serializable> createTier(final Duration timeToLive) {
+        final String type = config.getString("maestro.reports.cache.tier", "none");
+        final long size = config.getLong("maestro.reports.cache.tier.size", 512);
+
+        final ResourcePoolsBuilder resourcePools;
+        final CacheManagerBuilder<CacheManager> builder = CacheManagerBuilder.newCacheManagerBuilder();
+
+        switch (type) {
+            case "none": {
+                return null;
+            }
+            case "offheap": {
+                resourcePools = ResourcePoolsBuilder.newResourcePoolsBuilder().offheap(size, MemoryUnit.MB);
+                break;
+            }
+            case "disk": {
+                final String directory = config.getString("maestro.reports.cache.tier.directory",
+                        System.getProperty("java.io.tmpdir") + File.separator + "maestro-reports-cache");
+
+                resourcePools = ResourcePoolsBuilder.newResourcePoolsBuilder().disk(size, MemoryUnit.MB, false);
+                builder.with(CacheManagerBuilder.persistence(directory));
+                break;
+            }
+            default: {
+                throw new MaestroException("Invalid report cache tier: %s", type);
+            }
+        }
+
+        logger.info("Using a {} MB {} tier for the report data cache", size, type);
+        final CacheManager cacheManager = builder
+                .withCache(TIER_CACHE_NAME, CacheConfigurationBuilder
+                        .newCacheConfigurationBuilder(ReportDataKey.class, Serializable.class, resourcePools)
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive)))
+                .build(true);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(cacheManager::close));
+        return cacheManager.getCache(TIER_CACHE_NAME, ReportDataKey.class, Serializable.class);
+    }
+
+    /**
+     * Gets the cache instance
+     * @return the cache instance
+     */
+    public static synchronized ReportDataCache getInstance() {
+        if (instance == null) {
+            final long heapSize = config.getLong("maestro.reports.cache.heap.size", 128);
+            final Duration timeToLive = Duration.ofMinutes(config.getLong("maestro.reports.cache.ttl", 30));
+
+            instance = new ReportDataCache(heapSize * 1024 * 1024, timeToLive.toMillis(), createTier(timeToLive));
+        }
+
+        return instance;
+    }
+
+    /*
+     * Drops the data read from a previous version of the file
+     */
+    private void invalidate(final ReportDataKey key) {
+        final ReportDataKey previous = current.put(key.id(), key);
+
+        if (previous != null && !previous.equals(key)) {
+            logger.debug("Dropping the cached data for {} because the file has changed", previous);
+            remove(previous);
+        }
+    }
+
+    /*
+     * Forgets the version of the file, once its data is no longer cached
+     */
+    private void forget(final ReportDataKey key) {
+        current.remove(key.id(), key);
+    }
+
+    private void remove(final ReportDataKey key) {
+        final Entry entry = heap.remove(key);
+
+        if (entry != null) {
+            weight -= entry.weight;
+        }
+
+        if (tier != null) {
+            tier.remove(key);
+            tiered.remove(key);
+        }
+
+        forget(key);
+    }
+
+    /*
+     * Forgets the data that expired on the tier (which the tier drops by itself)
+     */
+    private void pruneTier() {
+        final long now = System.currentTimeMillis();
+        final Iterator<Map.Entry<ReportDataKey, Long>> iterator = tiered.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            final Map.Entry<ReportDataKey, Long> eldest = iterator.next();
+            if (eldest.getValue() > now) {
+                break;
+            }
+
+            iterator.remove();
+            forget(eldest.getKey());
+        }
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<ReportDataKey, Entry>> iterator = heap.entrySet().iterator();
+
+        while (weight > maxWeight && iterator.hasNext()) {
+            final Map.Entry<ReportDataKey, Entry> eldest = iterator.next();
+            iterator.remove();
+            weight -= eldest.getValue().weight;
+
+            if (tier != null && eldest.getValue().expiration > System.currentTimeMillis()) {
+                logger.debug("Moving the cached data for {} out of the heap", eldest.getKey());
+                tier.put(eldest.getKey(), eldest.getValue().value);
+                tiered.remove(eldest.getKey());
+                tiered.put(eldest.getKey(), System.currentTimeMillis() + timeToLive);
+            }
+            else {
+                logger.debug("Evicting the cached data for {}", eldest.getKey());
+                forget(eldest.getKey());
+            }
+        }
+    }
+
+    private synchronized Serializable lookup(final ReportDataKey key, boolean promote,
+                                             final ToLongFunction<Serializable> weigher) {
+        invalidate(key);
+
+        final Entry entry = heap.get(key);
+        if (entry != null) {
+            if (entry.expiration > System.currentTimeMillis()) {
+                return entry.value;
+            }
+
+            remove(key);
+            return null;
+        }
+
+        if (tier == null) {
+            forget(key);
+            return null;
+        }
+
+        pruneTier();
+
+        final Serializable value = tier.get(key);
+        if (value == null) {
+            // Either never cached or dropped by the tier (ie.: expired or evicted to make room)
+            tiered.remove(key);
+            forget(key);
+            return null;
+        }
+
+        if (promote) {
+            tier.remove(key);
+            tiered.remove(key);
+            store(key, value, weigher.applyAsLong(value));
+        }
+
+        return value;
+    }
+
+    private synchronized void store(final ReportDataKey key, final Serializable value, long valueWeight) {
+        // Data loaded from a version of the file other than the one cached is not stored
+        final ReportDataKey latest = current.putIfAbsent(key.id(), key);
+        if (latest != null && !latest.equals(key)) {
+            return;
+        }
+
+        final Entry previous = heap.put(key, new Entry(value, valueWeight,
+                System.currentTimeMillis() + timeToLive));
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+
+        weight += valueWeight;
+        evict();
+
+        if (tier != null) {
+            pruneTier();
+        }
+    }
+
+    /**
+     * Gets data from the cache, loading it in case of a cache miss
+     * @param file the file the data is read from
+     * @param kind the kind of data read from the file (ie.: to cache different data read from the same file)
+     * @param type the data type
+     * @param weigher estimates the size of the data in bytes
+     * @param loader loads the data from the file
+     * @param <T> the data type
+     * @return the data (or whatever the loader returns if not cached)
+     * @throws IOException if unable to load the data
+     */
+    public <T extends Serializable> T get(final File file, final String kind, final Class<T> type,
+                                          final ToLongFunction<? super T> weigher,
+                                          final Loader<T> loader) throws IOException {
+        final ReportDataKey key = ReportDataKey.of(file, kind);
+        final ToLongFunction<Serializable> valueWeigher = value -> weigher.applyAsLong(type.cast(value));
+
+        Serializable value = lookup(key, true, valueWeigher);
+        if (value != null) {
+            logger.debug("Using the cached {} data for {}", kind, file);
+            return type.cast(value);
+        }
+
+        final T loaded = loader.load();
+        if (loaded != null) {
+            store(key, loaded, weigher.applyAsLong(loaded));
+        }
+
+        return loaded;
+    }
+
+    /**
+     * Gets data from the cache, if cached
+     * @param file the file the data is read from
+     * @param kind the kind of data read from the file
+     * @param type the data type
+     * @param <T> the data type
+     * @return the data or null if not cached
+     */
+    public <T extends Serializable> T peek(final File file, final String kind, final Class<T> type) {
+        return type.cast(lookup(ReportDataKey.of(file, kind), false, null));
+    }
+
+    /**
+     * Gets the (estimated) size of the data kept on the heap
+     * @return the size in bytes
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    /*
+     * The number of files whose version is tracked
+     */
+    synchronized int versionCount() {
+        return current.size();
+    }
+}
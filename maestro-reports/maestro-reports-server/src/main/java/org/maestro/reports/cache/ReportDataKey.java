@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.reports.cache;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Identifies a piece of report data: the file it was read from, what was read from it and the state
+ * of the file when it was read. A file that is modified (or replaced) yields a different key.
+ */
+final class ReportDataKey implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String path;
+    private final String kind;
+    private final long lastModified;
+    private final long length;
+
+    private ReportDataKey(final String path, final String kind, long lastModified, long length) {
+        this.path = path;
+        this.kind = kind;
+        this.lastModified = lastModified;
+        this.length = length;
+    }
+
+    static ReportDataKey of(final File file, final String kind) {
+        return new ReportDataKey(file.getAbsolutePath(), kind, file.lastModified(), file.length());
+    }
+
+    /**
+     * Identifies the data regardless of the state of the file
+     * @return the file path and the kind of data
+     */
+    String id() {
+        return path + '#' + kind;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ReportDataKey that = (ReportDataKey) o;
+        return lastModified == that.lastModified &&
+                length == that.length &&
+                Objects.equals(path, that.path) &&
+                Objects.equals(kind, that.kind);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(path, kind, lastModified, length);
+    }
+
+    @Override
+    public String toString() {
+        return "ReportDataKey{" +
+                "path='" + path + '\'' +
+                ", kind='" + kind + '\'' +
+                ", lastModified=" + lastModified +
+                ", length=" + length +
+                '}';
+    }
+}
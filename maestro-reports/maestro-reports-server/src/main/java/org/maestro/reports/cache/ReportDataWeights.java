@@ -0,0 +1,104 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.reports.cache;
+
+import org.maestro.plotter.common.serializer.SingleData;
+import org.maestro.plotter.common.statistics.Statistics;
+import org.maestro.plotter.latency.serializer.Latency;
+import org.maestro.plotter.latency.serializer.LatencyDistribution;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the heap footprint of the report data, so that it can be weighted by the report data
+ * cache. The estimates assume a 64-bit JVM and err on the high side: it does not have to be exact,
+ * it only has to be proportional to the amount of data.
+ */
+public final class ReportDataWeights {
+    private static final long OBJECT = 16;
+    private static final long REFERENCE = 8;
+    private static final long BOXED = OBJECT + 8;
+    private static final long DATE = OBJECT + 8 + REFERENCE;
+
+    // The summary statistics hold about a dozen storeless statistics of their own
+    private static final long SUMMARY_STATISTICS = 1024;
+    private static final long LATENCY_STATISTICS = OBJECT + 14 * 8;
+
+    private ReportDataWeights() {}
+
+    private static long weigh(final List<?> list, long elementWeight) {
+        if (list == null) {
+            return 0;
+        }
+
+        return OBJECT + (list.size() * (REFERENCE + elementWeight));
+    }
+
+    /**
+     * Estimates the footprint of the statistics of a data set
+     * @param statistics the statistics (may be null)
+     * @return the estimated footprint in bytes
+     */
+    public static long weigh(final Statistics statistics) {
+        if (statistics == null) {
+            return 0;
+        }
+
+        return OBJECT + SUMMARY_STATISTICS + statistics.histogramFootprint();
+    }
+
+    /**
+     * Estimates the footprint of a data set (ie.: rate data)
+     * @param data the data
+     * @return the estimated footprint in bytes
+     */
+    public static long weigh(final SingleData<?> data) {
+        return OBJECT + weigh(data.getPeriods(), DATE) + weigh(data.getValues(), BOXED)
+                + weigh(data.getStatistics()) + weigh(data.getUntrimmedStatistics());
+    }
+
+    private static long weigh(final Latency latency) {
+        long ret = OBJECT + weigh(latency.getPercentiles(), BOXED) + weigh(latency.getValues(), BOXED);
+
+        if (latency.getStatistics() != null) {
+            ret += LATENCY_STATISTICS;
+        }
+
+        if (latency.getUntrimmedStatistics() != null) {
+            ret += LATENCY_STATISTICS;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Estimates the footprint of the latency distribution of a test
+     * @param data the latency distribution
+     * @return the estimated footprint in bytes
+     */
+    public static long weigh(final LatencyDistribution data) {
+        long ret = OBJECT;
+
+        for (Map.Entry<String, Latency> entry : data.getLatencyDistribution().entrySet()) {
+            ret += OBJECT + REFERENCE + (entry.getKey().length() * 2) + weigh(entry.getValue());
+        }
+
+        return ret;
+    }
+}
@@ -18,7 +18,7 @@
 package org.maestro.reports.controllers;
 
 import io.javalin.Context;
-import org.maestro.plotter.common.serializer.SingleData;
+import org.maestro.plotter.common.statistics.Statistics;
 import org.maestro.reports.controllers.common.RateStatisticsResponse;
 import org.maestro.reports.dao.ReportDao;
 import org.maestro.reports.dao.exceptions.DataNotFoundException;
@@ -36,10 +36,11 @@ public class AggregatedRateStatisticsReportController extends CommonRateReportCo
 
             Report report = reportDao.fetchAggregated(testId, testNumber);
 
-            SingleData<Long> rateData = processReport(report, hostRole);
+            Statistics statistics = processStatistics(report, hostRole);
 
             RateStatisticsResponse rateResponse = new RateStatisticsResponse();
-            rateResponse.addStatistics(rateData.getStatistics());
+            rateResponse.addStatistics(statistics);
+            rateResponse.addUntrimmedStatistics(processUntrimmedStatistics(report, hostRole));
 
             context.json(rateResponse);
         }
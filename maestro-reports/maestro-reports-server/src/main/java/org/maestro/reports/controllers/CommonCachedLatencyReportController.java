@@ -17,50 +17,25 @@
 
 package org.maestro.reports.controllers;
 
-import org.ehcache.Cache;
-import org.ehcache.CacheManager;
-import org.ehcache.config.builders.CacheConfigurationBuilder;
-import org.ehcache.config.builders.CacheManagerBuilder;
-import org.ehcache.config.builders.ExpiryPolicyBuilder;
-import org.ehcache.config.builders.ResourcePoolsBuilder;
 import org.maestro.plotter.common.serializer.MaestroSerializer;
 import org.maestro.plotter.latency.serializer.LatencyDistribution;
 import org.maestro.plotter.latency.serializer.SmoothLatencySerializer;
+import org.maestro.reports.cache.ReportDataCache;
+import org.maestro.reports.cache.ReportDataWeights;
 import org.maestro.reports.dto.Report;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.time.Duration;
 
 abstract class CommonCachedLatencyReportController<T> extends AbstractReportFileController {
     private static final Logger logger = LoggerFactory.getLogger(CommonCachedLatencyReportController.class);
     private static final String REPORT_FILE_NAME = "receiverd-latency.hdr";
 
-    private static CacheManager cacheManager;
-    private static Cache<File, LatencyDistribution> latencyDistributionCache;
+    private static final String LATENCY_DISTRIBUTION_KIND = "latencyDistribution";
 
-    protected CommonCachedLatencyReportController() {
-        if (cacheManager == null) {
-            synchronized (this) {
-                if (cacheManager == null) {
-                    CacheConfigurationBuilder<File, LatencyDistribution> config = CacheConfigurationBuilder
-                            .newCacheConfigurationBuilder(File.class, LatencyDistribution.class, ResourcePoolsBuilder.heap(30))
-                            .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofMinutes(30)));
-
-                    cacheManager = CacheManagerBuilder.newCacheManagerBuilder()
-                            .withCache("latDistribution",config)
-                            .build();
-
-                    cacheManager.init();
-
-                    latencyDistributionCache = cacheManager.getCache("latDistribution", File.class,
-                            LatencyDistribution.class);
-                }
-            }
-        }
-    }
+    private final ReportDataCache cache = ReportDataCache.getInstance();
 
     final protected void processReports(final Report report, final T latencyDistribution) {
         File file = getReportFile(report, REPORT_FILE_NAME);
@@ -68,16 +43,12 @@ abstract class CommonCachedLatencyReportController<T> extends AbstractReportFile
         try {
             logger.info("Processing report data for {}", file);
 
-            LatencyDistribution data = latencyDistributionCache.get(file);
-            if (data == null) {
-                MaestroSerializer<?> serializer = new SmoothLatencySerializer();
-                data = (LatencyDistribution) serializer.serialize(file);
+            LatencyDistribution data = cache.get(file, LATENCY_DISTRIBUTION_KIND, LatencyDistribution.class,
+                    ReportDataWeights::weigh, () -> {
+                        MaestroSerializer<?> serializer = new SmoothLatencySerializer();
 
-                latencyDistributionCache.put(file, data);
-            }
-            else {
-                logger.debug("File {} is cached, no processing required", file);
-            }
+                        return (LatencyDistribution) serializer.serialize(file);
+                    });
 
             setResponseData(latencyDistribution, data);
         } catch (IOException e) {
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.reports.controllers;
+
+import io.javalin.Context;
+import org.maestro.plotter.utils.IndexedHistogramLogReader;
+import org.maestro.reports.dao.ReportDao;
+import org.maestro.reports.dao.exceptions.DataNotFoundException;
+import org.maestro.reports.dto.Report;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Base class for the controllers that query the latencies within a time window. The window is set by
+ * the optional "start" and "end" query parameters, in milliseconds since the start of the test, and
+ * only the intervals within it are decoded.
+ */
+abstract class CommonIndexedLatencyReportController extends AbstractReportFileController {
+    private static final Logger logger = LoggerFactory.getLogger(CommonIndexedLatencyReportController.class);
+    private static final String REPORT_FILE_NAME = "receiverd-latency.hdr";
+
+    private final ReportDao reportDao = new ReportDao();
+
+    protected static long queryParam(final Context context, final String name, long defaultValue) {
+        final String value = context.queryParam(name);
+
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+
+        return Long.parseLong(value);
+    }
+
+    @Override
+    public void handle(Context context) {
+        try {
+            int id = Integer.parseInt(context.param("id"));
+
+            Report report = reportDao.fetch(id);
+            File file = getReportFile(report, REPORT_FILE_NAME);
+
+            logger.info("Processing windowed report data for {}", file);
+            try (IndexedHistogramLogReader reader = new IndexedHistogramLogReader(file)) {
+                final long testStart = reader.getStartTimeStamp();
+
+                long start = testStart + queryParam(context, "start", 0);
+                long end = testStart + queryParam(context, "end", reader.getEndTimeStamp() - testStart);
+
+                context.json(process(context, reader, start, end));
+            }
+        }
+        catch (DataNotFoundException e) {
+            context.status(404);
+            context.result(String.format("Not found: %s", e.getMessage()));
+        }
+        catch (IllegalArgumentException e) {
+            context.status(400);
+            context.result(String.format("Bad request: %s", e.getMessage()));
+        }
+        catch (Throwable t) {
+            context.status(500);
+            context.result(String.format("Internal server error: %s", t.getMessage()));
+        }
+    }
+
+    /**
+     * Builds the response for the given window
+     * @param context the request context
+     * @param reader the indexed reader for the latency file
+     * @param start the start of the window (in milliseconds since the epoch, inclusive)
+     * @param end the end of the window (in milliseconds since the epoch, exclusive)
+     * @return the response
+     * @throws IOException if unable to read the latency file
+     */
+    abstract Object process(Context context, IndexedHistogramLogReader reader, long start, long end)
+            throws IOException;
+}
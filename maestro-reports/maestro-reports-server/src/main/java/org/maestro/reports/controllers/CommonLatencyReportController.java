@@ -26,23 +26,30 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 abstract class CommonLatencyReportController extends CommonCachedLatencyReportController<LatencyResponse> {
+    private static void setCategories(LatencyResponse latencyDistribution, Latency latency) {
+        if (latencyDistribution.getCategories().isEmpty()) {
+            List<String> categories = latency.getPercentiles()
+                    .stream().map(String::valueOf).collect(Collectors.toList());
+            latencyDistribution.getCategories().addAll(categories);
+        }
+    }
+
     protected void setResponseData(LatencyResponse latencyDistribution, LatencyDistribution data) {
         Map<String, Latency> values = data.getLatencyDistribution();
 
         Latency serviceTimeLatency = values.get("serviceTime");
 
         if (serviceTimeLatency != null) {
-            if (latencyDistribution.getCategories().isEmpty()) {
-                List<String> categories = serviceTimeLatency.getPercentiles()
-                        .stream().map(String::valueOf).collect(Collectors.toList());
-                latencyDistribution.getCategories().addAll(categories);
-            }
+            setCategories(latencyDistribution, serviceTimeLatency);
 
             latencyDistribution.setServiceTime(serviceTimeLatency.getValues());
         }
 
         Latency responseTimeLatency = values.get("responseTime");
         if (responseTimeLatency != null) {
+            // Open model tests may have only the response time
+            setCategories(latencyDistribution, responseTimeLatency);
+
             latencyDistribution.setResponseTime(responseTimeLatency.getValues());
         }
     }
@@ -19,23 +19,34 @@ package org.maestro.reports.controllers;
 
 import org.maestro.plotter.latency.serializer.Latency;
 import org.maestro.plotter.latency.serializer.LatencyDistribution;
+import org.maestro.plotter.latency.serializer.Statistics;
 import org.maestro.reports.controllers.common.LatencyStatisticsResponse;
 
 import java.util.Map;
 
 abstract class CommonLatencyStatisticsReportController extends CommonCachedLatencyReportController<LatencyStatisticsResponse> {
 
+    private static Statistics untrimmed(final Latency latency) {
+        if (latency.getUntrimmedStatistics() == null) {
+            return latency.getStatistics();
+        }
+
+        return latency.getUntrimmedStatistics();
+    }
+
     protected void setResponseData(LatencyStatisticsResponse latencyStatisticsResponse, LatencyDistribution data) {
         Map<String, Latency> values = data.getLatencyDistribution();
 
         Latency serviceTimeLatency = values.get("serviceTime");
         if (serviceTimeLatency != null) {
             latencyStatisticsResponse.getServiceTimeStatistics().add(serviceTimeLatency.getStatistics());
+            latencyStatisticsResponse.getUntrimmedServiceTimeStatistics().add(untrimmed(serviceTimeLatency));
         }
 
         Latency responseTimeLatency = values.get("responseTime");
         if (responseTimeLatency != null) {
             latencyStatisticsResponse.getResponseTimeStatistics().add(responseTimeLatency.getStatistics());
+            latencyStatisticsResponse.getUntrimmedResponseTimeStatistics().add(untrimmed(responseTimeLatency));
         }
     }
 }
@@ -18,23 +18,20 @@
 package org.maestro.reports.controllers;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
-import org.ehcache.Cache;
-import org.ehcache.CacheManager;
-import org.ehcache.config.builders.CacheConfigurationBuilder;
-import org.ehcache.config.builders.CacheManagerBuilder;
-import org.ehcache.config.builders.ExpiryPolicyBuilder;
-import org.ehcache.config.builders.ResourcePoolsBuilder;
 import org.jetbrains.annotations.NotNull;
 import org.maestro.common.HostTypes;
 import org.maestro.common.exceptions.MaestroException;
 import org.maestro.plotter.common.serializer.SingleData;
+import org.maestro.plotter.common.statistics.Statistics;
+import org.maestro.plotter.rate.RateStatisticsReader;
 import org.maestro.plotter.rate.serializer.RateSerializer;
+import org.maestro.reports.cache.ReportDataCache;
+import org.maestro.reports.cache.ReportDataWeights;
 import org.maestro.reports.controllers.common.Response;
 import org.maestro.reports.dto.Report;
 
 import java.io.File;
 import java.io.IOException;
-import java.time.Duration;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
@@ -64,28 +61,11 @@ abstract class CommonRateReportController extends AbstractReportFileController {
         }
     }
 
-    private static CacheManager cacheManager;
-    private static Cache<File, SingleData> reportCache;
+    private static final String RATE_KIND = "rate";
+    private static final String STATISTICS_KIND = "rateStatistics";
+    private static final String UNTRIMMED_STATISTICS_KIND = "untrimmedRateStatistics";
 
-    protected CommonRateReportController() {
-        if (cacheManager == null) {
-            synchronized (this) {
-                if (cacheManager == null) {
-                    CacheConfigurationBuilder<File, SingleData> config = CacheConfigurationBuilder
-                            .newCacheConfigurationBuilder(File.class, SingleData.class, ResourcePoolsBuilder.heap(30))
-                            .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofMinutes(30)));
-
-                    cacheManager = CacheManagerBuilder.newCacheManagerBuilder()
-                            .withCache("rateReport",config)
-                            .build();
-
-                    cacheManager.init();
-
-                    reportCache = cacheManager.getCache("rateReport", File.class, SingleData.class);
-                }
-            }
-        }
-    }
+    private final ReportDataCache cache = ReportDataCache.getInstance();
 
     @NotNull
     protected File getReportFileForRole(final Report report, final String hostHole) {
@@ -109,16 +89,50 @@ abstract class CommonRateReportController extends AbstractReportFileController {
     protected SingleData<Long> processReport(final Report report, final String hostRole) throws IOException {
         File reportFile = getReportFileForRole(report, hostRole);
 
-        @SuppressWarnings("unchecked") SingleData<Long> ret = reportCache.get(reportFile);
-        if (ret == null) {
-            RateSerializer rateSerializer = new RateSerializer();
-            ret = rateSerializer.serialize(reportFile);
+        @SuppressWarnings("unchecked") SingleData<Long> ret = cache.get(reportFile, RATE_KIND, SingleData.class,
+                ReportDataWeights::weigh, () -> new RateSerializer().serialize(reportFile));
+
+        return ret;
+    }
 
-            reportCache.put(reportFile, ret);
+
+    /**
+     * Gets the rate statistics for the steady state of the test (ie.: excluding the warm-up and the
+     * cool-down). Unless the rate data is already loaded, the statistics are
+     * calculated straight from the rate file, without loading the data in memory
+     * @param report the report
+     * @param hostRole the host role
+     * @return the rate statistics
+     * @throws IOException if unable to read the rate file
+     */
+    protected Statistics processStatistics(final Report report, final String hostRole) throws IOException {
+        File reportFile = getReportFileForRole(report, hostRole);
+
+        SingleData<?> data = cache.peek(reportFile, RATE_KIND, SingleData.class);
+        if (data != null) {
+            return data.getStatistics();
         }
 
-        return ret;
+        return cache.get(reportFile, STATISTICS_KIND, Statistics.class, ReportDataWeights::weigh,
+                () -> new RateStatisticsReader().read(reportFile));
     }
 
+    /**
+     * Gets the rate statistics for the whole test, including the warm-up and the cool-down
+     * @param report the report
+     * @param hostRole the host role
+     * @return the rate statistics
+     * @throws IOException if unable to read the rate file
+     */
+    protected Statistics processUntrimmedStatistics(final Report report, final String hostRole) throws IOException {
+        File reportFile = getReportFileForRole(report, hostRole);
+
+        SingleData<?> data = cache.peek(reportFile, RATE_KIND, SingleData.class);
+        if (data != null) {
+            return data.getUntrimmedStatistics() == null ? data.getStatistics() : data.getUntrimmedStatistics();
+        }
 
+        return cache.get(reportFile, UNTRIMMED_STATISTICS_KIND, Statistics.class, ReportDataWeights::weigh,
+                () -> new RateStatisticsReader(false).read(reportFile));
+    }
 }
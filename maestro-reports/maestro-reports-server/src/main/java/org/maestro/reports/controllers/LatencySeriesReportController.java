@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.reports.controllers;
+
+import io.javalin.Context;
+import org.HdrHistogram.Histogram;
+import org.maestro.plotter.utils.HistogramLogIndex;
+import org.maestro.plotter.utils.IndexedHistogramLogReader;
+import org.maestro.reports.controllers.common.LatencySeriesResponse;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Serves the time series of the latency percentiles within a time window. Each point of the series
+ * accumulates the intervals within a step, set by the optional "step" query parameter (in milliseconds).
+ * By default, the step is the reporting interval of the test
+ */
+public class LatencySeriesReportController extends CommonIndexedLatencyReportController {
+    private static final long DEFAULT_STEP = 1000;
+
+    private static long defaultStep(final HistogramLogIndex index) {
+        if (index.size() == 0) {
+            return DEFAULT_STEP;
+        }
+
+        final long length = index.getEndTimeStamp(0) - index.getStartTimeStamp(0);
+        return length > 0 ? length : DEFAULT_STEP;
+    }
+
+    @Override
+    Object process(Context context, IndexedHistogramLogReader reader, long start, long end) throws IOException {
+        final long step = queryParam(context, "step", defaultStep(reader.getIndex()));
+        LatencySeriesResponse response = new LatencySeriesResponse();
+
+        for (Histogram histogram : reader.series(start, end, step)) {
+            response.getPeriods().add(new Date(histogram.getStartTimeStamp()));
+            response.getP50().add(histogram.getValueAtPercentile(50.0));
+            response.getP90().add(histogram.getValueAtPercentile(90.0));
+            response.getP99().add(histogram.getValueAtPercentile(99.0));
+            response.getMax().add(histogram.getMaxValue());
+        }
+
+        return response;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.reports.controllers;
+
+import io.javalin.Context;
+import org.HdrHistogram.Histogram;
+import org.maestro.plotter.latency.HdrLogProcessorWrapper;
+import org.maestro.plotter.latency.SmoothHdrLogProcessorWrapper;
+import org.maestro.plotter.latency.common.HdrData;
+import org.maestro.plotter.latency.serializer.Latency;
+import org.maestro.plotter.latency.serializer.LatencySerializerHandler;
+import org.maestro.plotter.utils.IndexedHistogramLogReader;
+import org.maestro.reports.controllers.common.LatencyWindowResponse;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Serves the latency distribution for the intervals within a time window (ie.: the distribution
+ * between the minutes 10 and 20 of the test)
+ */
+public class LatencyWindowReportController extends CommonIndexedLatencyReportController {
+
+    @Override
+    Object process(Context context, IndexedHistogramLogReader reader, long start, long end) throws IOException {
+        LatencyWindowResponse response = new LatencyWindowResponse();
+
+        response.setStart(new Date(start));
+        response.setEnd(new Date(end));
+
+        Histogram histogram = reader.accumulate(start, end);
+        if (histogram != null) {
+            HdrLogProcessorWrapper processorWrapper = new SmoothHdrLogProcessorWrapper();
+            HdrData hdrData = processorWrapper.convertLog(histogram);
+
+            Latency latency = new Latency();
+            new LatencySerializerHandler(latency).handle(histogram, null);
+
+            response.setPercentiles(hdrData.getPercentile());
+            response.setValues(hdrData.getValue());
+            response.setStatistics(latency.getStatistics());
+        }
+
+        return response;
+    }
+}
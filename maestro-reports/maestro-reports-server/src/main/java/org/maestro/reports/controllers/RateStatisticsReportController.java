@@ -17,7 +17,7 @@
 package org.maestro.reports.controllers;
 
 import io.javalin.Context;
-import org.maestro.plotter.common.serializer.SingleData;
+import org.maestro.plotter.common.statistics.Statistics;
 import org.maestro.reports.controllers.common.RateStatisticsResponse;
 import org.maestro.reports.dao.ReportDao;
 import org.maestro.reports.dao.exceptions.DataNotFoundException;
@@ -33,10 +33,11 @@ public class RateStatisticsReportController extends CommonRateReportController {
 
             Report report = reportDao.fetch(id);
 
-            SingleData<Long> rateData = processReport(report, report.getTestHostRole());
+            Statistics statistics = processStatistics(report, report.getTestHostRole());
 
             RateStatisticsResponse rateResponse = new RateStatisticsResponse();
-            rateResponse.addStatistics(rateData.getStatistics());
+            rateResponse.addStatistics(statistics);
+            rateResponse.addUntrimmedStatistics(processUntrimmedStatistics(report, report.getTestHostRole()));
 
             context.json(rateResponse);
         }
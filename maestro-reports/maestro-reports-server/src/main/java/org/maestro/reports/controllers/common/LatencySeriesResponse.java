@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.reports.controllers.common;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+
+public class LatencySeriesResponse implements Response {
+    @JsonProperty("Periods")
+    private final List<Date> periods = new LinkedList<>();
+
+    @JsonProperty("p50")
+    private final List<Long> p50 = new LinkedList<>();
+
+    @JsonProperty("p90")
+    private final List<Long> p90 = new LinkedList<>();
+
+    @JsonProperty("p99")
+    private final List<Long> p99 = new LinkedList<>();
+
+    @JsonProperty("Max")
+    private final List<Long> max = new LinkedList<>();
+
+    public List<Date> getPeriods() {
+        return periods;
+    }
+
+    public List<Long> getP50() {
+        return p50;
+    }
+
+    public List<Long> getP90() {
+        return p90;
+    }
+
+    public List<Long> getP99() {
+        return p99;
+    }
+
+    public List<Long> getMax() {
+        return max;
+    }
+}
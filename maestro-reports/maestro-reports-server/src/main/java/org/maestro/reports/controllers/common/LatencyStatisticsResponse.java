@@ -29,6 +29,12 @@ public class LatencyStatisticsResponse implements Response {
     @JsonProperty("ResponseTimeStatistics")
     private List<Statistics> responseTimeStatistics = new LinkedList<>();
 
+    @JsonProperty("UntrimmedServiceTimeStatistics")
+    private final List<Statistics> untrimmedServiceTimeStatistics = new LinkedList<>();
+
+    @JsonProperty("UntrimmedResponseTimeStatistics")
+    private final List<Statistics> untrimmedResponseTimeStatistics = new LinkedList<>();
+
     public List<Statistics> getServiceTimeStatistics() {
         return serviceTimeStatistics;
     }
@@ -37,6 +43,14 @@ public class LatencyStatisticsResponse implements Response {
         return responseTimeStatistics;
     }
 
+    public List<Statistics> getUntrimmedServiceTimeStatistics() {
+        return untrimmedServiceTimeStatistics;
+    }
+
+    public List<Statistics> getUntrimmedResponseTimeStatistics() {
+        return untrimmedResponseTimeStatistics;
+    }
+
     public void setServiceTimeStatistics(List<Statistics> serviceTimeStatistics) {
         this.serviceTimeStatistics = serviceTimeStatistics;
     }
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.reports.controllers.common;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.maestro.plotter.latency.serializer.Statistics;
+
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+
+public class LatencyWindowResponse implements Response {
+    @JsonProperty("Start")
+    private Date start;
+
+    @JsonProperty("End")
+    private Date end;
+
+    @JsonProperty("Percentiles")
+    private List<Double> percentiles = new LinkedList<>();
+
+    @JsonProperty("Values")
+    private List<Double> values = new LinkedList<>();
+
+    @JsonProperty("Statistics")
+    private Statistics statistics;
+
+    public Date getStart() {
+        return start;
+    }
+
+    public void setStart(Date start) {
+        this.start = start;
+    }
+
+    public Date getEnd() {
+        return end;
+    }
+
+    public void setEnd(Date end) {
+        this.end = end;
+    }
+
+    public List<Double> getPercentiles() {
+        return percentiles;
+    }
+
+    public void setPercentiles(List<Double> percentiles) {
+        this.percentiles = percentiles;
+    }
+
+    public List<Double> getValues() {
+        return values;
+    }
+
+    public void setValues(List<Double> values) {
+        this.values = values;
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    public void setStatistics(Statistics statistics) {
+        this.statistics = statistics;
+    }
+}
@@ -26,6 +26,9 @@ public class RateStatisticsResponse implements Response {
     @JsonProperty("Statistics")
     private final List<Statistics> statistics = new LinkedList<>();
 
+    @JsonProperty("UntrimmedStatistics")
+    private final List<Statistics> untrimmedStatistics = new LinkedList<>();
+
     public List<Statistics> getStatistics() {
         return statistics;
     }
@@ -34,6 +37,14 @@ public class RateStatisticsResponse implements Response {
         this.statistics.add(statistics);
     }
 
+    public List<Statistics> getUntrimmedStatistics() {
+        return untrimmedStatistics;
+    }
+
+    public void addUntrimmedStatistics(Statistics statistics) {
+        this.untrimmedStatistics.add(statistics);
+    }
+
     public static String categoryName(int testId, int testNumber, String name) {
         return String.format("%d/%d %s", testId, testNumber, name);
     }
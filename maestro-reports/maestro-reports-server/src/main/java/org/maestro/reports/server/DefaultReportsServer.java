@@ -65,6 +65,8 @@ public class DefaultReportsServer implements ReportsServer {
         app.get("/api/report/report/:id/properties", new ReportPropertiesController());
         app.get("/api/report/latency/all/report/:id", new LatencyReportController());
         app.get("/api/report/latency/statistics/report/:id", new LatencyStatisticsReportController());
+        app.get("/api/report/latency/window/report/:id", new LatencyWindowReportController());
+        app.get("/api/report/latency/series/report/:id", new LatencySeriesReportController());
         app.get("/api/report/rate/report/:id", new RateReportController());
         app.get("/api/report/rate/statistics/report/:id", new RateStatisticsReportController());
 
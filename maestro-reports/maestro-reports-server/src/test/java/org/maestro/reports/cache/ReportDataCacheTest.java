@@ -0,0 +1,218 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.reports.cache;
+
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ReportDataCacheTest {
+    private static final long TIME_TO_LIVE = 60000;
+    private static final String KIND = "test";
+
+    private final List<File> files = new ArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private CacheManager cacheManager;
+
+    @Before
+    public void setUp() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            final File file = File.createTempFile("report-data-cache", ".dat");
+
+            Files.write(file.toPath(), ("file " + i).getBytes(StandardCharsets.US_ASCII));
+            files.add(file);
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (File file : files) {
+            Files.deleteIfExists(file.toPath());
+        }
+
+        if (cacheManager != null) {
+            cacheManager.close();
+        }
+    }
+
+    private Cache<ReportDataKey, Serializable> newTier(final Duration timeToLive) {
+        cacheManager = CacheManagerBuilder.newCacheManagerBuilder()
+                .withCache("test", CacheConfigurationBuilder
+                        .newCacheConfigurationBuilder(ReportDataKey.class, Serializable.class,
+                                ResourcePoolsBuilder.heap(100))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive)))
+                .build(true);
+
+        return cacheManager.getCache("test", ReportDataKey.class, Serializable.class);
+    }
+
+    /*
+     * Loads 40 bytes of data for the file
+     */
+    private String get(final ReportDataCache cache, final File file) throws IOException {
+        return cache.get(file, KIND, String.class, String::length, () -> {
+            loads.incrementAndGet();
+
+            return String.format("%-40s", file.getName()).substring(0, 40);
+        });
+    }
+
+    @Test
+    public void testCacheHit() throws IOException {
+        final ReportDataCache cache = new ReportDataCache(1024, TIME_TO_LIVE, null);
+
+        final String first = get(cache, files.get(0));
+        final String second = get(cache, files.get(0));
+
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+        assertEquals(40, cache.getWeight());
+        assertSame(first, cache.peek(files.get(0), KIND, String.class));
+    }
+
+    @Test
+    public void testPeekDoesNotLoad() {
+        final ReportDataCache cache = new ReportDataCache(1024, TIME_TO_LIVE, null);
+
+        assertNull(cache.peek(files.get(0), KIND, String.class));
+        assertEquals(0, loads.get());
+        assertEquals(0, cache.versionCount());
+    }
+
+    @Test
+    public void testEvictionByWeightWithoutTier() throws IOException {
+        final ReportDataCache cache = new ReportDataCache(100, TIME_TO_LIVE, null);
+
+        for (File file : files) {
+            get(cache, file);
+        }
+
+        // Only 2 entries of 40 bytes fit in 100 bytes: the least recently used one is evicted
+        assertEquals(3, loads.get());
+        assertEquals(80, cache.getWeight());
+        assertNull(cache.peek(files.get(0), KIND, String.class));
+        assertNotNull(cache.peek(files.get(1), KIND, String.class));
+        assertNotNull(cache.peek(files.get(2), KIND, String.class));
+        assertEquals(2, cache.versionCount());
+
+        get(cache, files.get(0));
+        assertEquals(4, loads.get());
+        assertEquals(80, cache.getWeight());
+        assertEquals(2, cache.versionCount());
+    }
+
+    @Test
+    public void testEvictionByWeightRespectsRecentUse() throws IOException {
+        final ReportDataCache cache = new ReportDataCache(100, TIME_TO_LIVE, null);
+
+        get(cache, files.get(0));
+        get(cache, files.get(1));
+        get(cache, files.get(0));
+        get(cache, files.get(2));
+
+        assertEquals(3, loads.get());
+        assertNotNull(cache.peek(files.get(0), KIND, String.class));
+        assertNull(cache.peek(files.get(1), KIND, String.class));
+    }
+
+    @Test
+    public void testEvictionByWeightWithTier() throws IOException {
+        final ReportDataCache cache = new ReportDataCache(100, TIME_TO_LIVE,
+                newTier(Duration.ofMillis(TIME_TO_LIVE)));
+
+        for (File file : files) {
+            get(cache, file);
+        }
+
+        assertEquals(3, loads.get());
+        assertEquals(80, cache.getWeight());
+        assertEquals(3, cache.versionCount());
+
+        // The evicted data is retrieved from the tier instead of loaded again
+        assertNotNull(cache.peek(files.get(0), KIND, String.class));
+        get(cache, files.get(0));
+        assertEquals(3, loads.get());
+        assertEquals(80, cache.getWeight());
+    }
+
+    @Test
+    public void testExpiredTierDataIsForgotten() throws Exception {
+        final ReportDataCache cache = new ReportDataCache(40, 100, newTier(Duration.ofMillis(100)));
+
+        get(cache, files.get(0));
+        get(cache, files.get(1));
+        assertEquals(2, cache.versionCount());
+
+        Thread.sleep(200);
+
+        // Storing new data prunes the data expired on the tier
+        get(cache, files.get(2));
+        assertEquals(1, cache.versionCount());
+        assertNull(cache.peek(files.get(0), KIND, String.class));
+        assertEquals(1, cache.versionCount());
+    }
+
+    @Test
+    public void testModifiedFileIsLoadedAgain() throws IOException {
+        final ReportDataCache cache = new ReportDataCache(1024, TIME_TO_LIVE, null);
+        final File file = files.get(0);
+
+        get(cache, file);
+        Files.write(file.toPath(), "modified file".getBytes(StandardCharsets.US_ASCII));
+        get(cache, file);
+
+        assertEquals(2, loads.get());
+        assertEquals(40, cache.getWeight());
+        assertEquals(1, cache.versionCount());
+    }
+
+    @Test
+    public void testFailedLoadIsNotTracked() {
+        final ReportDataCache cache = new ReportDataCache(1024, TIME_TO_LIVE, null);
+
+        try {
+            cache.get(files.get(0), KIND, String.class, String::length, () -> {
+                throw new IOException("unable to read the file");
+            });
+
+            fail("The load failure should have been reported");
+        }
+        catch (IOException e) {
+            assertEquals(0, cache.versionCount());
+            assertEquals(0, cache.getWeight());
+        }
+    }
+}
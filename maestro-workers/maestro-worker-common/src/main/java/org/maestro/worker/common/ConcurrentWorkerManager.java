@@ -21,6 +21,7 @@ import org.maestro.client.exchange.support.PeerInfo;
 import org.maestro.client.notes.*;
 import org.maestro.common.ConfigurationWrapper;
 import org.maestro.common.Role;
+import org.maestro.common.arrival.ArrivalProcessFactory;
 import org.maestro.common.client.notes.MaestroNote;
 import org.maestro.common.evaluators.HardLatencyEvaluator;
 import org.maestro.common.evaluators.LatencyEvaluator;
@@ -117,8 +118,29 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
                 }
             }
 
+            if (MaestroSenderWorker.class.isAssignableFrom(workerClass) && isOpenModel()) {
+                logger.debug("Setting up the observer: worker service time writer");
+                long reportingInterval = config.getLong("worker.reporting.interval", 10000);
+                WorkerLatencyWriter serviceTimeWriter = new WorkerLatencyWriter(testLogDir, workers,
+                        MaestroSenderWorker.class, WorkerLatencyWriter.SENDER_SERVICE_TIME_FILE, null,
+                        reportingInterval);
+                container.getObservers().add(new LatencyWriterObserver(serviceTimeWriter));
+            }
+
+            ScheduleRecorder scheduleRecorder = null;
+            if (MaestroSenderWorker.class.isAssignableFrom(workerClass) && isScheduleRecorded()) {
+                logger.debug("Setting up the schedule recorder for the {} arrival process",
+                        getWorkerOptions().getArrivalProcess());
+                scheduleRecorder = new ScheduleRecorder(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+
+                for (MaestroWorker worker : workers) {
+                    ((MaestroSenderWorker) worker).setScheduleRecorder(scheduleRecorder);
+                }
+            }
+
             logger.debug("Setting up the observer: worker rate writer");
-            WorkerRateWriter workerRateWriter = new WorkerRateWriter(testLogDir, workers);
+            WorkerRateWriter workerRateWriter = new WorkerRateWriter(testLogDir, workers, container.getCounters(),
+                    scheduleRecorder);
             container.getObservers().add(new RateWriterObserver(workerRateWriter));
 
             logger.debug("Setting up the observer: worker stale check");
@@ -152,6 +174,19 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
         return false;
     }
 
+    /*
+     * The schedule is only interesting for bounded rate tests that do not send at a regular pace
+     */
+    private boolean isScheduleRecorded() {
+        final String rate = getWorkerOptions().getRate();
+
+        if (rate == null || Long.parseLong(rate) <= 0) {
+            return false;
+        }
+
+        return !ArrivalProcessFactory.DEFAULT_ARRIVAL_SPEC.equals(getWorkerOptions().getArrivalProcess());
+    }
+
     private WorkerLatencyWriter getLatencyWriter(File testLogDir, List<MaestroWorker> workers) {
 
         if (latencyEvaluator == null) {
@@ -236,6 +271,7 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
         if (throughputStats != null) {
             statsResponse.setRate(throughputStats.getRate());
             statsResponse.setCount(throughputStats.getCount());
+            statsResponse.setWorkerRates(throughputStats.getWorkerRates());
         }
         else {
             statsResponse.setRate(0);
@@ -218,12 +218,17 @@ public abstract class MaestroWorkerManager extends AbstractMaestroPeer<MaestroEv
         logger.info("FCL for test {}: {}", testNumber, fcl);
         testProperties.setFcl(fcl);
 
+        final String arrivalProcess = workerOptions.getArrivalProcess();
+        logger.info("Arrival process for test {}: {}", testNumber, arrivalProcess);
+        testProperties.setArrivalProcess(arrivalProcess);
+
         final URLQuery urlQuery;
         try {
             urlQuery = new URLQuery(brokerURL);
 
             testProperties.setProtocol(urlQuery.getString("protocol", "AMQP"));
             testProperties.setLimitDestinations(urlQuery.getInteger("limitDestinations", 1));
+            testProperties.setOpenModel(urlQuery.getBoolean("openModel", false));
         } catch (URISyntaxException e) {
             logger.warn("The URL provided by the front-end is invalid/non-parseable");
 
@@ -239,6 +244,24 @@ public abstract class MaestroWorkerManager extends AbstractMaestroPeer<MaestroEv
     }
 
 
+    /**
+     * Whether the test schedules the messages using the open model (ie.: the messages are stamped with
+     * their intended send time)
+     * @return true if using the open model or false otherwise
+     */
+    protected boolean isOpenModel() {
+        try {
+            final URLQuery urlQuery = new URLQuery(workerOptions.getBrokerURL());
+
+            return urlQuery.getBoolean("openModel", false);
+        } catch (URISyntaxException e) {
+            logger.warn("The URL provided by the front-end is invalid/non-parseable");
+        }
+
+        return false;
+    }
+
+
     protected void writeTestProperties(final File testLogDir) throws IOException, DurationParseException {
         final String testNumber = testLogDir.getName();
         final TestProperties testProperties = getTestProperties(testNumber);
@@ -389,6 +412,12 @@ public abstract class MaestroWorkerManager extends AbstractMaestroPeer<MaestroEv
         final LocationTypeInfo locationTypeInfo = new LocationTypeInfo(files.length);
 
         for (File file : files) {
+            // Requests for the missing chunks of a file are for that file only
+            if (note.getFileName() != null && !note.getFileName().equals(file.getName())) {
+                index++;
+                continue;
+            }
+
             logger.debug("Sending log file {} with location type {}", file.getName(),
                     note.getLocationType());
 
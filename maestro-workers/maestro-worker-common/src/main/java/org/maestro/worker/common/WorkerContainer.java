@@ -27,11 +27,13 @@ import org.maestro.worker.common.watchdog.WatchdogObserver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Method;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -49,8 +51,10 @@ public final class WorkerContainer {
     private static final AbstractConfiguration config = ConfigurationWrapper.getConfig();
 
     private final List<MaestroWorker> workers = new LinkedList<>();
+    private volatile WorkerCounters counters = new WorkerCounters(0);
     private final List<WatchdogObserver> observers = new LinkedList<>();
     private static final long TIMEOUT_STOP_WORKER_MILLIS;
+    private static final String EXECUTOR_TYPE;
 
     private ExecutorService workerExecutorService;
 
@@ -63,27 +67,44 @@ public final class WorkerContainer {
 
     static {
         TIMEOUT_STOP_WORKER_MILLIS = config.getLong("worker.stop.timeout", 1000);
+        EXECUTOR_TYPE = config.getString("worker.executor.type", "platform");
     }
 
-
     /**
-     * Create the worker list
-     * @param initializer the test worker initializer
-     * @param count how many workers to create
-     * @return A list of workers
-     * @throws IllegalAccessException
-     * @throws InstantiationException
+     * Creates an executor that runs each worker on its own virtual thread. Virtual threads are only
+     * available on Java 21 or newer, therefore they are looked up reflectively
+     * @return the executor or null if virtual threads are not supported by the running JVM
      */
-    public List<MaestroWorker> create(final WorkerInitializer initializer, int count) throws IllegalAccessException, InstantiationException {
-        workers.clear();
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            final Method name = builderClass.getMethod("name", String.class, long.class);
+            final Method factory = builderClass.getMethod("factory");
+            final Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor",
+                    ThreadFactory.class);
+
+            final Object builder = name.invoke(ofVirtual.invoke(null), "worker-", 1L);
+            final ThreadFactory threadFactory = (ThreadFactory) factory.invoke(builder);
+
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("Virtual threads are not supported by the running JVM ({}): using platform threads",
+                    System.getProperty("java.version"));
+            logger.debug("Unable to create the virtual thread executor: {}", e.getMessage(), e);
+        }
+
+        return null;
+    }
 
+    private static ExecutorService newPlatformThreadExecutor(int count) {
         if (count > Runtime.getRuntime().availableProcessors()) {
             logger.warn("Trying the create {} worker threads but there is only {} processors available. This can " +
                     "result in test instability and variability on the rate of load generation", count,
                     Runtime.getRuntime().availableProcessors());
         }
 
-        workerExecutorService = Executors.newFixedThreadPool(count, new ThreadFactory() {
+        return Executors.newFixedThreadPool(count, new ThreadFactory() {
             final AtomicInteger count = new AtomicInteger();
 
             @Override
@@ -91,15 +112,59 @@ public final class WorkerContainer {
                 return new Thread(runnable, String.format("worker-%d", count.incrementAndGet()));
             }
         });
+    }
+
+    /**
+     * Creates the executor for the workers
+     * @param executorType the executor type (either "platform" or "virtual", case-insensitive). Unknown
+     *                     types fall back to platform threads
+     * @param count how many workers will be run
+     * @return the executor
+     */
+    static ExecutorService newWorkerExecutor(final String executorType, int count) {
+        final String type = executorType == null ? "platform" : executorType.trim().toLowerCase(Locale.ROOT);
+
+        if ("virtual".equals(type)) {
+            final ExecutorService executorService = newVirtualThreadExecutor();
+
+            if (executorService != null) {
+                logger.info("Running {} workers on virtual threads", count);
+                return executorService;
+            }
+        }
+        else if (!"platform".equals(type)) {
+            logger.warn("Unknown worker executor type '{}' (expected either 'platform' or 'virtual'): using " +
+                    "platform threads", executorType);
+        }
+
+        return newPlatformThreadExecutor(count);
+    }
+
+
+    /**
+     * Create the worker list
+     * @param initializer the test worker initializer
+     * @param count how many workers to create
+     * @return A list of workers
+     * @throws IllegalAccessException
+     * @throws InstantiationException
+     */
+    public List<MaestroWorker> create(final WorkerInitializer initializer, int count) throws IllegalAccessException, InstantiationException {
+        workers.clear();
+
+        workerExecutorService = newWorkerExecutor(EXECUTOR_TYPE, count);
 
         startSignal = new CountDownLatch(count);
         endSignal = new CountDownLatch(count);
 
+        final WorkerCounters workerCounters = new WorkerCounters(count);
         for (int i = 0; i < count; i++) {
             final MaestroWorker worker = initializer.initialize(i, startSignal, endSignal);
 
+            workerCounters.register(i, worker);
             workers.add(worker);
         }
+        counters = workerCounters;
 
         watchdogExecutorService = Executors.newSingleThreadScheduledExecutor();
 
@@ -203,15 +268,9 @@ public final class WorkerContainer {
             return false;
         }
 
-        for (MaestroWorker worker : workers) {
-            // A worker should only be in "not running" state if it is being
-            // shutdown
-            if (!worker.isRunning()) {
-                return false;
-            }
-        }
-
-        return true;
+        // A worker should only be in "not running" state if it is being
+        // shutdown
+        return counters.allRunning();
     }
 
     /**
@@ -225,11 +284,11 @@ public final class WorkerContainer {
 
         ThroughputStats ret = new ThroughputStats();
 
-        long messageCount = 0;
-        for (MaestroWorker worker : workers) {
-            messageCount += worker.messageCount();
-        }
-        ret.setCount(messageCount);
+        final WorkerCounters workerCounters = counters;
+        final long[] workerCounts = new long[workerCounters.size()];
+
+        ret.setCount(workerCounters.snapshot(workerCounts));
+        ret.setWorkerCounts(workerCounts);
 
         LocalDateTime now = LocalDateTime.now();
         Duration duration = Duration.between(startTime, now);
@@ -266,6 +325,14 @@ public final class WorkerContainer {
         return null;
     }
 
+    /**
+     * Gets the message counters of the workers
+     * @return the message counters of the workers
+     */
+    public WorkerCounters getCounters() {
+        return counters;
+    }
+
     /**
      * Gets the observers setup of the workers
      * @return a list of observers
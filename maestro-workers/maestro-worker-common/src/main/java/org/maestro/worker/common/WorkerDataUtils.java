@@ -31,15 +31,63 @@ class WorkerDataUtils {
     private static final Logger logger = LoggerFactory.getLogger(WorkerDataUtils.class);
 
     public static <T extends MaestroWorker> BinaryRateWriter writer(final File reportFolder, final T worker) throws IOException {
+        return combinedWriter(reportFolder, worker, FileHeader.DEFAULT_SAMPLING_RESOLUTION);
+    }
+
+    /**
+     * Creates the writer for the combined rate of the workers
+     * @param reportFolder the report folder
+     * @param worker the worker
+     * @param samplingResolution the sampling resolution, in milliseconds
+     * @param <T> the worker type
+     * @return the writer (or null if the worker type is invalid)
+     * @throws IOException if unable to create the report file
+     */
+    public static <T extends MaestroWorker> BinaryRateWriter combinedWriter(final File reportFolder, final T worker,
+                                                                            int samplingResolution) throws IOException {
+        return writer(reportFolder, worker, "", samplingResolution);
+    }
+
+    /**
+     * Creates the writer for the rate of a single worker
+     * @param reportFolder the report folder
+     * @param worker the worker
+     * @param number the worker number
+     * @param <T> the worker type
+     * @return the writer (or null if the worker type is invalid)
+     * @throws IOException if unable to create the report file
+     */
+    public static <T extends MaestroWorker> BinaryRateWriter writer(final File reportFolder, final T worker,
+                                                                    int number) throws IOException {
+        return writer(reportFolder, worker, number, FileHeader.DEFAULT_SAMPLING_RESOLUTION);
+    }
+
+    /**
+     * Creates the writer for the rate of a single worker
+     * @param reportFolder the report folder
+     * @param worker the worker
+     * @param number the worker number
+     * @param samplingResolution the sampling resolution, in milliseconds
+     * @param <T> the worker type
+     * @return the writer (or null if the worker type is invalid)
+     * @throws IOException if unable to create the report file
+     */
+    public static <T extends MaestroWorker> BinaryRateWriter writer(final File reportFolder, final T worker,
+                                                                    int number, int samplingResolution) throws IOException {
+        return writer(reportFolder, worker, "-worker-" + number, samplingResolution);
+    }
+
+    private static <T extends MaestroWorker> BinaryRateWriter writer(final File reportFolder, final T worker,
+                                                                     final String suffix, int samplingResolution) throws IOException {
         assert worker != null : "Invalid worker type";
 
+        final FileHeader header = FileHeader.WRITER_DEFAULT_SENDER.withSamplingResolution(samplingResolution);
+
         if (worker instanceof MaestroSenderWorker) {
-            return new BinaryRateWriter(new File(reportFolder, "sender.dat"),
-                    FileHeader.WRITER_DEFAULT_SENDER);
+            return new BinaryRateWriter(new File(reportFolder, "sender" + suffix + ".dat"), header);
         }
         if (worker instanceof MaestroReceiverWorker) {
-            return new BinaryRateWriter(new File(reportFolder, "receiver.dat"),
-                    FileHeader.WRITER_DEFAULT_SENDER);
+            return new BinaryRateWriter(new File(reportFolder, "receiver" + suffix + ".dat"), header);
         }
 
         logger.error("Invalid worker class: {}", worker.getClass());
@@ -17,7 +17,10 @@
 package org.maestro.worker.common;
 
 import org.HdrHistogram.Histogram;
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.maestro.common.ConfigurationWrapper;
 import org.maestro.common.evaluators.LatencyEvaluator;
+import org.maestro.common.io.data.common.AccumulatedHistogramCache;
 import org.maestro.common.worker.MaestroReceiverWorker;
 import org.maestro.common.worker.MaestroWorker;
 import org.maestro.common.io.data.writers.LatencyWriter;
@@ -26,12 +29,24 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 public final class WorkerLatencyWriter implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(WorkerLatencyWriter.class);
+    private static final AbstractConfiguration config = ConfigurationWrapper.getConfig();
+    private static final boolean PER_WORKER_REPORTS = config.getBoolean("worker.reporting.per.worker", false);
+
+    /**
+     * The file containing the latencies recorded by the receivers
+     */
+    public static final String RECEIVER_LATENCY_FILE = "receiverd-latency.hdr";
+
+    /**
+     * The file containing the service time recorded by the senders
+     */
+    public static final String SENDER_SERVICE_TIME_FILE = "senderd-service-time.hdr";
 
     private static final class WorkerIntervalReport {
         private final MaestroWorker worker;
@@ -41,10 +56,12 @@ public final class WorkerLatencyWriter implements Runnable {
         private final boolean reportIntervalLatencies;
         private final long startReportingTime;
         private final LatencyEvaluator latencyEvaluator;
+        private final String tag;
 
         WorkerIntervalReport(LatencyWriter latencyWriter, MaestroWorker worker, boolean reportIntervalLatencies,
-                             long globalStartReportingTime, LatencyEvaluator latencyEvaluator) {
+                             long globalStartReportingTime, LatencyEvaluator latencyEvaluator, String tag) {
             this.latencyWriter = latencyWriter;
+            this.tag = tag;
             this.worker = worker;
             this.intervalHistogram = null;
             //We can't be sure the worker is already up & running
@@ -93,18 +110,43 @@ public final class WorkerLatencyWriter implements Runnable {
             this.lastReportTime = reportTime;
         }
 
-        void outputReport() {
+        void outputReport(final AccumulatedHistogram accumulated) {
             if (this.intervalHistogram != null && this.intervalHistogram.getTotalCount() > 0) {
+                this.intervalHistogram.setTag(tag);
                 this.latencyWriter.outputIntervalHistogram(this.intervalHistogram);
+                accumulated.add(this.intervalHistogram);
             }
         }
     }
 
+    /*
+     * Accumulates all the interval histograms written, so that they can be cached on a sidecar file
+     */
+    private static final class AccumulatedHistogram {
+        private Histogram histogram;
+
+        void add(final Histogram intervalHistogram) {
+            if (histogram == null) {
+                histogram = intervalHistogram.copy();
+                histogram.reset();
+                histogram.setAutoResize(true);
+                histogram.setStartTimeStamp(intervalHistogram.getStartTimeStamp());
+                histogram.setEndTimeStamp(intervalHistogram.getEndTimeStamp());
+            }
+
+            histogram.add(intervalHistogram);
+            histogram.setStartTimeStamp(Math.min(histogram.getStartTimeStamp(), intervalHistogram.getStartTimeStamp()));
+            histogram.setEndTimeStamp(Math.max(histogram.getEndTimeStamp(), intervalHistogram.getEndTimeStamp()));
+        }
+    }
+
     private final List<? extends MaestroWorker> workers;
     private final File reportFolder;
     private final long reportingIntervalMs;
     private final boolean reportIntervalLatencies;
     private LatencyEvaluator latencyEvaluator;
+    private final Class<? extends MaestroWorker> workerType;
+    private final String latencyFileName;
 
 
     public WorkerLatencyWriter(File reportFolder, List<? extends MaestroWorker> workers) {
@@ -113,15 +155,35 @@ public final class WorkerLatencyWriter implements Runnable {
         //the first sleep will be a very long one :)
         this.reportingIntervalMs = TimeUnit.DAYS.toMillis(365);
         this.reportIntervalLatencies = false;
+        this.workerType = MaestroReceiverWorker.class;
+        this.latencyFileName = RECEIVER_LATENCY_FILE;
+    }
+
+    public WorkerLatencyWriter(File reportFolder, List<? extends MaestroWorker> workers,
+                               final LatencyEvaluator latencyEvaluator, long reportingIntervalMs) {
+        this(reportFolder, workers, MaestroReceiverWorker.class, RECEIVER_LATENCY_FILE, latencyEvaluator,
+                reportingIntervalMs);
     }
 
+    /**
+     * Constructor
+     * @param reportFolder the report folder
+     * @param workers the workers
+     * @param workerType the type of the workers whose latencies are written
+     * @param latencyFileName the name of the latency file within the report folder
+     * @param latencyEvaluator an optional latency evaluator (may be null)
+     * @param reportingIntervalMs the reporting interval
+     */
     public WorkerLatencyWriter(File reportFolder, List<? extends MaestroWorker> workers,
+                               final Class<? extends MaestroWorker> workerType, final String latencyFileName,
                                final LatencyEvaluator latencyEvaluator, long reportingIntervalMs) {
         this.reportFolder = reportFolder;
         this.workers = workers;
         this.latencyEvaluator = latencyEvaluator;
         this.reportingIntervalMs = reportingIntervalMs;
         this.reportIntervalLatencies = true;
+        this.workerType = workerType;
+        this.latencyFileName = latencyFileName;
     }
 
     private static long getCurrentTimeMsecWithDelay(final long nextReportingTime) throws InterruptedException {
@@ -136,20 +198,31 @@ public final class WorkerLatencyWriter implements Runnable {
         logger.debug("Updating latency information every {} milliseconds", reportingIntervalMs);
 
         final long anyWorkers = this.workers.stream()
-                .filter(w -> w instanceof MaestroReceiverWorker).count();
-        //avoid creating any file if there aren't  any MaestroReceiverWorker
+                .filter(workerType::isInstance).count();
+        //avoid creating any file if there aren't any workers of the given type
         if (anyWorkers == 0) {
             return;
         }
 
-        try (LatencyWriter latencyWriter = new LatencyWriter(new File(reportFolder, "receiverd-latency.hdr"))) {
+        final File latencyFile = new File(reportFolder, latencyFileName);
+        final AccumulatedHistogram accumulated = new AccumulatedHistogram();
+
+        try (LatencyWriter latencyWriter = new LatencyWriter(latencyFile)) {
             final long globalStartReportingTime = System.currentTimeMillis();
             latencyWriter.outputLegend(globalStartReportingTime);
-            //TODO collect only receiver worker latencies: make it configurable or available on the MaestroWorker API
-            final List<WorkerIntervalReport> workerReports = this.workers.stream()
-                    .filter(w -> w instanceof MaestroReceiverWorker).map(w ->
-                            new WorkerIntervalReport(latencyWriter, w, reportIntervalLatencies, globalStartReportingTime, latencyEvaluator))
-                    .collect(Collectors.toList());
+            final List<WorkerIntervalReport> workerReports = new ArrayList<>(this.workers.size());
+            for (int i = 0; i < this.workers.size(); i++) {
+                final MaestroWorker worker = this.workers.get(i);
+
+                if (workerType.isInstance(worker)) {
+                    // The tags allow telling apart the latencies of each worker, while the readers still
+                    // accumulate all of them by default
+                    final String tag = PER_WORKER_REPORTS ? "worker-" + i : null;
+
+                    workerReports.add(new WorkerIntervalReport(latencyWriter, worker, reportIntervalLatencies,
+                            globalStartReportingTime, latencyEvaluator, tag));
+                }
+            }
             final Thread currentThread = Thread.currentThread();
             long startTime = System.currentTimeMillis();
             long nextReportingTime = startTime + reportingIntervalMs;
@@ -163,7 +236,7 @@ public final class WorkerLatencyWriter implements Runnable {
                         //sample
                         workerReports.forEach(WorkerIntervalReport::updateReport);
                         //output sample
-                        workerReports.forEach(WorkerIntervalReport::outputReport);
+                        workerReports.forEach(r -> r.outputReport(accumulated));
                         //move the new reporting time n reportingIntervalMs > now
                         while (now >= nextReportingTime) {
                             nextReportingTime += reportingIntervalMs;
@@ -175,10 +248,19 @@ public final class WorkerLatencyWriter implements Runnable {
             } finally {
                 //force a final snapshot of the latencies
                 workerReports.forEach(r -> r.updateReport(true));
-                workerReports.forEach(WorkerIntervalReport::outputReport);
+                workerReports.forEach(r -> r.outputReport(accumulated));
             }
         } catch (IOException ex) {
             ex.printStackTrace();
+            return;
+        }
+
+        if (accumulated.histogram != null) {
+            try {
+                AccumulatedHistogramCache.write(latencyFile, accumulated.histogram);
+            } catch (IOException e) {
+                logger.warn("Unable to write the accumulated histogram cache for {}: {}", latencyFile, e.getMessage());
+            }
         }
     }
 }
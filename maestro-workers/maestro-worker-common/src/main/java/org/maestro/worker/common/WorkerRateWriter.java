@@ -16,18 +16,24 @@
 
 package org.maestro.worker.common;
 
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.maestro.common.ConfigurationWrapper;
 import org.maestro.common.duration.EpochClocks;
 import org.maestro.common.duration.EpochMicroClock;
 import org.maestro.common.exceptions.MaestroException;
 import org.maestro.common.io.data.common.exceptions.InvalidRecordException;
 import org.maestro.common.io.data.writers.BinaryRateWriter;
+import org.maestro.common.io.data.common.FileHeader;
 import org.maestro.common.worker.MaestroWorker;
+import org.maestro.common.worker.ScheduleRecorder;
+import org.maestro.common.worker.WorkerCounters;
 import org.maestro.common.worker.WorkerUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +43,13 @@ public class WorkerRateWriter implements Runnable {
     private static class WriterCache {
         private long count;
         private final BinaryRateWriter writer;
+        private final List<Integer> workerNumbers = new ArrayList<>();
+        private int[] workerIndexes;
+
+        // Only used when reporting the rate of each worker
+        private BinaryRateWriter[] workerWriters;
+        private long[] workerCounts;
+        private long[] currentWorkerCounts;
 
         WriterCache(long count, BinaryRateWriter writer) {
             this.count = count;
@@ -44,61 +57,154 @@ public class WorkerRateWriter implements Runnable {
         }
     }
     private static final Logger logger = LoggerFactory.getLogger(WorkerRateWriter.class);
+    private static final AbstractConfiguration config = ConfigurationWrapper.getConfig();
+    private static final boolean PER_WORKER_REPORTS = config.getBoolean("worker.reporting.per.worker", false);
+    private static final int SAMPLING_RESOLUTION = samplingResolution();
     private final Map<Class<?>, WriterCache> cachedWriters = new HashMap<>(4);
     private final List<? extends MaestroWorker> workers;
+    private final WorkerCounters counters;
     private final EpochMicroClock microClock = EpochClocks.exclusiveMicro();
 
+    /*
+     * How long (in seconds) to wait before writing the schedule for a given second, so that the
+     * senders have time to publish it
+     */
+    private static final long SCHEDULE_DELAY_SECONDS = 2;
+    private final ScheduleRecorder scheduleRecorder;
+    private final BinaryRateWriter scheduleWriter;
+
     private volatile boolean running = false;
 
-    public WorkerRateWriter(final File reportFolder, final List<? extends MaestroWorker> workers) throws IOException  {
-        for (MaestroWorker worker : workers) {
+    private static int samplingResolution() {
+        final int samplingResolution = config.getInt("worker.reporting.rate.resolution",
+                FileHeader.DEFAULT_SAMPLING_RESOLUTION);
+
+        if (!FileHeader.isValidSamplingResolution(samplingResolution)) {
+            logger.warn("The rate sampling resolution {} is not valid (must be either 10, 100 or 1000 ms). Using the " +
+                    "default of {} ms", samplingResolution, FileHeader.DEFAULT_SAMPLING_RESOLUTION);
+
+            return FileHeader.DEFAULT_SAMPLING_RESOLUTION;
+        }
+
+        return samplingResolution;
+    }
+
+    public WorkerRateWriter(final File reportFolder, final List<? extends MaestroWorker> workers,
+                            final WorkerCounters counters) throws IOException  {
+        this(reportFolder, workers, counters, null);
+    }
+
+    /**
+     * Constructor
+     * @param reportFolder the report folder
+     * @param workers the workers
+     * @param counters the message counters of the workers
+     * @param scheduleRecorder an optional recorder for the send schedule, that is written to
+     *                         sender-schedule.dat (may be null)
+     * @throws IOException if unable to create the report files
+     */
+    public WorkerRateWriter(final File reportFolder, final List<? extends MaestroWorker> workers,
+                            final WorkerCounters counters, final ScheduleRecorder scheduleRecorder) throws IOException  {
+        this.counters = counters;
+        this.scheduleRecorder = scheduleRecorder;
+        if (scheduleRecorder != null) {
+            scheduleWriter = new BinaryRateWriter(new File(reportFolder, "sender-schedule.dat"),
+                    FileHeader.WRITER_DEFAULT_SENDER);
+        }
+        else {
+            scheduleWriter = null;
+        }
+
+        for (int i = 0; i < workers.size(); i++) {
+            final MaestroWorker worker = workers.get(i);
             WriterCache cache = cachedWriters.get(worker.getClass());
 
             if (cache == null) {
-                BinaryRateWriter writer = WorkerDataUtils.writer(reportFolder, worker);
+                BinaryRateWriter writer = WorkerDataUtils.combinedWriter(reportFolder, worker, SAMPLING_RESOLUTION);
                 cache = new WriterCache(0, writer);
                 cachedWriters.put(worker.getClass(), cache);
             }
+
+            cache.workerNumbers.add(i);
+        }
+
+        for (WriterCache cache : cachedWriters.values()) {
+            cache.workerIndexes = cache.workerNumbers.stream().mapToInt(Integer::intValue).toArray();
+
+            if (PER_WORKER_REPORTS) {
+                setupWorkerWriters(reportFolder, workers, cache);
+            }
         }
 
         this.workers = workers;
     }
 
-    private void updateForWorker(Class<?> clazz, WriterCache cache) {
+    private static void setupWorkerWriters(final File reportFolder, final List<? extends MaestroWorker> workers,
+                                           final WriterCache cache) throws IOException {
+        final int workerCount = cache.workerIndexes.length;
+
+        cache.workerWriters = new BinaryRateWriter[workerCount];
+        cache.workerCounts = new long[workerCount];
+        cache.currentWorkerCounts = new long[workerCount];
+
+        for (int i = 0; i < workerCount; i++) {
+            final int number = cache.workerIndexes[i];
+
+            cache.workerWriters[i] = WorkerDataUtils.writer(reportFolder, workers.get(number), number,
+                    SAMPLING_RESOLUTION);
+        }
+    }
+
+    private void updateForWorker(Class<?> clazz, WriterCache cache, long timestamp) {
         long currentCount = 0;
         boolean stopped = false;
 
-        for (MaestroWorker worker : workers) {
-            if (worker.getClass() == clazz) {
-                if (worker.isRunning()) {
-                    currentCount += worker.messageCount();
-                }
-                else {
-                    stopped = true;
+        for (int i = 0; i < cache.workerIndexes.length; i++) {
+            final int worker = cache.workerIndexes[i];
+
+            if (counters.isRunning(worker)) {
+                final long workerCount = counters.count(worker);
+
+                if (cache.currentWorkerCounts != null) {
+                    cache.currentWorkerCounts[i] = workerCount;
                 }
+
+                currentCount += workerCount;
+            }
+            else {
+                stopped = true;
             }
         }
 
         if (!stopped) {
             try {
-                writeRecord(clazz, cache, currentCount);
+                writeRecord(clazz, cache, currentCount, timestamp);
             }
             catch (InvalidRecordException e) {
-                logger.error("{}: now = {}, last = {}", e.getNow(), e.getLast());
+                logger.error("Unable to record the rate entry for worker class {}: now = {}, last = {}", clazz,
+                        e.getNow(), e.getLast());
             }
         }
     }
 
-    private void writeRecord(Class<?> clazz, WriterCache cache, long currentCount) {
+    private void writeRecord(Class<?> clazz, WriterCache cache, long currentCount, long timestamp) {
         BinaryRateWriter writer = cache.writer;
 
         try {
             long delta = currentCount - cache.count;
 
-            final long currentTime = microClock.microTime();
-            writer.write(0, delta, currentTime);
+            writer.write(0, delta, timestamp);
 
             cache.count = currentCount;
+
+            if (cache.workerWriters != null) {
+                for (int i = 0; i < cache.workerWriters.length; i++) {
+                    final long workerCount = cache.currentWorkerCounts[i];
+
+                    cache.workerWriters[i].write(0, workerCount - cache.workerCounts[i], timestamp);
+                    cache.workerCounts[i] = workerCount;
+                }
+            }
         } catch (IOException e) {
             logger.error("Unable to record the rate entry for worker class {}: {}", clazz, e.getMessage(), e);
 
@@ -108,13 +214,44 @@ public class WorkerRateWriter implements Runnable {
         }
     }
 
+    private void writeSchedule(long upToSecond) {
+        try {
+            while (scheduleRecorder.lastTakenSecond() < upToSecond) {
+                final long count = scheduleRecorder.takeNextSecond();
+
+                scheduleWriter.write(0, count, TimeUnit.SECONDS.toMicros(scheduleRecorder.lastTakenSecond()));
+            }
+        } catch (IOException e) {
+            logger.error("Unable to record the schedule entry: {}", e.getMessage(), e);
+        }
+    }
+
+    private void closeSchedule() {
+        writeSchedule(TimeUnit.MICROSECONDS.toSeconds(microClock.microTime()));
+
+        final long late = scheduleRecorder.lateCount();
+        if (late > 0) {
+            logger.warn("{} scheduled messages were published too late to be recorded on the schedule", late);
+        }
+
+        scheduleWriter.close();
+    }
+
     @Override
     public void run() {
         running = true;
 
-        final long interval = 1_000_000_000L;
+        final long interval = TimeUnit.MILLISECONDS.toNanos(SAMPLING_RESOLUTION);
         long nextFireTime = System.nanoTime() + interval;
 
+        /*
+         * The records are stamped with the time they were scheduled for rather than with the time they
+         * are taken: with a fine resolution, the jitter of the wake ups could otherwise place two
+         * records on the same sampling slot (or skip one)
+         */
+        final long slotDuration = TimeUnit.MILLISECONDS.toMicros(SAMPLING_RESOLUTION);
+        long slotTime = microClock.microTime() + slotDuration;
+
         while (running) {
             final long now = WorkerUtils.waitNanoInterval(nextFireTime, interval);
 
@@ -127,10 +264,29 @@ public class WorkerRateWriter implements Runnable {
             }
 
             nextFireTime += interval;
-            cachedWriters.forEach(this::updateForWorker);
+
+            for (Map.Entry<Class<?>, WriterCache> entry : cachedWriters.entrySet()) {
+                updateForWorker(entry.getKey(), entry.getValue(), slotTime);
+            }
+            slotTime += slotDuration;
+
+            if (scheduleRecorder != null) {
+                writeSchedule(TimeUnit.MICROSECONDS.toSeconds(microClock.microTime()) - SCHEDULE_DELAY_SECONDS);
+            }
         }
 
-        cachedWriters.values().forEach(writerCache -> writerCache.writer.close());
+        for (WriterCache writerCache : cachedWriters.values()) {
+            writerCache.writer.close();
+
+            if (writerCache.workerWriters != null) {
+                for (BinaryRateWriter workerWriter : writerCache.workerWriters) {
+                    workerWriter.close();
+                }
+            }
+        }
+        if (scheduleRecorder != null) {
+            closeSchedule();
+        }
     }
 
 
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.common;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.Assert.*;
+
+public class WorkerContainerTest {
+
+    private static void assertPlatformExecutor(final String executorType, int count) throws Exception {
+        final ExecutorService executorService = WorkerContainer.newWorkerExecutor(executorType, count);
+
+        try {
+            assertTrue("The executor type '" + executorType + "' should use platform threads",
+                    executorService instanceof ThreadPoolExecutor);
+            assertEquals(count, ((ThreadPoolExecutor) executorService).getCorePoolSize());
+            assertEquals("worker-1", executorService.submit(() -> Thread.currentThread().getName()).get());
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPlatformByDefault() throws Exception {
+        assertPlatformExecutor("platform", 2);
+        assertPlatformExecutor(null, 2);
+    }
+
+    @Test
+    public void testPlatformIsNormalized() throws Exception {
+        assertPlatformExecutor("  Platform ", 3);
+    }
+
+    @Test
+    public void testUnknownTypeFallsBackToPlatform() throws Exception {
+        assertPlatformExecutor("bogus", 2);
+        assertPlatformExecutor("virtual-threads", 2);
+    }
+}
@@ -101,4 +101,16 @@ public class WorkerDataUtilsTest {
             assertEquals("The report path does not match", new File(reportDir, "sender.dat"), writer.reportFile());
         }
     }
+
+    @Test
+    public void testCreatePerWorker() throws IOException {
+        String path = this.getClass().getResource(".").getPath();
+        File reportDir = new File(path);
+
+        try (BinaryRateWriter writer = WorkerDataUtils.writer(reportDir, new DummySender(), 3)) {
+            assertNotNull("The writer should not be null", writer);
+            assertEquals("The report path does not match", new File(reportDir, "sender-worker-3.dat"),
+                    writer.reportFile());
+        }
+    }
 }
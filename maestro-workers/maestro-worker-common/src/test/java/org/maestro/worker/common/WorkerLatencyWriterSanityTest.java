@@ -24,6 +24,7 @@ import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.maestro.common.io.data.common.AccumulatedHistogramCache;
 import org.maestro.common.worker.MaestroReceiverWorker;
 import org.maestro.common.worker.MaestroWorker;
 import org.maestro.common.worker.WorkerOptions;
@@ -170,5 +171,10 @@ public class WorkerLatencyWriterSanityTest {
             totalReports++;
         }
         Assert.assertEquals("The histogram number must be the same of the receivers", receivers, totalReports);
+
+        final Histogram accumulated = AccumulatedHistogramCache.read(reportFile);
+        Assert.assertNotNull("The accumulated histogram cache should have been written", accumulated);
+        Assert.assertEquals("The accumulated histogram must contain all the recorded events", totalEvents,
+                accumulated.getTotalCount());
     }
 }
@@ -44,6 +44,7 @@ class JMSClient implements Client {
     private Destination destination = null;
     protected Connection connection = null;
     private JmsOptions opts;
+    private String sharedConnectionKey = null;
 
     private int number = -1;
 
@@ -79,6 +80,22 @@ class JMSClient implements Client {
             destinationName = setupLimitDestinations(destinationName, opts.getConfiguredLimitDestinations(), getNumber());
             this.destination = createDestination(protocol, destinationName);
 
+            final int sharedConnections = opts.getSharedConnections();
+            if (sharedConnections > 0) {
+                final String key = JMSSharedConnections.connectionKey(opts, getNumber());
+
+                logger.debug("Acquiring the shared connection {}", key);
+                this.connection = JMSSharedConnections.acquire(key, factory);
+                this.sharedConnectionKey = key;
+                logger.debug("Shared connection acquired successfully");
+
+                return;
+            }
+
+            if (sharedConnections < 0) {
+                throw new IllegalArgumentException("Invalid number of shared connections: " + sharedConnections);
+            }
+
             logger.debug("Creating the connection");
             connection = factory.createConnection();
             logger.debug("Connection created successfully");
@@ -93,6 +110,25 @@ class JMSClient implements Client {
         this.connection.start();
     }
 
+    /**
+     * Closes the connection used by this client or, if it is shared with other clients, releases it
+     * @return the error closing the connection or null if none
+     */
+    protected Throwable closeConnection() {
+        final Throwable t;
+
+        if (sharedConnectionKey != null) {
+            t = JMSSharedConnections.release(sharedConnectionKey);
+            sharedConnectionKey = null;
+        }
+        else {
+            t = JMSResourceUtil.capturingClose(connection);
+        }
+
+        this.connection = null;
+        return t;
+    }
+
     private Destination createDestination(final JMSProtocol protocol, final String destinationName) {
         Destination destination;
         final String type = opts.getType();
@@ -142,8 +178,7 @@ class JMSClient implements Client {
     @Override
     public void stop() {
         logger.debug("Stopping the JMS client");
-        final Throwable t = JMSResourceUtil.capturingClose(connection);
-        this.connection = null;
+        final Throwable t = closeConnection();
         if (t != null) {
             logger.warn("Error closing the connection: {}", t.getMessage(), t);
         }
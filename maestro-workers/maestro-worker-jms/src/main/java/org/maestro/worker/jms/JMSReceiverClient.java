@@ -17,6 +17,7 @@
 package org.maestro.worker.jms;
 
 import org.maestro.common.content.ContentStrategy;
+import org.maestro.common.duration.EpochMicroClock;
 import org.maestro.common.jms.ReceiverClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +34,31 @@ final class JMSReceiverClient extends JMSClient implements ReceiverClient {
     private Session session;
     private MessageConsumer consumer;
     private ByteBuffer payloadBytes;
+    private Message lastMessage;
+
+    /**
+     * Receives the send time of the messages consumed asynchronously
+     */
+    interface SendTimeListener {
+        /**
+         * Handles the send time of a received message
+         * @param sendTimeEpochMicros the send time of the message
+         * @return the session mode to acknowledge the message with or -1 to not acknowledge it
+         */
+        int onSendTime(long sendTimeEpochMicros);
+
+        /**
+         * Whether the listener does not take any more messages
+         * @return true to stop consuming the messages after the current one or false otherwise
+         */
+        boolean isComplete();
+
+        /**
+         * Handles a failure processing a received message
+         * @param e the failure
+         */
+        void onException(Exception e);
+    }
 
     @Override
     public void start() throws Exception {
@@ -46,8 +72,7 @@ final class JMSReceiverClient extends JMSClient implements ReceiverClient {
             this.consumer = null;
             JMSResourceUtil.capturingClose(session);
             this.session = null;
-            JMSResourceUtil.capturingClose(connection);
-            this.connection = null;
+            closeConnection();
         }
     }
 
@@ -57,30 +82,107 @@ final class JMSReceiverClient extends JMSClient implements ReceiverClient {
     }
 
 
+    private long readSendTime(final Message message) throws JMSException {
+        final int readBytes = getReadBytes((BytesMessage) message);
+        if (readBytes == PAYLOAD_SIZE || readBytes == -1) {
+            //can read the timestamp using the default endianness of the content strategy
+            return payloadBytes.getLong(0);
+        }
+        throw new IllegalStateException("the received message hasn't any benchmark payload");
+    }
+
+    private void acknowledge(final Message message, int sessionMode) throws JMSException {
+        if (sessionMode == Session.CLIENT_ACKNOWLEDGE) {
+            message.acknowledge();
+        } else if (sessionMode == Session.SESSION_TRANSACTED) {
+            logger.warn("Acknowledging the transaction");
+            session.commit();
+        }
+    }
+
     @Override
     public long receiveMessages(int sessionMode) throws Exception {
         final Message message = consumer.receive(RECEIVE_TIMEOUT_MILLIS);
 
         if (message == null) {
             return ReceiverClient.noMessagePayload();
-        } else if (sessionMode == Session.CLIENT_ACKNOWLEDGE) {
-            message.acknowledge();
-        } else if (sessionMode == Session.SESSION_TRANSACTED) {
-            logger.warn("Acknowledging the transaction");
-            session.commit();
         }
 
+        acknowledge(message, sessionMode);
+        return readSendTime(message);
+    }
 
-        final int readBytes = getReadBytes((BytesMessage) message);
-        if (readBytes == PAYLOAD_SIZE || readBytes == -1) {
-            //can read the timestamp using the default endianness of the content strategy
-            return payloadBytes.getLong(0);
+    /**
+     * Receives a batch of messages. It blocks until the first message arrives (or the receive timeout
+     * expires) and then drains, without blocking, the messages already available on the consumer, up to
+     * the maximum number of messages
+     * @param sendTimesEpochMicros stores the send time of each received message. Its length is the batch size
+     * @param receiveTimesEpochMicros stores the receive time of each received message, taken as soon as
+     *                                the message is received. Its length is the batch size
+     * @param maxMessages the maximum number of messages to receive (up to the batch size)
+     * @param epochMicroClock the clock used to take the receive times
+     * @return the number of messages received
+     * @throws JMSException if unable to receive the messages
+     */
+    int receiveMessages(final long[] sendTimesEpochMicros, final long[] receiveTimesEpochMicros, int maxMessages,
+                        final EpochMicroClock epochMicroClock) throws JMSException {
+        Message message = consumer.receive(RECEIVE_TIMEOUT_MILLIS);
+        int received = 0;
+
+        while (message != null) {
+            receiveTimesEpochMicros[received] = epochMicroClock.microTime();
+            sendTimesEpochMicros[received] = readSendTime(message);
+            lastMessage = message;
+            received++;
+
+            if (received == maxMessages) {
+                break;
+            }
+
+            message = consumer.receiveNoWait();
         }
-        throw new IllegalStateException("the received message hasn't any benchmark payload");
+
+        return received;
+    }
+
+    /**
+     * Acknowledges all the messages received so far by {@link #receiveMessages(long[], long[], int, EpochMicroClock)}
+     * @param sessionMode the session mode
+     * @throws JMSException if unable to acknowledge the messages
+     */
+    void acknowledge(int sessionMode) throws JMSException {
+        if (lastMessage != null) {
+            acknowledge(lastMessage, sessionMode);
+        }
+    }
+
+    /**
+     * Consume the messages asynchronously. The listener is detached from the consumer once it is
+     * complete, so that the messages it does not take are left for the other consumers
+     * @param listener a listener that receives the send time of each message and returns the
+     *                 session mode to acknowledge it with (or -1 to not acknowledge it)
+     * @throws JMSException if unable to set the message listener on the consumer
+     */
+    void setMessageListener(final SendTimeListener listener) throws JMSException {
+        consumer.setMessageListener(message -> {
+            try {
+                final int sessionMode = listener.onSendTime(readSendTime(message));
+
+                acknowledge(message, sessionMode);
+
+                if (listener.isComplete()) {
+                    logger.debug("The listener is complete. Detaching it from the consumer");
+                    consumer.setMessageListener(null);
+                }
+            } catch (JMSException | RuntimeException e) {
+                listener.onException(e);
+            }
+        });
     }
 
     @Override
     public void stop() {
+        this.lastMessage = null;
         JMSResourceUtil.capturingClose(consumer);
         this.consumer = null;
         JMSResourceUtil.capturingClose(session);
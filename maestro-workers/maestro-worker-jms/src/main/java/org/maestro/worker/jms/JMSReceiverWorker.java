@@ -18,6 +18,7 @@ package org.maestro.worker.jms;
 
 import org.HdrHistogram.Histogram;
 import org.HdrHistogram.SingleWriterRecorder;
+import org.maestro.common.duration.DurationCount;
 import org.maestro.common.duration.EpochClocks;
 import org.maestro.common.duration.EpochMicroClock;
 import org.maestro.common.duration.TestDuration;
@@ -25,6 +26,7 @@ import org.maestro.common.duration.TestDurationBuilder;
 import org.maestro.common.exceptions.DurationParseException;
 import org.maestro.common.jms.ReceiverClient;
 import org.maestro.common.worker.MaestroReceiverWorker;
+import org.maestro.common.worker.WorkerCounters;
 import org.maestro.common.worker.WorkerOptions;
 import org.maestro.common.worker.WorkerStateInfo;
 import org.slf4j.Logger;
@@ -33,7 +35,7 @@ import org.slf4j.LoggerFactory;
 import javax.jms.Session;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
 
 
@@ -44,10 +46,11 @@ public class JMSReceiverWorker implements MaestroReceiverWorker {
     private static final Logger logger = LoggerFactory.getLogger(JMSReceiverWorker.class);
 
     private TestDuration duration;
-    private final AtomicLong messageCount = new AtomicLong(0);
+    private WorkerCounters.Counter messageCount = WorkerCounters.newCounter();
     private volatile long startedEpochMillis = Long.MIN_VALUE;
     //TODO it could be injected by outside because the precision could be improved using ad-hoc clock timers
     private static final long HIGHEST_TRACKABLE_VALUE = TimeUnit.HOURS.toMicros(1);
+    private static final long LISTENER_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
     private final SingleWriterRecorder latencyRecorder = new SingleWriterRecorder(HIGHEST_TRACKABLE_VALUE, 3);
 
     private final WorkerStateInfo workerStateInfo = new WorkerStateInfo();
@@ -105,6 +108,17 @@ public class JMSReceiverWorker implements MaestroReceiverWorker {
         this.number = number;
     }
 
+    @Override
+    public boolean usesMessageCounter() {
+        return true;
+    }
+
+    @Override
+    public void setMessageCounter(final WorkerCounters.Counter counter) {
+        this.messageCount = counter;
+        workerStateInfo.setCounter(counter);
+    }
+
     @Override
     public void setWorkerOptions(WorkerOptions workerOptions) {
         setBroker(workerOptions.getBrokerURL());
@@ -186,10 +200,42 @@ public class JMSReceiverWorker implements MaestroReceiverWorker {
         }
     }
 
+    private void recordLatency(final long sendTimeEpochMicros, final long nowInMicros) {
+        long elapsedMicros = nowInMicros - sendTimeEpochMicros;
+
+        if (elapsedMicros >= 0) {
+            if (elapsedMicros > HIGHEST_TRACKABLE_VALUE) {
+                handleHugeSampleError(sendTimeEpochMicros, nowInMicros);
+                elapsedMicros = HIGHEST_TRACKABLE_VALUE;
+            }
+
+            latencyRecorder.recordValue(elapsedMicros);
+        }
+        else {
+            handleInvalidLatency(sendTimeEpochMicros, nowInMicros, elapsedMicros);
+        }
+    }
+
     private void runReceiveLoop(final ReceiverClient client) throws Exception {
+        final JmsOptions opts = ((JMSClient) client).getOpts();
+
+        if (opts.isAsyncReceive()) {
+            logger.info("This test is consuming the messages asynchronously");
+            runListenerLoop((JMSReceiverClient) client, opts);
+        }
+        else if (opts.getReceiveBatchSize() > 0) {
+            logger.info("This test is consuming the messages in batches of up to {} messages",
+                    opts.getReceiveBatchSize());
+            runBatchReceiveLoop((JMSReceiverClient) client, opts);
+        }
+        else {
+            runSingleReceiveLoop(client, opts);
+        }
+    }
+
+    private void runSingleReceiveLoop(final ReceiverClient client, final JmsOptions opts) throws Exception {
         final EpochMicroClock epochMicroClock = EpochClocks.exclusiveMicro();
         long count = 0;
-        final JmsOptions opts = ((JMSClient) client).getOpts();
         final boolean isClientAck = isClientAcknowledge(opts);
 
         while (duration.canContinue(this) && isRunning()) {
@@ -197,23 +243,94 @@ public class JMSReceiverWorker implements MaestroReceiverWorker {
 
             if (sendTimeEpochMicros != ReceiverClient.noMessagePayload()) {
                 final long nowInMicros = epochMicroClock.microTime();
-                long elapsedMicros = nowInMicros - sendTimeEpochMicros;
+                recordLatency(sendTimeEpochMicros, nowInMicros);
+
+                count++;
+                messageCount.lazySet(count);
+            }
+        }
+    }
+
+    private void runBatchReceiveLoop(final JMSReceiverClient client, final JmsOptions opts) throws Exception {
+        final EpochMicroClock epochMicroClock = EpochClocks.exclusiveMicro();
+        final long[] sendTimesEpochMicros = new long[opts.getReceiveBatchSize()];
+        final long[] receiveTimesEpochMicros = new long[opts.getReceiveBatchSize()];
+        long count = 0;
+        final boolean isClientAck = isClientAcknowledge(opts);
 
-                if (elapsedMicros >= 0) {
-                    if (elapsedMicros > HIGHEST_TRACKABLE_VALUE) {
-                        handleHugeSampleError(sendTimeEpochMicros, nowInMicros);
-                        elapsedMicros = HIGHEST_TRACKABLE_VALUE;
-                    }
+        // On count-based tests the batches are capped so that no message is received beyond the count
+        final long maxCount = duration instanceof DurationCount ? duration.getNumericDuration() : Long.MAX_VALUE;
 
-                    latencyRecorder.recordValue(elapsedMicros);
+        while (duration.canContinue(this) && isRunning()) {
+            final int maxMessages = (int) Math.min(sendTimesEpochMicros.length, maxCount - count);
+            final int received = client.receiveMessages(sendTimesEpochMicros, receiveTimesEpochMicros,
+                    maxMessages, epochMicroClock);
+
+            if (received > 0) {
+                for (int i = 0; i < received; i++) {
+                    recordLatency(sendTimesEpochMicros[i], receiveTimesEpochMicros[i]);
                 }
-                else {
-                    handleInvalidLatency(sendTimeEpochMicros, nowInMicros, elapsedMicros);
+
+                final long previousCount = count;
+                count += received;
+
+                if (isClientAck && isCommitAckTime(previousCount, count, opts)) {
+                    client.acknowledge(opts.getSessionMode());
                 }
 
+                messageCount.lazySet(count);
+            }
+        }
+    }
+
+    private void runListenerLoop(final JMSReceiverClient client, final JmsOptions opts) throws Exception {
+        //the listener is invoked by the provider threads, therefore it can't use an exclusive clock
+        final EpochMicroClock epochMicroClock = EpochClocks.sharedMicro();
+        final boolean isClientAck = isClientAcknowledge(opts);
+        final Thread workerThread = Thread.currentThread();
+
+        // On count-based tests the listener stops taking messages as soon as it reaches the count
+        final long maxCount = duration instanceof DurationCount ? duration.getNumericDuration() : Long.MAX_VALUE;
+
+        /*
+         * The JMS session delivers its messages to the listener serially, so the recorder still
+         * has a single writer
+         */
+        client.setMessageListener(new JMSReceiverClient.SendTimeListener() {
+            private long count = 0;
+
+            @Override
+            public int onSendTime(long sendTimeEpochMicros) {
+                final long nowInMicros = epochMicroClock.microTime();
+                recordLatency(sendTimeEpochMicros, nowInMicros);
+
+                final int sessionMode = isAcknowledge(count, opts, isClientAck);
                 count++;
                 messageCount.lazySet(count);
+
+                if (count >= maxCount) {
+                    LockSupport.unpark(workerThread);
+                }
+
+                return sessionMode;
+            }
+
+            @Override
+            public boolean isComplete() {
+                return count >= maxCount;
+            }
+
+            @Override
+            public void onException(Exception e) {
+                logger.error("Unable to process a received message: {}", e.getMessage(), e);
+
+                fail(e);
+                LockSupport.unpark(workerThread);
             }
+        });
+
+        while (duration.canContinue(this) && isRunning()) {
+            LockSupport.parkNanos(LISTENER_CHECK_INTERVAL_NANOS);
         }
     }
 
@@ -226,6 +343,16 @@ public class JMSReceiverWorker implements MaestroReceiverWorker {
         return ((count + 1) % opts.getBatchAcknowledge()) == 0;
     }
 
+    private boolean isCommitAckTime(long previousCount, long count, JmsOptions opts) {
+        /*
+         * The messages were already received, so it should acknowledge them if the batch
+         * crossed the boundary of an acknowledge batch.
+         */
+        final int batchAcknowledge = opts.getBatchAcknowledge();
+
+        return (count / batchAcknowledge) > (previousCount / batchAcknowledge);
+    }
+
     /**
      * return sessionMode number according to acknowledge type (TRANSACTED/CLIENTS_ACK)
      *
@@ -18,11 +18,16 @@ package org.maestro.worker.jms;
 
 import org.maestro.common.content.ContentStrategy;
 import org.maestro.common.jms.SenderClient;
+import org.maestro.common.worker.WorkerCounters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.jms.*;
 import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
 
 final class JMSSenderClient extends JMSClient implements SenderClient {
     private static final Logger logger = LoggerFactory.getLogger(JMSSenderClient.class);
@@ -31,6 +36,51 @@ final class JMSSenderClient extends JMSClient implements SenderClient {
     private Session session;
     private MessageProducer producer;
 
+    private Semaphore inFlightSends;
+    private WorkerCounters.Counter completedSends = WorkerCounters.newCounter();
+    private volatile Exception asyncSendFailure;
+
+    /*
+     * The service start times of the asynchronous sends in-flight. The completion listener is invoked
+     * in the same order as the sends (as stated in the JMS specification for asynchronous sends), so
+     * this works as a ring buffer that is written on send and read on completion
+     */
+    private long[] serviceStartTimes;
+    private long submittedSends = 0;
+    private long finishedSends = 0;
+    private LongConsumer serviceTimeListener;
+
+    private boolean reuseMessages;
+    private BytesMessage recycledMessage;
+    private ArrayBlockingQueue<BytesMessage> messagePool;
+
+    private final CompletionListener completionListener = new CompletionListener() {
+        @Override
+        public void onCompletion(Message message) {
+            final long serviceStartEpochMicros = nextServiceStartTime();
+            if (serviceTimeListener != null) {
+                serviceTimeListener.accept(serviceStartEpochMicros);
+            }
+
+            completedSends.incrementAndGet();
+
+            // The message can only be modified again after the provider has completed sending it
+            if (messagePool != null && message instanceof BytesMessage) {
+                messagePool.offer((BytesMessage) message);
+            }
+
+            inFlightSends.release();
+        }
+
+        @Override
+        public void onException(Message message, Exception exception) {
+            nextServiceStartTime();
+
+            asyncSendFailure = exception;
+            inFlightSends.release();
+        }
+    };
+
     @Override
     public void start() throws Exception {
         super.start();
@@ -41,14 +91,15 @@ final class JMSSenderClient extends JMSClient implements SenderClient {
             setupMessageDurability();
             setupPriority();
             setupTTL();
+            setupAsyncSend();
+            setupMessageReuse();
             producer.setDisableMessageTimestamp(true);
         } catch (Throwable t) {
             JMSResourceUtil.capturingClose(this.producer);
             this.producer = null;
             JMSResourceUtil.capturingClose(this.session);
             this.session = null;
-            JMSResourceUtil.capturingClose(this.connection);
-            this.connection = null;
+            closeConnection();
             throw t;
         }
     }
@@ -94,8 +145,69 @@ final class JMSSenderClient extends JMSClient implements SenderClient {
         }
     }
 
-    @Override
-    public void sendMessages(long sendTimeEpochInMicros, boolean commitTransaction) throws JMSException {
+    private void setupAsyncSend() {
+        final int asyncSendWindow = getOpts().getAsyncSendWindow();
+
+        if (asyncSendWindow > 0) {
+            logger.debug("Using asynchronous sends with up to {} messages in-flight", asyncSendWindow);
+
+            this.inFlightSends = new Semaphore(asyncSendWindow);
+            this.serviceStartTimes = new long[asyncSendWindow];
+        }
+        else {
+            if (asyncSendWindow < 0) {
+                throw new IllegalArgumentException("Invalid async send window value: " + asyncSendWindow);
+            }
+        }
+    }
+
+    private void setupMessageReuse() {
+        this.reuseMessages = getOpts().isReuseMessages();
+
+        if (reuseMessages) {
+            logger.debug("Reusing the message objects across sends");
+
+            final int asyncSendWindow = getOpts().getAsyncSendWindow();
+            if (asyncSendWindow > 0) {
+                this.messagePool = new ArrayBlockingQueue<>(asyncSendWindow);
+            }
+        }
+    }
+
+    /*
+     * A message that was synchronously sent can be modified and sent again (as stated in the JMS
+     * specification for MessageProducer.send), therefore a single message object is recycled for
+     * the synchronous sends. The JMS API has no way to rewrite part of a body that was already
+     * written, so even if only the timestamp changes the body is cleared and the whole content is
+     * copied into the provider's message again: reusing the message only saves its allocation.
+     */
+    private BytesMessage recycledMessage() throws JMSException {
+        if (recycledMessage == null) {
+            recycledMessage = session.createBytesMessage();
+        }
+        else {
+            recycledMessage.clearBody();
+        }
+
+        return recycledMessage;
+    }
+
+    private BytesMessage pooledMessage() throws JMSException {
+        final BytesMessage message = messagePool.poll();
+
+        if (message == null) {
+            return session.createBytesMessage();
+        }
+
+        message.clearBody();
+        return message;
+    }
+
+    private BytesMessage createMessage(long sendTimeEpochInMicros) throws JMSException {
+        return createMessage(session.createBytesMessage(), sendTimeEpochInMicros);
+    }
+
+    private BytesMessage createMessage(final BytesMessage message, long sendTimeEpochInMicros) throws JMSException {
         //prepare the message content
         final ByteBuffer content = contentStrategy.prepareContent();
         final byte[] bytes = content.array();
@@ -104,16 +216,131 @@ final class JMSSenderClient extends JMSClient implements SenderClient {
         final int length = content.remaining();
         //the timestamp is part of the message content
         content.putLong(position, sendTimeEpochInMicros);
-        final BytesMessage message = session.createBytesMessage();
         //copy the whole message content (including the benchmark payload ie timestamp)
         message.writeBytes(bytes, offset, length);
-        producer.send(message);
+
+        return message;
+    }
+
+    private void commit(boolean commitTransaction) throws JMSException {
         if (commitTransaction) {
             logger.debug("Committing the transaction");
             session.commit();
         }
     }
 
+    @Override
+    public void sendMessages(long sendTimeEpochInMicros, boolean commitTransaction) throws JMSException {
+        final BytesMessage message;
+
+        if (reuseMessages) {
+            message = createMessage(recycledMessage(), sendTimeEpochInMicros);
+        }
+        else {
+            message = createMessage(sendTimeEpochInMicros);
+        }
+
+        producer.send(message);
+        commit(commitTransaction);
+    }
+
+    private long nextServiceStartTime() {
+        return serviceStartTimes[(int) (finishedSends++ % serviceStartTimes.length)];
+    }
+
+    /**
+     * Sends a message asynchronously, blocking only if the in-flight window is exhausted
+     * @param sendTimeEpochInMicros the send time to record in the message payload
+     * @param serviceStartEpochMicros the time the worker started to send the message, which is handed
+     *                                to the service time listener when the send completes
+     * @param commitTransaction whether to commit the transaction after sending
+     * @throws JMSException if the send fails or if any previous asynchronous send has failed
+     * @throws InterruptedException if interrupted while waiting for room in the in-flight window
+     */
+    void sendMessagesAsync(long sendTimeEpochInMicros, long serviceStartEpochMicros, boolean commitTransaction)
+            throws JMSException, InterruptedException {
+        checkAsyncSendFailure();
+
+        inFlightSends.acquire();
+        serviceStartTimes[(int) (submittedSends++ % serviceStartTimes.length)] = serviceStartEpochMicros;
+        try {
+            final BytesMessage message;
+
+            if (reuseMessages) {
+                message = createMessage(pooledMessage(), sendTimeEpochInMicros);
+            }
+            else {
+                message = createMessage(sendTimeEpochInMicros);
+            }
+
+            producer.send(message, completionListener);
+        }
+        catch (JMSException | RuntimeException e) {
+            // The send was not accepted by the provider, so its completion will not be notified
+            submittedSends--;
+            inFlightSends.release();
+            throw e;
+        }
+
+        commit(commitTransaction);
+    }
+
+    /**
+     * Waits for the provider to complete all the asynchronous sends that are in-flight
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return true if all the sends were completed or false if timed out
+     * @throws InterruptedException if interrupted while waiting for the sends to complete
+     */
+    boolean awaitAsyncSends(long timeout, TimeUnit unit) throws InterruptedException {
+        if (inFlightSends == null) {
+            return true;
+        }
+
+        final int asyncSendWindow = getOpts().getAsyncSendWindow();
+        if (!inFlightSends.tryAcquire(asyncSendWindow, timeout, unit)) {
+            return false;
+        }
+
+        inFlightSends.release(asyncSendWindow);
+        return true;
+    }
+
+    /**
+     * Checks whether any of the asynchronous sends has failed
+     * @throws JMSException if an asynchronous send has failed
+     */
+    void checkAsyncSendFailure() throws JMSException {
+        final Exception failure = asyncSendFailure;
+
+        if (failure != null) {
+            if (failure instanceof JMSException) {
+                throw (JMSException) failure;
+            }
+
+            final JMSException e = new JMSException("Asynchronous send failed: " + failure.getMessage());
+            e.setLinkedException(failure);
+            throw e;
+        }
+    }
+
+    /**
+     * Sets the counter incremented whenever the provider acknowledges an asynchronous send as completed
+     * @param completedSends the counter of completed sends
+     */
+    void setCompletionCounter(final WorkerCounters.Counter completedSends) {
+        this.completedSends = completedSends;
+    }
+
+    /**
+     * Sets the listener notified, with the service start time of the send, whenever the provider
+     * completes an asynchronous send. It is invoked on the provider's thread
+     * @param serviceTimeListener the listener
+     */
+    void setServiceTimeListener(final LongConsumer serviceTimeListener) {
+        this.serviceTimeListener = serviceTimeListener;
+    }
+
     @Override
     public void setContentStrategy(ContentStrategy contentStrategy) {
         this.contentStrategy = contentStrategy;
@@ -121,6 +348,11 @@ final class JMSSenderClient extends JMSClient implements SenderClient {
 
     @Override
     public void stop() {
+        this.recycledMessage = null;
+        if (messagePool != null) {
+            messagePool.clear();
+        }
+
         JMSResourceUtil.capturingClose(producer);
         this.producer = null;
         JMSResourceUtil.capturingClose(session);
@@ -16,8 +16,12 @@
 
 package org.maestro.worker.jms;
 
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
 import org.apache.commons.configuration.AbstractConfiguration;
 import org.maestro.common.ConfigurationWrapper;
+import org.maestro.common.arrival.ArrivalProcess;
+import org.maestro.common.arrival.ArrivalProcessFactory;
 import org.maestro.common.content.ContentStrategy;
 import org.maestro.common.content.ContentStrategyFactory;
 import org.maestro.common.duration.EpochClocks;
@@ -28,6 +32,8 @@ import org.maestro.common.exceptions.DurationParseException;
 import org.maestro.common.exceptions.MaestroException;
 import org.maestro.common.jms.SenderClient;
 import org.maestro.common.worker.MaestroSenderWorker;
+import org.maestro.common.worker.ScheduleRecorder;
+import org.maestro.common.worker.WorkerCounters;
 import org.maestro.common.worker.WorkerOptions;
 import org.maestro.common.worker.WorkerStateInfo;
 import org.maestro.common.worker.WorkerUtils;
@@ -37,7 +43,7 @@ import org.slf4j.LoggerFactory;
 import javax.jms.JMSException;
 import javax.jms.Session;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 /**
@@ -45,14 +51,83 @@ import java.util.function.Supplier;
  */
 public class JMSSenderWorker implements MaestroSenderWorker {
     private static final Logger logger = LoggerFactory.getLogger(JMSSenderWorker.class);
+    private static final long HIGHEST_TRACKABLE_VALUE = TimeUnit.HOURS.toMicros(1);
+    private static final long ASYNC_SEND_COMPLETION_TIMEOUT;
+
+    static {
+        AbstractConfiguration config = ConfigurationWrapper.getConfig();
+
+        ASYNC_SEND_COMPLETION_TIMEOUT = config.getLong("worker.jms.async.send.completion.timeout", 10000);
+    }
+
+    /*
+     * Only used on open model tests: records how long the sending took (ie.: the service time), as
+     * opposed to the latency observed by the receivers, which also includes the time the message
+     * waited to be sent (ie.: the response time). With asynchronous sends, the service time lasts until
+     * the provider completes the send and it is recorded by the provider's completion callbacks
+     */
+    private final SingleWriterRecorder serviceTimeRecorder = new SingleWriterRecorder(HIGHEST_TRACKABLE_VALUE, 3);
+
+    /*
+     * Counts the messages scheduled on each second and publishes them to the schedule recorder
+     * once the schedule moves on to the next second
+     */
+    private static final class ScheduleCounter {
+        private final ScheduleRecorder scheduleRecorder;
+        private long second = Long.MIN_VALUE;
+        private long count = 0;
+
+        ScheduleCounter(final ScheduleRecorder scheduleRecorder) {
+            this.scheduleRecorder = scheduleRecorder;
+        }
+
+        void scheduled(long intendedEpochMicros) {
+            final long intendedSecond = TimeUnit.MICROSECONDS.toSeconds(intendedEpochMicros);
+
+            if (intendedSecond != second) {
+                publish();
+                second = intendedSecond;
+            }
+
+            count++;
+        }
+
+        void publish() {
+            if (count > 0) {
+                scheduleRecorder.record(second, count);
+                count = 0;
+            }
+        }
+    }
+
+    /*
+     * The progress of a test using asynchronous sends. The message count of the worker is only updated
+     * when the provider completes the sends, so the test duration is checked against the number of sends
+     * submitted, otherwise the worker would keep sending while the sends are in-flight
+     */
+    private final class SubmittedSends implements TestDuration.TestProgress {
+        private long count = 0;
+
+        @Override
+        public long startedEpochMillis() {
+            return JMSSenderWorker.this.startedEpochMillis();
+        }
+
+        @Override
+        public long messageCount() {
+            return count;
+        }
+    }
 
     private ContentStrategy contentStrategy;
     private TestDuration duration;
-    private final AtomicLong messageCount = new AtomicLong(0);
+    private WorkerCounters.Counter messageCount = WorkerCounters.newCounter();
     private volatile long startedEpochMillis = Long.MIN_VALUE;
 
     private String url;
     private long rate = 0;
+    private String arrivalSpec;
+    private ScheduleRecorder scheduleRecorder;
     private int number;
 
     private final Supplier<? extends SenderClient> clientFactory;
@@ -117,12 +192,29 @@ public class JMSSenderWorker implements MaestroSenderWorker {
         this.number = number;
     }
 
+    @Override
+    public boolean usesMessageCounter() {
+        return true;
+    }
+
+    @Override
+    public void setMessageCounter(final WorkerCounters.Counter counter) {
+        this.messageCount = counter;
+        workerStateInfo.setCounter(counter);
+    }
+
     @Override
     public void setWorkerOptions(WorkerOptions workerOptions) {
         setRate(workerOptions.getRate());
         setDuration(workerOptions.getDuration());
         setBroker(workerOptions.getBrokerURL());
         setMessageSize(workerOptions.getMessageSize());
+        this.arrivalSpec = workerOptions.getArrivalProcess();
+    }
+
+    @Override
+    public void setScheduleRecorder(final ScheduleRecorder scheduleRecorder) {
+        this.scheduleRecorder = scheduleRecorder;
     }
 
 
@@ -164,6 +256,10 @@ public class JMSSenderWorker implements MaestroSenderWorker {
 
             workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_FAILURE, e);
         } finally {
+            if (client instanceof JMSSenderClient) {
+                awaitAsyncSends((JMSSenderClient) client);
+            }
+
             endSignal.countDown();
 
             exitStateCheck(id);
@@ -228,27 +324,144 @@ public class JMSSenderWorker implements MaestroSenderWorker {
         //it couldn't uses the Epoch in nanos because it could overflow pretty soon (less than 1 day)
         final EpochMicroClock epochMicroClock = EpochClocks.exclusiveMicro();
 
-        long nextFireTime = System.nanoTime() + intervalInNanos;
-        final JmsOptions opts = ((JMSClient) client).getOpts();
+        final ArrivalProcess arrivalProcess = getArrivalProcess(intervalInNanos);
+        final ScheduleCounter scheduleCounter = (arrivalProcess != null && scheduleRecorder != null)
+                ? new ScheduleCounter(scheduleRecorder) : null;
+
+        final long startNanos = System.nanoTime();
+        final long startEpochMicros = epochMicroClock.microTime();
+        long nextFireTime = startNanos + (arrivalProcess != null ? arrivalProcess.nextInterval() : 0);
+        final JMSSenderClient jmsSenderClient = (JMSSenderClient) client;
+        final JmsOptions opts = jmsSenderClient.getOpts();
         final boolean isSessionTransacted = isSessionTransacted(opts);
 
         if (isSessionTransacted) {
             logger.info("This test is using transactions");
         }
 
-        while (duration.canContinue(this) && isRunning()) {
-            if (intervalInNanos > 0) {
+        final boolean isAsyncSend = opts.getAsyncSendWindow() > 0;
+        final SubmittedSends submittedSends = isAsyncSend ? new SubmittedSends() : null;
+        if (isAsyncSend) {
+            logger.info("This test is using asynchronous sends with up to {} messages in-flight",
+                    opts.getAsyncSendWindow());
+
+            /*
+             * The message count is updated by the provider's completion callbacks, so that only the
+             * messages that were actually accepted by the broker are accounted for
+             */
+            jmsSenderClient.setCompletionCounter(this.messageCount);
+        }
+
+        final boolean isOpenModel = opts.isOpenModel() && arrivalProcess != null;
+        if (isOpenModel) {
+            logger.info("This test is using the open model: messages are stamped with their intended send time");
+        }
+        else {
+            if (opts.isOpenModel()) {
+                logger.warn("The open model requires a bounded rate and will be ignored for this test");
+            }
+        }
+
+        if (isOpenModel && isAsyncSend) {
+            final EpochMicroClock completionClock = EpochClocks.sharedMicro();
+
+            jmsSenderClient.setServiceTimeListener(
+                    serviceStartEpochMicros -> recordServiceTime(serviceStartEpochMicros, completionClock.microTime()));
+        }
+
+        final TestDuration.TestProgress progress = isAsyncSend ? submittedSends : this;
+        while (duration.canContinue(progress) && isRunning()) {
+            long intendedEpochMicros = 0;
+            if (arrivalProcess != null) {
                 final long now = WorkerUtils.waitNanoInterval(nextFireTime, intervalInNanos);
                 assert (now - nextFireTime) >= 0 : "can't wait less than the configured interval in nanos";
-                nextFireTime += intervalInNanos;
+                intendedEpochMicros = startEpochMicros + TimeUnit.NANOSECONDS.toMicros(nextFireTime - startNanos);
+                nextFireTime += arrivalProcess.nextInterval();
+
+                if (scheduleCounter != null) {
+                    scheduleCounter.scheduled(intendedEpochMicros);
+                }
+            }
+
+            final long serviceStartEpochMicros = epochMicroClock.microTime();
+            final long sendTimeEpochMicros;
+            if (isOpenModel) {
+                /*
+                 * Stamps the message with the time it should have been sent according to the schedule, so
+                 * that any delay in sending it (ie.: the SUT was slow to accept a previous message) is
+                 * accounted for in the latency measured by the receiver
+                 */
+                sendTimeEpochMicros = intendedEpochMicros;
+            }
+            else {
+                sendTimeEpochMicros = serviceStartEpochMicros;
             }
 
-            final long sendTimeEpochMicros = epochMicroClock.microTime();
-            client.sendMessages(sendTimeEpochMicros, commitTransaction(count, opts, isSessionTransacted));
+            if (isAsyncSend) {
+                jmsSenderClient.sendMessagesAsync(sendTimeEpochMicros, serviceStartEpochMicros,
+                        commitTransaction(count, opts, isSessionTransacted));
 
-            count++;
-            //update message sent count
-            this.messageCount.lazySet(count);
+                count++;
+                submittedSends.count = count;
+            }
+            else {
+                client.sendMessages(sendTimeEpochMicros, commitTransaction(count, opts, isSessionTransacted));
+
+                count++;
+                //update message sent count
+                this.messageCount.lazySet(count);
+            }
+
+            if (isOpenModel && !isAsyncSend) {
+                recordServiceTime(serviceStartEpochMicros, epochMicroClock.microTime());
+            }
+        }
+
+        if (scheduleCounter != null) {
+            scheduleCounter.publish();
+        }
+
+        if (isAsyncSend) {
+            // The test is only complete (and its message count final) after the in-flight sends complete
+            awaitAsyncSends(jmsSenderClient);
+            jmsSenderClient.checkAsyncSendFailure();
+        }
+    }
+
+    private void awaitAsyncSends(final JMSSenderClient client) {
+        try {
+            if (!client.awaitAsyncSends(ASYNC_SEND_COMPLETION_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                logger.warn("JMS sender worker {} timed out waiting for the asynchronous sends to complete",
+                        Thread.currentThread().getId());
+            }
+        } catch (InterruptedException e) {
+            logger.warn("JMS sender worker {} interrupted while waiting for the asynchronous sends to complete",
+                    Thread.currentThread().getId());
+
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ArrivalProcess getArrivalProcess(long intervalInNanos) {
+        if (intervalInNanos <= 0) {
+            if (arrivalSpec != null && !ArrivalProcessFactory.DEFAULT_ARRIVAL_SPEC.equals(arrivalSpec)) {
+                logger.warn("The {} arrival process requires a bounded rate and will be ignored for this test",
+                        arrivalSpec);
+            }
+
+            return null;
+        }
+
+        logger.debug("JMS sender worker {} is using the {} arrival process", Thread.currentThread().getId(),
+                arrivalSpec);
+        return ArrivalProcessFactory.parse(arrivalSpec, this.rate);
+    }
+
+    private void recordServiceTime(long serviceStartEpochMicros, long nowInMicros) {
+        final long elapsedMicros = nowInMicros - serviceStartEpochMicros;
+
+        if (elapsedMicros >= 0) {
+            serviceTimeRecorder.recordValue(Math.min(elapsedMicros, HIGHEST_TRACKABLE_VALUE));
         }
     }
 
@@ -307,6 +520,11 @@ public class JMSSenderWorker implements MaestroSenderWorker {
         return intervalInNanos;
     }
 
+    @Override
+    public Histogram takeLatenciesSnapshot(Histogram intervalHistogram) {
+        return serviceTimeRecorder.getIntervalHistogram(intervalHistogram);
+    }
+
     @Override
     public boolean isRunning() {
         return workerStateInfo.isRunning() && !Thread.currentThread().isInterrupted();
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.jms;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reference counted connections shared by the JMS clients running on the same worker. The
+ * connections are created on the first acquisition and closed when the last client releases them.
+ */
+final class JMSSharedConnections {
+    private static final Logger logger = LoggerFactory.getLogger(JMSSharedConnections.class);
+
+    private static final class SharedConnection {
+        private final Connection connection;
+        private int references;
+
+        SharedConnection(final Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    private static final Map<String, SharedConnection> connections = new HashMap<>();
+
+    private JMSSharedConnections() {
+
+    }
+
+    /**
+     * Builds the key that identifies a shared connection
+     * @param opts the JMS options
+     * @param clientNumber the client number
+     * @return the key of the connection to be used by the given client
+     */
+    static String connectionKey(final JmsOptions opts, int clientNumber) {
+        final int connectionId = clientNumber % opts.getSharedConnections();
+
+        return opts.getProtocol().name() + ":" + opts.getConnectionUrl() + "#" + connectionId;
+    }
+
+    /**
+     * Acquires a shared (and started) connection, creating it if needed
+     * @param key the connection key
+     * @param factory the connection factory used to create the connection if it does not exist yet
+     * @return the shared connection
+     * @throws JMSException if unable to create or start the connection
+     */
+    static synchronized Connection acquire(final String key, final ConnectionFactory factory) throws JMSException {
+        SharedConnection sharedConnection = connections.get(key);
+
+        if (sharedConnection == null) {
+            logger.debug("Creating the shared connection {}", key);
+
+            final Connection connection = factory.createConnection();
+            try {
+                connection.start();
+            }
+            catch (JMSException | RuntimeException e) {
+                JMSResourceUtil.capturingClose(connection);
+                throw e;
+            }
+
+            sharedConnection = new SharedConnection(connection);
+            connections.put(key, sharedConnection);
+        }
+
+        sharedConnection.references++;
+        logger.debug("The shared connection {} is now used by {} clients", key, sharedConnection.references);
+
+        return sharedConnection.connection;
+    }
+
+    /**
+     * Releases a shared connection, closing it if it is no longer used by any client
+     * @param key the connection key
+     * @return the error closing the connection or null if none
+     */
+    static synchronized Throwable release(final String key) {
+        final SharedConnection sharedConnection = connections.get(key);
+
+        if (sharedConnection == null) {
+            logger.warn("Trying to release the shared connection {} which does not exist", key);
+            return null;
+        }
+
+        sharedConnection.references--;
+        if (sharedConnection.references > 0) {
+            return null;
+        }
+
+        logger.debug("Closing the shared connection {} as it is no longer used", key);
+        connections.remove(key);
+        return JMSResourceUtil.capturingClose(sharedConnection.connection);
+    }
+}
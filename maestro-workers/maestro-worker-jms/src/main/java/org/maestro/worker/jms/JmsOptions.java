@@ -59,13 +59,25 @@ class JmsOptions {
         maestroOptions.add("limitDestinations");
         maestroOptions.add("sessionMode");
         maestroOptions.add("batchAcknowledge");
+        maestroOptions.add("asyncSendWindow");
+        maestroOptions.add("reuseMessages");
+        maestroOptions.add("receiveBatchSize");
+        maestroOptions.add("asyncReceive");
+        maestroOptions.add("sharedConnections");
+        maestroOptions.add("openModel");
+        maestroOptions.add("arrivalProcess");
     }
 
     private boolean durable;
     private int sessionMode;
     private int priority;
     private int batchAcknowledge;
-
+    private int asyncSendWindow;
+    private boolean reuseMessages;
+    private int receiveBatchSize;
+    private boolean asyncReceive;
+    private int sharedConnections;
+    private boolean openModel;
 
 
     public JmsOptions(final String url) {
@@ -84,6 +96,12 @@ class JmsOptions {
             ttl = urlQuery.getLong("ttl", 0L);
             sessionMode = urlQuery.getInteger("sessionMode", Session.AUTO_ACKNOWLEDGE);
             batchAcknowledge = urlQuery.getInteger("batchAcknowledge", 0);
+            asyncSendWindow = urlQuery.getInteger("asyncSendWindow", 0);
+            reuseMessages = urlQuery.getBoolean("reuseMessages", false);
+            receiveBatchSize = urlQuery.getInteger("receiveBatchSize", 0);
+            asyncReceive = urlQuery.getBoolean("asyncReceive", false);
+            sharedConnections = urlQuery.getInteger("sharedConnections", 0);
+            openModel = urlQuery.getBoolean("openModel", false);
 
             connectionUrl = filterJMSURL(uri);
 
@@ -159,4 +177,28 @@ class JmsOptions {
     public int getBatchAcknowledge() {
         return batchAcknowledge;
     }
+
+    public int getAsyncSendWindow() {
+        return asyncSendWindow;
+    }
+
+    public boolean isReuseMessages() {
+        return reuseMessages;
+    }
+
+    public int getReceiveBatchSize() {
+        return receiveBatchSize;
+    }
+
+    public boolean isAsyncReceive() {
+        return asyncReceive;
+    }
+
+    public int getSharedConnections() {
+        return sharedConnections;
+    }
+
+    public boolean isOpenModel() {
+        return openModel;
+    }
 }
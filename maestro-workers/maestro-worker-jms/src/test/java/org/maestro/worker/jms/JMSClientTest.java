@@ -18,6 +18,9 @@ package org.maestro.worker.jms;
 
 import org.junit.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.junit.Assert.assertEquals;
 
 public class JMSClientTest {
@@ -47,4 +50,18 @@ public class JMSClientTest {
                     destinationName);
         }
     }
+
+    @Test
+    public void testSharedConnectionKeys() {
+        final JmsOptions opts = new JmsOptions("amqp://hostname:5672/test.unit.queue?sharedConnections=4");
+        final Set<String> keys = new HashSet<>();
+
+        for (int i = 0; i < 64; i++) {
+            keys.add(JMSSharedConnections.connectionKey(opts, i));
+        }
+
+        assertEquals("The clients should be spread across the shared connections", 4, keys.size());
+        assertEquals("Clients with the same connection id should share the connection",
+                JMSSharedConnections.connectionKey(opts, 1), JMSSharedConnections.connectionKey(opts, 5));
+    }
 }
@@ -20,6 +20,7 @@ import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class JMSOptionsTest {
 
@@ -109,4 +110,72 @@ public class JMSOptionsTest {
                 "amqps://hostname:5671?jms.username=user1&jms.password=pass1",
                 jmsOptions.getConnectionUrl());
     }
+
+    @Test
+    public void testAsyncSendWindow() {
+        final String url = "amqp://hostname:5672/test.performance.queue?durable=true&asyncSendWindow=256";
+        JmsOptions jmsOptions = new JmsOptions(url);
+
+        assertEquals("The async send window does not match the expected value", 256,
+                jmsOptions.getAsyncSendWindow());
+        assertEquals("The connection URL does not match the expected one",
+                "amqp://hostname:5672",
+                jmsOptions.getConnectionUrl());
+    }
+
+    @Test
+    public void testDefaultAsyncSendWindow() {
+        final String url = "amqp://hostname:5672/test.performance.queue";
+        JmsOptions jmsOptions = new JmsOptions(url);
+
+        assertEquals("The async send window should be disabled by default", 0,
+                jmsOptions.getAsyncSendWindow());
+        assertFalse("Message reuse should be disabled by default", jmsOptions.isReuseMessages());
+    }
+
+    @Test
+    public void testReuseMessages() {
+        final String url = "amqp://hostname:5672/test.performance.queue?reuseMessages=true&jms.username=user1";
+        JmsOptions jmsOptions = new JmsOptions(url);
+
+        assertTrue("Message reuse should be enabled", jmsOptions.isReuseMessages());
+        assertEquals("The connection URL does not match the expected one",
+                "amqp://hostname:5672?jms.username=user1",
+                jmsOptions.getConnectionUrl());
+    }
+
+    @Test
+    public void testReceiveOptions() {
+        final String url = "amqp://hostname:5672/test.performance.queue?receiveBatchSize=64&asyncReceive=true";
+        JmsOptions jmsOptions = new JmsOptions(url);
+
+        assertEquals("The receive batch size does not match the expected value", 64,
+                jmsOptions.getReceiveBatchSize());
+        assertTrue("Asynchronous receive should be enabled", jmsOptions.isAsyncReceive());
+        assertEquals("The connection URL does not match the expected one",
+                "amqp://hostname:5672",
+                jmsOptions.getConnectionUrl());
+    }
+
+    @Test
+    public void testDefaultReceiveOptions() {
+        final String url = "amqp://hostname:5672/test.performance.queue";
+        JmsOptions jmsOptions = new JmsOptions(url);
+
+        assertEquals("Batched receives should be disabled by default", 0,
+                jmsOptions.getReceiveBatchSize());
+        assertFalse("Asynchronous receive should be disabled by default", jmsOptions.isAsyncReceive());
+    }
+
+    @Test
+    public void testOpenModel() {
+        final String url = "amqp://hostname:5672/test.performance.queue?protocol=AMQP&openModel=true";
+        JmsOptions jmsOptions = new JmsOptions(url);
+
+        assertTrue("The open model should be enabled", jmsOptions.isOpenModel());
+        assertEquals("The open model option should not be passed to the client",
+                "amqp://hostname:5672", jmsOptions.getConnectionUrl());
+        assertFalse("The open model should be disabled by default",
+                new JmsOptions("amqp://hostname:5672/test.performance.queue").isOpenModel());
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.worker.jms;
+
+import org.junit.Test;
+import org.maestro.common.content.ContentStrategy;
+import org.maestro.common.worker.WorkerOptions;
+import org.maestro.common.worker.WorkerStateInfo;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class JMSReceiverWorkerTest {
+    private static final String URL = "amqp://localhost:5672/test.unit.queue?sharedConnections=1";
+
+    private static byte[] payload() {
+        final long sendTime = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+
+        return ByteBuffer.allocate(Long.BYTES).order(ContentStrategy.CONTENT_ENDIANNESS)
+                .putLong(0, sendTime).array();
+    }
+
+    private static JMSReceiverWorker newWorker(final String url, final String duration) {
+        final JMSReceiverWorker worker = new JMSReceiverWorker();
+        final WorkerOptions workerOptions = new WorkerOptions();
+
+        workerOptions.setBrokerURL(url);
+        workerOptions.setDuration(duration);
+        worker.setWorkerOptions(workerOptions);
+        worker.setupBarriers(new CountDownLatch(1), new CountDownLatch(1));
+
+        return worker;
+    }
+
+    @Test
+    public void testBatchReceiveStopsAtCount() throws Exception {
+        final String url = URL + "&receiveBatchSize=4";
+
+        try (MockJMS mock = new MockJMS(url)) {
+            for (int i = 0; i < 15; i++) {
+                mock.enqueue(payload());
+            }
+
+            final JMSReceiverWorker worker = newWorker(url, "10");
+
+            worker.start();
+
+            // Batches of 4, 4 and then only the 2 messages remaining to reach the count
+            assertEquals("The worker should receive exactly the message count", 10, worker.messageCount());
+            assertEquals("The messages beyond the count should not be received", 5, mock.getPendingMessages());
+            assertEquals(WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_SUCCESS,
+                    worker.getWorkerState().getExitStatus());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testListenerStopsAtCount() throws Exception {
+        final String url = URL + "&asyncReceive=true";
+
+        try (MockJMS mock = new MockJMS(url)) {
+            for (int i = 0; i < 15; i++) {
+                mock.enqueue(payload());
+            }
+
+            final JMSReceiverWorker worker = newWorker(url, "10");
+
+            worker.start();
+
+            // The listener is detached as soon as it reaches the count
+            assertEquals("The worker should receive exactly the message count", 10, worker.messageCount());
+            assertEquals("The messages beyond the count should not be received", 5, mock.getPendingMessages());
+            assertEquals(WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_SUCCESS,
+                    worker.getWorkerState().getExitStatus());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.worker.jms;
+
+import org.junit.After;
+import org.junit.Test;
+import org.maestro.common.content.ContentStrategy;
+import org.maestro.common.content.ContentStrategyFactory;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class JMSSenderClientTest {
+    private static final String URL = "amqp://localhost:5672/test.unit.queue?sharedConnections=1&reuseMessages=true";
+    private static final int SIZE = 64;
+    private static final int SENDS = 10;
+    private static final long START = 1_500_000_000_000_000L;
+
+    private JMSSenderClient client;
+
+    private MockJMS start(final String url) throws Exception {
+        final MockJMS mock = new MockJMS(url);
+
+        client = new JMSSenderClient();
+        client.setUrl(url);
+        client.setContentStrategy(ContentStrategyFactory.parse(String.valueOf(SIZE)));
+        client.start();
+
+        return mock;
+    }
+
+    @After
+    public void tearDown() {
+        if (client != null) {
+            client.stop();
+        }
+    }
+
+    private static void assertPayloads(final List<byte[]> payloads) {
+        assertEquals(SENDS, payloads.size());
+
+        for (int i = 0; i < SENDS; i++) {
+            final ByteBuffer payload = ByteBuffer.wrap(payloads.get(i)).order(ContentStrategy.CONTENT_ENDIANNESS);
+
+            assertEquals("The payload size does not match", SIZE, payload.remaining());
+            assertEquals("The send time does not match", START + i, payload.getLong(0));
+
+            for (int j = Long.BYTES; j < SIZE; j++) {
+                assertEquals("The content does not match at " + j, (byte) j, payload.get(j));
+            }
+        }
+    }
+
+    @Test
+    public void testReuseMessageOnSyncSends() throws Exception {
+        try (MockJMS mock = start(URL)) {
+            for (int i = 0; i < SENDS; i++) {
+                client.sendMessages(START + i, false);
+            }
+
+            assertEquals("A single message should be created for all the sends", 1, mock.getCreatedMessages());
+            assertPayloads(mock.getSentPayloads());
+        }
+    }
+
+    @Test
+    public void testReuseMessageOnAsyncSends() throws Exception {
+        try (MockJMS mock = start(URL + "&asyncSendWindow=4")) {
+            for (int i = 0; i < SENDS; i++) {
+                client.sendMessagesAsync(START + i, START + i, false);
+            }
+
+            // The sends complete immediately, so the message is back on the pool before the next send
+            assertEquals("A single message should be created for all the sends", 1, mock.getCreatedMessages());
+            assertPayloads(mock.getSentPayloads());
+        }
+    }
+
+    @Test
+    public void testNewMessagePerSendWithoutReuse() throws Exception {
+        try (MockJMS mock = start(URL.replace("reuseMessages=true", "reuseMessages=false"))) {
+            for (int i = 0; i < SENDS; i++) {
+                client.sendMessages(START + i, false);
+            }
+
+            assertEquals(SENDS, mock.getCreatedMessages());
+            assertPayloads(mock.getSentPayloads());
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.maestro.worker.jms;
+
+import javax.jms.*;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal in-memory JMS provider for the client tests, built on dynamic proxies. The connection is
+ * handed to the clients through a shared connection (see {@link JMSSharedConnections}), so they must
+ * use sharedConnections=1 on their URL.
+ */
+class MockJMS implements AutoCloseable {
+    private final String key;
+
+    private int createdMessages;
+    private final Map<Message, ByteArrayOutputStream> bodies = new IdentityHashMap<>();
+    private final List<byte[]> sentPayloads = new ArrayList<>();
+    private final Deque<byte[]> pendingPayloads = new ArrayDeque<>();
+
+    /**
+     * Registers the mock connection for the clients using the given URL
+     * @param url the client URL
+     * @throws JMSException never (the connection is created by the mock)
+     */
+    MockJMS(final String url) throws JMSException {
+        this.key = JMSSharedConnections.connectionKey(new JmsOptions(url), -1);
+
+        final Connection connection = proxy(Connection.class, (method, args) -> {
+            if (method.equals("createSession")) {
+                return newSession();
+            }
+
+            return null;
+        });
+
+        JMSSharedConnections.acquire(key, proxy(ConnectionFactory.class, (method, args) -> {
+            if (method.equals("createConnection")) {
+                return connection;
+            }
+
+            return null;
+        }));
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(final Class<T> type, final Handler handler) {
+        return (T) Proxy.newProxyInstance(MockJMS.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    final Object ret = handler.invoke(method.getName(), args);
+
+                    if (ret == null && method.getReturnType() == boolean.class) {
+                        return false;
+                    }
+
+                    if (ret == null && method.getReturnType().isPrimitive() && method.getReturnType() != void.class) {
+                        return 0;
+                    }
+
+                    return ret;
+                });
+    }
+
+    private Session newSession() {
+        return proxy(Session.class, (method, args) -> {
+            switch (method) {
+                case "createProducer":
+                    return newProducer();
+                case "createConsumer":
+                    return newConsumer();
+                case "createBytesMessage":
+                    return newBytesMessage();
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private MessageProducer newProducer() {
+        return proxy(MessageProducer.class, (method, args) -> {
+            if (method.equals("send")) {
+                final Message message = (Message) args[0];
+
+                sentPayloads.add(bodies.get(message).toByteArray());
+                if (args.length == 2 && args[1] instanceof CompletionListener) {
+                    ((CompletionListener) args[1]).onCompletion(message);
+                }
+            }
+
+            return null;
+        });
+    }
+
+    /*
+     * The consumers deliver the messages already available to their listeners as soon as they are set,
+     * on the calling thread, and stop once the listener is detached
+     */
+    private MessageConsumer newConsumer() {
+        final MessageListener[] listener = new MessageListener[1];
+
+        return proxy(MessageConsumer.class, (method, args) -> {
+            switch (method) {
+                case "receive":
+                case "receiveNoWait": {
+                    final byte[] payload = pendingPayloads.poll();
+
+                    return payload == null ? null : newReceivedMessage(payload);
+                }
+                case "setMessageListener": {
+                    listener[0] = (MessageListener) args[0];
+
+                    while (listener[0] != null && !pendingPayloads.isEmpty()) {
+                        listener[0].onMessage(newReceivedMessage(pendingPayloads.poll()));
+                    }
+
+                    return null;
+                }
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static BytesMessage newReceivedMessage(final byte[] payload) {
+        final ByteBuffer body = ByteBuffer.wrap(payload);
+
+        return proxy(BytesMessage.class, (method, args) -> {
+            if (method.equals("readBytes")) {
+                final byte[] value = (byte[]) args[0];
+                final int length = Math.min(args.length == 1 ? value.length : (Integer) args[1], body.remaining());
+
+                if (length == 0) {
+                    return -1;
+                }
+
+                body.get(value, 0, length);
+                return length;
+            }
+
+            return null;
+        });
+    }
+
+    private BytesMessage newBytesMessage() {
+        createdMessages++;
+
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final BytesMessage message = proxy(BytesMessage.class, (method, args) -> {
+            switch (method) {
+                case "writeBytes":
+                    if (args.length == 1) {
+                        body.write((byte[]) args[0]);
+                    }
+                    else {
+                        body.write((byte[]) args[0], (Integer) args[1], (Integer) args[2]);
+                    }
+                    return null;
+                case "clearBody":
+                    body.reset();
+                    return null;
+                default:
+                    return null;
+            }
+        });
+
+        bodies.put(message, body);
+        return message;
+    }
+
+    /**
+     * The number of messages created through the sessions
+     * @return the number of messages
+     */
+    int getCreatedMessages() {
+        return createdMessages;
+    }
+
+    /**
+     * The body of each message sent, as it was when sent
+     * @return the message bodies
+     */
+    List<byte[]> getSentPayloads() {
+        return sentPayloads;
+    }
+
+    /**
+     * Makes a message available to the consumers
+     * @param payload the message body
+     */
+    void enqueue(final byte[] payload) {
+        pendingPayloads.add(payload);
+    }
+
+    /**
+     * The number of messages not received by any consumer yet
+     * @return the number of messages
+     */
+    int getPendingMessages() {
+        return pendingPayloads.size();
+    }
+
+    @Override
+    public void close() {
+        JMSSharedConnections.release(key);
+    }
+}